@@ -22,3 +22,10 @@
  * THE SOFTWARE.
  */
 
+
+val processorSourceSet: SourceSet = the<SourceSetContainer>().create("processor")
+
+dependencies {
+  // generates the descriptors of all requests provided by the core
+  "annotationProcessor"(processorSourceSet.output)
+}
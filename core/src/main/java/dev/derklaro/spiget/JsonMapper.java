@@ -27,10 +27,16 @@
 import java.io.InputStream;
 import java.lang.reflect.Type;
 import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
 
 public interface JsonMapper {
 
   @NonNull <T> String encode(@NonNull T data);
 
   @NonNull <T> T decode(@NonNull InputStream stream, @NonNull Type type);
+
+  // transports use this to parse the body while it is received, null if the mapper can only decode full documents
+  default @Nullable <T> IncrementalJsonDecoder<T> incrementalDecoder(@NonNull Type type) {
+    return null;
+  }
 }
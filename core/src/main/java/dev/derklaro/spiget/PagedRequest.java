@@ -0,0 +1,47 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget;
+
+import dev.derklaro.spiget.paging.Page;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import lombok.NonNull;
+
+// a list request which selects the returned items using a page size and a page number
+public interface PagedRequest<T> {
+
+  int size();
+
+  @NonNull PagedRequest<T> size(int size);
+
+  int page();
+
+  @NonNull PagedRequest<T> page(int page);
+
+  @NonNull CompletableFuture<? extends Collection<T>> exec();
+
+  // executes the request and returns the items together with the pagination info sent by the server
+  @NonNull CompletableFuture<Page<T>> execPage();
+}
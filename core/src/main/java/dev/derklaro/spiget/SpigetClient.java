@@ -24,7 +24,9 @@
 
 package dev.derklaro.spiget;
 
+import dev.derklaro.spiget.paging.Page;
 import java.io.InputStream;
+import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
 import lombok.NonNull;
 
@@ -32,6 +34,10 @@ public interface SpigetClient {
 
   @NonNull <T> CompletableFuture<T> sendRequest(@NonNull Request<T> request, @NonNull Object... uriParams);
 
+  @NonNull <T> CompletableFuture<Page<T>> sendPagedRequest(
+    @NonNull Request<? extends Collection<T>> request,
+    @NonNull Object... uriParams);
+
   @NonNull <T> CompletableFuture<T> sendRequestAsBody(@NonNull Request<T> request, @NonNull Object... uriParams);
 
   @NonNull CompletableFuture<Void> sendRequestWithoutResponse(
@@ -24,10 +24,25 @@
 
 package dev.derklaro.spiget;
 
+import dev.derklaro.spiget.cache.ResponseCache;
+import dev.derklaro.spiget.client.AbstractSpigetClient;
+import dev.derklaro.spiget.client.SpigetExecutors;
+import dev.derklaro.spiget.event.EventListener;
+import dev.derklaro.spiget.metrics.SpigetMetrics;
+import dev.derklaro.spiget.resilience.CircuitBreakerConfig;
+import dev.derklaro.spiget.resilience.ConcurrencyLimitConfig;
+import dev.derklaro.spiget.resilience.HedgingPolicy;
+import dev.derklaro.spiget.resilience.RateLimiter;
+import dev.derklaro.spiget.resilience.RetryPolicy;
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
 import lombok.Data;
 import lombok.NonNull;
 import lombok.experimental.Accessors;
+import org.jetbrains.annotations.Nullable;
 
 @NonNull
 @Data(staticConstructor = "create")
@@ -36,7 +51,37 @@ public final class SpigetClientConfig {
 
   private final JsonMapper jsonMapper;
 
+  private String baseUrl = AbstractSpigetClient.BASE_URL;
   private String userAgent = "derklaro/java-spiget-client";
   private Duration requestTimeout = Duration.ofSeconds(25);
   private Duration connectTimeout = Duration.ofSeconds(10);
+
+  private boolean coalesceRequests = false;
+  // asks for gzip or deflate compressed responses and decompresses them before they are decoded
+  private boolean compression = true;
+
+  @Nullable
+  private ResponseCache responseCache;
+  private Map<Class<?>, Duration> cacheTtls = new HashMap<>();
+
+  @Nullable
+  private RateLimiter rateLimiter;
+  @Nullable
+  private RetryPolicy retryPolicy;
+  @Nullable
+  private CircuitBreakerConfig circuitBreaker;
+  @Nullable
+  private HedgingPolicy hedgingPolicy;
+  @Nullable
+  private ConcurrencyLimitConfig concurrencyLimit;
+
+  @Nullable
+  private SpigetMetrics metrics;
+  @Nullable
+  private EventListener.Factory eventListenerFactory;
+
+  // blocking transports execute the http requests on the io executor, responses are decoded on the decode executor
+  private Executor ioExecutor = SpigetExecutors.sharedIoExecutor();
+  private Executor decodeExecutor = SpigetExecutors.sharedDecodeExecutor();
+  private ScheduledExecutorService scheduler = SpigetExecutors.sharedScheduler();
 }
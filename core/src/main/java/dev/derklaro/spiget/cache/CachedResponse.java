@@ -0,0 +1,81 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.cache;
+
+import lombok.Data;
+import lombok.NonNull;
+import lombok.experimental.Accessors;
+import org.jetbrains.annotations.Nullable;
+
+@Data(staticConstructor = "of")
+@Accessors(fluent = true)
+public final class CachedResponse {
+
+  public static final long NEVER_EXPIRES = Long.MAX_VALUE;
+
+  private final byte[] body;
+  private final long expiresAt;
+
+  // validators to revalidate the response once it expired
+  @Nullable
+  private final String etag;
+  @Nullable
+  private final String lastModified;
+
+  public static @NonNull CachedResponse withTtl(@NonNull byte[] body, long ttlMillis) {
+    return withTtl(body, ttlMillis, null, null);
+  }
+
+  public static @NonNull CachedResponse withTtl(
+    @NonNull byte[] body,
+    long ttlMillis,
+    @Nullable String etag,
+    @Nullable String lastModified
+  ) {
+    long now = System.currentTimeMillis();
+    // prevent an overflow for very long ttls
+    long expiresAt = ttlMillis >= NEVER_EXPIRES - now ? NEVER_EXPIRES : now + ttlMillis;
+    return new CachedResponse(body, expiresAt, etag, lastModified);
+  }
+
+  public boolean expired(long now) {
+    return now >= this.expiresAt;
+  }
+
+  public boolean revalidatable() {
+    return this.etag != null || this.lastModified != null;
+  }
+
+  public int weight() {
+    int weight = this.body.length;
+    if (this.etag != null) {
+      weight += this.etag.length();
+    }
+    if (this.lastModified != null) {
+      weight += this.lastModified.length();
+    }
+    return weight;
+  }
+}
@@ -0,0 +1,521 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+public final class DiskResponseCache implements ResponseCache, Closeable {
+
+  private static final String SEGMENT_SUFFIX = ".segment";
+
+  // record layout: magic, key length, expiration, etag length, last modified length, body length
+  private static final int RECORD_MAGIC = 0x53504754;
+  private static final int RECORD_HEADER_SIZE = 4 + 4 + 8 + 4 + 4 + 4;
+  private static final int ABSENT = -1;
+
+  private final Path directory;
+  private final int segmentSize;
+  private final int maxSegments;
+
+  private final ConcurrentMap<String, IndexEntry> index = new ConcurrentHashMap<>();
+
+  private final ReentrantLock writeLock = new ReentrantLock();
+  private final Deque<Segment> segments = new ArrayDeque<>();
+  private Segment activeSegment;
+  private boolean closed;
+
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder evictionCount = new LongAdder();
+  private final LongAdder expirationCount = new LongAdder();
+
+  private DiskResponseCache(@NonNull Path directory, int segmentSize, int maxSegments) {
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.maxSegments = maxSegments;
+  }
+
+  public static @NonNull DiskResponseCache open(@NonNull Path directory, int segmentSize, int maxSegments) {
+    if (segmentSize <= RECORD_HEADER_SIZE || maxSegments <= 0) {
+      throw new IllegalArgumentException("segmentSize and maxSegments are too small");
+    }
+
+    DiskResponseCache cache = new DiskResponseCache(directory, segmentSize, maxSegments);
+    try {
+      Files.createDirectories(directory);
+      cache.loadSegments();
+    } catch (IOException exception) {
+      throw new UncheckedIOException("Unable to open disk cache in " + directory, exception);
+    }
+    return cache;
+  }
+
+  @Override
+  public @Nullable CachedResponse get(@NonNull String key) {
+    IndexEntry entry = this.index.get(key);
+    if (entry == null) {
+      this.missCount.increment();
+      return null;
+    }
+
+    long now = System.currentTimeMillis();
+    boolean expired = now >= entry.expiresAt;
+    if (expired && entry.etag == null && entry.lastModified == null) {
+      // the entry expired and cannot be revalidated, remove it
+      if (this.index.remove(key, entry)) {
+        this.expirationCount.increment();
+      }
+      this.missCount.increment();
+      return null;
+    }
+
+    // the segment might have been evicted and unmapped in the meantime
+    Segment segment = entry.segment;
+    if (!segment.retain()) {
+      this.missCount.increment();
+      return null;
+    }
+
+    byte[] body;
+    try {
+      body = segment.read(entry.bodyOffset, entry.bodyLength);
+    } finally {
+      segment.release();
+    }
+
+    // expired responses are returned as well if they can be revalidated
+    if (expired) {
+      this.missCount.increment();
+    } else {
+      this.hitCount.increment();
+    }
+    return CachedResponse.of(body, entry.expiresAt, entry.etag, entry.lastModified);
+  }
+
+  @Override
+  public void put(@NonNull String key, @NonNull CachedResponse response) {
+    byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+    byte[] etagBytes = encodeNullable(response.etag());
+    byte[] lastModifiedBytes = encodeNullable(response.lastModified());
+
+    int recordSize = RECORD_HEADER_SIZE + keyBytes.length + response.body().length
+      + (etagBytes == null ? 0 : etagBytes.length)
+      + (lastModifiedBytes == null ? 0 : lastModifiedBytes.length);
+    if (recordSize > this.segmentSize) {
+      // the record would never fit into a segment, prevent that an old version is served
+      this.invalidate(key);
+      return;
+    }
+
+    this.writeLock.lock();
+    try {
+      if (this.closed) {
+        return;
+      }
+
+      Segment segment = this.segmentWithSpace(recordSize);
+      int bodyOffset = segment.append(
+        keyBytes,
+        response.expiresAt(),
+        etagBytes,
+        lastModifiedBytes,
+        response.body());
+      this.index.put(key, new IndexEntry(
+        segment,
+        bodyOffset,
+        response.body().length,
+        response.expiresAt(),
+        response.etag(),
+        response.lastModified()));
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    } finally {
+      this.writeLock.unlock();
+    }
+  }
+
+  @Override
+  public void invalidate(@NonNull String key) {
+    this.writeLock.lock();
+    try {
+      if (this.index.remove(key) != null && !this.closed) {
+        // write a tombstone to prevent that the entry is loaded again after a restart
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        this.segmentWithSpace(RECORD_HEADER_SIZE + keyBytes.length).append(keyBytes, 0, null, null, null);
+      }
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    } finally {
+      this.writeLock.unlock();
+    }
+  }
+
+  @Override
+  public void invalidateAll() {
+    this.writeLock.lock();
+    try {
+      this.index.clear();
+      if (this.closed) {
+        return;
+      }
+
+      while (!this.segments.isEmpty()) {
+        this.segments.pollFirst().delete();
+      }
+      this.activeSegment = this.createSegment(0);
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    } finally {
+      this.writeLock.unlock();
+    }
+  }
+
+  @Override
+  public @NonNull CacheStats stats() {
+    long weight = 0;
+    this.writeLock.lock();
+    try {
+      for (Segment segment : this.segments) {
+        weight += segment.writePosition;
+      }
+    } finally {
+      this.writeLock.unlock();
+    }
+
+    return new CacheStats(
+      this.hitCount.sum(),
+      this.missCount.sum(),
+      this.evictionCount.sum(),
+      this.expirationCount.sum(),
+      this.index.size(),
+      weight);
+  }
+
+  // unmaps all segments, the cache only reports misses afterwards
+  @Override
+  public void close() {
+    this.writeLock.lock();
+    try {
+      if (this.closed) {
+        return;
+      }
+
+      this.closed = true;
+      this.index.clear();
+      while (!this.segments.isEmpty()) {
+        Segment segment = this.segments.pollFirst();
+        segment.buffer.force();
+        segment.release();
+      }
+      this.activeSegment = null;
+    } finally {
+      this.writeLock.unlock();
+    }
+  }
+
+  private void loadSegments() throws IOException {
+    // collect and sort all existing segments by their id
+    List<Path> segmentFiles = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory, "*" + SEGMENT_SUFFIX)) {
+      stream.forEach(segmentFiles::add);
+    }
+    segmentFiles.sort((left, right) -> Long.compare(segmentId(left), segmentId(right)));
+
+    // replay all records in the order they were written
+    for (Path segmentFile : segmentFiles) {
+      Segment segment = this.mapSegment(segmentFile, segmentId(segmentFile), (int) Files.size(segmentFile));
+      this.replay(segment);
+      this.segments.addLast(segment);
+    }
+
+    // drop the oldest segments in case the max segment count was reduced
+    while (this.segments.size() > this.maxSegments) {
+      this.dropOldestSegment();
+    }
+
+    // continue writing into the last segment if possible
+    Segment last = this.segments.peekLast();
+    if (last != null && last.buffer.capacity() == this.segmentSize) {
+      this.activeSegment = last;
+    } else {
+      this.activeSegment = this.createSegment(last == null ? 0 : last.id + 1);
+    }
+  }
+
+  private void replay(@NonNull Segment segment) {
+    ByteBuffer buffer = segment.buffer.duplicate();
+    long now = System.currentTimeMillis();
+
+    int position = 0;
+    while (position + RECORD_HEADER_SIZE <= buffer.capacity() && buffer.getInt(position) == RECORD_MAGIC) {
+      buffer.position(position + 4);
+      int keyLength = buffer.getInt();
+      long expiresAt = buffer.getLong();
+      int etagLength = buffer.getInt();
+      int lastModifiedLength = buffer.getInt();
+      int bodyLength = buffer.getInt();
+
+      // validate that the record is complete, a corrupted record marks the end of the log
+      if (keyLength < 0 || etagLength < ABSENT || lastModifiedLength < ABSENT || bodyLength < ABSENT) {
+        break;
+      }
+      long recordEnd = (long) buffer.position() + keyLength + Math.max(0, etagLength)
+        + Math.max(0, lastModifiedLength) + Math.max(0, bodyLength);
+      if (recordEnd > buffer.capacity()) {
+        break;
+      }
+
+      String key = readString(buffer, keyLength);
+      String etag = readString(buffer, etagLength);
+      String lastModified = readString(buffer, lastModifiedLength);
+
+      if (bodyLength == ABSENT) {
+        // tombstone
+        this.index.remove(key);
+      } else if (now < expiresAt || etag != null || lastModified != null) {
+        // only load entries which are fresh or can be revalidated
+        this.index.put(key, new IndexEntry(segment, buffer.position(), bodyLength, expiresAt, etag, lastModified));
+      } else {
+        this.index.remove(key);
+      }
+
+      position = (int) recordEnd;
+    }
+
+    segment.writePosition = position;
+  }
+
+  private @NonNull Segment segmentWithSpace(int recordSize) throws IOException {
+    if (this.activeSegment.writePosition + recordSize > this.activeSegment.buffer.capacity()) {
+      // persist the full segment and roll over to a new one
+      this.activeSegment.buffer.force();
+      this.activeSegment = this.createSegment(this.activeSegment.id + 1);
+
+      // evict the oldest segments, this is what keeps the cache bounded
+      while (this.segments.size() > this.maxSegments) {
+        this.dropOldestSegment();
+      }
+    }
+    return this.activeSegment;
+  }
+
+  private @NonNull Segment createSegment(long id) throws IOException {
+    Path path = this.directory.resolve(String.format("%019d%s", id, SEGMENT_SUFFIX));
+    Segment segment = this.mapSegment(path, id, this.segmentSize);
+    this.segments.addLast(segment);
+    return segment;
+  }
+
+  private @NonNull Segment mapSegment(@NonNull Path path, long id, int size) throws IOException {
+    try (FileChannel channel = FileChannel.open(
+      path,
+      StandardOpenOption.CREATE,
+      StandardOpenOption.READ,
+      StandardOpenOption.WRITE)
+    ) {
+      // the mapping stays valid after the channel was closed
+      return new Segment(id, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+    }
+  }
+
+  private void dropOldestSegment() {
+    Segment oldest = this.segments.pollFirst();
+    if (oldest != null) {
+      for (Map.Entry<String, IndexEntry> entry : this.index.entrySet()) {
+        if (entry.getValue().segment == oldest && this.index.remove(entry.getKey(), entry.getValue())) {
+          this.evictionCount.increment();
+        }
+      }
+      oldest.delete();
+    }
+  }
+
+  private static long segmentId(@NonNull Path path) {
+    String fileName = path.getFileName().toString();
+    try {
+      return Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length()));
+    } catch (NumberFormatException exception) {
+      return -1;
+    }
+  }
+
+  private static @Nullable byte[] encodeNullable(@Nullable String value) {
+    return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static @Nullable String readString(@NonNull ByteBuffer buffer, int length) {
+    if (length == ABSENT) {
+      return null;
+    }
+
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static final class Segment {
+
+    private final long id;
+    private final Path path;
+    private final MappedByteBuffer buffer;
+
+    // the cache owns one reference, readers hold another one while copying a body
+    private final AtomicInteger references = new AtomicInteger(1);
+    private volatile boolean deleteOnRelease;
+
+    // only modified while holding the write lock
+    private volatile int writePosition;
+
+    private Segment(long id, @NonNull Path path, @NonNull MappedByteBuffer buffer) {
+      this.id = id;
+      this.path = path;
+      this.buffer = buffer;
+    }
+
+    public int append(
+      @NonNull byte[] key,
+      long expiresAt,
+      @Nullable byte[] etag,
+      @Nullable byte[] lastModified,
+      @Nullable byte[] body
+    ) {
+      int recordStart = this.writePosition;
+
+      // the position of the original buffer is never changed, which makes concurrent duplicates safe
+      ByteBuffer target = this.buffer.duplicate();
+      target.position(recordStart);
+      target.putInt(0); // the magic is written last to mark the record as complete
+      target.putInt(key.length);
+      target.putLong(expiresAt);
+      target.putInt(etag == null ? ABSENT : etag.length);
+      target.putInt(lastModified == null ? ABSENT : lastModified.length);
+      target.putInt(body == null ? ABSENT : body.length);
+      target.put(key);
+      if (etag != null) {
+        target.put(etag);
+      }
+      if (lastModified != null) {
+        target.put(lastModified);
+      }
+
+      int bodyOffset = target.position();
+      if (body != null) {
+        target.put(body);
+      }
+
+      this.buffer.putInt(recordStart, RECORD_MAGIC);
+      this.writePosition = target.position();
+      return bodyOffset;
+    }
+
+    public boolean retain() {
+      int references;
+      do {
+        references = this.references.get();
+        if (references == 0) {
+          return false;
+        }
+      } while (!this.references.compareAndSet(references, references + 1));
+      return true;
+    }
+
+    public void release() {
+      if (this.references.decrementAndGet() == 0) {
+        // the mapping would otherwise stay open until the buffer is garbage collected, which prevents deleting the file
+        // on windows
+        BufferUnmapper.unmap(this.buffer);
+        if (this.deleteOnRelease) {
+          try {
+            Files.deleteIfExists(this.path);
+          } catch (IOException ignored) {
+          }
+        }
+      }
+    }
+
+    // deletes the segment file once the last reader released the segment
+    public void delete() {
+      this.deleteOnRelease = true;
+      this.release();
+    }
+
+    public @NonNull byte[] read(int offset, int length) {
+      ByteBuffer source = this.buffer.duplicate();
+      source.position(offset);
+
+      byte[] data = new byte[length];
+      source.get(data);
+      return data;
+    }
+  }
+
+  private static final class IndexEntry {
+
+    private final Segment segment;
+    private final int bodyOffset;
+    private final int bodyLength;
+    private final long expiresAt;
+    private final String etag;
+    private final String lastModified;
+
+    private IndexEntry(
+      @NonNull Segment segment,
+      int bodyOffset,
+      int bodyLength,
+      long expiresAt,
+      @Nullable String etag,
+      @Nullable String lastModified
+    ) {
+      this.segment = segment;
+      this.bodyOffset = bodyOffset;
+      this.bodyLength = bodyLength;
+      this.expiresAt = expiresAt;
+      this.etag = etag;
+      this.lastModified = lastModified;
+    }
+  }
+}
@@ -0,0 +1,252 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+public final class InMemoryResponseCache implements ResponseCache {
+
+  private static final int MAX_SEGMENTS = 16;
+
+  private final long maxWeight;
+  private final Segment[] segments;
+  private final int segmentMask;
+
+  // the weight is bounded for the whole cache, a single entry may use up to maxWeight
+  private final AtomicLong weight = new AtomicLong();
+
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder evictionCount = new LongAdder();
+  private final LongAdder expirationCount = new LongAdder();
+
+  private InMemoryResponseCache(int maxEntries, long maxWeight) {
+    // use less segments for small caches, each segment should hold at least a few entries
+    int segmentCount = 1;
+    while (segmentCount < MAX_SEGMENTS && segmentCount * 8 <= maxEntries) {
+      segmentCount <<= 1;
+    }
+
+    this.maxWeight = maxWeight;
+    this.segmentMask = segmentCount - 1;
+    this.segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      this.segments[i] = new Segment(Math.max(1, maxEntries / segmentCount));
+    }
+  }
+
+  public static @NonNull InMemoryResponseCache create(int maxEntries, long maxWeight) {
+    if (maxEntries <= 0 || maxWeight <= 0) {
+      throw new IllegalArgumentException("maxEntries and maxWeight must be positive");
+    }
+    return new InMemoryResponseCache(maxEntries, maxWeight);
+  }
+
+  @Override
+  public @Nullable CachedResponse get(@NonNull String key) {
+    // expired responses are returned as well if they can be revalidated
+    CachedResponse response = this.segmentFor(key).get(key);
+    if (response == null || response.expired(System.currentTimeMillis())) {
+      this.missCount.increment();
+    } else {
+      this.hitCount.increment();
+    }
+    return response;
+  }
+
+  @Override
+  public void put(@NonNull String key, @NonNull CachedResponse response) {
+    int segmentIndex = this.segmentIndex(key);
+    Segment segment = this.segments[segmentIndex];
+
+    // never cache entries which would evict the whole cache
+    if (response.weight() > this.maxWeight) {
+      segment.remove(key);
+      return;
+    }
+
+    segment.put(key, response);
+    this.evictToMaxWeight(segmentIndex, response);
+  }
+
+  @Override
+  public void invalidate(@NonNull String key) {
+    this.segmentFor(key).remove(key);
+  }
+
+  @Override
+  public void invalidateAll() {
+    for (Segment segment : this.segments) {
+      segment.clear();
+    }
+  }
+
+  @Override
+  public @NonNull CacheStats stats() {
+    long entryCount = 0;
+    for (Segment segment : this.segments) {
+      entryCount += segment.entryCount();
+    }
+
+    return new CacheStats(
+      this.hitCount.sum(),
+      this.missCount.sum(),
+      this.evictionCount.sum(),
+      this.expirationCount.sum(),
+      entryCount,
+      this.weight.get());
+  }
+
+  private void evictToMaxWeight(int segmentIndex, @NonNull CachedResponse added) {
+    // evict from the segment of the new entry first, then from the following segments
+    for (int i = 0; i < this.segments.length && this.weight.get() > this.maxWeight; i++) {
+      Segment segment = this.segments[(segmentIndex + i) & this.segmentMask];
+      while (this.weight.get() > this.maxWeight && segment.evictEldest(added)) {
+        this.evictionCount.increment();
+      }
+    }
+  }
+
+  private @NonNull Segment segmentFor(@NonNull String key) {
+    return this.segments[this.segmentIndex(key)];
+  }
+
+  private int segmentIndex(@NonNull String key) {
+    // spread the hash bits, same as ConcurrentHashMap does
+    int hash = key.hashCode();
+    return (hash ^ (hash >>> 16)) & this.segmentMask;
+  }
+
+  private final class Segment {
+
+    private final int maxEntries;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75F, true);
+
+    private Segment(int maxEntries) {
+      this.maxEntries = maxEntries;
+    }
+
+    public @Nullable CachedResponse get(@NonNull String key) {
+      this.lock.lock();
+      try {
+        CachedResponse response = this.entries.get(key);
+        if (response != null && !response.revalidatable() && response.expired(System.currentTimeMillis())) {
+          // the entry expired and cannot be revalidated, remove it
+          this.entries.remove(key);
+          InMemoryResponseCache.this.weight.addAndGet(-response.weight());
+          InMemoryResponseCache.this.expirationCount.increment();
+          return null;
+        }
+        return response;
+      } finally {
+        this.lock.unlock();
+      }
+    }
+
+    public void put(@NonNull String key, @NonNull CachedResponse response) {
+      this.lock.lock();
+      try {
+        CachedResponse previous = this.entries.put(key, response);
+        long weight = response.weight() - (previous == null ? 0 : previous.weight());
+
+        // evict the least recently used entries until the entry bound is satisfied again
+        Iterator<Map.Entry<String, CachedResponse>> iterator = this.entries.entrySet().iterator();
+        while (this.entries.size() > this.maxEntries && iterator.hasNext()) {
+          Map.Entry<String, CachedResponse> eldest = iterator.next();
+          if (eldest.getValue() != response) {
+            iterator.remove();
+            weight -= eldest.getValue().weight();
+            InMemoryResponseCache.this.evictionCount.increment();
+          }
+        }
+        InMemoryResponseCache.this.weight.addAndGet(weight);
+      } finally {
+        this.lock.unlock();
+      }
+    }
+
+    public boolean evictEldest(@NonNull CachedResponse retained) {
+      this.lock.lock();
+      try {
+        Iterator<CachedResponse> iterator = this.entries.values().iterator();
+        while (iterator.hasNext()) {
+          CachedResponse eldest = iterator.next();
+          if (eldest != retained) {
+            iterator.remove();
+            InMemoryResponseCache.this.weight.addAndGet(-eldest.weight());
+            return true;
+          }
+        }
+        return false;
+      } finally {
+        this.lock.unlock();
+      }
+    }
+
+    public void remove(@NonNull String key) {
+      this.lock.lock();
+      try {
+        CachedResponse previous = this.entries.remove(key);
+        if (previous != null) {
+          InMemoryResponseCache.this.weight.addAndGet(-previous.weight());
+        }
+      } finally {
+        this.lock.unlock();
+      }
+    }
+
+    public void clear() {
+      this.lock.lock();
+      try {
+        long weight = 0;
+        for (CachedResponse response : this.entries.values()) {
+          weight += response.weight();
+        }
+        this.entries.clear();
+        InMemoryResponseCache.this.weight.addAndGet(-weight);
+      } finally {
+        this.lock.unlock();
+      }
+    }
+
+    public int entryCount() {
+      this.lock.lock();
+      try {
+        return this.entries.size();
+      } finally {
+        this.lock.unlock();
+      }
+    }
+  }
+}
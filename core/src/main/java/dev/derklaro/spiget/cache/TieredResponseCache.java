@@ -0,0 +1,93 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.cache;
+
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+public final class TieredResponseCache implements ResponseCache {
+
+  private final ResponseCache firstTier;
+  private final ResponseCache secondTier;
+
+  private TieredResponseCache(@NonNull ResponseCache firstTier, @NonNull ResponseCache secondTier) {
+    this.firstTier = firstTier;
+    this.secondTier = secondTier;
+  }
+
+  public static @NonNull TieredResponseCache of(@NonNull ResponseCache firstTier, @NonNull ResponseCache secondTier) {
+    return new TieredResponseCache(firstTier, secondTier);
+  }
+
+  @Override
+  public @Nullable CachedResponse get(@NonNull String key) {
+    CachedResponse firstResponse = this.firstTier.get(key);
+    if (firstResponse != null && !firstResponse.expired(System.currentTimeMillis())) {
+      return firstResponse;
+    }
+
+    // promote the response from the second tier, for example after a restart or when the first tier is stale
+    CachedResponse response = this.secondTier.get(key);
+    if (response != null && (firstResponse == null || response.expiresAt() > firstResponse.expiresAt())) {
+      this.firstTier.put(key, response);
+      return response;
+    }
+
+    // the expired first tier response can still be revalidated
+    return firstResponse != null ? firstResponse : response;
+  }
+
+  @Override
+  public void put(@NonNull String key, @NonNull CachedResponse response) {
+    this.firstTier.put(key, response);
+    this.secondTier.put(key, response);
+  }
+
+  @Override
+  public void invalidate(@NonNull String key) {
+    this.firstTier.invalidate(key);
+    this.secondTier.invalidate(key);
+  }
+
+  @Override
+  public void invalidateAll() {
+    this.firstTier.invalidateAll();
+    this.secondTier.invalidateAll();
+  }
+
+  @Override
+  public @NonNull CacheStats stats() {
+    // a miss in the first tier is only a miss if the second tier misses as well
+    CacheStats first = this.firstTier.stats();
+    CacheStats second = this.secondTier.stats();
+    return new CacheStats(
+      first.hitCount() + second.hitCount(),
+      second.missCount(),
+      first.evictionCount() + second.evictionCount(),
+      first.expirationCount() + second.expirationCount(),
+      second.entryCount(),
+      first.weight() + second.weight());
+  }
+}
@@ -27,24 +27,36 @@
 import dev.derklaro.spiget.Request;
 import dev.derklaro.spiget.SpigetClient;
 import dev.derklaro.spiget.SpigetClientConfig;
-import dev.derklaro.spiget.annotation.ExcludeQuery;
-import dev.derklaro.spiget.annotation.RequestData;
-import dev.derklaro.spiget.annotation.SerializedName;
+import dev.derklaro.spiget.cache.CachedResponse;
+import dev.derklaro.spiget.cache.ResponseCache;
+import dev.derklaro.spiget.event.EventListener;
+import dev.derklaro.spiget.http.ContentInflater;
+import dev.derklaro.spiget.http.HttpHeaderNames;
+import dev.derklaro.spiget.http.ResponseBody;
+import dev.derklaro.spiget.http.SpigetHttpException;
+import dev.derklaro.spiget.http.SpigetHttpRequest;
+import dev.derklaro.spiget.http.SpigetHttpResponse;
+import dev.derklaro.spiget.metrics.SpigetMetrics;
+import dev.derklaro.spiget.paging.Page;
+import dev.derklaro.spiget.resilience.CircuitBreaker;
+import dev.derklaro.spiget.resilience.CircuitBreakerConfig;
+import dev.derklaro.spiget.resilience.CircuitOpenException;
+import dev.derklaro.spiget.resilience.ConcurrencyLimitConfig;
+import dev.derklaro.spiget.resilience.ConcurrencyLimiter;
+import dev.derklaro.spiget.resilience.HedgingPolicy;
+import dev.derklaro.spiget.resilience.RateLimiter;
+import dev.derklaro.spiget.resilience.RetryPolicy;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.lang.invoke.MethodHandle;
-import java.lang.invoke.MethodHandles;
-import java.lang.invoke.MethodType;
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
-import java.text.MessageFormat;
-import java.util.AbstractMap;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.Objects;
+import java.util.ServiceLoader;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
@@ -55,12 +67,17 @@ public abstract class AbstractSpigetClient implements SpigetClient {
 
   public static final String BASE_URL = "https://api.spiget.org/v2/";
 
-  // method handles
-  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
-  private static final MethodType GENERIC_FIELD_GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final int STATUS_OK = 200;
+  private static final int STATUS_NOT_MODIFIED = 304;
+  private static final int STATUS_TOO_MANY_REQUESTS = 429;
+  private static final int STATUS_SERVER_ERROR = 500;
+
+  // descriptors generated by the annotation processor
+  private static final Map<Class<?>, RequestDescriptor<?>> GENERATED_DESCRIPTORS = loadGeneratedDescriptors();
 
   protected final SpigetClientConfig clientConfig;
   private final Map<Class<?>, RequestInfo> cachedInformation = new ConcurrentHashMap<>();
+  private final InFlightRequests inFlightRequests = new InFlightRequests();
 
   protected AbstractSpigetClient(@NonNull SpigetClientConfig clientConfig) {
     this.clientConfig = clientConfig;
@@ -68,13 +85,50 @@ protected AbstractSpigetClient(@NonNull SpigetClientConfig clientConfig) {
 
   @Override
   public @NonNull <T> CompletableFuture<T> sendRequest(@NonNull Request<T> request, @NonNull Object... uriParams) {
+    EventListener listener = this.newEventListener(request);
+    RequestInfo info = this.getOrCreateInfo(request);
+    String uri = info.formatUri(request, uriParams);
+    listener.uriBuilt(uri);
+
+    // serve the response from the cache if possible
+    CachedResponse cachedResponse = null;
+    ResponseCache cache = this.clientConfig.responseCache();
+    if (cache != null && info.cacheable()) {
+      cachedResponse = cache.get(uri);
+      if (cachedResponse != null && !cachedResponse.expired(System.currentTimeMillis())) {
+        listener.cacheHit(uri);
+        return observeCall(CompletableFuture.completedFuture(this.decode(cachedResponse.body(), info, listener)), listener);
+      }
+    }
+
+    // share the response between all callers requesting the same uri at the same time, if enabled
+    CachedResponse staleResponse = cachedResponse;
+    if (this.clientConfig.coalesceRequests()) {
+      return observeCall(this.inFlightRequests.join(
+        info.requestMethod() + ' ' + uri,
+        () -> this.sendAndDecodeCached(uri, info, staleResponse, listener)), listener);
+    }
+
+    return observeCall(this.sendAndDecodeCached(uri, info, staleResponse, listener), listener);
+  }
+
+  @Override
+  public @NonNull <T> CompletableFuture<Page<T>> sendPagedRequest(
+    @NonNull Request<? extends Collection<T>> request,
+    @NonNull Object... uriParams
+  ) {
+    EventListener listener = this.newEventListener(request);
     RequestInfo info = this.getOrCreateInfo(request);
-    return this.doSendRequest(
-      null,
-      info.formatUri(request, uriParams),
-      info.contentType(),
-      info.requestMethod()
-    ).thenApply(stream -> this.clientConfig.jsonMapper().decode(stream, info.responseType()));
+    String uri = info.formatUri(request, uriParams);
+    listener.uriBuilt(uri);
+
+    // the response cache only stores bodies, the pagination headers are always requested from the server
+    SpigetHttpRequest httpRequest = info.newHttpRequest(uri).responseType(info.responseType()).eventListener(listener);
+    CompletableFuture<SpigetHttpResponse> response = this.receiveBody(this.execute(info, httpRequest));
+    return observeCall(linkCancellation(response.thenApplyAsync(received -> {
+      Collection<T> items = this.decode(received, info, listener);
+      return Page.fromResponse(items, received);
+    }, this.clientConfig.decodeExecutor()), response), listener);
   }
 
   @Override
@@ -82,13 +136,13 @@ protected AbstractSpigetClient(@NonNull SpigetClientConfig clientConfig) {
     @NonNull Request<T> request,
     @NonNull Object... uriParams
   ) {
+    EventListener listener = this.newEventListener(request);
     RequestInfo info = this.getOrCreateInfo(request);
-    return this.doSendRequest(
-      this.clientConfig.jsonMapper().encode(request),
-      info.formatUri(request, uriParams),
-      info.contentType(),
-      info.requestMethod()
-    ).thenApply(stream -> this.clientConfig.jsonMapper().decode(stream, info.responseType()));
+    String uri = info.formatUri(request, uriParams);
+    listener.uriBuilt(uri);
+
+    byte[] body = this.clientConfig.jsonMapper().encode(request).getBytes(StandardCharsets.UTF_8);
+    return observeCall(this.sendAndDecode(body, uri, info, listener), listener);
   }
 
   @Override
@@ -96,14 +150,15 @@ protected AbstractSpigetClient(@NonNull SpigetClientConfig clientConfig) {
     @NonNull Request<?> request,
     @NonNull Object... uriParams
   ) {
-    return this.sendRequestRaw(request, uriParams).thenAccept(stream -> {
+    CompletableFuture<InputStream> response = this.sendRequestRaw(request, uriParams);
+    return linkCancellation(response.thenAccept(stream -> {
       try {
         stream.close();
       } catch (IOException exception) {
         // let the future complete exceptionally
         throw new CompletionException(exception);
       }
-    });
+    }), response);
   }
 
   @Override
@@ -111,76 +166,522 @@ protected AbstractSpigetClient(@NonNull SpigetClientConfig clientConfig) {
     @NonNull Request<?> request,
     @NonNull Object... uriParams
   ) {
+    EventListener listener = this.newEventListener(request);
     RequestInfo info = this.getOrCreateInfo(request);
-    return this.doSendRequest(null, info.formatUri(request, uriParams), info.contentType(), info.requestMethod());
+    String uri = info.formatUri(request, uriParams);
+    listener.uriBuilt(uri);
+
+    SpigetHttpRequest httpRequest = info.newHttpRequest(uri).eventListener(listener);
+    CompletableFuture<SpigetHttpResponse> response = this.execute(info, httpRequest);
+    return observeCall(linkCancellation(response.thenApply(received -> received.body().stream()), response), listener);
+  }
+
+  private @NonNull <T> CompletableFuture<T> sendAndDecode(
+    @Nullable byte[] body,
+    @NonNull String uri,
+    @NonNull RequestInfo info,
+    @NonNull EventListener listener
+  ) {
+    SpigetHttpRequest httpRequest = info.newHttpRequest(uri)
+      .body(body)
+      .responseType(info.responseType())
+      .eventListener(listener);
+    CompletableFuture<SpigetHttpResponse> response = this.receiveBody(this.execute(info, httpRequest));
+    return linkCancellation(
+      response.thenApplyAsync(received -> this.decode(received, info, listener), this.clientConfig.decodeExecutor()),
+      response);
+  }
+
+  private @NonNull <T> CompletableFuture<T> sendAndDecodeCached(
+    @NonNull String uri,
+    @NonNull RequestInfo info,
+    @Nullable CachedResponse staleResponse,
+    @NonNull EventListener listener
+  ) {
+    ResponseCache cache = this.clientConfig.responseCache();
+    if (cache == null || !info.cacheable()) {
+      return this.sendAndDecode(null, uri, info, listener);
+    }
+
+    // revalidate the stored response instead of downloading it again, if possible
+    SpigetHttpRequest httpRequest = info.newHttpRequest(uri).responseType(info.responseType()).eventListener(listener);
+    if (staleResponse != null) {
+      if (staleResponse.etag() != null) {
+        httpRequest.header(HttpHeaderNames.IF_NONE_MATCH, staleResponse.etag());
+      }
+      if (staleResponse.lastModified() != null) {
+        httpRequest.header(HttpHeaderNames.IF_MODIFIED_SINCE, staleResponse.lastModified());
+      }
+    }
+
+    CompletableFuture<SpigetHttpResponse> sentRequest = this.receiveBody(this.execute(info, httpRequest));
+    return linkCancellation(sentRequest.thenApplyAsync(response -> {
+      byte[] body;
+      String etag = response.header(HttpHeaderNames.ETAG);
+      String lastModified = response.header(HttpHeaderNames.LAST_MODIFIED);
+
+      if (response.statusCode() == STATUS_NOT_MODIFIED && staleResponse != null) {
+        // the stored response is still valid, keep the validators if the server did not resend them
+        closeQuietly(response);
+        body = staleResponse.body();
+        etag = etag == null ? staleResponse.etag() : etag;
+        lastModified = lastModified == null ? staleResponse.lastModified() : lastModified;
+      } else {
+        // read the full response to be able to store it, bodies decoded by the transport are still compressed
+        SpigetHttpResponse storedResponse = response.decodedBody() == null ? response : inflate(response);
+        body = StreamUtil.readAllBytes(storedResponse.body().stream());
+      }
+
+      cache.put(uri, CachedResponse.withTtl(body, info.cacheTtlMillis(), etag, lastModified));
+      T decodedBody = this.decodedBody(response, info);
+      return decodedBody != null ? decodedBody : this.decode(body, info, listener);
+    }, this.clientConfig.decodeExecutor()), sentRequest);
+  }
+
+  private @NonNull CompletableFuture<SpigetHttpResponse> receiveBody(
+    @NonNull CompletableFuture<SpigetHttpResponse> response
+  ) {
+    // reading a body which is still received from the connection blocks, it is read on the io executor to only
+    // parse bodies held in memory on the decode executor
+    CompletableFuture<SpigetHttpResponse> received = response.thenCompose(sent -> {
+      if (sent.body().buffered()) {
+        return CompletableFuture.completedFuture(sent);
+      }
+
+      return CompletableFuture.supplyAsync(() -> {
+        byte[] body = StreamUtil.readAllBytes(sent.body().stream());
+        return sent.withBody(ResponseBody.ofBuffers(Collections.singletonList(ByteBuffer.wrap(body))));
+      }, this.clientConfig.ioExecutor());
+    });
+    return linkCancellation(received, response);
   }
 
-  @NonNull
-  protected abstract CompletableFuture<InputStream> doSendRequest(
+  private @NonNull <T> T decode(
+    @NonNull SpigetHttpResponse response,
+    @NonNull RequestInfo info,
+    @NonNull EventListener listener
+  ) {
+    // the transport already parsed the body while it was received, only release the buffered body
+    T decodedBody = this.decodedBody(response, info);
+    if (decodedBody != null) {
+      response.body().release();
+      return decodedBody;
+    }
+    return this.decode(response.body().stream(), info, listener);
+  }
+
+  private @Nullable <T> T decodedBody(@NonNull SpigetHttpResponse response, @NonNull RequestInfo info) {
+    // the transport reported the decode events to the listener, the time it spent decoding is recorded here
+    T decodedBody = response.decodedBody();
+    SpigetMetrics metrics = this.clientConfig.metrics();
+    if (decodedBody != null && metrics != null) {
+      metrics.decoded(info.requestType(), response.decodeNanos());
+    }
+    return decodedBody;
+  }
+
+  private @NonNull <T> T decode(@NonNull byte[] body, @NonNull RequestInfo info, @NonNull EventListener listener) {
+    return this.decode(new ByteArrayInputStream(body), info, listener);
+  }
+
+  private @NonNull <T> T decode(@NonNull InputStream body, @NonNull RequestInfo info, @NonNull EventListener listener) {
+    SpigetMetrics metrics = this.clientConfig.metrics();
+    if (metrics == null && listener == EventListener.NONE) {
+      return this.clientConfig.jsonMapper().decode(body, info.responseType());
+    }
+
+    listener.decodeStart();
+    long startNanos = System.nanoTime();
+    try {
+      return this.clientConfig.jsonMapper().decode(body, info.responseType());
+    } finally {
+      if (metrics != null) {
+        metrics.decoded(info.requestType(), System.nanoTime() - startNanos);
+      }
+      listener.decodeEnd();
+    }
+  }
+
+  private @NonNull CompletableFuture<SpigetHttpResponse> execute(
+    @NonNull RequestInfo info,
+    @NonNull SpigetHttpRequest request
+  ) {
+    if (this.clientConfig.compression() && !request.headers().containsKey(HttpHeaderNames.ACCEPT_ENCODING)) {
+      request.header(HttpHeaderNames.ACCEPT_ENCODING, ContentInflater.ACCEPTED_ENCODINGS);
+    }
+
+    SpigetMetrics metrics = this.clientConfig.metrics();
+    EventListener listener = request.eventListener();
+    if (metrics == null && listener == EventListener.NONE) {
+      return this.executeChecked(info, request);
+    }
+
+    Class<?> requestType = info.requestType();
+    if (metrics != null) {
+      metrics.requestStarted(requestType);
+    }
+    long startNanos = System.nanoTime();
+
+    CompletableFuture<SpigetHttpResponse> checkedResponse = this.executeChecked(info, request);
+    return linkCancellation(checkedResponse.handle((response, throwable) -> {
+      if (throwable != null) {
+        if (metrics != null) {
+          metrics.requestFinished(requestType, statusCode(throwable), System.nanoTime() - startNanos);
+        }
+        throw throwable instanceof CompletionException
+          ? (CompletionException) throwable
+          : new CompletionException(throwable);
+      }
+
+      if (metrics != null) {
+        metrics.requestFinished(requestType, response.statusCode(), System.nanoTime() - startNanos);
+      }
+
+      // count the received bytes once the body was read by the caller
+      return response.withBody(new CountingResponseBody(response.body(), bytes -> {
+        if (metrics != null) {
+          metrics.bytesReceived(requestType, bytes);
+        }
+        listener.responseBodyEnd(bytes);
+      }));
+    }), checkedResponse);
+  }
+
+  private @NonNull CompletableFuture<SpigetHttpResponse> executeChecked(
+    @NonNull RequestInfo info,
+    @NonNull SpigetHttpRequest request
+  ) {
+    RetryPolicy retryPolicy = this.clientConfig.retryPolicy();
+    CompletableFuture<SpigetHttpResponse> response;
+    if (retryPolicy == null || !retryPolicy.retryable(info.requestType(), request.method())) {
+      response = this.sendHedged(info, request);
+    } else {
+      // retry transient failures, the final response is checked once all attempts are done
+      response = RetryingCall.execute(retryPolicy, this.clientConfig.scheduler(), () -> this.sendHedged(info, request));
+    }
+    return linkCancellation(response.thenApply(received -> checkResponse(request, received)), response);
+  }
+
+  private @NonNull CompletableFuture<SpigetHttpResponse> sendHedged(
+    @NonNull RequestInfo info,
+    @NonNull SpigetHttpRequest request
+  ) {
+    HedgingPolicy hedgingPolicy = this.clientConfig.hedgingPolicy();
+    if (hedgingPolicy == null || !hedgingPolicy.hedgeable(info.requestType(), request.method())) {
+      return this.sendAttempt(info, request);
+    }
+
+    // send a second request if the first one takes too long
+    return HedgedCall.execute(
+      hedgingPolicy,
+      this.clientConfig.scheduler(),
+      info.latencyWindow(),
+      () -> this.sendAttempt(info, request));
+  }
+
+  private @NonNull CompletableFuture<SpigetHttpResponse> sendAttempt(
+    @NonNull RequestInfo info,
+    @NonNull SpigetHttpRequest request
+  ) {
+    CompletableFuture<SpigetHttpResponse> attempt = new CompletableFuture<>();
+    request.eventListener().requestQueued();
+
+    // fail fast while the upstream endpoint is unhealthy
+    CircuitBreaker circuitBreaker = info.circuitBreaker();
+    if (circuitBreaker != null && !circuitBreaker.tryAcquire()) {
+      attempt.completeExceptionally(new CircuitOpenException(circuitBreaker.name()));
+      return attempt;
+    }
+
+    // wait for a free slot of the endpoint and a rate limit permit without blocking
+    ConcurrencyLimiter concurrencyLimiter = info.concurrencyLimiter();
+    CompletableFuture<Void> slot = concurrencyLimiter == null
+      ? CompletableFuture.completedFuture(null)
+      : concurrencyLimiter.acquire();
+    RateLimiter rateLimiter = this.clientConfig.rateLimiter();
+    CompletableFuture<Void> permit = rateLimiter == null
+      ? slot
+      : slot.thenCompose(ignored -> rateLimiter.acquire(this.clientConfig.scheduler()));
+
+    // stop waiting for a slot if the attempt was cancelled
+    attempt.whenComplete((response, throwable) -> {
+      if (attempt.isCancelled()) {
+        slot.cancel(false);
+      }
+    });
+
+    permit.whenComplete((ignored, throwable) -> {
+      if (throwable != null) {
+        // the request was rejected before it was sent
+        if (circuitBreaker != null) {
+          circuitBreaker.onIgnored();
+        }
+        attempt.completeExceptionally(throwable);
+      } else if (attempt.isDone()) {
+        // the attempt was cancelled while waiting
+        if (circuitBreaker != null) {
+          circuitBreaker.onIgnored();
+        }
+        if (concurrencyLimiter != null) {
+          concurrencyLimiter.releaseIgnored();
+        }
+      } else {
+        this.sendPermitted(info, request, attempt);
+      }
+    });
+    return attempt;
+  }
+
+  private void sendPermitted(
+    @NonNull RequestInfo info,
+    @NonNull SpigetHttpRequest request,
+    @NonNull CompletableFuture<SpigetHttpResponse> attempt
+  ) {
+    request.eventListener().requestDispatched();
+    long startNanos = System.nanoTime();
+    CompletableFuture<SpigetHttpResponse> transportFuture;
+    try {
+      transportFuture = this.doSendRequest(request);
+    } catch (Throwable throwable) {
+      transportFuture = new CompletableFuture<>();
+      transportFuture.completeExceptionally(throwable);
+    }
+
+    // cancelling the attempt cancels the request in the transport
+    CompletableFuture<SpigetHttpResponse> sentRequest = transportFuture;
+    attempt.whenComplete((response, throwable) -> {
+      if (attempt.isCancelled()) {
+        sentRequest.cancel(true);
+      }
+    });
+
+    sentRequest.whenComplete((response, throwable) -> {
+      this.recordOutcome(info, response, startNanos, sentRequest.isCancelled());
+      if (throwable != null) {
+        attempt.completeExceptionally(throwable);
+        return;
+      }
+
+      request.eventListener().responseHeadersReceived(response.statusCode());
+      SpigetHttpResponse decompressedResponse = decompress(response);
+      if (!attempt.complete(decompressedResponse)) {
+        // release the connection if the attempt was cancelled in the meantime
+        closeQuietly(decompressedResponse);
+      }
+    });
+  }
+
+  private void recordOutcome(
+    @NonNull RequestInfo info,
+    @Nullable SpigetHttpResponse response,
+    long startNanos,
+    boolean cancelled
+  ) {
+    ConcurrencyLimiter concurrencyLimiter = info.concurrencyLimiter();
+    CircuitBreaker circuitBreaker = info.circuitBreaker();
+    if (cancelled) {
+      // a cancelled request, for example the loser of a hedged call, says nothing about the health of the endpoint
+      if (circuitBreaker != null) {
+        circuitBreaker.onIgnored();
+      }
+      if (concurrencyLimiter != null) {
+        concurrencyLimiter.releaseIgnored();
+      }
+      return;
+    }
+
+    // transport failures and server errors count as failed calls
+    long rttNanos = System.nanoTime() - startNanos;
+    boolean failed = response == null || response.statusCode() >= STATUS_SERVER_ERROR;
+    if (circuitBreaker != null) {
+      circuitBreaker.onResult(rttNanos, failed);
+    }
+    if (concurrencyLimiter != null) {
+      concurrencyLimiter.release(rttNanos, failed || response.statusCode() == STATUS_TOO_MANY_REQUESTS);
+    }
+
+    // let the rate limiter adapt to the server response
+    RateLimiter rateLimiter = this.clientConfig.rateLimiter();
+    if (rateLimiter != null && response != null) {
+      rateLimiter.onResponse(response.statusCode(), response.retryAfter(), startNanos);
+    }
+  }
+
+  private static @NonNull SpigetHttpResponse decompress(@NonNull SpigetHttpResponse response) {
+    // bodies decoded by the transport are only inflated if the cache stores them
+    return response.decodedBody() == null ? inflate(response) : response;
+  }
+
+  private static @NonNull SpigetHttpResponse inflate(@NonNull SpigetHttpResponse response) {
+    ContentInflater inflater = ContentInflater.forEncoding(response.header(HttpHeaderNames.CONTENT_ENCODING));
+    if (inflater == null) {
+      return response;
+    }
+    return response.withBody(inflater.inflating(response.body()));
+  }
+
+  private static @NonNull SpigetHttpResponse checkResponse(
+    @NonNull SpigetHttpRequest request,
+    @NonNull SpigetHttpResponse response
+  ) {
+    // a not modified response is only sent for conditional requests
+    if (response.successful() || response.statusCode() == STATUS_NOT_MODIFIED) {
+      return response;
+    }
+
+    // drains and releases the error body
+    throw HttpErrors.create(request, response);
+  }
+
+  protected @NonNull CompletableFuture<SpigetHttpResponse> doSendRequest(@NonNull SpigetHttpRequest request) {
+    // adapter for transports which only implement the legacy method, no status or headers are available
+    byte[] body = request.body();
+    CompletableFuture<InputStream> response = this.doSendRequest(
+      body == null ? null : new String(body, StandardCharsets.UTF_8),
+      request.uri(),
+      request.contentType(),
+      request.method());
+    return linkCancellation(
+      response.thenApply(stream -> SpigetHttpResponse.of(STATUS_OK, Collections.emptyMap(), stream)),
+      response);
+  }
+
+  // legacy transport method, override doSendRequest(SpigetHttpRequest) instead to expose status and headers
+  @Deprecated
+  protected @NonNull CompletableFuture<InputStream> doSendRequest(
     @Nullable String body,
     @NonNull String uri,
     @NonNull String contentType,
-    @NonNull String requestMethod);
+    @NonNull String requestMethod
+  ) {
+    throw new UnsupportedOperationException(this.getClass().getName() + " does not implement doSendRequest");
+  }
+
+  private @NonNull EventListener newEventListener(@NonNull Request<?> request) {
+    EventListener.Factory factory = this.clientConfig.eventListenerFactory();
+    if (factory == null) {
+      return EventListener.NONE;
+    }
+
+    EventListener listener = factory.create(request);
+    listener.callStart();
+    return listener;
+  }
+
+  public @NonNull Map<String, ConcurrencyLimiter> concurrencyLimiters() {
+    Map<String, ConcurrencyLimiter> limiters = new HashMap<>();
+    for (RequestInfo info : this.cachedInformation.values()) {
+      if (info.concurrencyLimiter() != null) {
+        limiters.put(info.descriptor().uri(), info.concurrencyLimiter());
+      }
+    }
+    return limiters;
+  }
 
   protected @NonNull RequestInfo getOrCreateInfo(@NonNull Request<?> request) {
     return this.cachedInformation.computeIfAbsent(request.getClass(), clazz -> {
-      // get the annotation
-      RequestData data = clazz.getDeclaredAnnotation(RequestData.class);
-      Objects.requireNonNull(data, "no request annotation is present");
-      // get the response type information
-      Type responseType = null;
-      for (Type type : clazz.getGenericInterfaces()) {
-        // must be a parameterized type (Response<ResponseType>)
-        if (type instanceof ParameterizedType) {
-          // validate that the type is actually the request and has a type parameter
-          ParameterizedType parameterized = (ParameterizedType) type;
-          if (parameterized.getRawType().equals(Request.class) && parameterized.getActualTypeArguments().length == 1) {
-            responseType = parameterized.getActualTypeArguments()[0];
-            break;
-          }
-        }
+      // prefer the descriptor generated at compile time, use reflection for all other requests
+      @SuppressWarnings("unchecked")
+      RequestDescriptor<Request<?>> descriptor = (RequestDescriptor<Request<?>>) GENERATED_DESCRIPTORS.get(clazz);
+      if (descriptor == null) {
+        descriptor = ReflectiveRequestDescriptor.create(clazz);
       }
-      // check if the type was given
-      if (responseType == null) {
-        throw new IllegalArgumentException("Missing type parameter.");
-      }
-
-      // get the fields which are included in the query
-      List<Map.Entry<String, MethodHandle>> queryFields = new ArrayList<>();
-      for (Field field : clazz.getDeclaredFields()) {
-        if (!Modifier.isStatic(field.getModifiers())
-          && !Modifier.isTransient(field.getModifiers())
-          && !field.isAnnotationPresent(ExcludeQuery.class)
-        ) {
-          try {
-            // get the name of the query parameter
-            SerializedName serializedNameData = field.getAnnotation(SerializedName.class);
-            String serializedName = serializedNameData == null ? field.getName() : serializedNameData.value();
-
-            // get a method handle for the field
-            field.setAccessible(true);
-            MethodHandle fieldGetter = LOOKUP.unreflectGetter(field);
-
-            // convert the handle to a generic one
-            MethodHandle fieldGetterGeneric = fieldGetter.asType(GENERIC_FIELD_GETTER_TYPE);
-            queryFields.add(new AbstractMap.SimpleImmutableEntry<>(serializedName, fieldGetterGeneric));
-          } catch (Exception exception) {
-            // generic exception to catch InaccessibleObjectException as well
-            throw new IllegalArgumentException(String.format(
-              "Exception getting request information for request %s (field: %s):",
-              clazz.getCanonicalName(), field
-            ), exception);
-          }
-        }
+
+      // the time to live of cached responses can be overridden in the config
+      long cacheTtlMillis = descriptor.cacheTtlMillis();
+      Duration configuredTtl = this.clientConfig.cacheTtls().get(clazz);
+      if (configuredTtl != null) {
+        cacheTtlMillis = toMillis(configuredTtl);
       }
 
+      // each endpoint gets its own circuit breaker, if enabled
+      CircuitBreakerConfig breakerConfig = this.clientConfig.circuitBreaker();
+      CircuitBreaker circuitBreaker = breakerConfig == null ? null : CircuitBreaker.create(descriptor.uri(), breakerConfig);
+
+      // each endpoint gets its own concurrency limit, if enabled
+      ConcurrencyLimitConfig limitConfig = this.clientConfig.concurrencyLimit();
+      ConcurrencyLimiter concurrencyLimiter = limitConfig == null ? null : ConcurrencyLimiter.create(descriptor.uri(), limitConfig);
+
+      // the latencies are only needed to derive the hedging delay
+      HedgingPolicy hedgingPolicy = this.clientConfig.hedgingPolicy();
+      LatencyWindow latencyWindow = hedgingPolicy == null || hedgingPolicy.delayPercentile() <= 0
+        ? null
+        : new LatencyWindow(hedgingPolicy.delayPercentile());
+
       // build the info
       return new RequestInfo(
-        responseType,
-        data.contentType(),
-        new MessageFormat(BASE_URL + data.uri()),
-        data.method(),
-        queryFields);
+        descriptor,
+        UriTemplate.compile(this.clientConfig.baseUrl() + descriptor.uri()),
+        cacheTtlMillis,
+        circuitBreaker,
+        concurrencyLimiter,
+        latencyWindow);
     });
   }
+
+  private static @NonNull <T> CompletableFuture<T> observeCall(
+    @NonNull CompletableFuture<T> future,
+    @NonNull EventListener listener
+  ) {
+    if (listener == EventListener.NONE) {
+      return future;
+    }
+
+    return linkCancellation(future.whenComplete((result, throwable) -> {
+      if (throwable == null) {
+        listener.callEnd();
+      } else {
+        listener.callFailed(throwable);
+      }
+    }), future);
+  }
+
+  static @NonNull <T> CompletableFuture<T> linkCancellation(
+    @NonNull CompletableFuture<T> dependent,
+    @NonNull CompletableFuture<?> source
+  ) {
+    // cancelling a dependent stage does not cancel the stage it was created from, which aborts the request
+    dependent.whenComplete((result, throwable) -> {
+      if (dependent.isCancelled()) {
+        source.cancel(true);
+      }
+    });
+    return dependent;
+  }
+
+  private static int statusCode(@NonNull Throwable throwable) {
+    Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+      ? throwable.getCause()
+      : throwable;
+    return cause instanceof SpigetHttpException ? ((SpigetHttpException) cause).statusCode() : SpigetMetrics.NO_STATUS;
+  }
+
+  static void closeQuietly(@NonNull SpigetHttpResponse response) {
+    // drain the body to allow the connection to be reused
+    StreamUtil.drainAndClose(response.body().stream(), 0);
+  }
+
+  private static long toMillis(@NonNull Duration duration) {
+    // negative durations mean that the response never expires
+    if (duration.isNegative()) {
+      return CachedResponse.NEVER_EXPIRES;
+    }
+
+    try {
+      return duration.toMillis();
+    } catch (ArithmeticException exception) {
+      return CachedResponse.NEVER_EXPIRES;
+    }
+  }
+
+  private static @NonNull Map<Class<?>, RequestDescriptor<?>> loadGeneratedDescriptors() {
+    Map<Class<?>, RequestDescriptor<?>> descriptors = new HashMap<>();
+    for (RequestDescriptor<?> descriptor : ServiceLoader.load(
+      RequestDescriptor.class,
+      AbstractSpigetClient.class.getClassLoader())
+    ) {
+      descriptors.put(descriptor.requestType(), descriptor);
+    }
+    return descriptors;
+  }
 }
@@ -0,0 +1,100 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.client;
+
+import dev.derklaro.spiget.http.ResponseBody;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.function.LongConsumer;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+final class CountingResponseBody extends ResponseBody {
+
+  private final ResponseBody delegate;
+  private final LongConsumer completionListener;
+
+  private long count;
+  private boolean completed;
+
+  public CountingResponseBody(@NonNull ResponseBody delegate, @NonNull LongConsumer completionListener) {
+    super(delegate.contentLength());
+    this.delegate = delegate;
+    this.completionListener = completionListener;
+  }
+
+  @Override
+  public @NonNull InputStream stream() {
+    // keep the stream of the delegate, it might not need to copy the data into chunks
+    return new CountingInputStream(this.delegate.stream(), bytes -> {
+      this.count += bytes;
+      this.complete();
+    });
+  }
+
+  @Override
+  public boolean buffered() {
+    return this.delegate.buffered();
+  }
+
+  @Override
+  public int available() {
+    return this.delegate.available();
+  }
+
+  @Override
+  protected @Nullable ByteBuffer readChunk() throws IOException {
+    ByteBuffer chunk = this.delegate.nextChunk();
+    if (chunk == null) {
+      this.complete();
+    } else {
+      this.count += chunk.remaining();
+    }
+    return chunk;
+  }
+
+  @Override
+  protected void doRelease() {
+    // a buffered body was received completely, even if it is released without reading it
+    if (this.delegate.buffered() && this.contentLength() >= 0) {
+      this.count = this.contentLength();
+    }
+
+    try {
+      this.delegate.release();
+    } finally {
+      this.complete();
+    }
+  }
+
+  private void complete() {
+    // report the count only once, either at the end of the body or when releasing it
+    if (!this.completed) {
+      this.completed = true;
+      this.completionListener.accept(this.count);
+    }
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.client;
+
+import dev.derklaro.spiget.http.SpigetHttpResponse;
+import dev.derklaro.spiget.resilience.HedgingPolicy;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+final class HedgedCall {
+
+  private final HedgingPolicy hedgingPolicy;
+  private final LatencyWindow latencyWindow;
+  private final Supplier<CompletableFuture<SpigetHttpResponse>> attemptFactory;
+
+  private final AtomicInteger pendingAttempts = new AtomicInteger();
+  private final List<CompletableFuture<SpigetHttpResponse>> attempts = new CopyOnWriteArrayList<>();
+  private final CompletableFuture<SpigetHttpResponse> result = new CompletableFuture<>();
+
+  private HedgedCall(
+    @NonNull HedgingPolicy hedgingPolicy,
+    @Nullable LatencyWindow latencyWindow,
+    @NonNull Supplier<CompletableFuture<SpigetHttpResponse>> attemptFactory
+  ) {
+    this.hedgingPolicy = hedgingPolicy;
+    this.latencyWindow = latencyWindow;
+    this.attemptFactory = attemptFactory;
+  }
+
+  public static @NonNull CompletableFuture<SpigetHttpResponse> execute(
+    @NonNull HedgingPolicy hedgingPolicy,
+    @NonNull ScheduledExecutorService scheduler,
+    @Nullable LatencyWindow latencyWindow,
+    @NonNull Supplier<CompletableFuture<SpigetHttpResponse>> attemptFactory
+  ) {
+    HedgedCall call = new HedgedCall(hedgingPolicy, latencyWindow, attemptFactory);
+    hedgingPolicy.hedgeBudget().onRequest();
+    call.launch();
+
+    // use the observed latency percentile as the delay once enough samples were recorded
+    long delayNanos = hedgingPolicy.delay().toNanos();
+    if (latencyWindow != null && latencyWindow.percentileNanos() > 0) {
+      delayNanos = latencyWindow.percentileNanos();
+    }
+
+    // send the hedged request unless the first request completed in the meantime
+    ScheduledFuture<?> hedge = scheduler.schedule(call::hedge, delayNanos, TimeUnit.NANOSECONDS);
+    // the returned future completes after the attempt that lost the race was cancelled
+    CompletableFuture<SpigetHttpResponse> future = call.result.whenComplete((response, throwable) -> {
+      hedge.cancel(false);
+      // cancel the attempt that lost the race, this is a no-op for the winner
+      call.attempts.forEach(attempt -> attempt.cancel(true));
+    });
+    future.whenComplete((response, throwable) -> {
+      if (future.isCancelled()) {
+        call.result.cancel(true);
+      }
+    });
+    return future;
+  }
+
+  private void hedge() {
+    if (!this.result.isDone() && this.hedgingPolicy.hedgeBudget().tryWithdraw()) {
+      this.launch();
+    }
+  }
+
+  private void launch() {
+    this.pendingAttempts.incrementAndGet();
+    long startNanos = System.nanoTime();
+
+    CompletableFuture<SpigetHttpResponse> attempt;
+    try {
+      attempt = this.attemptFactory.get();
+    } catch (Throwable throwable) {
+      attempt = new CompletableFuture<>();
+      attempt.completeExceptionally(throwable);
+    }
+
+    this.attempts.add(attempt);
+    if (this.result.isDone()) {
+      // the call completed while the attempt was started
+      attempt.cancel(true);
+    }
+
+    attempt.whenComplete((response, throwable) -> {
+      if (throwable == null) {
+        if (this.latencyWindow != null) {
+          this.latencyWindow.record(System.nanoTime() - startNanos);
+        }
+
+        // the first response wins, release the connection of late responses
+        if (!this.result.complete(response)) {
+          AbstractSpigetClient.closeQuietly(response);
+        }
+      } else if (this.pendingAttempts.decrementAndGet() == 0) {
+        // only fail if there is no other attempt which might still succeed
+        this.result.completeExceptionally(throwable);
+      }
+    });
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.client;
+
+import dev.derklaro.spiget.http.SpigetClientErrorException;
+import dev.derklaro.spiget.http.SpigetHttpException;
+import dev.derklaro.spiget.http.SpigetHttpRequest;
+import dev.derklaro.spiget.http.SpigetHttpResponse;
+import dev.derklaro.spiget.http.SpigetNotFoundException;
+import dev.derklaro.spiget.http.SpigetRateLimitedException;
+import dev.derklaro.spiget.http.SpigetServerErrorException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import lombok.NonNull;
+
+final class HttpErrors {
+
+  // the amount of bytes of the error body kept in the exception
+  private static final int BODY_EXCERPT_LENGTH = 1024;
+
+  private HttpErrors() {
+    throw new UnsupportedOperationException();
+  }
+
+  public static @NonNull SpigetHttpException create(@NonNull SpigetHttpRequest request, @NonNull SpigetHttpResponse response) {
+    // read the start of the error body and release the connection
+    byte[] excerptBytes = StreamUtil.drainAndClose(response.body().stream(), BODY_EXCERPT_LENGTH);
+    String bodyExcerpt = new String(excerptBytes, StandardCharsets.UTF_8);
+
+    int statusCode = response.statusCode();
+    Map<String, List<String>> headers = response.headers();
+    String message = "Unexpected response code " + statusCode + " for " + request.method() + ' ' + request.uri();
+
+    if (statusCode == 404) {
+      return new SpigetNotFoundException(message, statusCode, headers, bodyExcerpt);
+    } else if (statusCode == 429) {
+      return new SpigetRateLimitedException(message, statusCode, headers, bodyExcerpt, response.retryAfter());
+    } else if (statusCode >= 400 && statusCode < 500) {
+      return new SpigetClientErrorException(message, statusCode, headers, bodyExcerpt);
+    } else if (statusCode >= 500 && statusCode < 600) {
+      return new SpigetServerErrorException(message, statusCode, headers, bodyExcerpt);
+    } else {
+      return new SpigetHttpException(message, statusCode, headers, bodyExcerpt);
+    }
+  }
+}
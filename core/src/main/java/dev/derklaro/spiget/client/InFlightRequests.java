@@ -0,0 +1,150 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import lombok.NonNull;
+
+final class InFlightRequests {
+
+  private final ConcurrentMap<String, Flight<?>> flights = new ConcurrentHashMap<>();
+
+  @SuppressWarnings("unchecked")
+  public @NonNull <T> CompletableFuture<T> join(
+    @NonNull String key,
+    @NonNull Supplier<CompletableFuture<T>> requestFactory
+  ) {
+    while (true) {
+      // try to join the request that is currently in flight
+      Flight<T> existing = (Flight<T>) this.flights.get(key);
+      if (existing != null) {
+        if (existing.tryJoin()) {
+          return existing.newWaiter();
+        }
+
+        // all waiters of the flight cancelled, remove it and try again
+        this.flights.remove(key, existing);
+        continue;
+      }
+
+      // no request in flight, try to register a new one
+      Flight<T> flight = new Flight<>(key);
+      if (this.flights.putIfAbsent(key, flight) == null) {
+        CompletableFuture<T> waiter = flight.newWaiter();
+        flight.start(requestFactory);
+        return waiter;
+      }
+    }
+  }
+
+  private final class Flight<T> {
+
+    private final String key;
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    // the flight is created for the first waiter
+    private final AtomicInteger waiters = new AtomicInteger(1);
+
+    private volatile CompletableFuture<T> upstream;
+
+    private Flight(@NonNull String key) {
+      this.key = key;
+    }
+
+    public boolean tryJoin() {
+      while (true) {
+        int current = this.waiters.get();
+        if (current <= 0) {
+          // the flight was abandoned by all waiters
+          return false;
+        }
+
+        if (this.waiters.compareAndSet(current, current + 1)) {
+          return true;
+        }
+      }
+    }
+
+    public @NonNull CompletableFuture<T> newWaiter() {
+      // each waiter gets an own future, cancelling it does not affect the other waiters
+      CompletableFuture<T> waiter = new CompletableFuture<>();
+      waiter.whenComplete((result, throwable) -> {
+        if (waiter.isCancelled()) {
+          this.leave();
+        }
+      });
+      this.result.whenComplete((result, throwable) -> {
+        if (throwable == null) {
+          waiter.complete(result);
+        } else {
+          waiter.completeExceptionally(throwable);
+        }
+      });
+      return waiter;
+    }
+
+    public void start(@NonNull Supplier<CompletableFuture<T>> requestFactory) {
+      CompletableFuture<T> upstream;
+      try {
+        upstream = requestFactory.get();
+      } catch (Throwable throwable) {
+        upstream = new CompletableFuture<>();
+        upstream.completeExceptionally(throwable);
+      }
+
+      this.upstream = upstream;
+      upstream.whenComplete((result, throwable) -> {
+        // the next caller should send a new request
+        InFlightRequests.this.flights.remove(this.key, this);
+        if (throwable == null) {
+          this.result.complete(result);
+        } else {
+          this.result.completeExceptionally(throwable);
+        }
+      });
+
+      // the last waiter might have cancelled before the upstream request was set
+      if (this.result.isCancelled()) {
+        upstream.cancel(false);
+      }
+    }
+
+    private void leave() {
+      if (this.waiters.decrementAndGet() == 0) {
+        // no one is interested in the result anymore, cancel the upstream request
+        InFlightRequests.this.flights.remove(this.key, this);
+        this.result.cancel(false);
+
+        CompletableFuture<T> upstream = this.upstream;
+        if (upstream != null) {
+          upstream.cancel(false);
+        }
+      }
+    }
+  }
+}
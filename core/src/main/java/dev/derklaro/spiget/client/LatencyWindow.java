@@ -0,0 +1,72 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.client;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+final class LatencyWindow {
+
+  private static final int SIZE = 256;
+  private static final int MASK = SIZE - 1;
+  // the percentile is recalculated every time this amount of samples was recorded
+  private static final int REFRESH_INTERVAL = 16;
+
+  private final double percentile;
+  private final AtomicLongArray samples = new AtomicLongArray(SIZE);
+  private final AtomicLong recordedSamples = new AtomicLong();
+
+  private volatile long percentileNanos = -1;
+
+  public LatencyWindow(double percentile) {
+    this.percentile = percentile;
+  }
+
+  public void record(long latencyNanos) {
+    long index = this.recordedSamples.getAndIncrement();
+    this.samples.set((int) (index & MASK), latencyNanos);
+
+    // recalculating the percentile requires sorting the samples, don't do that for every sample
+    if ((index + 1) % REFRESH_INTERVAL == 0) {
+      this.refresh((int) Math.min(SIZE, index + 1));
+    }
+  }
+
+  public long percentileNanos() {
+    return this.percentileNanos;
+  }
+
+  private void refresh(int sampleCount) {
+    long[] sorted = new long[sampleCount];
+    for (int i = 0; i < sampleCount; i++) {
+      sorted[i] = this.samples.get(i);
+    }
+    Arrays.sort(sorted);
+
+    int rank = (int) Math.ceil(this.percentile * sampleCount) - 1;
+    this.percentileNanos = sorted[Math.max(0, Math.min(sampleCount - 1, rank))];
+  }
+}
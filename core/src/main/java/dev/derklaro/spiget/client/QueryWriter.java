@@ -0,0 +1,85 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.client;
+
+import java.util.Collection;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+public final class QueryWriter {
+
+  private final StringBuilder target;
+  private boolean oneFieldWritten;
+
+  QueryWriter(@NonNull StringBuilder target) {
+    this.target = target;
+  }
+
+  public void write(@NonNull String name, int value) {
+    this.appendKey(name).append(value);
+  }
+
+  public void write(@NonNull String name, long value) {
+    this.appendKey(name).append(value);
+  }
+
+  public void write(@NonNull String name, boolean value) {
+    this.appendKey(name).append(value);
+  }
+
+  public void write(@NonNull String name, @Nullable Object value) {
+    // skip nulls
+    if (value == null) {
+      return;
+    }
+
+    // change types of collections to comma seperated strings
+    if (value instanceof Collection<?>) {
+      Collection<?> collection = (Collection<?>) value;
+      // skip empty collections
+      if (collection.isEmpty()) {
+        return;
+      }
+
+      StringBuilder builder = this.appendKey(name);
+      boolean first = true;
+      for (Object entry : collection) {
+        if (!first) {
+          builder.append(',');
+        }
+        UriTemplate.appendValue(builder, entry);
+        first = false;
+      }
+    } else {
+      UriTemplate.appendValue(this.appendKey(name), value);
+    }
+  }
+
+  private @NonNull StringBuilder appendKey(@NonNull String name) {
+    this.target.append(this.oneFieldWritten ? '&' : '?').append(name).append('=');
+    this.oneFieldWritten = true;
+    return this.target;
+  }
+}
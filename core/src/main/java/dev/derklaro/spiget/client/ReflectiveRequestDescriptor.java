@@ -0,0 +1,154 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.client;
+
+import dev.derklaro.spiget.Request;
+import dev.derklaro.spiget.annotation.CacheTtl;
+import dev.derklaro.spiget.annotation.ExcludeQuery;
+import dev.derklaro.spiget.annotation.RequestData;
+import dev.derklaro.spiget.annotation.SerializedName;
+import dev.derklaro.spiget.cache.CachedResponse;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import lombok.NonNull;
+
+final class ReflectiveRequestDescriptor extends RequestDescriptor<Request<?>> {
+
+  // method handles
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final MethodType GENERIC_FIELD_GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+  private final String[] queryFieldNames;
+  private final MethodHandle[] queryFieldGetters;
+
+  @SuppressWarnings("unchecked")
+  private ReflectiveRequestDescriptor(
+    @NonNull Class<?> requestType,
+    @NonNull Type responseType,
+    @NonNull RequestData data,
+    long cacheTtlMillis,
+    @NonNull String[] queryFieldNames,
+    @NonNull MethodHandle[] queryFieldGetters
+  ) {
+    super(
+      (Class<Request<?>>) requestType,
+      responseType,
+      data.uri(),
+      data.method(),
+      data.contentType(),
+      queryFieldNames.length,
+      cacheTtlMillis);
+    this.queryFieldNames = queryFieldNames;
+    this.queryFieldGetters = queryFieldGetters;
+  }
+
+  public static @NonNull ReflectiveRequestDescriptor create(@NonNull Class<?> clazz) {
+    // get the annotation
+    RequestData data = clazz.getDeclaredAnnotation(RequestData.class);
+    Objects.requireNonNull(data, "no request annotation is present");
+    // get the response type information
+    Type responseType = null;
+    for (Type type : clazz.getGenericInterfaces()) {
+      // must be a parameterized type (Response<ResponseType>)
+      if (type instanceof ParameterizedType) {
+        // validate that the type is actually the request and has a type parameter
+        ParameterizedType parameterized = (ParameterizedType) type;
+        if (parameterized.getRawType().equals(Request.class) && parameterized.getActualTypeArguments().length == 1) {
+          responseType = parameterized.getActualTypeArguments()[0];
+          break;
+        }
+      }
+    }
+    // check if the type was given
+    if (responseType == null) {
+      throw new IllegalArgumentException("Missing type parameter.");
+    }
+
+    // get the fields which are included in the query
+    List<String> queryFieldNames = new ArrayList<>();
+    List<MethodHandle> queryFieldGetters = new ArrayList<>();
+    for (Field field : clazz.getDeclaredFields()) {
+      if (!Modifier.isStatic(field.getModifiers())
+        && !Modifier.isTransient(field.getModifiers())
+        && !field.isAnnotationPresent(ExcludeQuery.class)
+      ) {
+        try {
+          // get the name of the query parameter
+          SerializedName serializedNameData = field.getAnnotation(SerializedName.class);
+          String serializedName = serializedNameData == null ? field.getName() : serializedNameData.value();
+
+          // get a method handle for the field
+          field.setAccessible(true);
+          MethodHandle fieldGetter = LOOKUP.unreflectGetter(field);
+
+          // convert the handle to a generic one
+          queryFieldNames.add(serializedName);
+          queryFieldGetters.add(fieldGetter.asType(GENERIC_FIELD_GETTER_TYPE));
+        } catch (Exception exception) {
+          // generic exception to catch InaccessibleObjectException as well
+          throw new IllegalArgumentException(String.format(
+            "Exception getting request information for request %s (field: %s):",
+            clazz.getCanonicalName(), field
+          ), exception);
+        }
+      }
+    }
+
+    // get the time to live of cached responses, if any
+    CacheTtl cacheTtl = clazz.getDeclaredAnnotation(CacheTtl.class);
+    long cacheTtlMillis = 0;
+    if (cacheTtl != null) {
+      cacheTtlMillis = cacheTtl.value() < 0 ? CachedResponse.NEVER_EXPIRES : cacheTtl.unit().toMillis(cacheTtl.value());
+    }
+
+    // build the descriptor
+    return new ReflectiveRequestDescriptor(
+      clazz,
+      responseType,
+      data,
+      cacheTtlMillis,
+      queryFieldNames.toArray(new String[0]),
+      queryFieldGetters.toArray(new MethodHandle[0]));
+  }
+
+  @Override
+  public void writeQuery(@NonNull Request<?> request, @NonNull QueryWriter writer) {
+    for (int i = 0; i < this.queryFieldGetters.length; i++) {
+      try {
+        writer.write(this.queryFieldNames[i], (Object) this.queryFieldGetters[i].invoke(request));
+      } catch (Throwable exception) {
+        throw new IllegalStateException("Unable to use reflection on field " + this.queryFieldNames[i], exception);
+      }
+    }
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.client;
+
+import dev.derklaro.spiget.Request;
+import java.lang.reflect.Type;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.Accessors;
+
+@Getter
+@Accessors(fluent = true)
+public abstract class RequestDescriptor<R extends Request<?>> {
+
+  private final Class<R> requestType;
+  private final Type responseType;
+  private final String uri;
+  private final String requestMethod;
+  private final String contentType;
+  private final int queryFieldCount;
+  private final long cacheTtlMillis;
+
+  protected RequestDescriptor(
+    @NonNull Class<R> requestType,
+    @NonNull Type responseType,
+    @NonNull String uri,
+    @NonNull String requestMethod,
+    @NonNull String contentType,
+    int queryFieldCount,
+    long cacheTtlMillis
+  ) {
+    this.requestType = requestType;
+    this.responseType = responseType;
+    this.uri = uri;
+    this.requestMethod = requestMethod;
+    this.contentType = contentType;
+    this.queryFieldCount = queryFieldCount;
+    this.cacheTtlMillis = cacheTtlMillis;
+  }
+
+  public abstract void writeQuery(@NonNull R request, @NonNull QueryWriter writer);
+}
@@ -25,78 +25,64 @@
 package dev.derklaro.spiget.client;
 
 import dev.derklaro.spiget.Request;
-import java.lang.invoke.MethodHandle;
+import dev.derklaro.spiget.http.SpigetHttpRequest;
+import dev.derklaro.spiget.resilience.CircuitBreaker;
+import dev.derklaro.spiget.resilience.ConcurrencyLimiter;
 import java.lang.reflect.Type;
-import java.text.FieldPosition;
-import java.text.MessageFormat;
-import java.util.Collection;
-import java.util.Map;
-import java.util.Objects;
 import lombok.Data;
 import lombok.NonNull;
 import lombok.experimental.Accessors;
+import org.jetbrains.annotations.Nullable;
 
 @Data
 @Accessors(fluent = true)
 final class RequestInfo {
 
-  private static final Object[] EMPTY = new Object[0];
+  private static final int ESTIMATED_QUERY_FIELD_LENGTH = 16;
 
-  private final Type responseType;
-  private final String contentType;
-  private final MessageFormat format;
-  private final String requestMethod;
-  private final Collection<Map.Entry<String, MethodHandle>> queryFields;
+  private final RequestDescriptor<Request<?>> descriptor;
+  private final UriTemplate uriTemplate;
+  private final long cacheTtlMillis;
+  @Nullable
+  private final CircuitBreaker circuitBreaker;
+  @Nullable
+  private final ConcurrencyLimiter concurrencyLimiter;
+  @Nullable
+  private final LatencyWindow latencyWindow;
 
-  public @NonNull String formatUri(@NonNull Request<?> request, @NonNull Object... params) {
-    StringBuffer buffer = new StringBuffer();
-    // format the format for the uri
-    String[] stringified = new String[params.length];
-    for (int i = 0; i < params.length; i++) {
-      stringified[i] = Objects.toString(params[i]);
-    }
-    this.format.format(stringified, buffer, new FieldPosition(0));
+  public @NonNull Class<?> requestType() {
+    return this.descriptor.requestType();
+  }
+
+  public @NonNull Type responseType() {
+    return this.descriptor.responseType();
+  }
+
+  public @NonNull String contentType() {
+    return this.descriptor.contentType();
+  }
 
-    // append the query parameters (if any)
-    boolean oneFieldWritten = false;
-    for (Map.Entry<String, MethodHandle> queryField : this.queryFields) {
-      try {
-        // get the field value, skip nulls
-        Object fieldValue = queryField.getValue().invoke(request);
-        if (fieldValue == null) {
-          continue;
-        }
+  public @NonNull String requestMethod() {
+    return this.descriptor.requestMethod();
+  }
 
-        // change types of collections to comma seperated strings
-        String stringifiedVal;
-        if (fieldValue instanceof Collection<?>) {
-          Collection<?> col = (Collection<?>) fieldValue;
-          // skip empty collections
-          if (col.isEmpty()) {
-            continue;
-          }
+  public boolean cacheable() {
+    return this.cacheTtlMillis > 0;
+  }
 
-          // append all field values
-          StringBuilder builder = new StringBuilder();
-          for (Object o : col) {
-            builder.append(o).append(",");
-          }
+  public @NonNull SpigetHttpRequest newHttpRequest(@NonNull String uri) {
+    return SpigetHttpRequest.create(uri, this.requestMethod(), this.contentType());
+  }
 
-          // remove the last trailing comma
-          stringifiedVal = builder.substring(0, builder.length() - 1);
-        } else {
-          stringifiedVal = Objects.toString(fieldValue);
-        }
+  public @NonNull String formatUri(@NonNull Request<?> request, @NonNull Object... params) {
+    int estimatedQueryLength = this.descriptor.queryFieldCount() * ESTIMATED_QUERY_FIELD_LENGTH;
+    StringBuilder builder = new StringBuilder(this.uriTemplate.estimatedLength() + estimatedQueryLength);
 
-        // append the query parameter
-        buffer.append(oneFieldWritten ? "&" : "?").append(queryField.getKey()).append("=").append(stringifiedVal);
-        oneFieldWritten = true;
-      } catch (Throwable exception) {
-        throw new IllegalStateException("Unable to use reflection on field " + queryField, exception);
-      }
-    }
+    // render the uri template and append the query parameters (if any)
+    this.uriTemplate.render(builder, params);
+    this.descriptor.writeQuery(request, new QueryWriter(builder));
 
-    // convert the buffer to one query string
-    return buffer.toString();
+    // convert the builder to one query string
+    return builder.toString();
   }
 }
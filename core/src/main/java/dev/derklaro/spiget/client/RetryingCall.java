@@ -0,0 +1,122 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.client;
+
+import dev.derklaro.spiget.http.SpigetHttpResponse;
+import dev.derklaro.spiget.resilience.RetryPolicy;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+final class RetryingCall {
+
+  private final RetryPolicy retryPolicy;
+  private final ScheduledExecutorService scheduler;
+  private final Supplier<CompletableFuture<SpigetHttpResponse>> attemptFactory;
+  private final CompletableFuture<SpigetHttpResponse> result = new CompletableFuture<>();
+
+  private volatile CompletableFuture<SpigetHttpResponse> currentAttempt;
+
+  private RetryingCall(
+    @NonNull RetryPolicy retryPolicy,
+    @NonNull ScheduledExecutorService scheduler,
+    @NonNull Supplier<CompletableFuture<SpigetHttpResponse>> attemptFactory
+  ) {
+    this.retryPolicy = retryPolicy;
+    this.scheduler = scheduler;
+    this.attemptFactory = attemptFactory;
+  }
+
+  public static @NonNull CompletableFuture<SpigetHttpResponse> execute(
+    @NonNull RetryPolicy retryPolicy,
+    @NonNull ScheduledExecutorService scheduler,
+    @NonNull Supplier<CompletableFuture<SpigetHttpResponse>> attemptFactory
+  ) {
+    RetryingCall call = new RetryingCall(retryPolicy, scheduler, attemptFactory);
+    retryPolicy.retryBudget().onRequest();
+    call.attempt(1);
+
+    // cancelling the call cancels the attempt which is currently in flight
+    call.result.whenComplete((response, throwable) -> {
+      CompletableFuture<SpigetHttpResponse> currentAttempt = call.currentAttempt;
+      if (call.result.isCancelled() && currentAttempt != null) {
+        currentAttempt.cancel(true);
+      }
+    });
+    return call.result;
+  }
+
+  private void attempt(int attempt) {
+    // the caller is no longer interested in the result
+    if (this.result.isDone()) {
+      return;
+    }
+
+    CompletableFuture<SpigetHttpResponse> future;
+    try {
+      future = this.attemptFactory.get();
+    } catch (Throwable throwable) {
+      this.result.completeExceptionally(throwable);
+      return;
+    }
+
+    this.currentAttempt = future;
+    if (this.result.isCancelled()) {
+      future.cancel(true);
+    }
+
+    future.whenComplete((response, throwable) -> {
+      if (throwable != null) {
+        if (!this.retryPolicy.retryableFailure(throwable) || !this.scheduleRetry(attempt, null)) {
+          this.result.completeExceptionally(throwable);
+        }
+      } else if (this.retryPolicy.retryableStatus(response.statusCode()) && this.scheduleRetry(attempt, response.retryAfter())) {
+        // release the connection of the failed attempt
+        AbstractSpigetClient.closeQuietly(response);
+      } else if (!this.result.complete(response)) {
+        // the result was cancelled in the meantime
+        AbstractSpigetClient.closeQuietly(response);
+      }
+    });
+  }
+
+  private boolean scheduleRetry(int attempt, @Nullable Duration retryAfter) {
+    if (attempt >= this.retryPolicy.maxAttempts()
+      || this.result.isDone()
+      || !this.retryPolicy.retryableAfter(retryAfter)
+      || !this.retryPolicy.retryBudget().tryWithdraw()) {
+      return false;
+    }
+
+    // wait for the backoff without blocking a thread
+    Duration backoff = this.retryPolicy.backoff(attempt, retryAfter);
+    this.scheduler.schedule(() -> this.attempt(attempt + 1), backoff.toNanos(), TimeUnit.NANOSECONDS);
+    return true;
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.client;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+public final class SpigetExecutors {
+
+  // the maximum number of requests which are blocking a thread of the shared io executor at the same time
+  public static final int MAX_IO_THREADS = 64;
+
+  private SpigetExecutors() {
+    throw new UnsupportedOperationException();
+  }
+
+  public static @NonNull ScheduledExecutorService sharedScheduler() {
+    return SchedulerHolder.SCHEDULER;
+  }
+
+  public static @NonNull ExecutorService sharedIoExecutor() {
+    return IoExecutorHolder.IO_EXECUTOR;
+  }
+
+  public static @NonNull ExecutorService sharedDecodeExecutor() {
+    return DecodeExecutorHolder.DECODE_EXECUTOR;
+  }
+
+  public static boolean virtualThreadsSupported() {
+    return VirtualThreadHolder.VIRTUAL_IO_EXECUTOR != null;
+  }
+
+  public static @NonNull ExecutorService sharedVirtualThreadIoExecutor() {
+    ExecutorService executor = VirtualThreadHolder.VIRTUAL_IO_EXECUTOR;
+    if (executor == null) {
+      throw new UnsupportedOperationException("Virtual threads require Java 21 or newer");
+    }
+    return executor;
+  }
+
+  static @Nullable ExecutorService newVirtualThreadPerTaskExecutor(@NonNull String namePrefix) {
+    try {
+      // the core targets java 8, the virtual thread api is only available via reflection
+      Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix + '-', 1L);
+      ThreadFactory threadFactory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+      return (ExecutorService) Executors.class
+        .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+        .invoke(null, threadFactory);
+    } catch (ReflectiveOperationException | LinkageError exception) {
+      // not available or a preview api of this java version which is not enabled
+      return null;
+    }
+  }
+
+  static @NonNull ThreadFactory daemonThreadFactory(@NonNull String namePrefix) {
+    AtomicInteger threadCounter = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, namePrefix + '-' + threadCounter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  private static final class SchedulerHolder {
+
+    // only used to schedule delayed tasks, the tasks itself must not block
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+      daemonThreadFactory("spiget-scheduler"));
+  }
+
+  private static final class IoExecutorHolder {
+
+    // the threads are blocked by socket io, more requests wait in the queue instead of starting a thread for each
+    // request. Idle threads are released after a minute
+    private static final ExecutorService IO_EXECUTOR = newIoExecutor();
+
+    private static @NonNull ExecutorService newIoExecutor() {
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(
+        MAX_IO_THREADS,
+        MAX_IO_THREADS,
+        60L,
+        TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(),
+        daemonThreadFactory("spiget-io"));
+      executor.allowCoreThreadTimeOut(true);
+      return executor;
+    }
+  }
+
+  private static final class DecodeExecutorHolder {
+
+    // decoding is cpu bound, there is no need for more threads than processors
+    private static final ExecutorService DECODE_EXECUTOR = Executors.newFixedThreadPool(
+      Runtime.getRuntime().availableProcessors(),
+      daemonThreadFactory("spiget-decode"));
+  }
+
+  private static final class VirtualThreadHolder {
+
+    // each request runs on its own virtual thread, blocking io unmounts the virtual thread from its carrier
+    private static final ExecutorService VIRTUAL_IO_EXECUTOR = newVirtualThreadPerTaskExecutor("spiget-virtual-io");
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import lombok.NonNull;
+
+final class StreamUtil {
+
+  private static final int BUFFER_SIZE = 8192;
+  // unread response bodies up to this size are drained to allow the connection to be reused
+  private static final int MAX_DRAIN_LENGTH = 64 * 1024;
+
+  private StreamUtil() {
+    throw new UnsupportedOperationException();
+  }
+
+  public static @NonNull byte[] readAllBytes(@NonNull InputStream stream) {
+    try (InputStream in = stream) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(BUFFER_SIZE, in.available()));
+      byte[] buffer = new byte[BUFFER_SIZE];
+
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      return out.toByteArray();
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+
+  public static @NonNull byte[] drainAndClose(@NonNull InputStream stream, int keepLength) {
+    try (InputStream in = stream) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(keepLength, BUFFER_SIZE));
+      byte[] buffer = new byte[BUFFER_SIZE];
+
+      int read;
+      int totalRead = 0;
+      while (totalRead < MAX_DRAIN_LENGTH && (read = in.read(buffer)) != -1) {
+        // keep the requested amount of bytes, discard the rest
+        int keep = Math.min(read, keepLength - out.size());
+        if (keep > 0) {
+          out.write(buffer, 0, keep);
+        }
+        totalRead += read;
+      }
+      return out.toByteArray();
+    } catch (IOException exception) {
+      // the connection is unusable anyway
+      return new byte[0];
+    }
+  }
+
+  public static void skipAndClose(@NonNull InputStream stream) {
+    try (InputStream in = stream) {
+      // skipping in-memory bodies is cheap and still counts the received bytes
+      while (in.skip(Long.MAX_VALUE) > 0) {
+        // skip until the end of the stream
+      }
+    } catch (IOException ignored) {
+    }
+  }
+}
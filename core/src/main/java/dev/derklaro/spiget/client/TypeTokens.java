@@ -0,0 +1,99 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.client;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Objects;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+public final class TypeTokens {
+
+  private TypeTokens() {
+    throw new UnsupportedOperationException();
+  }
+
+  public static @NonNull ParameterizedType parameterized(@NonNull Class<?> rawType, @NonNull Type... typeArguments) {
+    return new ParameterizedTypeImpl(rawType, typeArguments.clone());
+  }
+
+  private static final class ParameterizedTypeImpl implements ParameterizedType {
+
+    private final Class<?> rawType;
+    private final Type[] typeArguments;
+
+    private ParameterizedTypeImpl(@NonNull Class<?> rawType, @NonNull Type[] typeArguments) {
+      this.rawType = rawType;
+      this.typeArguments = typeArguments;
+    }
+
+    @Override
+    public @NonNull Type[] getActualTypeArguments() {
+      return this.typeArguments.clone();
+    }
+
+    @Override
+    public @NonNull Type getRawType() {
+      return this.rawType;
+    }
+
+    @Override
+    public @Nullable Type getOwnerType() {
+      return this.rawType.getDeclaringClass();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      // compatible with the jdk implementation, as defined by the ParameterizedType contract
+      if (!(other instanceof ParameterizedType)) {
+        return false;
+      }
+
+      ParameterizedType that = (ParameterizedType) other;
+      return this.rawType.equals(that.getRawType())
+        && Objects.equals(this.getOwnerType(), that.getOwnerType())
+        && Arrays.equals(this.typeArguments, that.getActualTypeArguments());
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(this.typeArguments) ^ Objects.hashCode(this.getOwnerType()) ^ this.rawType.hashCode();
+    }
+
+    @Override
+    public @NonNull String toString() {
+      StringBuilder builder = new StringBuilder(this.rawType.getName()).append('<');
+      for (int i = 0; i < this.typeArguments.length; i++) {
+        if (i != 0) {
+          builder.append(", ");
+        }
+        builder.append(this.typeArguments[i].getTypeName());
+      }
+      return builder.append('>').toString();
+    }
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.NonNull;
+
+final class UriTemplate {
+
+  private static final int ESTIMATED_PARAM_LENGTH = 8;
+
+  private final String[] literals;
+  private final int[] paramIndexes;
+  private final int estimatedLength;
+
+  private UriTemplate(@NonNull String[] literals, int[] paramIndexes) {
+    this.literals = literals;
+    this.paramIndexes = paramIndexes;
+
+    // the length of all literals plus an estimate for each parameter
+    int literalLength = 0;
+    for (String literal : literals) {
+      literalLength += literal.length();
+    }
+    this.estimatedLength = literalLength + (paramIndexes.length * ESTIMATED_PARAM_LENGTH);
+  }
+
+  public static @NonNull UriTemplate compile(@NonNull String template) {
+    List<String> literals = new ArrayList<>();
+    List<Integer> paramIndexes = new ArrayList<>();
+
+    int literalStart = 0;
+    int openIndex = template.indexOf('{');
+    while (openIndex != -1) {
+      int closeIndex = template.indexOf('}', openIndex);
+      if (closeIndex == -1) {
+        throw new IllegalArgumentException("Unclosed parameter in uri template " + template);
+      }
+
+      // parse the parameter index, for example {0}
+      int paramIndex;
+      try {
+        paramIndex = Integer.parseInt(template.substring(openIndex + 1, closeIndex));
+      } catch (NumberFormatException exception) {
+        throw new IllegalArgumentException("Invalid parameter in uri template " + template, exception);
+      }
+
+      // register the literal before the parameter and the parameter itself
+      literals.add(template.substring(literalStart, openIndex));
+      paramIndexes.add(paramIndex);
+
+      literalStart = closeIndex + 1;
+      openIndex = template.indexOf('{', literalStart);
+    }
+
+    // the trailing literal, might be empty
+    literals.add(template.substring(literalStart));
+
+    int[] indexes = new int[paramIndexes.size()];
+    for (int i = 0; i < indexes.length; i++) {
+      indexes[i] = paramIndexes.get(i);
+    }
+    return new UriTemplate(literals.toArray(new String[0]), indexes);
+  }
+
+  public int estimatedLength() {
+    return this.estimatedLength;
+  }
+
+  public void render(@NonNull StringBuilder target, @NonNull Object... params) {
+    for (int i = 0; i < this.paramIndexes.length; i++) {
+      target.append(this.literals[i]);
+
+      int paramIndex = this.paramIndexes[i];
+      if (paramIndex < params.length) {
+        appendValue(target, params[paramIndex]);
+      } else {
+        // keep the placeholder, same as MessageFormat did for missing arguments
+        target.append('{').append(paramIndex).append('}');
+      }
+    }
+
+    // append the trailing literal
+    target.append(this.literals[this.paramIndexes.length]);
+  }
+
+  static void appendValue(@NonNull StringBuilder target, Object value) {
+    // append the common primitive wrappers directly to prevent the string allocation
+    if (value instanceof Integer) {
+      target.append((int) value);
+    } else if (value instanceof Long) {
+      target.append((long) value);
+    } else if (value instanceof CharSequence) {
+      target.append((CharSequence) value);
+    } else {
+      target.append(value);
+    }
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.event;
+
+import dev.derklaro.spiget.Request;
+import lombok.NonNull;
+
+public abstract class EventListener {
+
+  // used when no factory is configured, all calls to it are no-ops
+  public static final EventListener NONE = new EventListener() {
+  };
+
+  public void callStart() {
+  }
+
+  public void uriBuilt(@NonNull String uri) {
+  }
+
+  public void cacheHit(@NonNull String uri) {
+  }
+
+  // an attempt to send the request was started and waits for the client-side limits (if any)
+  public void requestQueued() {
+  }
+
+  // the request was passed to the transport
+  public void requestDispatched() {
+  }
+
+  // only reported by transports which are able to tell
+  public void connectionAcquired() {
+  }
+
+  // only reported by transports which are able to tell
+  public void requestSent() {
+  }
+
+  public void responseHeadersReceived(int statusCode) {
+  }
+
+  public void responseBodyEnd(long bytes) {
+  }
+
+  public void decodeStart() {
+  }
+
+  public void decodeEnd() {
+  }
+
+  public void callEnd() {
+  }
+
+  public void callFailed(@NonNull Throwable throwable) {
+  }
+
+  @FunctionalInterface
+  public interface Factory {
+
+    // called once for each request, the listener may keep state for the request
+    @NonNull EventListener create(@NonNull Request<?> request);
+  }
+}
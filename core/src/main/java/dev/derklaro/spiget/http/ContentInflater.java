@@ -0,0 +1,322 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.http;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+// decompresses a gzip or deflate encoded body from the chunks given to it, using inflaters from a shared pool
+public final class ContentInflater {
+
+  public static final String ACCEPTED_ENCODINGS = "gzip, deflate";
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private static final int DEFLATE_METHOD = 8;
+  private static final int GZIP_MAGIC_1 = 0x1F;
+  private static final int GZIP_MAGIC_2 = 0x8B;
+  private static final int GZIP_HEADER_LENGTH = 10;
+  private static final int GZIP_TRAILER_LENGTH = 8;
+
+  private static final int FLAG_HEADER_CRC = 2;
+  private static final int FLAG_EXTRA = 4;
+  private static final int FLAG_NAME = 8;
+  private static final int FLAG_COMMENT = 16;
+
+  private final boolean gzip;
+  private final CRC32 crc;
+  private final byte[] input = new byte[BUFFER_SIZE];
+  private final ByteBuffer output = ByteBuffer.allocate(BUFFER_SIZE);
+  private final byte[] trailer = new byte[GZIP_TRAILER_LENGTH];
+
+  private State state;
+  private ByteBuffer pending;
+  private Inflater inflater;
+  private boolean nowrap;
+
+  // the bytes of the input array which were not consumed by the inflater
+  private int inputOffset;
+  private int inputLength;
+
+  // the position in the fixed part of the gzip header, the optional parts or the trailer
+  private int position;
+  private int flags;
+  private int extraLength;
+  private long bytesWritten;
+
+  private ContentInflater(boolean gzip) {
+    this.gzip = gzip;
+    this.crc = gzip ? new CRC32() : null;
+    this.state = gzip ? State.HEADER : State.BODY;
+  }
+
+  // null if the body is not compressed or uses an unsupported encoding
+  public static @Nullable ContentInflater forEncoding(@Nullable String contentEncoding) {
+    if (contentEncoding == null) {
+      return null;
+    }
+
+    switch (contentEncoding.trim().toLowerCase(Locale.ROOT)) {
+      case "gzip":
+      case "x-gzip":
+        return new ContentInflater(true);
+      case "deflate":
+        return new ContentInflater(false);
+      default:
+        return null;
+    }
+  }
+
+  // the chunk is consumed by calls to output, it must not be changed until it has no remaining bytes
+  public void input(@NonNull ByteBuffer chunk) {
+    this.pending = chunk;
+  }
+
+  // returns the next decompressed bytes, only valid until the next call, or null if more input is needed
+  public @Nullable ByteBuffer output() throws IOException {
+    while (true) {
+      switch (this.state) {
+        case HEADER:
+        case EXTRA_LENGTH:
+        case EXTRA:
+        case NAME:
+        case COMMENT:
+        case HEADER_CRC:
+        case TRAILER:
+          int next = this.nextByte();
+          if (next == -1) {
+            return null;
+          }
+          this.consume(next);
+          break;
+        case BODY:
+          ByteBuffer inflated = this.inflate();
+          if (inflated != null || this.state == State.BODY) {
+            return inflated;
+          }
+          break;
+        default:
+          return null;
+      }
+    }
+  }
+
+  public boolean finished() {
+    return this.state == State.DONE;
+  }
+
+  public void release() {
+    if (this.inflater != null) {
+      InflaterPool.release(this.inflater, this.nowrap);
+      this.inflater = null;
+    }
+  }
+
+  public @NonNull ResponseBody inflating(@NonNull ResponseBody body) {
+    return new InflatingResponseBody(body, this);
+  }
+
+  private @Nullable ByteBuffer inflate() throws IOException {
+    if (this.inflater == null) {
+      // deflate bodies should have a zlib header, but some servers send raw deflate data
+      this.nowrap = this.gzip || !this.zlibHeaderAhead();
+      this.inflater = InflaterPool.acquire(this.nowrap);
+    }
+
+    while (true) {
+      if (this.inflater.finished()) {
+        // the unconsumed input belongs to the gzip trailer
+        this.bytesWritten = this.inflater.getBytesWritten();
+        this.release();
+        this.position = 0;
+        this.state = this.gzip ? State.TRAILER : State.DONE;
+        return null;
+      }
+
+      if (this.inflater.needsInput()) {
+        if (this.pending == null || !this.pending.hasRemaining()) {
+          return null;
+        }
+
+        int length = Math.min(this.input.length, this.pending.remaining());
+        this.pending.get(this.input, 0, length);
+        this.inputOffset = 0;
+        this.inputLength = length;
+        this.inflater.setInput(this.input, 0, length);
+      }
+
+      int inflated;
+      try {
+        inflated = this.inflater.inflate(this.output.array(), 0, this.output.capacity());
+      } catch (DataFormatException exception) {
+        throw new ZipException("Invalid compressed response body: " + exception.getMessage());
+      }
+      this.inputOffset = this.inputLength - this.inflater.getRemaining();
+
+      if (inflated > 0) {
+        if (this.crc != null) {
+          this.crc.update(this.output.array(), 0, inflated);
+        }
+        this.output.clear().limit(inflated);
+        return this.output;
+      }
+
+      if (this.inflater.needsDictionary()) {
+        throw new ZipException("Compressed response body requires a preset dictionary");
+      }
+    }
+  }
+
+  private boolean zlibHeaderAhead() {
+    if (this.pending == null || this.pending.remaining() < 2) {
+      return true;
+    }
+
+    int cmf = this.pending.get(this.pending.position()) & 0xFF;
+    int flg = this.pending.get(this.pending.position() + 1) & 0xFF;
+    return (cmf & 0x0F) == DEFLATE_METHOD && ((cmf << 8) | flg) % 31 == 0;
+  }
+
+  private int nextByte() {
+    if (this.inputOffset < this.inputLength) {
+      return this.input[this.inputOffset++] & 0xFF;
+    }
+    if (this.pending != null && this.pending.hasRemaining()) {
+      return this.pending.get() & 0xFF;
+    }
+    return -1;
+  }
+
+  private void consume(int value) throws IOException {
+    switch (this.state) {
+      case HEADER:
+        if ((this.position == 0 && value != GZIP_MAGIC_1) || (this.position == 1 && value != GZIP_MAGIC_2)) {
+          throw new ZipException("Response body is not in gzip format");
+        }
+        if (this.position == 2 && value != DEFLATE_METHOD) {
+          throw new ZipException("Unsupported gzip compression method " + value);
+        }
+        if (this.position == 3) {
+          this.flags = value;
+        }
+        if (++this.position == GZIP_HEADER_LENGTH) {
+          this.position = 0;
+          this.nextHeaderPart();
+        }
+        break;
+      case EXTRA_LENGTH:
+        // little endian length of the extra field
+        this.extraLength |= value << (8 * this.position);
+        if (++this.position == 2) {
+          this.position = 0;
+          this.state = State.EXTRA;
+          if (this.extraLength == 0) {
+            this.nextHeaderPart();
+          }
+        }
+        break;
+      case EXTRA:
+        if (--this.extraLength == 0) {
+          this.nextHeaderPart();
+        }
+        break;
+      case NAME:
+      case COMMENT:
+        // zero terminated strings
+        if (value == 0) {
+          this.nextHeaderPart();
+        }
+        break;
+      case HEADER_CRC:
+        if (++this.position == 2) {
+          this.position = 0;
+          this.nextHeaderPart();
+        }
+        break;
+      case TRAILER:
+        this.trailer[this.position++] = (byte) value;
+        if (this.position == GZIP_TRAILER_LENGTH) {
+          this.verifyTrailer();
+          this.state = State.DONE;
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  private void nextHeaderPart() {
+    // the optional header fields follow in a fixed order, each flag is cleared once the field was read
+    if ((this.flags & FLAG_EXTRA) != 0) {
+      this.flags &= ~FLAG_EXTRA;
+      this.state = State.EXTRA_LENGTH;
+    } else if ((this.flags & FLAG_NAME) != 0) {
+      this.flags &= ~FLAG_NAME;
+      this.state = State.NAME;
+    } else if ((this.flags & FLAG_COMMENT) != 0) {
+      this.flags &= ~FLAG_COMMENT;
+      this.state = State.COMMENT;
+    } else if ((this.flags & FLAG_HEADER_CRC) != 0) {
+      this.flags &= ~FLAG_HEADER_CRC;
+      this.state = State.HEADER_CRC;
+    } else {
+      this.state = State.BODY;
+    }
+  }
+
+  private void verifyTrailer() throws IOException {
+    long expectedCrc = readInt(this.trailer, 0) & 0xFFFFFFFFL;
+    long expectedSize = readInt(this.trailer, 4) & 0xFFFFFFFFL;
+    if (expectedCrc != this.crc.getValue() || expectedSize != (this.bytesWritten & 0xFFFFFFFFL)) {
+      throw new ZipException("Corrupt gzip trailer");
+    }
+  }
+
+  private static int readInt(byte[] bytes, int offset) {
+    return (bytes[offset] & 0xFF)
+      | (bytes[offset + 1] & 0xFF) << 8
+      | (bytes[offset + 2] & 0xFF) << 16
+      | (bytes[offset + 3] & 0xFF) << 24;
+  }
+
+  private enum State {
+    HEADER,
+    EXTRA_LENGTH,
+    EXTRA,
+    NAME,
+    COMMENT,
+    HEADER_CRC,
+    BODY,
+    TRAILER,
+    DONE
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.http;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Inflater;
+import lombok.NonNull;
+
+// inflaters hold native memory, reuse them instead of waiting for the gc to free them
+final class InflaterPool {
+
+  private static final int MAX_POOLED = 32;
+
+  private static final InflaterPool WRAPPED = new InflaterPool();
+  private static final InflaterPool RAW = new InflaterPool();
+
+  private final Queue<Inflater> inflaters = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pooled = new AtomicInteger();
+
+  // raw inflaters are used for gzip bodies and deflate bodies without zlib header
+  public static @NonNull Inflater acquire(boolean nowrap) {
+    InflaterPool pool = nowrap ? RAW : WRAPPED;
+    Inflater inflater = pool.inflaters.poll();
+    if (inflater == null) {
+      return new Inflater(nowrap);
+    }
+
+    pool.pooled.decrementAndGet();
+    return inflater;
+  }
+
+  public static void release(@NonNull Inflater inflater, boolean nowrap) {
+    InflaterPool pool = nowrap ? RAW : WRAPPED;
+    if (pool.pooled.incrementAndGet() <= MAX_POOLED) {
+      inflater.reset();
+      pool.inflaters.offer(inflater);
+    } else {
+      pool.pooled.decrementAndGet();
+      inflater.end();
+    }
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.http;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+final class InflatingResponseBody extends ResponseBody {
+
+  private final ResponseBody delegate;
+  private final ContentInflater inflater;
+
+  private boolean receivedInput;
+
+  public InflatingResponseBody(@NonNull ResponseBody delegate, @NonNull ContentInflater inflater) {
+    // the length of the decompressed body is unknown
+    super(-1);
+    this.delegate = delegate;
+    this.inflater = inflater;
+  }
+
+  @Override
+  public boolean buffered() {
+    return this.delegate.buffered();
+  }
+
+  @Override
+  protected @Nullable ByteBuffer readChunk() throws IOException {
+    while (true) {
+      ByteBuffer inflated = this.inflater.output();
+      if (inflated != null) {
+        return inflated;
+      }
+
+      if (this.inflater.finished()) {
+        // read to the end of the compressed body to allow the transport to reuse the connection
+        ByteBuffer remaining;
+        while ((remaining = this.delegate.nextChunk()) != null) {
+          remaining.position(remaining.limit());
+        }
+        return null;
+      }
+
+      ByteBuffer chunk = this.delegate.nextChunk();
+      if (chunk == null) {
+        // some servers send the encoding header for empty bodies as well
+        if (!this.receivedInput) {
+          return null;
+        }
+        throw new EOFException("Unexpected end of compressed response body");
+      }
+
+      this.receivedInput = true;
+      this.inflater.input(chunk);
+    }
+  }
+
+  @Override
+  protected void doRelease() {
+    try {
+      this.delegate.release();
+    } finally {
+      this.inflater.release();
+    }
+  }
+}
@@ -0,0 +1,314 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.http;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Collections;
+import java.util.List;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+// the body of a response, read either as chunks, as a channel or as a stream and released explicitly afterwards
+public abstract class ResponseBody implements Closeable {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final long contentLength;
+
+  private ByteBuffer currentChunk;
+  private volatile boolean released;
+
+  protected ResponseBody(long contentLength) {
+    this.contentLength = contentLength;
+  }
+
+  public static @NonNull ResponseBody empty() {
+    return ofBuffers(Collections.emptyList());
+  }
+
+  public static @NonNull ResponseBody ofStream(@NonNull InputStream stream, long contentLength) {
+    return new StreamResponseBody(stream, contentLength);
+  }
+
+  public static @NonNull ResponseBody ofBuffers(@NonNull List<ByteBuffer> buffers) {
+    long contentLength = 0;
+    for (ByteBuffer buffer : buffers) {
+      contentLength += buffer.remaining();
+    }
+    return new BuffersResponseBody(buffers, contentLength);
+  }
+
+  // -1 if the length of the body is unknown
+  public long contentLength() {
+    return this.contentLength;
+  }
+
+  public boolean released() {
+    return this.released;
+  }
+
+  // true if the full body was received, reading it never blocks
+  public boolean buffered() {
+    return false;
+  }
+
+  // returns the chunk to read from next or null at the end of the body. The bytes of the chunk are consumed by moving
+  // its position, the chunk may be reused by the transport once all bytes were consumed or the body was released
+  public @Nullable ByteBuffer nextChunk() throws IOException {
+    if (this.released) {
+      throw new IOException("Response body was already released");
+    }
+
+    ByteBuffer chunk = this.currentChunk;
+    while (chunk == null || !chunk.hasRemaining()) {
+      chunk = this.readChunk();
+      if (chunk == null) {
+        this.currentChunk = null;
+        return null;
+      }
+    }
+
+    this.currentChunk = chunk;
+    return chunk;
+  }
+
+  // number of bytes which can be read without blocking
+  public int available() {
+    ByteBuffer chunk = this.currentChunk;
+    return chunk == null ? 0 : chunk.remaining();
+  }
+
+  public @NonNull InputStream stream() {
+    return new ChunkInputStream();
+  }
+
+  public @NonNull ReadableByteChannel channel() {
+    return new ChunkChannel();
+  }
+
+  // gives the resources of the body back to the transport. The connection is reused if the body was fully read
+  public final void release() {
+    if (!this.released) {
+      this.released = true;
+      this.currentChunk = null;
+      this.doRelease();
+    }
+  }
+
+  @Override
+  public void close() {
+    this.release();
+  }
+
+  // returns the next chunk received from the transport, or null if the body ended
+  protected abstract @Nullable ByteBuffer readChunk() throws IOException;
+
+  protected abstract void doRelease();
+
+  private final class ChunkInputStream extends InputStream {
+
+    @Override
+    public int read() throws IOException {
+      ByteBuffer chunk = ResponseBody.this.released ? null : ResponseBody.this.nextChunk();
+      return chunk == null ? -1 : chunk.get() & 0xFF;
+    }
+
+    @Override
+    public int read(@NonNull byte[] buffer, int offset, int length) throws IOException {
+      if (length == 0) {
+        return 0;
+      }
+
+      ByteBuffer chunk = ResponseBody.this.released ? null : ResponseBody.this.nextChunk();
+      if (chunk == null) {
+        return -1;
+      }
+
+      int read = Math.min(length, chunk.remaining());
+      chunk.get(buffer, offset, read);
+      return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = 0;
+      ByteBuffer chunk;
+      while (skipped < n && !ResponseBody.this.released && (chunk = ResponseBody.this.nextChunk()) != null) {
+        int skip = (int) Math.min(n - skipped, chunk.remaining());
+        chunk.position(chunk.position() + skip);
+        skipped += skip;
+      }
+      return skipped;
+    }
+
+    @Override
+    public int available() {
+      return ResponseBody.this.available();
+    }
+
+    @Override
+    public void close() {
+      ResponseBody.this.release();
+    }
+  }
+
+  private final class ChunkChannel implements ReadableByteChannel {
+
+    @Override
+    public int read(@NonNull ByteBuffer dst) throws IOException {
+      if (ResponseBody.this.released) {
+        throw new ClosedChannelException();
+      }
+
+      ByteBuffer chunk = ResponseBody.this.nextChunk();
+      if (chunk == null) {
+        return -1;
+      }
+
+      // copy as much as fits into the target buffer without moving the limit of the chunk
+      int read = Math.min(dst.remaining(), chunk.remaining());
+      ByteBuffer slice = chunk.duplicate();
+      slice.limit(slice.position() + read);
+      dst.put(slice);
+      chunk.position(chunk.position() + read);
+      return read;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return !ResponseBody.this.released;
+    }
+
+    @Override
+    public void close() {
+      ResponseBody.this.release();
+    }
+  }
+
+  private static final class StreamResponseBody extends ResponseBody {
+
+    private final InputStream stream;
+    private ByteBuffer buffer;
+
+    private StreamResponseBody(@NonNull InputStream stream, long contentLength) {
+      super(contentLength);
+      this.stream = stream;
+    }
+
+    @Override
+    public @NonNull InputStream stream() {
+      // no need to copy the data into chunks first
+      return new ReleasingInputStream(this.stream, this);
+    }
+
+    @Override
+    public int available() {
+      try {
+        return super.available() + this.stream.available();
+      } catch (IOException exception) {
+        return super.available();
+      }
+    }
+
+    @Override
+    protected @Nullable ByteBuffer readChunk() throws IOException {
+      if (this.buffer == null) {
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+      }
+
+      int read = this.stream.read(this.buffer.array());
+      if (read == -1) {
+        return null;
+      }
+
+      this.buffer.clear().limit(read);
+      return this.buffer;
+    }
+
+    @Override
+    protected void doRelease() {
+      try {
+        this.stream.close();
+      } catch (IOException ignored) {
+      }
+    }
+  }
+
+  private static final class BuffersResponseBody extends ResponseBody {
+
+    private final List<ByteBuffer> buffers;
+    private int nextBuffer;
+
+    private BuffersResponseBody(@NonNull List<ByteBuffer> buffers, long contentLength) {
+      super(contentLength);
+      this.buffers = buffers;
+    }
+
+    @Override
+    public boolean buffered() {
+      return true;
+    }
+
+    @Override
+    public int available() {
+      long available = super.available();
+      for (int i = this.nextBuffer; i < this.buffers.size(); i++) {
+        available += this.buffers.get(i).remaining();
+      }
+      return (int) Math.min(Integer.MAX_VALUE, available);
+    }
+
+    @Override
+    protected @Nullable ByteBuffer readChunk() {
+      return this.nextBuffer < this.buffers.size() ? this.buffers.get(this.nextBuffer++) : null;
+    }
+
+    @Override
+    protected void doRelease() {
+      // the buffers are garbage collected
+    }
+  }
+
+  private static final class ReleasingInputStream extends FilterInputStream {
+
+    private final ResponseBody body;
+
+    private ReleasingInputStream(@NonNull InputStream in, @NonNull ResponseBody body) {
+      super(in);
+      this.body = body;
+    }
+
+    @Override
+    public void close() {
+      this.body.release();
+    }
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.http;
+
+import dev.derklaro.spiget.event.EventListener;
+import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Data;
+import lombok.NonNull;
+import lombok.experimental.Accessors;
+import org.jetbrains.annotations.Nullable;
+
+@Data(staticConstructor = "create")
+@Accessors(fluent = true, chain = true)
+public final class SpigetHttpRequest {
+
+  private final String uri;
+  private final String method;
+  private final String contentType;
+
+  // the encoded request body, sent as is by the transport
+  @Nullable
+  private byte[] body;
+  // the type the body of a successful response gets decoded to, null if the body is not decoded
+  @Nullable
+  private Type responseType;
+  private final Map<String, String> headers = new LinkedHashMap<>();
+
+  @NonNull
+  private EventListener eventListener = EventListener.NONE;
+
+  public @NonNull SpigetHttpRequest header(@NonNull String name, @NonNull String value) {
+    this.headers.put(name, value);
+    return this;
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.http;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.Accessors;
+import org.jetbrains.annotations.Nullable;
+
+@Getter
+@Accessors(fluent = true)
+public final class SpigetHttpResponse implements Closeable {
+
+  private final int statusCode;
+  private final Map<String, List<String>> headers;
+  private final ResponseBody body;
+  // set if the transport already decoded the body while it was received
+  private final Object decodedBody;
+  // the time the transport spent decoding the body, only set together with the decoded body
+  private final long decodeNanos;
+
+  private SpigetHttpResponse(
+    int statusCode,
+    @NonNull Map<String, List<String>> headers,
+    @NonNull ResponseBody body,
+    @Nullable Object decodedBody,
+    long decodeNanos
+  ) {
+    this.statusCode = statusCode;
+    this.headers = headers;
+    this.body = body;
+    this.decodedBody = decodedBody;
+    this.decodeNanos = decodeNanos;
+  }
+
+  public static @NonNull SpigetHttpResponse of(
+    int statusCode,
+    @NonNull Map<String, List<String>> headers,
+    @Nullable InputStream body
+  ) {
+    Map<String, List<String>> caseInsensitiveHeaders = caseInsensitive(headers);
+    return new SpigetHttpResponse(
+      statusCode,
+      caseInsensitiveHeaders,
+      body == null ? ResponseBody.empty() : ResponseBody.ofStream(body, contentLength(caseInsensitiveHeaders)),
+      null,
+      0);
+  }
+
+  public static @NonNull SpigetHttpResponse ofBody(
+    int statusCode,
+    @NonNull Map<String, List<String>> headers,
+    @NonNull ResponseBody body
+  ) {
+    return new SpigetHttpResponse(statusCode, caseInsensitive(headers), body, null, 0);
+  }
+
+  private static @NonNull Map<String, List<String>> caseInsensitive(@NonNull Map<String, List<String>> headers) {
+    // header names are case-insensitive
+    Map<String, List<String>> caseInsensitiveHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+      // HttpURLConnection uses a null key for the status line
+      if (entry.getKey() != null) {
+        caseInsensitiveHeaders.put(entry.getKey(), entry.getValue());
+      }
+    }
+    return Collections.unmodifiableMap(caseInsensitiveHeaders);
+  }
+
+  private static long contentLength(@NonNull Map<String, List<String>> headers) {
+    List<String> values = headers.get(HttpHeaderNames.CONTENT_LENGTH);
+    if (values == null || values.isEmpty()) {
+      return -1;
+    }
+
+    try {
+      return Long.parseLong(values.get(0).trim());
+    } catch (NumberFormatException exception) {
+      return -1;
+    }
+  }
+
+  public @NonNull SpigetHttpResponse withBody(@NonNull ResponseBody body) {
+    return new SpigetHttpResponse(this.statusCode, this.headers, body, this.decodedBody, this.decodeNanos);
+  }
+
+  public @NonNull SpigetHttpResponse withDecodedBody(@NonNull Object decodedBody, long decodeNanos) {
+    return new SpigetHttpResponse(this.statusCode, this.headers, this.body, decodedBody, decodeNanos);
+  }
+
+  @SuppressWarnings("unchecked")
+  public @Nullable <T> T decodedBody() {
+    return (T) this.decodedBody;
+  }
+
+  public @Nullable String header(@NonNull String name) {
+    List<String> values = this.headers.get(name);
+    return values == null || values.isEmpty() ? null : values.get(0);
+  }
+
+  public @Nullable Duration retryAfter() {
+    String retryAfter = this.header(HttpHeaderNames.RETRY_AFTER);
+    if (retryAfter == null) {
+      return null;
+    }
+
+    try {
+      // the header value is either a delay in seconds or a http date
+      if (!retryAfter.isEmpty() && Character.isDigit(retryAfter.charAt(0))) {
+        return Duration.ofSeconds(Long.parseLong(retryAfter.trim()));
+      } else {
+        ZonedDateTime retryAt = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+        Duration delay = Duration.between(ZonedDateTime.now(retryAt.getZone()), retryAt);
+        return delay.isNegative() ? Duration.ZERO : delay;
+      }
+    } catch (NumberFormatException | DateTimeParseException exception) {
+      return null;
+    }
+  }
+
+  public boolean successful() {
+    return this.statusCode >= 200 && this.statusCode < 300;
+  }
+
+  @Override
+  public void close() {
+    this.body.release();
+  }
+}
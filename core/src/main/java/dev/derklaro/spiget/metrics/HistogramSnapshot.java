@@ -0,0 +1,75 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.metrics;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.Accessors;
+
+@Getter
+@Accessors(fluent = true)
+public final class HistogramSnapshot {
+
+  @Getter(AccessLevel.NONE)
+  private final long[] bucketCounts;
+  private final long count;
+  private final long sum;
+  private final long max;
+
+  HistogramSnapshot(@NonNull long[] bucketCounts, long sum, long max) {
+    this.bucketCounts = bucketCounts;
+    this.sum = sum;
+    this.max = max;
+
+    // the count is derived from the buckets to be consistent with the percentiles
+    long count = 0;
+    for (long bucketCount : bucketCounts) {
+      count += bucketCount;
+    }
+    this.count = count;
+  }
+
+  public double mean() {
+    return this.count == 0 ? 0 : (double) this.sum / this.count;
+  }
+
+  public long percentile(double percentile) {
+    if (this.count == 0) {
+      return 0;
+    }
+
+    // walk the buckets until the requested rank is reached
+    long rank = Math.max(1, (long) Math.ceil(percentile * this.count));
+    long seen = 0;
+    for (int i = 0; i < this.bucketCounts.length; i++) {
+      seen += this.bucketCounts[i];
+      if (seen >= rank) {
+        return Math.min(this.max, LatencyHistogram.highestValueInBucket(i));
+      }
+    }
+    return this.max;
+  }
+}
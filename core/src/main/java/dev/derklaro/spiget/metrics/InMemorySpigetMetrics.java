@@ -0,0 +1,112 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.metrics;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.NonNull;
+
+public final class InMemorySpigetMetrics implements SpigetMetrics {
+
+  // index 0 counts the failures without a status code
+  private static final int MAX_STATUS_CODE = 599;
+
+  private final Map<Class<?>, RequestMetrics> metrics = new ConcurrentHashMap<>();
+
+  private InMemorySpigetMetrics() {
+  }
+
+  public static @NonNull InMemorySpigetMetrics create() {
+    return new InMemorySpigetMetrics();
+  }
+
+  @Override
+  public void requestStarted(@NonNull Class<?> requestType) {
+    this.metrics(requestType).inFlight.incrementAndGet();
+  }
+
+  @Override
+  public void requestFinished(@NonNull Class<?> requestType, int statusCode, long latencyNanos) {
+    RequestMetrics metrics = this.metrics(requestType);
+    metrics.inFlight.decrementAndGet();
+    metrics.latency.record(latencyNanos);
+    metrics.statusCounts.incrementAndGet(statusCode > 0 && statusCode <= MAX_STATUS_CODE ? statusCode : 0);
+  }
+
+  @Override
+  public void bytesReceived(@NonNull Class<?> requestType, long bytes) {
+    this.metrics(requestType).bytesReceived.add(bytes);
+  }
+
+  @Override
+  public void decoded(@NonNull Class<?> requestType, long decodeNanos) {
+    this.metrics(requestType).decodeTime.record(decodeNanos);
+  }
+
+  public @NonNull Map<Class<?>, RequestMetricsSnapshot> snapshot() {
+    Map<Class<?>, RequestMetricsSnapshot> snapshots = new HashMap<>();
+    this.metrics.forEach((requestType, metrics) -> snapshots.put(requestType, metrics.snapshot()));
+    return snapshots;
+  }
+
+  private @NonNull RequestMetrics metrics(@NonNull Class<?> requestType) {
+    // get first to prevent the allocation of the computing lambda for existing entries
+    RequestMetrics metrics = this.metrics.get(requestType);
+    return metrics != null ? metrics : this.metrics.computeIfAbsent(requestType, type -> new RequestMetrics());
+  }
+
+  private static final class RequestMetrics {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final AtomicLongArray statusCounts = new AtomicLongArray(MAX_STATUS_CODE + 1);
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram decodeTime = new LatencyHistogram();
+
+    private @NonNull RequestMetricsSnapshot snapshot() {
+      Map<Integer, Long> statusCounts = new TreeMap<>();
+      for (int statusCode = 1; statusCode <= MAX_STATUS_CODE; statusCode++) {
+        long count = this.statusCounts.get(statusCode);
+        if (count > 0) {
+          statusCounts.put(statusCode, count);
+        }
+      }
+
+      return new RequestMetricsSnapshot(
+        this.inFlight.get(),
+        this.statusCounts.get(0),
+        this.bytesReceived.sum(),
+        Collections.unmodifiableMap(statusCounts),
+        this.latency.snapshot(),
+        this.decodeTime.snapshot());
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.NonNull;
+
+public final class LatencyHistogram {
+
+  // each power of two is split into 32 linear sub buckets, giving a precision of about 3%
+  static final int SUB_BUCKET_BITS = 5;
+  static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  // values above 2^36 nanoseconds (about 68 seconds) are recorded as the maximum value
+  static final int MAX_MAGNITUDE = 35;
+  static final long MAX_VALUE = (1L << (MAX_MAGNITUDE + 1)) - 1;
+  static final int BUCKET_COUNT = ((MAX_MAGNITUDE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT) + (2 * SUB_BUCKET_COUNT);
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+  private final LongAdder totalSum = new LongAdder();
+  private final AtomicLong maxValue = new AtomicLong();
+
+  static int bucketIndex(long value) {
+    long clamped = Math.max(0, Math.min(MAX_VALUE, value));
+    if (clamped < SUB_BUCKET_COUNT) {
+      return (int) clamped;
+    }
+
+    // the top bits of the value select the sub bucket in the bucket of its magnitude
+    int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(clamped)) - SUB_BUCKET_BITS;
+    return (shift * SUB_BUCKET_COUNT) + (int) (clamped >>> shift);
+  }
+
+  static long highestValueInBucket(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+
+    int shift = (index / SUB_BUCKET_COUNT) - 1;
+    long subBucket = (index % SUB_BUCKET_COUNT) + SUB_BUCKET_COUNT;
+    return ((subBucket + 1) << shift) - 1;
+  }
+
+  public void record(long valueNanos) {
+    this.counts.incrementAndGet(bucketIndex(valueNanos));
+    this.totalSum.add(valueNanos);
+
+    // only try to update the maximum if the value is actually higher
+    long currentMax;
+    while (valueNanos > (currentMax = this.maxValue.get())) {
+      if (this.maxValue.compareAndSet(currentMax, valueNanos)) {
+        break;
+      }
+    }
+  }
+
+  public @NonNull HistogramSnapshot snapshot() {
+    long[] bucketCounts = new long[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      bucketCounts[i] = this.counts.get(i);
+    }
+    return new HistogramSnapshot(bucketCounts, this.totalSum.sum(), this.maxValue.get());
+  }
+}
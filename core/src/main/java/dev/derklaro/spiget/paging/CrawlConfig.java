@@ -0,0 +1,52 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.paging;
+
+import dev.derklaro.spiget.client.SpigetExecutors;
+import dev.derklaro.spiget.resilience.RetryPolicy;
+import java.util.concurrent.ScheduledExecutorService;
+import lombok.Data;
+import lombok.NonNull;
+import lombok.experimental.Accessors;
+import org.jetbrains.annotations.Nullable;
+
+@NonNull
+@Data(staticConstructor = "create")
+@Accessors(fluent = true, chain = true)
+public final class CrawlConfig {
+
+  private int concurrency = 8;
+  private int pageSize = PageIterator.DEFAULT_PAGE_SIZE;
+
+  // emits the pages in page order instead of the order in which they were received
+  private boolean ordered;
+  // the pages which are requested, buffered for reordering or waiting for the sink, bounds the used memory
+  private int maxBufferedPages = 32;
+
+  // failed pages are requested again, independent of the retry policy of the client
+  @Nullable
+  private RetryPolicy retryPolicy = RetryPolicy.create();
+  private ScheduledExecutorService scheduler = SpigetExecutors.sharedScheduler();
+}
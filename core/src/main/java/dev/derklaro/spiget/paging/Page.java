@@ -0,0 +1,96 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.paging;
+
+import dev.derklaro.spiget.http.HttpHeaderNames;
+import dev.derklaro.spiget.http.SpigetHttpResponse;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import lombok.Data;
+import lombok.NonNull;
+import lombok.experimental.Accessors;
+import org.jetbrains.annotations.Nullable;
+
+@Data(staticConstructor = "of")
+@Accessors(fluent = true)
+public final class Page<T> {
+
+  public static final int UNKNOWN = -1;
+
+  private final List<T> items;
+
+  // the pagination info sent by the server, unknown if the server did not send the associated header
+  private final int pageIndex;
+  private final int pageSize;
+  private final int pageCount;
+
+  public static @NonNull <T> Page<T> fromResponse(
+    @NonNull Collection<T> items,
+    @NonNull SpigetHttpResponse response
+  ) {
+    return new Page<>(
+      new ArrayList<>(items),
+      parseHeader(response.header(HttpHeaderNames.X_PAGE_INDEX)),
+      parseHeader(response.header(HttpHeaderNames.X_PAGE_SIZE)),
+      parseHeader(response.header(HttpHeaderNames.X_PAGE_COUNT)));
+  }
+
+  private static int parseHeader(@Nullable String value) {
+    if (value == null) {
+      return UNKNOWN;
+    }
+
+    try {
+      int parsed = Integer.parseInt(value.trim());
+      return parsed < 0 ? UNKNOWN : parsed;
+    } catch (NumberFormatException exception) {
+      return UNKNOWN;
+    }
+  }
+
+  public boolean pageCountKnown() {
+    return this.pageIndex != UNKNOWN && this.pageCount != UNKNOWN;
+  }
+
+  public boolean hasNextPage() {
+    return this.hasNextPage(this.pageSize);
+  }
+
+  // the size of the requested pages is known to the caller even if the server did not send it
+  public boolean hasNextPage(int requestedPageSize) {
+    if (this.items.isEmpty()) {
+      return false;
+    }
+
+    // the page count sent by the server saves the request for an empty page after the last full one
+    if (this.pageCountKnown()) {
+      return this.pageIndex < this.pageCount;
+    }
+
+    // without pagination info only a full page can be followed by another one
+    return requestedPageSize == UNKNOWN || this.items.size() >= requestedPageSize;
+  }
+}
@@ -0,0 +1,317 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.paging;
+
+import dev.derklaro.spiget.PagedRequest;
+import dev.derklaro.spiget.http.SpigetHttpException;
+import dev.derklaro.spiget.http.SpigetRateLimitedException;
+import dev.derklaro.spiget.resilience.RetryPolicy;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import lombok.NonNull;
+
+// requests all pages of a list request concurrently and passes them to a sink, one page at a time
+public final class PageCrawler<T> {
+
+  private final PagedRequest<T> request;
+  private final CrawlConfig config;
+  private final Consumer<? super Page<T>> sink;
+  private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+  private final int firstPage;
+  private int nextPage;
+  // the last page is unknown until the page count was received or a page which is not full was received
+  private int lastPage = Integer.MAX_VALUE;
+  private boolean firstPageReceived;
+
+  // requested pages, including pages which are waiting to be retried
+  private int inFlightPages;
+  private final Map<Integer, CompletableFuture<Page<T>>> pendingRequests = new HashMap<>();
+
+  // received pages waiting for the previous pages, only used when emitting in page order
+  private final TreeMap<Integer, Page<T>> reorderBuffer = new TreeMap<>();
+  private int nextEmittedPage;
+
+  private final Deque<Page<T>> readyPages = new ArrayDeque<>();
+  private boolean emitting;
+
+  private PageCrawler(
+    @NonNull PagedRequest<T> request,
+    @NonNull CrawlConfig config,
+    @NonNull Consumer<? super Page<T>> sink,
+    int firstPage
+  ) {
+    this.request = request;
+    this.config = config;
+    this.sink = sink;
+    this.firstPage = firstPage;
+    this.nextPage = firstPage;
+    this.nextEmittedPage = firstPage;
+  }
+
+  // the request is used as a template, its size and page are changed for each requested page. Cancelling the returned
+  // future stops the crawl, the sink is never called concurrently
+  public static @NonNull <T> CompletableFuture<Void> crawl(
+    @NonNull PagedRequest<T> request,
+    @NonNull CrawlConfig config,
+    @NonNull Consumer<? super Page<T>> sink
+  ) {
+    if (config.concurrency() < 1 || config.maxBufferedPages() < 1 || config.pageSize() < 1) {
+      throw new IllegalArgumentException("Concurrency, buffered pages and page size must be positive");
+    }
+
+    int firstPage;
+    synchronized (request) {
+      firstPage = Math.max(1, request.page());
+    }
+
+    PageCrawler<T> crawler = new PageCrawler<>(request, config, sink, firstPage);
+    crawler.result.whenComplete((ignored, throwable) -> crawler.stop());
+    crawler.dispatch();
+    return crawler.result;
+  }
+
+  private void dispatch() {
+    while (true) {
+      int page;
+      synchronized (this) {
+        // only the first page is requested until its pagination info is known
+        boolean canRequest = !this.result.isDone()
+          && this.nextPage <= this.lastPage
+          && this.inFlightPages < this.config.concurrency()
+          && this.heldPages() < this.config.maxBufferedPages()
+          && (this.firstPageReceived || this.nextPage == this.firstPage);
+        if (!canRequest) {
+          break;
+        }
+
+        this.inFlightPages++;
+        page = this.nextPage++;
+      }
+
+      // requested without holding the lock, the request might complete immediately
+      this.requestPage(page, 1);
+    }
+    this.completeIfDone();
+  }
+
+  private int heldPages() {
+    return this.inFlightPages + this.reorderBuffer.size() + this.readyPages.size();
+  }
+
+  private void requestPage(int page, int attempt) {
+    RetryPolicy retryPolicy = this.config.retryPolicy();
+    if (retryPolicy != null && attempt == 1) {
+      retryPolicy.retryBudget().onRequest();
+    }
+
+    CompletableFuture<Page<T>> future;
+    try {
+      // the uri is rendered while sending, the template can be changed again afterwards
+      synchronized (this.request) {
+        this.request.size(this.config.pageSize()).page(page);
+        future = this.request.execPage();
+      }
+    } catch (Throwable throwable) {
+      future = new CompletableFuture<>();
+      future.completeExceptionally(throwable);
+    }
+
+    synchronized (this) {
+      if (!future.isDone() && !this.result.isDone()) {
+        this.pendingRequests.put(page, future);
+      }
+    }
+    if (this.result.isDone()) {
+      future.cancel(false);
+    }
+
+    future.whenComplete((received, throwable) -> {
+      synchronized (this) {
+        this.pendingRequests.remove(page);
+      }
+
+      if (throwable == null) {
+        this.onPage(page, received);
+      } else if (!this.scheduleRetry(page, attempt, throwable)) {
+        this.result.completeExceptionally(unwrap(throwable));
+      }
+    });
+  }
+
+  private boolean scheduleRetry(int page, int attempt, @NonNull Throwable throwable) {
+    RetryPolicy retryPolicy = this.config.retryPolicy();
+    Throwable cause = unwrap(throwable);
+    Duration retryAfter = cause instanceof SpigetRateLimitedException
+      ? ((SpigetRateLimitedException) cause).retryAfter()
+      : null;
+    if (retryPolicy == null
+      || this.result.isDone()
+      || attempt >= retryPolicy.maxAttempts()
+      || !retryable(retryPolicy, cause)
+      || !retryPolicy.retryableAfter(retryAfter)
+      || !retryPolicy.retryBudget().tryWithdraw()) {
+      return false;
+    }
+
+    // the page stays in flight while waiting for the backoff
+    Duration backoff = retryPolicy.backoff(attempt, retryAfter);
+    this.config.scheduler().schedule(() -> {
+      if (!this.result.isDone()) {
+        this.requestPage(page, attempt + 1);
+      }
+    }, backoff.toNanos(), TimeUnit.NANOSECONDS);
+    return true;
+  }
+
+  private static boolean retryable(@NonNull RetryPolicy retryPolicy, @NonNull Throwable cause) {
+    if (cause instanceof SpigetHttpException) {
+      return retryPolicy.retryableStatus(((SpigetHttpException) cause).statusCode());
+    }
+    return retryPolicy.retryableFailure(cause);
+  }
+
+  private void onPage(int pageNumber, @NonNull Page<T> page) {
+    synchronized (this) {
+      this.inFlightPages--;
+      this.firstPageReceived = true;
+
+      // the page count of the server bounds the pages requested before the last page was received
+      if (page.pageCountKnown()) {
+        this.lastPage = Math.min(this.lastPage, Math.max(this.firstPage, page.pageCount()));
+      }
+      if (!page.hasNextPage(this.config.pageSize())) {
+        this.lastPage = Math.min(this.lastPage, pageNumber);
+      }
+
+      if (this.config.ordered()) {
+        this.reorderBuffer.put(pageNumber, page);
+        this.releaseOrderedPages();
+      } else if (pageNumber <= this.lastPage && !page.items().isEmpty()) {
+        this.readyPages.add(page);
+      }
+    }
+
+    this.emit();
+    this.dispatch();
+  }
+
+  private void releaseOrderedPages() {
+    // pages after the last page were requested before the end was known and are empty
+    while (!this.reorderBuffer.isEmpty() && this.reorderBuffer.lastKey() > this.lastPage) {
+      this.reorderBuffer.pollLastEntry();
+    }
+
+    Page<T> page;
+    while ((page = this.reorderBuffer.remove(this.nextEmittedPage)) != null) {
+      this.nextEmittedPage++;
+      if (!page.items().isEmpty()) {
+        this.readyPages.add(page);
+      }
+    }
+  }
+
+  private void emit() {
+    synchronized (this) {
+      if (this.emitting) {
+        return;
+      }
+      this.emitting = true;
+    }
+
+    // only one thread passes pages to the sink, pages received in the meantime are passed by the same thread
+    while (true) {
+      Page<T> page;
+      synchronized (this) {
+        page = this.result.isDone() ? null : this.readyPages.poll();
+        if (page == null) {
+          this.emitting = false;
+          break;
+        }
+      }
+
+      try {
+        this.sink.accept(page);
+      } catch (Throwable throwable) {
+        synchronized (this) {
+          this.emitting = false;
+        }
+        this.result.completeExceptionally(throwable);
+        return;
+      }
+
+      // a page left the buffer, another page can be requested
+      this.dispatch();
+    }
+    this.completeIfDone();
+  }
+
+  private void completeIfDone() {
+    synchronized (this) {
+      boolean done = this.firstPageReceived
+        && this.nextPage > this.lastPage
+        && this.inFlightPages == 0
+        && this.reorderBuffer.isEmpty()
+        && this.readyPages.isEmpty()
+        && !this.emitting;
+      if (!done) {
+        return;
+      }
+    }
+    this.result.complete(null);
+  }
+
+  private void stop() {
+    // cancel the outstanding requests once the crawl failed or was cancelled
+    CompletableFuture<?>[] pendingRequests;
+    synchronized (this) {
+      pendingRequests = this.pendingRequests.values().toArray(new CompletableFuture<?>[0]);
+      this.pendingRequests.clear();
+      this.reorderBuffer.clear();
+      this.readyPages.clear();
+    }
+
+    for (CompletableFuture<?> pendingRequest : pendingRequests) {
+      pendingRequest.cancel(false);
+    }
+  }
+
+  private static @NonNull Throwable unwrap(@NonNull Throwable throwable) {
+    Throwable cause = throwable;
+    while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause;
+  }
+}
@@ -0,0 +1,202 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.paging;
+
+import dev.derklaro.spiget.PagedRequest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+// iterates over all pages of a list request, the next page is requested while the current one is consumed
+public final class PageIterator<T> {
+
+  public static final int DEFAULT_PAGE_SIZE = 100;
+
+  private final PagedRequest<T> request;
+  private final int pageSize;
+
+  private int nextPage;
+  private boolean lastPageRequested;
+  private boolean closed;
+  private CompletableFuture<Page<T>> prefetchedPage;
+  private CompletableFuture<List<T>> pendingPage;
+  private Iterator<T> currentPage = Collections.emptyIterator();
+
+  private PageIterator(@NonNull PagedRequest<T> request, int firstPage, int pageSize) {
+    this.request = request;
+    this.nextPage = firstPage;
+    this.pageSize = pageSize;
+  }
+
+  // the request is used as a template, its page is changed for each requested page. A page size of 0 is replaced by
+  // the default page size, pages are counted from 1
+  public static @NonNull <T> PageIterator<T> of(@NonNull PagedRequest<T> request) {
+    synchronized (request) {
+      int pageSize = request.size() > 0 ? request.size() : DEFAULT_PAGE_SIZE;
+      return new PageIterator<>(request, Math.max(1, request.page()), pageSize);
+    }
+  }
+
+  public int pageSize() {
+    return this.pageSize;
+  }
+
+  // completes with the items of the next page or null if there are no more pages, one page is requested at a time
+  public synchronized @NonNull CompletableFuture<List<T>> nextPage() {
+    if (this.pendingPage != null && !this.pendingPage.isDone()) {
+      throw new IllegalStateException("The previous page was not received yet");
+    }
+
+    // items of the current page which were not consumed by next() are returned first
+    if (this.currentPage.hasNext()) {
+      List<T> remaining = new ArrayList<>();
+      this.currentPage.forEachRemaining(remaining::add);
+      return CompletableFuture.completedFuture(remaining);
+    }
+
+    if (this.closed || (this.lastPageRequested && this.prefetchedPage == null)) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    CompletableFuture<Page<T>> page = this.prefetchedPage == null
+      ? this.requestNextPage()
+      : this.prefetchedPage;
+    this.prefetchedPage = null;
+
+    CompletableFuture<List<T>> result = page.thenApply(received -> {
+      synchronized (this) {
+        List<T> items = received.items();
+        if (!received.hasNextPage(this.pageSize)) {
+          this.lastPageRequested = true;
+          this.prefetchedPage = null;
+        } else if (!this.closed && !this.lastPageRequested) {
+          this.prefetchedPage = this.requestNextPage();
+        }
+        return items.isEmpty() ? null : items;
+      }
+    });
+    this.pendingPage = result;
+    return result;
+  }
+
+  // completes with the next item or null if all items were returned
+  public synchronized @NonNull CompletableFuture<T> next() {
+    if (this.currentPage.hasNext()) {
+      return CompletableFuture.completedFuture(this.currentPage.next());
+    }
+
+    return this.nextPage().thenCompose(items -> {
+      if (items == null) {
+        return CompletableFuture.completedFuture(null);
+      }
+
+      synchronized (this) {
+        this.currentPage = items.iterator();
+      }
+      return this.next();
+    });
+  }
+
+  // passes all remaining items to the consumer, one page after another
+  public @NonNull CompletableFuture<Void> forEachRemaining(@NonNull Consumer<? super T> consumer) {
+    CompletableFuture<Void> result = new CompletableFuture<>();
+    this.forEachRemaining(consumer, result);
+    return result;
+  }
+
+  private void forEachRemaining(@NonNull Consumer<? super T> consumer, @NonNull CompletableFuture<Void> result) {
+    // pages which are already available are consumed in a loop to not grow the stack for each page
+    while (!result.isDone()) {
+      CompletableFuture<List<T>> page = this.nextPage();
+      if (!page.isDone()) {
+        page.whenComplete((items, throwable) -> {
+          if (throwable != null) {
+            result.completeExceptionally(throwable);
+          } else if (this.consumePage(items, consumer, result)) {
+            this.forEachRemaining(consumer, result);
+          }
+        });
+        return;
+      }
+
+      List<T> items;
+      try {
+        items = page.join();
+      } catch (CompletionException | CancellationException exception) {
+        result.completeExceptionally(exception.getCause() == null ? exception : exception.getCause());
+        return;
+      }
+
+      if (!this.consumePage(items, consumer, result)) {
+        return;
+      }
+    }
+  }
+
+  private boolean consumePage(
+    @Nullable List<T> items,
+    @NonNull Consumer<? super T> consumer,
+    @NonNull CompletableFuture<Void> result
+  ) {
+    if (items == null) {
+      result.complete(null);
+      return false;
+    }
+
+    try {
+      items.forEach(consumer);
+      return true;
+    } catch (Throwable throwable) {
+      this.close();
+      result.completeExceptionally(throwable);
+      return false;
+    }
+  }
+
+  // stops requesting pages, a page which is currently prefetched is cancelled
+  public synchronized void close() {
+    this.closed = true;
+    this.currentPage = Collections.emptyIterator();
+    if (this.prefetchedPage != null) {
+      this.prefetchedPage.cancel(false);
+      this.prefetchedPage = null;
+    }
+  }
+
+  private @NonNull CompletableFuture<Page<T>> requestNextPage() {
+    // the uri is rendered while sending, the template can be changed again afterwards
+    synchronized (this.request) {
+      this.request.size(this.pageSize).page(this.nextPage++);
+      return this.request.execPage();
+    }
+  }
+}
@@ -26,10 +26,12 @@
 
 import dev.derklaro.spiget.Request;
 import dev.derklaro.spiget.SpigetClient;
+import dev.derklaro.spiget.annotation.CacheTtl;
 import dev.derklaro.spiget.annotation.ExcludeQuery;
 import dev.derklaro.spiget.annotation.RequestData;
 import dev.derklaro.spiget.model.Author;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import lombok.Data;
 import lombok.NonNull;
 import lombok.experimental.Accessors;
@@ -37,6 +39,7 @@
 @Data(staticConstructor = "create")
 @Accessors(fluent = true, chain = true)
 @RequestData(uri = "authors/{0}", method = "GET")
+@CacheTtl(value = 1, unit = TimeUnit.HOURS)
 public final class AuthorDetails implements Request<Author> {
 
   private final transient SpigetClient client;
@@ -24,14 +24,18 @@
 
 package dev.derklaro.spiget.request.author;
 
+import dev.derklaro.spiget.PagedRequest;
 import dev.derklaro.spiget.Request;
 import dev.derklaro.spiget.SpigetClient;
+import dev.derklaro.spiget.annotation.CacheTtl;
 import dev.derklaro.spiget.annotation.RequestData;
 import dev.derklaro.spiget.data.Sort;
 import dev.derklaro.spiget.model.Author;
+import dev.derklaro.spiget.paging.Page;
 import java.util.Collection;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import lombok.Data;
 import lombok.NonNull;
 import lombok.experimental.Accessors;
@@ -39,7 +43,8 @@
 @Data(staticConstructor = "create")
 @Accessors(fluent = true, chain = true)
 @RequestData(uri = "authors", method = "GET")
-public final class AuthorList implements Request<Collection<Author>> {
+@CacheTtl(value = 1, unit = TimeUnit.MINUTES)
+public final class AuthorList implements Request<Collection<Author>>, PagedRequest<Author> {
 
   private final transient SpigetClient client;
 
@@ -52,4 +57,9 @@ public final class AuthorList implements Request<Collection<Author>> {
   public @NonNull CompletableFuture<Collection<Author>> exec() {
     return this.client.sendRequest(this);
   }
+
+  @Override
+  public @NonNull CompletableFuture<Page<Author>> execPage() {
+    return this.client.sendPagedRequest(this);
+  }
 }
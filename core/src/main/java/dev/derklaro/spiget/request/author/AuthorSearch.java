@@ -24,14 +24,18 @@
 
 package dev.derklaro.spiget.request.author;
 
+import dev.derklaro.spiget.PagedRequest;
 import dev.derklaro.spiget.Request;
 import dev.derklaro.spiget.SpigetClient;
+import dev.derklaro.spiget.annotation.CacheTtl;
 import dev.derklaro.spiget.annotation.ExcludeQuery;
 import dev.derklaro.spiget.annotation.RequestData;
 import dev.derklaro.spiget.data.Sort;
 import dev.derklaro.spiget.model.Author;
+import dev.derklaro.spiget.paging.Page;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import lombok.Data;
 import lombok.NonNull;
 import lombok.experimental.Accessors;
@@ -39,7 +43,8 @@
 @Data(staticConstructor = "create")
 @Accessors(fluent = true, chain = true)
 @RequestData(uri = "search/authors/{0}", method = "GET")
-public final class AuthorSearch implements Request<Set<Author>> {
+@CacheTtl(value = 1, unit = TimeUnit.MINUTES)
+public final class AuthorSearch implements Request<Set<Author>>, PagedRequest<Author> {
 
   private final transient SpigetClient client;
 
@@ -56,4 +61,9 @@ public final class AuthorSearch implements Request<Set<Author>> {
   public @NonNull CompletableFuture<Set<Author>> exec() {
     return this.client.sendRequest(this, this.query);
   }
+
+  @Override
+  public @NonNull CompletableFuture<Page<Author>> execPage() {
+    return this.client.sendPagedRequest(this, this.query);
+  }
 }
@@ -24,13 +24,17 @@
 
 package dev.derklaro.spiget.request.category;
 
+import dev.derklaro.spiget.PagedRequest;
 import dev.derklaro.spiget.Request;
 import dev.derklaro.spiget.SpigetClient;
+import dev.derklaro.spiget.annotation.CacheTtl;
 import dev.derklaro.spiget.annotation.RequestData;
 import dev.derklaro.spiget.data.Sort;
 import dev.derklaro.spiget.model.Category;
+import dev.derklaro.spiget.paging.Page;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import lombok.Data;
 import lombok.NonNull;
 import lombok.experimental.Accessors;
@@ -38,7 +42,8 @@
 @Data(staticConstructor = "create")
 @Accessors(fluent = true, chain = true)
 @RequestData(uri = "categories", method = "GET")
-public final class CategoryList implements Request<Set<Category>> {
+@CacheTtl(value = 1, unit = TimeUnit.HOURS)
+public final class CategoryList implements Request<Set<Category>>, PagedRequest<Category> {
 
   private final transient SpigetClient client;
 
@@ -51,4 +56,9 @@ public final class CategoryList implements Request<Set<Category>> {
   public @NonNull CompletableFuture<Set<Category>> exec() {
     return this.client.sendRequest(this);
   }
+
+  @Override
+  public @NonNull CompletableFuture<Page<Category>> execPage() {
+    return this.client.sendPagedRequest(this);
+  }
 }
@@ -24,14 +24,18 @@
 
 package dev.derklaro.spiget.request.category;
 
+import dev.derklaro.spiget.PagedRequest;
 import dev.derklaro.spiget.Request;
 import dev.derklaro.spiget.SpigetClient;
+import dev.derklaro.spiget.annotation.CacheTtl;
 import dev.derklaro.spiget.annotation.ExcludeQuery;
 import dev.derklaro.spiget.annotation.RequestData;
 import dev.derklaro.spiget.data.Sort;
 import dev.derklaro.spiget.model.Resource;
+import dev.derklaro.spiget.paging.Page;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import lombok.Data;
 import lombok.NonNull;
 import lombok.experimental.Accessors;
@@ -39,7 +43,8 @@
 @Data(staticConstructor = "create")
 @Accessors(fluent = true, chain = true)
 @RequestData(uri = "categories/{0}/resources", method = "GET")
-public final class CategoryResources implements Request<Set<Resource>> {
+@CacheTtl(value = 1, unit = TimeUnit.MINUTES)
+public final class CategoryResources implements Request<Set<Resource>>, PagedRequest<Resource> {
 
   private final transient SpigetClient client;
 
@@ -55,4 +60,9 @@ public final class CategoryResources implements Request<Set<Resource>> {
   public @NonNull CompletableFuture<Set<Resource>> exec() {
     return this.client.sendRequest(this, this.categoryId);
   }
+
+  @Override
+  public @NonNull CompletableFuture<Page<Resource>> execPage() {
+    return this.client.sendPagedRequest(this, this.categoryId);
+  }
 }
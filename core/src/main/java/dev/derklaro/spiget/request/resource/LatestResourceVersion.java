@@ -26,10 +26,12 @@
 
 import dev.derklaro.spiget.Request;
 import dev.derklaro.spiget.SpigetClient;
+import dev.derklaro.spiget.annotation.CacheTtl;
 import dev.derklaro.spiget.annotation.ExcludeQuery;
 import dev.derklaro.spiget.annotation.RequestData;
 import dev.derklaro.spiget.model.Version;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import lombok.Data;
 import lombok.NonNull;
 import lombok.experimental.Accessors;
@@ -37,6 +39,7 @@
 @Data(staticConstructor = "create")
 @Accessors(fluent = true, chain = true)
 @RequestData(uri = "resources/{0}/versions/latest", method = "GET")
+@CacheTtl(value = 1, unit = TimeUnit.MINUTES)
 public final class LatestResourceVersion implements Request<Version> {
 
   private final transient SpigetClient client;
@@ -24,14 +24,18 @@
 
 package dev.derklaro.spiget.request.resource;
 
+import dev.derklaro.spiget.PagedRequest;
 import dev.derklaro.spiget.Request;
 import dev.derklaro.spiget.SpigetClient;
+import dev.derklaro.spiget.annotation.CacheTtl;
 import dev.derklaro.spiget.annotation.ExcludeQuery;
 import dev.derklaro.spiget.annotation.RequestData;
 import dev.derklaro.spiget.data.Sort;
 import dev.derklaro.spiget.model.Update;
+import dev.derklaro.spiget.paging.Page;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import lombok.Data;
 import lombok.NonNull;
 import lombok.experimental.Accessors;
@@ -39,7 +43,8 @@
 @Data(staticConstructor = "create")
 @Accessors(fluent = true, chain = true)
 @RequestData(uri = "resources/{0}/updates", method = "GET")
-public final class ResourceUpdates implements Request<Set<Update>> {
+@CacheTtl(value = 1, unit = TimeUnit.MINUTES)
+public final class ResourceUpdates implements Request<Set<Update>>, PagedRequest<Update> {
 
   private final transient SpigetClient client;
 
@@ -55,4 +60,9 @@ public final class ResourceUpdates implements Request<Set<Update>> {
   public @NonNull CompletableFuture<Set<Update>> exec() {
     return this.client.sendRequest(this, this.resourceId);
   }
+
+  @Override
+  public @NonNull CompletableFuture<Page<Update>> execPage() {
+    return this.client.sendPagedRequest(this, this.resourceId);
+  }
 }
@@ -26,6 +26,7 @@
 
 import dev.derklaro.spiget.Request;
 import dev.derklaro.spiget.SpigetClient;
+import dev.derklaro.spiget.annotation.CacheTtl;
 import dev.derklaro.spiget.annotation.ExcludeQuery;
 import dev.derklaro.spiget.annotation.RequestData;
 import dev.derklaro.spiget.model.Version;
@@ -37,6 +38,7 @@
 @Data(staticConstructor = "create")
 @Accessors(fluent = true, chain = true)
 @RequestData(uri = "resources/{0}/versions/{1}", method = "GET")
+@CacheTtl(CacheTtl.FOREVER)
 public final class ResourceVersion implements Request<Version> {
 
   private final transient SpigetClient client;
@@ -0,0 +1,75 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.resilience;
+
+import lombok.NonNull;
+
+public final class AimdLimit implements LimitAlgorithm {
+
+  private final int initialLimit;
+  private final int minLimit;
+  private final int maxLimit;
+  private final double backoffRatio;
+
+  private AimdLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio) {
+    this.initialLimit = initialLimit;
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.backoffRatio = backoffRatio;
+  }
+
+  public static @NonNull AimdLimit create() {
+    return create(10, 1, 200, 0.9);
+  }
+
+  public static @NonNull AimdLimit create(int initialLimit, int minLimit, int maxLimit, double backoffRatio) {
+    if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+      throw new IllegalArgumentException("Invalid limits: min " + minLimit + " initial " + initialLimit + " max " + maxLimit);
+    }
+    if (backoffRatio <= 0 || backoffRatio >= 1) {
+      throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+    }
+    return new AimdLimit(initialLimit, minLimit, maxLimit, backoffRatio);
+  }
+
+  @Override
+  public int initialLimit() {
+    return this.initialLimit;
+  }
+
+  @Override
+  public int update(int currentLimit, long rttNanos, int inFlight, boolean dropped) {
+    if (dropped) {
+      // multiplicative decrease
+      return Math.max(this.minLimit, (int) (currentLimit * this.backoffRatio));
+    }
+
+    // additive increase, but only if the limit is actually used
+    if (inFlight * 2 >= currentLimit) {
+      return Math.min(this.maxLimit, currentLimit + 1);
+    }
+    return currentLimit;
+  }
+}
@@ -0,0 +1,219 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.resilience;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import lombok.NonNull;
+
+public final class CircuitBreaker {
+
+  private static final byte OUTCOME_FAILED = 1;
+  private static final byte OUTCOME_SLOW = 2;
+
+  private final String name;
+  private final CircuitBreakerConfig config;
+  private final LongSupplier nanoClock;
+  private final long slowCallNanos;
+  private final long openNanos;
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  // ring buffer holding the outcomes of the last calls
+  private final byte[] outcomes;
+  private int nextOutcome;
+  private int recordedCalls;
+  private int failedCalls;
+  private int slowCalls;
+
+  private State state = State.CLOSED;
+  private long stateChangedNanos;
+  private int probesStarted;
+  private int probesSucceeded;
+
+  private CircuitBreaker(@NonNull String name, @NonNull CircuitBreakerConfig config) {
+    this.name = name;
+    this.config = config;
+    this.nanoClock = config.nanoClock();
+    this.stateChangedNanos = this.nanoClock.getAsLong();
+    this.slowCallNanos = config.slowCallDuration().toNanos();
+    this.openNanos = config.openDuration().toNanos();
+    this.outcomes = new byte[Math.max(1, config.slidingWindowSize())];
+  }
+
+  public static @NonNull CircuitBreaker create(@NonNull String name, @NonNull CircuitBreakerConfig config) {
+    return new CircuitBreaker(name, config);
+  }
+
+  public @NonNull String name() {
+    return this.name;
+  }
+
+  public @NonNull State state() {
+    this.lock.lock();
+    try {
+      return this.state;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  public boolean tryAcquire() {
+    State previousState;
+    this.lock.lock();
+    try {
+      previousState = this.state;
+      long now = this.nanoClock.getAsLong();
+      switch (this.state) {
+        case CLOSED:
+          return true;
+        case OPEN:
+          // fail fast until the open duration elapsed, then start probing
+          if (now - this.stateChangedNanos < this.openNanos) {
+            return false;
+          }
+          this.transition(State.HALF_OPEN, now);
+          this.probesStarted = 1;
+          break;
+        default:
+          // allow a new round of probes if the previous probes never completed
+          if (this.probesStarted >= this.config.halfOpenProbes()) {
+            if (now - this.stateChangedNanos < this.openNanos) {
+              return false;
+            }
+            this.stateChangedNanos = now;
+            this.probesStarted = 0;
+            this.probesSucceeded = 0;
+          }
+          this.probesStarted++;
+          return true;
+      }
+    } finally {
+      this.lock.unlock();
+    }
+
+    this.notifyListeners(previousState, State.HALF_OPEN);
+    return true;
+  }
+
+  public void onResult(long durationNanos, boolean failed) {
+    State previousState;
+    State newState;
+    this.lock.lock();
+    try {
+      previousState = this.state;
+      long now = this.nanoClock.getAsLong();
+      if (this.state == State.HALF_OPEN) {
+        if (failed) {
+          // a failed probe opens the circuit again
+          this.transition(State.OPEN, now);
+        } else if (++this.probesSucceeded >= this.config.halfOpenProbes()) {
+          this.resetWindow();
+          this.transition(State.CLOSED, now);
+        }
+      } else if (this.state == State.CLOSED) {
+        this.record(durationNanos >= this.slowCallNanos, failed);
+        if (this.thresholdExceeded()) {
+          this.transition(State.OPEN, now);
+        }
+      }
+      newState = this.state;
+    } finally {
+      this.lock.unlock();
+    }
+
+    if (previousState != newState) {
+      this.notifyListeners(previousState, newState);
+    }
+  }
+
+  // the call permitted by tryAcquire was never sent or cancelled, it says nothing about the health of the endpoint
+  public void onIgnored() {
+    this.lock.lock();
+    try {
+      // free the probe slot, otherwise the circuit stays half open until the open duration elapsed again
+      if (this.state == State.HALF_OPEN && this.probesStarted > 0) {
+        this.probesStarted--;
+      }
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private void record(boolean slow, boolean failed) {
+    byte outcome = (byte) ((failed ? OUTCOME_FAILED : 0) | (slow ? OUTCOME_SLOW : 0));
+
+    // remove the outcome which drops out of the window
+    if (this.recordedCalls == this.outcomes.length) {
+      byte evicted = this.outcomes[this.nextOutcome];
+      this.failedCalls -= evicted & OUTCOME_FAILED;
+      this.slowCalls -= (evicted & OUTCOME_SLOW) >> 1;
+    } else {
+      this.recordedCalls++;
+    }
+
+    this.outcomes[this.nextOutcome] = outcome;
+    this.nextOutcome = (this.nextOutcome + 1) % this.outcomes.length;
+    this.failedCalls += outcome & OUTCOME_FAILED;
+    this.slowCalls += (outcome & OUTCOME_SLOW) >> 1;
+  }
+
+  private boolean thresholdExceeded() {
+    if (this.recordedCalls < this.config.minimumCalls()) {
+      return false;
+    }
+
+    double failureRate = (double) this.failedCalls / this.recordedCalls;
+    double slowCallRate = (double) this.slowCalls / this.recordedCalls;
+    return failureRate >= this.config.failureRateThreshold() || slowCallRate >= this.config.slowCallRateThreshold();
+  }
+
+  private void resetWindow() {
+    this.nextOutcome = 0;
+    this.recordedCalls = 0;
+    this.failedCalls = 0;
+    this.slowCalls = 0;
+  }
+
+  private void transition(@NonNull State newState, long now) {
+    this.state = newState;
+    this.stateChangedNanos = now;
+    this.probesStarted = 0;
+    this.probesSucceeded = 0;
+  }
+
+  private void notifyListeners(@NonNull State from, @NonNull State to) {
+    for (CircuitBreakerListener listener : this.config.listeners()) {
+      listener.onStateChange(this.name, from, to);
+    }
+  }
+
+  public enum State {
+
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+}
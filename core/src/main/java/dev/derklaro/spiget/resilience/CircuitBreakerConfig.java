@@ -0,0 +1,60 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.resilience;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+import lombok.Data;
+import lombok.NonNull;
+import lombok.experimental.Accessors;
+
+@NonNull
+@Data(staticConstructor = "create")
+@Accessors(fluent = true, chain = true)
+public final class CircuitBreakerConfig {
+
+  // the rates are calculated over the last calls, but only once enough calls were recorded
+  private int slidingWindowSize = 100;
+  private int minimumCalls = 20;
+
+  private double failureRateThreshold = 0.5;
+  private double slowCallRateThreshold = 0.8;
+  private Duration slowCallDuration = Duration.ofSeconds(10);
+
+  // the time the breaker stays open before letting probe requests through
+  private Duration openDuration = Duration.ofSeconds(30);
+  private int halfOpenProbes = 5;
+  // the monotonic time source measuring the open duration, only replaced to control the time in tests
+  private LongSupplier nanoClock = System::nanoTime;
+
+  private List<CircuitBreakerListener> listeners = new ArrayList<>();
+
+  public @NonNull CircuitBreakerConfig addListener(@NonNull CircuitBreakerListener listener) {
+    this.listeners.add(listener);
+    return this;
+  }
+}
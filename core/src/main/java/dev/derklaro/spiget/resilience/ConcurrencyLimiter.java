@@ -0,0 +1,204 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.resilience;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.NonNull;
+
+public final class ConcurrencyLimiter {
+
+  // weight of a new rtt sample in the smoothed rtt
+  private static final int RTT_SMOOTHING = 8;
+
+  private final String name;
+  private final LimitAlgorithm algorithm;
+  private final int maxQueueSize;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Deque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+
+  private int limit;
+  private int inFlight;
+  private long smoothedRttNanos;
+  private long minRttNanos;
+
+  private ConcurrencyLimiter(@NonNull String name, @NonNull LimitAlgorithm algorithm, int maxQueueSize) {
+    this.name = name;
+    this.algorithm = algorithm;
+    this.maxQueueSize = maxQueueSize;
+    this.limit = algorithm.initialLimit();
+  }
+
+  public static @NonNull ConcurrencyLimiter create(@NonNull String name, @NonNull ConcurrencyLimitConfig config) {
+    return new ConcurrencyLimiter(name, config.algorithm().get(), config.maxQueueSize());
+  }
+
+  public @NonNull String name() {
+    return this.name;
+  }
+
+  public @NonNull CompletableFuture<Void> acquire() {
+    CompletableFuture<Void> waiter = new CompletableFuture<>();
+    this.lock.lock();
+    try {
+      if (this.inFlight < this.limit && this.waiters.isEmpty()) {
+        this.inFlight++;
+        return CompletableFuture.completedFuture(null);
+      }
+
+      // reject instead of queueing endlessly
+      if (this.waiters.size() >= this.maxQueueSize) {
+        waiter.completeExceptionally(new ConcurrencyLimitExceededException(this.name, this.waiters.size()));
+        return waiter;
+      }
+      this.waiters.add(waiter);
+    } finally {
+      this.lock.unlock();
+    }
+
+    // cancelled waiters must neither count towards the queue size nor the queue depth
+    waiter.whenComplete((ignored, throwable) -> {
+      if (waiter.isCancelled()) {
+        this.removeWaiter(waiter);
+      }
+    });
+    return waiter;
+  }
+
+  public void release(long rttNanos, boolean dropped) {
+    List<CompletableFuture<Void>> granted;
+    this.lock.lock();
+    try {
+      this.smoothedRttNanos = this.smoothedRttNanos == 0
+        ? rttNanos
+        : this.smoothedRttNanos + ((rttNanos - this.smoothedRttNanos) / RTT_SMOOTHING);
+      this.minRttNanos = this.minRttNanos == 0 ? rttNanos : Math.min(this.minRttNanos, rttNanos);
+
+      this.limit = Math.max(1, this.algorithm.update(this.limit, rttNanos, this.inFlight, dropped));
+      this.inFlight--;
+      granted = this.grantWaiters();
+    } finally {
+      this.lock.unlock();
+    }
+    this.complete(granted);
+  }
+
+  public void releaseIgnored() {
+    List<CompletableFuture<Void>> granted;
+    this.lock.lock();
+    try {
+      this.inFlight--;
+      granted = this.grantWaiters();
+    } finally {
+      this.lock.unlock();
+    }
+    this.complete(granted);
+  }
+
+  public int limit() {
+    this.lock.lock();
+    try {
+      return this.limit;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  public int inFlight() {
+    this.lock.lock();
+    try {
+      return this.inFlight;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  public int queueDepth() {
+    this.lock.lock();
+    try {
+      return this.waiters.size();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  public long smoothedRttNanos() {
+    this.lock.lock();
+    try {
+      return this.smoothedRttNanos;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  public long minRttNanos() {
+    this.lock.lock();
+    try {
+      return this.minRttNanos;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private void removeWaiter(@NonNull CompletableFuture<Void> waiter) {
+    this.lock.lock();
+    try {
+      this.waiters.remove(waiter);
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private @NonNull List<CompletableFuture<Void>> grantWaiters() {
+    List<CompletableFuture<Void>> granted = Collections.emptyList();
+    while (this.inFlight < this.limit && !this.waiters.isEmpty()) {
+      CompletableFuture<Void> waiter = this.waiters.poll();
+      // skip waiters which were cancelled in the meantime
+      if (!waiter.isDone()) {
+        if (granted.isEmpty()) {
+          granted = new ArrayList<>();
+        }
+        granted.add(waiter);
+        this.inFlight++;
+      }
+    }
+    return granted;
+  }
+
+  private void complete(@NonNull List<CompletableFuture<Void>> granted) {
+    // complete the waiters outside the lock, give back the slot if the waiter was cancelled concurrently
+    for (CompletableFuture<Void> waiter : granted) {
+      if (!waiter.complete(null)) {
+        this.releaseIgnored();
+      }
+    }
+  }
+}
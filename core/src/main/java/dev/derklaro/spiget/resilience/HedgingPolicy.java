@@ -0,0 +1,52 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.resilience;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import lombok.Data;
+import lombok.NonNull;
+import lombok.experimental.Accessors;
+
+@NonNull
+@Data(staticConstructor = "create")
+@Accessors(fluent = true, chain = true)
+public final class HedgingPolicy {
+
+  // the delay after which the hedged request is sent, the percentile is used instead once enough latencies were observed
+  private Duration delay = Duration.ofMillis(500);
+  private double delayPercentile = 0;
+
+  // by default hedged requests may make up at most 5% of the requests, with a reserve of 5 hedged requests
+  private RetryBudget hedgeBudget = RetryBudget.create(0.05, 5);
+
+  // the get requests to hedge, all get requests are hedged if empty
+  private Set<Class<?>> hedgedRequests = new HashSet<>();
+
+  public boolean hedgeable(@NonNull Class<?> requestType, @NonNull String requestMethod) {
+    return requestMethod.equals("GET") && (this.hedgedRequests.isEmpty() || this.hedgedRequests.contains(requestType));
+  }
+}
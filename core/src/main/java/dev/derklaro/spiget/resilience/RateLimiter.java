@@ -0,0 +1,189 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+public final class RateLimiter {
+
+  private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  // the rate is halved for each throttled response and slowly increased again for each successful response
+  private static final double DECREASE_FACTOR = 0.5;
+  private static final double INCREASE_FRACTION = 0.01;
+
+  private final double maxPermitsPerSecond;
+  private final double minPermitsPerSecond;
+  private final double burst;
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private double permitsPerSecond;
+  private double storedPermits;
+  private long lastRefillNanos;
+  private long pausedUntilNanos;
+  private long decreaseWindowStartNanos;
+
+  private RateLimiter(double maxPermitsPerSecond, double minPermitsPerSecond, int burst) {
+    this.maxPermitsPerSecond = maxPermitsPerSecond;
+    this.minPermitsPerSecond = minPermitsPerSecond;
+    this.burst = burst;
+
+    this.permitsPerSecond = maxPermitsPerSecond;
+    this.storedPermits = burst;
+    this.lastRefillNanos = System.nanoTime();
+    this.pausedUntilNanos = this.lastRefillNanos;
+    this.decreaseWindowStartNanos = this.lastRefillNanos;
+  }
+
+  public static @NonNull RateLimiter create(double permitsPerSecond, int burst) {
+    return create(permitsPerSecond, permitsPerSecond / 10, burst);
+  }
+
+  public static @NonNull RateLimiter create(double maxPermitsPerSecond, double minPermitsPerSecond, int burst) {
+    if (maxPermitsPerSecond <= 0 || minPermitsPerSecond <= 0 || minPermitsPerSecond > maxPermitsPerSecond) {
+      throw new IllegalArgumentException("Invalid permit rate: min " + minPermitsPerSecond + " max " + maxPermitsPerSecond);
+    }
+    if (burst <= 0) {
+      throw new IllegalArgumentException("burst must be positive");
+    }
+    return new RateLimiter(maxPermitsPerSecond, minPermitsPerSecond, burst);
+  }
+
+  public @NonNull CompletableFuture<Void> acquire(@NonNull ScheduledExecutorService scheduler) {
+    long waitNanos = this.reserve();
+    if (waitNanos <= 0) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    // wait asynchronously until the reserved permit becomes available
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    scheduler.schedule(() -> this.completeAfterPause(future, scheduler), waitNanos, TimeUnit.NANOSECONDS);
+    return future;
+  }
+
+  // sentNanos is the System.nanoTime() at which the request of the response was sent
+  public void onResponse(int statusCode, @Nullable Duration retryAfter, long sentNanos) {
+    if (statusCode == 429 || statusCode == 503 || retryAfter != null) {
+      this.onThrottled(retryAfter, sentNanos);
+    } else if (statusCode >= 200 && statusCode < 300) {
+      this.onSuccess();
+    }
+  }
+
+  public double currentPermitsPerSecond() {
+    this.lock.lock();
+    try {
+      return this.permitsPerSecond;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private void completeAfterPause(@NonNull CompletableFuture<Void> future, @NonNull ScheduledExecutorService scheduler) {
+    // the server might have requested a pause while the permit was waiting
+    long pauseNanos = this.remainingPauseNanos();
+    if (pauseNanos > 0) {
+      scheduler.schedule(() -> this.completeAfterPause(future, scheduler), pauseNanos, TimeUnit.NANOSECONDS);
+    } else {
+      future.complete(null);
+    }
+  }
+
+  private long remainingPauseNanos() {
+    this.lock.lock();
+    try {
+      return this.pausedUntilNanos - System.nanoTime();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private long reserve() {
+    this.lock.lock();
+    try {
+      long now = System.nanoTime();
+      this.refill(now);
+
+      // reserve a permit, a negative amount of stored permits means that there are queued requests
+      double permitsBefore = this.storedPermits;
+      this.storedPermits -= 1;
+      long waitNanos = permitsBefore >= 1 ? 0 : (long) ((1 - permitsBefore) / this.permitsPerSecond * NANOS_PER_SECOND);
+
+      // respect the pause requested by the server
+      return Math.max(waitNanos, this.pausedUntilNanos - now);
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private void onThrottled(@Nullable Duration retryAfter, long sentNanos) {
+    this.lock.lock();
+    try {
+      long now = System.nanoTime();
+      this.refill(now);
+
+      // pause all requests until the time requested by the server
+      if (retryAfter != null && !retryAfter.isNegative()) {
+        this.pausedUntilNanos = Math.max(this.pausedUntilNanos, now + retryAfter.toNanos());
+        this.storedPermits = Math.min(this.storedPermits, 0);
+      }
+
+      // requests sent before the last decrease or during the pause report the same overload, only decrease once
+      if (sentNanos - this.decreaseWindowStartNanos >= 0) {
+        this.permitsPerSecond = Math.max(this.minPermitsPerSecond, this.permitsPerSecond * DECREASE_FACTOR);
+        this.decreaseWindowStartNanos = Math.max(now, this.pausedUntilNanos);
+      }
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private void onSuccess() {
+    this.lock.lock();
+    try {
+      if (this.permitsPerSecond < this.maxPermitsPerSecond) {
+        this.refill(System.nanoTime());
+        this.permitsPerSecond = Math.min(
+          this.maxPermitsPerSecond,
+          this.permitsPerSecond + (this.maxPermitsPerSecond * INCREASE_FRACTION));
+      }
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private void refill(long now) {
+    double elapsedSeconds = (double) (now - this.lastRefillNanos) / NANOS_PER_SECOND;
+    this.storedPermits = Math.min(this.burst, this.storedPermits + (elapsedSeconds * this.permitsPerSecond));
+    this.lastRefillNanos = now;
+  }
+}
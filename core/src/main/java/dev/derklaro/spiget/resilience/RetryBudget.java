@@ -0,0 +1,77 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.NonNull;
+
+public final class RetryBudget {
+
+  // the balance is stored in thousandths of a retry to allow fractional deposits
+  private static final long SCALE = 1000;
+
+  private final long depositPerRequest;
+  private final long maxBalance;
+  private final AtomicLong balance;
+
+  private RetryBudget(double retryRatio, int minRetries) {
+    this.depositPerRequest = (long) (retryRatio * SCALE);
+    this.maxBalance = Math.max(minRetries * SCALE, (long) (retryRatio * 100 * SCALE));
+    this.balance = new AtomicLong(minRetries * SCALE);
+  }
+
+  public static @NonNull RetryBudget create(double retryRatio, int minRetries) {
+    if (retryRatio < 0 || retryRatio > 1) {
+      throw new IllegalArgumentException("retryRatio must be between 0 and 1");
+    }
+    if (minRetries < 0) {
+      throw new IllegalArgumentException("minRetries must not be negative");
+    }
+    return new RetryBudget(retryRatio, minRetries);
+  }
+
+  public static @NonNull RetryBudget unlimited() {
+    return new RetryBudget(1, Integer.MAX_VALUE / (int) SCALE);
+  }
+
+  public void onRequest() {
+    this.balance.accumulateAndGet(this.depositPerRequest, (current, deposit) -> Math.min(this.maxBalance, current + deposit));
+  }
+
+  public boolean tryWithdraw() {
+    long current;
+    do {
+      current = this.balance.get();
+      if (current < SCALE) {
+        return false;
+      }
+    } while (!this.balance.compareAndSet(current, current - SCALE));
+    return true;
+  }
+
+  public double availableRetries() {
+    return (double) this.balance.get() / SCALE;
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.resilience;
+
+import dev.derklaro.spiget.request.webhook.RegisterWebhook;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.Data;
+import lombok.NonNull;
+import lombok.experimental.Accessors;
+import org.jetbrains.annotations.Nullable;
+
+@NonNull
+@Data(staticConstructor = "create")
+@Accessors(fluent = true, chain = true)
+public final class RetryPolicy {
+
+  private int maxAttempts = 3;
+  private Duration initialBackoff = Duration.ofMillis(100);
+  private Duration maxBackoff = Duration.ofSeconds(10);
+
+  // by default retries may make up at most 10% of the requests, with a reserve of 10 retries
+  private RetryBudget retryBudget = RetryBudget.create(0.1, 10);
+
+  private Set<String> retryableMethods = new HashSet<>(Collections.singleton("GET"));
+  private Set<Integer> retryableStatusCodes = new HashSet<>(Arrays.asList(408, 429, 500, 502, 503, 504));
+  // requests which are never retried, even if their request method is retryable
+  private Set<Class<?>> nonRetryableRequests = new HashSet<>(Collections.singleton(RegisterWebhook.class));
+
+  public boolean retryable(@NonNull Class<?> requestType, @NonNull String requestMethod) {
+    return this.maxAttempts > 1
+      && this.retryableMethods.contains(requestMethod)
+      && !this.nonRetryableRequests.contains(requestType);
+  }
+
+  public boolean retryableStatus(int statusCode) {
+    return this.retryableStatusCodes.contains(statusCode);
+  }
+
+  public boolean retryableFailure(@NonNull Throwable throwable) {
+    // unwrap the exception thrown by the transport
+    Throwable cause = throwable;
+    while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+
+    // connect timeouts, resets etc. are all reported as io exceptions
+    return cause instanceof IOException;
+  }
+
+  public boolean retryableAfter(@Nullable Duration retryAfter) {
+    // waiting longer than the max backoff for the server is not worth it, the response is handed to the caller instead
+    return retryAfter == null || retryAfter.compareTo(this.maxBackoff) <= 0;
+  }
+
+  public @NonNull Duration backoff(int attempt, @Nullable Duration retryAfter) {
+    // exponential backoff with full jitter: a random delay between 0 and min(max, initial * 2^(attempt - 1))
+    long initialNanos = this.initialBackoff.toNanos();
+    long maxNanos = this.maxBackoff.toNanos();
+    long ceilingNanos = maxNanos;
+    if (attempt - 1 < Long.SIZE - 1 && initialNanos <= (maxNanos >> (attempt - 1))) {
+      ceilingNanos = initialNanos << (attempt - 1);
+    }
+    long delayNanos = ceilingNanos <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceilingNanos + 1);
+
+    // never retry earlier than requested by the server, callers check that the requested delay is retryable
+    if (retryAfter != null && retryAfter.toNanos() > delayNanos) {
+      return retryAfter;
+    }
+    return Duration.ofNanos(delayNanos);
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.resilience;
+
+import lombok.NonNull;
+
+public final class VegasLimit implements LimitAlgorithm {
+
+  private final int initialLimit;
+  private final int maxLimit;
+
+  // the lowest rtt seen, used as an estimate for the rtt without queueing
+  private long noLoadRttNanos = Long.MAX_VALUE;
+
+  private VegasLimit(int initialLimit, int maxLimit) {
+    this.initialLimit = initialLimit;
+    this.maxLimit = maxLimit;
+  }
+
+  public static @NonNull VegasLimit create() {
+    return create(10, 200);
+  }
+
+  public static @NonNull VegasLimit create(int initialLimit, int maxLimit) {
+    if (initialLimit < 1 || initialLimit > maxLimit) {
+      throw new IllegalArgumentException("Invalid limits: initial " + initialLimit + " max " + maxLimit);
+    }
+    return new VegasLimit(initialLimit, maxLimit);
+  }
+
+  private static int log10(int limit) {
+    return Math.max(1, (int) Math.log10(limit));
+  }
+
+  @Override
+  public int initialLimit() {
+    return this.initialLimit;
+  }
+
+  @Override
+  public int update(int currentLimit, long rttNanos, int inFlight, boolean dropped) {
+    // only called while holding the lock of the limiter
+    if (rttNanos > 0 && rttNanos < this.noLoadRttNanos) {
+      this.noLoadRttNanos = rttNanos;
+    }
+
+    int log10Limit = log10(currentLimit);
+    if (dropped) {
+      return Math.max(1, currentLimit - log10Limit);
+    }
+
+    // the limit is not used, no need to change it
+    if (inFlight * 2 < currentLimit || rttNanos <= 0) {
+      return currentLimit;
+    }
+
+    // estimate the amount of requests queued at the server from the rtt increase
+    int queueSize = (int) Math.ceil(currentLimit * (1 - (double) this.noLoadRttNanos / rttNanos));
+    int alpha = 3 * log10Limit;
+    int beta = 6 * log10Limit;
+
+    int newLimit;
+    if (queueSize <= log10Limit) {
+      newLimit = currentLimit + beta;
+    } else if (queueSize < alpha) {
+      newLimit = currentLimit + log10Limit;
+    } else if (queueSize > beta) {
+      newLimit = currentLimit - log10Limit;
+    } else {
+      newLimit = currentLimit;
+    }
+    return Math.max(1, Math.min(this.maxLimit, newLimit));
+  }
+}
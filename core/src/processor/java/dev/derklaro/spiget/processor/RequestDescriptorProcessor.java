@@ -0,0 +1,280 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+public final class RequestDescriptorProcessor extends AbstractProcessor {
+
+  private static final String REQUEST_TYPE = "dev.derklaro.spiget.Request";
+  private static final String REQUEST_DATA_TYPE = "dev.derklaro.spiget.annotation.RequestData";
+  private static final String EXCLUDE_QUERY_TYPE = "dev.derklaro.spiget.annotation.ExcludeQuery";
+  private static final String CACHE_TTL_TYPE = "dev.derklaro.spiget.annotation.CacheTtl";
+  private static final String SERIALIZED_NAME_TYPE = "dev.derklaro.spiget.annotation.SerializedName";
+  private static final String DESCRIPTOR_TYPE = "dev.derklaro.spiget.client.RequestDescriptor";
+  private static final String TYPE_TOKENS_TYPE = "dev.derklaro.spiget.client.TypeTokens";
+  private static final String QUERY_WRITER_TYPE = "dev.derklaro.spiget.client.QueryWriter";
+
+  private static final String DESCRIPTOR_SUFFIX = "Descriptor";
+  private static final String DEFAULT_CONTENT_TYPE = "application/json";
+
+  private final List<String> generatedDescriptors = new ArrayList<>();
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return Collections.singleton(REQUEST_DATA_TYPE);
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    TypeElement requestData = this.processingEnv.getElementUtils().getTypeElement(REQUEST_DATA_TYPE);
+    if (requestData != null) {
+      for (TypeElement element : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(requestData))) {
+        this.generateDescriptor(element);
+      }
+    }
+
+    // write the service file once all descriptors were generated
+    if (roundEnv.processingOver() && !this.generatedDescriptors.isEmpty()) {
+      this.writeServiceFile();
+    }
+    return false;
+  }
+
+  private void generateDescriptor(TypeElement element) {
+    // get the response type from the request interface
+    TypeMirror responseType = this.findResponseType(element);
+    if (responseType == null) {
+      this.error(element, "Request class must directly implement " + REQUEST_TYPE + " with a type argument");
+      return;
+    }
+
+    // get the response type token
+    String responseTypeToken = this.typeToken(responseType);
+    if (responseTypeToken == null) {
+      this.error(element, "Unsupported response type " + responseType);
+      return;
+    }
+
+    // get the information from the request annotation
+    AnnotationMirror data = findAnnotation(element, REQUEST_DATA_TYPE);
+    String uri = annotationValue(data, "uri", null);
+    String method = annotationValue(data, "method", null);
+    String contentType = annotationValue(data, "contentType", DEFAULT_CONTENT_TYPE);
+
+    // get the time to live of cached responses, negative values mean that the response never expires
+    String cacheTtl = "0L";
+    AnnotationMirror cacheTtlData = findAnnotation(element, CACHE_TTL_TYPE);
+    if (cacheTtlData != null) {
+      long ttl = Long.parseLong(annotationValue(cacheTtlData, "value", "0"));
+      String unit = annotationValue(cacheTtlData, "unit", "SECONDS");
+      cacheTtl = ttl < 0 ? "Long.MAX_VALUE" : String.format("java.util.concurrent.TimeUnit.%s.toMillis(%dL)", unit, ttl);
+    }
+
+    // collect the query writer statements
+    List<String> queryStatements = new ArrayList<>();
+    for (VariableElement field : ElementFilter.fieldsIn(element.getEnclosedElements())) {
+      Set<Modifier> modifiers = field.getModifiers();
+      if (modifiers.contains(Modifier.STATIC)
+        || modifiers.contains(Modifier.TRANSIENT)
+        || findAnnotation(field, EXCLUDE_QUERY_TYPE) != null
+      ) {
+        continue;
+      }
+
+      // get the name of the query parameter
+      String fieldName = field.getSimpleName().toString();
+      String queryName = annotationValue(findAnnotation(field, SERIALIZED_NAME_TYPE), "value", fieldName);
+
+      // primitive types with a matching writer overload are written without boxing
+      TypeKind kind = field.asType().getKind();
+      boolean directWrite = kind == TypeKind.INT || kind == TypeKind.LONG || kind == TypeKind.BOOLEAN;
+      queryStatements.add(String.format(
+        "    writer.write(\"%s\", %srequest.%s());%n",
+        escape(queryName),
+        directWrite ? "" : "(Object) ",
+        fieldName));
+    }
+
+    // build the source of the descriptor
+    String packageName = this.packageName(element);
+    String requestName = element.getSimpleName().toString();
+    String descriptorName = requestName + DESCRIPTOR_SUFFIX;
+
+    StringBuilder source = new StringBuilder()
+      .append("// Generated by ").append(RequestDescriptorProcessor.class.getName()).append(", do not edit.\n")
+      .append("package ").append(packageName).append(";\n\n")
+      .append("public final class ").append(descriptorName)
+      .append(" extends ").append(DESCRIPTOR_TYPE).append('<').append(requestName).append("> {\n\n")
+      .append("  public ").append(descriptorName).append("() {\n")
+      .append("    super(\n")
+      .append("      ").append(requestName).append(".class,\n")
+      .append("      ").append(responseTypeToken).append(",\n")
+      .append("      \"").append(escape(uri)).append("\",\n")
+      .append("      \"").append(escape(method)).append("\",\n")
+      .append("      \"").append(escape(contentType)).append("\",\n")
+      .append("      ").append(queryStatements.size()).append(",\n")
+      .append("      ").append(cacheTtl).append(");\n")
+      .append("  }\n\n")
+      .append("  @Override\n")
+      .append("  public void writeQuery(").append(requestName).append(" request, ")
+      .append(QUERY_WRITER_TYPE).append(" writer) {\n");
+    queryStatements.forEach(source::append);
+    source.append("  }\n}\n");
+
+    // write the source file
+    String qualifiedName = packageName.isEmpty() ? descriptorName : packageName + '.' + descriptorName;
+    try (Writer writer = this.processingEnv.getFiler().createSourceFile(qualifiedName, element).openWriter()) {
+      writer.write(source.toString());
+      this.generatedDescriptors.add(qualifiedName);
+    } catch (IOException exception) {
+      this.error(element, "Unable to write request descriptor: " + exception.getMessage());
+    }
+  }
+
+  private void writeServiceFile() {
+    try {
+      FileObject serviceFile = this.processingEnv.getFiler().createResource(
+        StandardLocation.CLASS_OUTPUT,
+        "",
+        "META-INF/services/" + DESCRIPTOR_TYPE);
+      try (Writer writer = serviceFile.openWriter()) {
+        // sort the entries to keep the output reproducible
+        Collections.sort(this.generatedDescriptors);
+        for (String descriptor : this.generatedDescriptors) {
+          writer.write(descriptor);
+          writer.write('\n');
+        }
+      }
+    } catch (IOException exception) {
+      this.processingEnv.getMessager().printMessage(
+        Diagnostic.Kind.ERROR,
+        "Unable to write request descriptor service file: " + exception.getMessage());
+    }
+  }
+
+  private TypeMirror findResponseType(TypeElement element) {
+    for (TypeMirror implemented : element.getInterfaces()) {
+      DeclaredType declared = (DeclaredType) implemented;
+      TypeElement interfaceElement = (TypeElement) declared.asElement();
+      if (interfaceElement.getQualifiedName().contentEquals(REQUEST_TYPE) && declared.getTypeArguments().size() == 1) {
+        return declared.getTypeArguments().get(0);
+      }
+    }
+    return null;
+  }
+
+  private String typeToken(TypeMirror type) {
+    if (type.getKind() != TypeKind.DECLARED) {
+      // type variables, wildcards etc. cannot be represented by a constant
+      return null;
+    }
+
+    DeclaredType declared = (DeclaredType) type;
+    String rawType = ((TypeElement) declared.asElement()).getQualifiedName() + ".class";
+    if (declared.getTypeArguments().isEmpty()) {
+      return rawType;
+    }
+
+    // parameterized type, resolve all arguments
+    StringBuilder builder = new StringBuilder(TYPE_TOKENS_TYPE).append(".parameterized(").append(rawType);
+    for (TypeMirror typeArgument : declared.getTypeArguments()) {
+      String argumentToken = this.typeToken(typeArgument);
+      if (argumentToken == null) {
+        return null;
+      }
+      builder.append(", ").append(argumentToken);
+    }
+    return builder.append(')').toString();
+  }
+
+  private String packageName(Element element) {
+    Element current = element;
+    while (current.getKind() != ElementKind.PACKAGE) {
+      current = current.getEnclosingElement();
+    }
+    return ((PackageElement) current).getQualifiedName().toString();
+  }
+
+  private void error(Element element, String message) {
+    this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+  }
+
+  private static AnnotationMirror findAnnotation(Element element, String annotationType) {
+    for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+      TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+      if (type.getQualifiedName().contentEquals(annotationType)) {
+        return mirror;
+      }
+    }
+    return null;
+  }
+
+  private static String annotationValue(AnnotationMirror mirror, String name, String def) {
+    if (mirror != null) {
+      for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+        : mirror.getElementValues().entrySet()) {
+        if (entry.getKey().getSimpleName().contentEquals(name)) {
+          return String.valueOf(entry.getValue().getValue());
+        }
+      }
+    }
+    return def;
+  }
+
+  private static String escape(String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"");
+  }
+}
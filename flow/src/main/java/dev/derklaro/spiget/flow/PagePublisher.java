@@ -0,0 +1,50 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.flow;
+
+import dev.derklaro.spiget.PagedRequest;
+import dev.derklaro.spiget.paging.PageIterator;
+import java.util.concurrent.Flow;
+import lombok.NonNull;
+
+// publishes all items of a list request, each subscriber iterates over the pages on its own
+public final class PagePublisher<T> implements Flow.Publisher<T> {
+
+  private final PagedRequest<T> request;
+
+  private PagePublisher(@NonNull PagedRequest<T> request) {
+    this.request = request;
+  }
+
+  public static @NonNull <T> PagePublisher<T> of(@NonNull PagedRequest<T> request) {
+    return new PagePublisher<>(request);
+  }
+
+  @Override
+  public void subscribe(@NonNull Flow.Subscriber<? super T> subscriber) {
+    PageSubscription<T> subscription = new PageSubscription<>(subscriber, PageIterator.of(this.request));
+    subscriber.onSubscribe(subscription);
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.flow;
+
+import dev.derklaro.spiget.paging.PageIterator;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.NonNull;
+
+// emits the items of the received pages as requested, the next page is only requested once the current one was emitted
+final class PageSubscription<T> implements Flow.Subscription {
+
+  private final Flow.Subscriber<? super T> subscriber;
+  private final PageIterator<T> pages;
+
+  private final AtomicLong demand = new AtomicLong();
+  private final AtomicInteger pendingDrains = new AtomicInteger();
+
+  // only accessed while draining
+  private Iterator<T> currentPage = Collections.emptyIterator();
+  private boolean pageRequested;
+  private boolean terminated;
+
+  // set by the page callback, picked up by the next drain
+  private volatile List<T> receivedPage;
+  private volatile Throwable failure;
+  private volatile boolean ended;
+  private volatile boolean cancelled;
+
+  public PageSubscription(@NonNull Flow.Subscriber<? super T> subscriber, @NonNull PageIterator<T> pages) {
+    this.subscriber = subscriber;
+    this.pages = pages;
+  }
+
+  @Override
+  public void request(long n) {
+    if (n <= 0) {
+      // rule 3.9 of the reactive streams specification
+      this.failure = new IllegalArgumentException("Requested amount of items must be positive, got " + n);
+      this.cancelled = true;
+    } else {
+      this.demand.getAndAccumulate(n, (current, requested) -> {
+        long sum = current + requested;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+      });
+    }
+    this.drain();
+  }
+
+  @Override
+  public void cancel() {
+    this.cancelled = true;
+    this.pages.close();
+  }
+
+  private void drain() {
+    // only one thread emits items at a time, drains requested meanwhile are done by that thread
+    if (this.pendingDrains.getAndIncrement() != 0) {
+      return;
+    }
+
+    do {
+      this.drainOnce();
+    } while (this.pendingDrains.decrementAndGet() != 0);
+  }
+
+  private void drainOnce() {
+    if (this.terminated) {
+      return;
+    }
+
+    if (this.cancelled) {
+      // a failure while cancelled is caused by an invalid request amount
+      this.terminated = true;
+      this.pages.close();
+      if (this.failure != null) {
+        this.subscriber.onError(this.failure);
+      }
+      return;
+    }
+
+    // pick up the result of the requested page
+    if (this.pageRequested) {
+      List<T> page = this.receivedPage;
+      if (page != null) {
+        this.receivedPage = null;
+        this.pageRequested = false;
+        this.currentPage = page.iterator();
+      } else if (this.failure != null || this.ended) {
+        this.terminated = true;
+        if (this.failure != null) {
+          this.subscriber.onError(this.failure);
+        } else {
+          this.subscriber.onComplete();
+        }
+        return;
+      }
+    }
+
+    while (this.demand.get() > 0 && this.currentPage.hasNext() && !this.cancelled) {
+      this.subscriber.onNext(this.currentPage.next());
+      this.demand.decrementAndGet();
+    }
+
+    // request the next page once the current one was emitted and more items are wanted
+    if (!this.currentPage.hasNext() && !this.pageRequested && this.demand.get() > 0 && !this.cancelled) {
+      this.pageRequested = true;
+      this.pages.nextPage().whenComplete((items, throwable) -> {
+        if (throwable != null) {
+          this.failure = throwable instanceof CompletionException && throwable.getCause() != null
+            ? throwable.getCause()
+            : throwable;
+        } else if (items == null) {
+          this.ended = true;
+        } else {
+          this.receivedPage = items;
+        }
+        this.drain();
+      });
+    }
+  }
+}
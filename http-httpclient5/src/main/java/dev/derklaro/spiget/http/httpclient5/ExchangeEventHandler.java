@@ -0,0 +1,131 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.http.httpclient5;
+
+import dev.derklaro.spiget.event.EventListener;
+import java.io.IOException;
+import lombok.NonNull;
+import org.apache.hc.client5.http.async.AsyncExecCallback;
+import org.apache.hc.client5.http.async.AsyncExecChain;
+import org.apache.hc.client5.http.async.AsyncExecChainHandler;
+import org.apache.hc.client5.http.classic.ExecChain;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.client5.http.impl.ChainElement;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.nio.AsyncDataConsumer;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+
+// placed after the connect element of the exec chain, it runs once the connection for an attempt was acquired
+// the request of an attempt is written completely before the response head is read, it is reported as sent then
+final class ExchangeEventHandler implements ExecChainHandler, AsyncExecChainHandler {
+
+  static final String NAME = "spiget-events";
+  static final String PRECEDING_ELEMENT = ChainElement.CONNECT.name();
+  static final ExchangeEventHandler INSTANCE = new ExchangeEventHandler();
+
+  private static final String LISTENER_ATTRIBUTE = "spiget.event-listener";
+
+  private ExchangeEventHandler() {
+  }
+
+  static @NonNull HttpClientContext context(@NonNull EventListener listener) {
+    HttpClientContext context = HttpClientContext.create();
+    context.setAttribute(LISTENER_ATTRIBUTE, listener);
+    return context;
+  }
+
+  private static @NonNull EventListener listener(@NonNull HttpClientContext context) {
+    EventListener listener = context.getAttribute(LISTENER_ATTRIBUTE, EventListener.class);
+    return listener == null ? EventListener.NONE : listener;
+  }
+
+  @Override
+  public @NonNull ClassicHttpResponse execute(
+    @NonNull ClassicHttpRequest request,
+    @NonNull ExecChain.Scope scope,
+    @NonNull ExecChain chain
+  ) throws IOException, HttpException {
+    EventListener listener = listener(scope.clientContext);
+    listener.connectionAcquired();
+    ClassicHttpResponse response = chain.proceed(request, scope);
+    listener.requestSent();
+    return response;
+  }
+
+  @Override
+  public void execute(
+    @NonNull HttpRequest request,
+    AsyncEntityProducer entityProducer,
+    @NonNull AsyncExecChain.Scope scope,
+    @NonNull AsyncExecChain chain,
+    @NonNull AsyncExecCallback callback
+  ) throws HttpException, IOException {
+    EventListener listener = listener(scope.clientContext);
+    listener.connectionAcquired();
+    chain.proceed(request, entityProducer, scope, new AsyncExecCallback() {
+
+      // only accessed from the io reactor thread of the connection
+      private boolean requestSent;
+
+      private void requestSent() {
+        if (!this.requestSent) {
+          this.requestSent = true;
+          listener.requestSent();
+        }
+      }
+
+      @Override
+      public AsyncDataConsumer handleResponse(
+        @NonNull HttpResponse response,
+        EntityDetails entityDetails
+      ) throws HttpException, IOException {
+        this.requestSent();
+        return callback.handleResponse(response, entityDetails);
+      }
+
+      @Override
+      public void handleInformationResponse(@NonNull HttpResponse response) throws HttpException, IOException {
+        this.requestSent();
+        callback.handleInformationResponse(response);
+      }
+
+      @Override
+      public void completed() {
+        callback.completed();
+      }
+
+      @Override
+      public void failed(@NonNull Exception exception) {
+        callback.failed(exception);
+      }
+    });
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.http.httpclient5;
+
+import dev.derklaro.spiget.SpigetClientConfig;
+import dev.derklaro.spiget.client.AbstractSpigetClient;
+import dev.derklaro.spiget.http.SpigetHttpRequest;
+import dev.derklaro.spiget.http.SpigetHttpResponse;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import lombok.NonNull;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.nio.entity.AsyncEntityProducers;
+import org.apache.hc.core5.http.nio.support.AsyncRequestBuilder;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+public final class HttpClient5AsyncSpigetClient extends AbstractSpigetClient implements AutoCloseable {
+
+  private final CloseableHttpAsyncClient client;
+
+  public HttpClient5AsyncSpigetClient(@NonNull SpigetClientConfig clientConfig) {
+    this(clientConfig, HttpClient5Config.create());
+  }
+
+  public HttpClient5AsyncSpigetClient(@NonNull SpigetClientConfig clientConfig, @NonNull HttpClient5Config httpConfig) {
+    super(clientConfig);
+    this.client = createClient(clientConfig, httpConfig);
+    this.client.start();
+  }
+
+  private static @NonNull CloseableHttpAsyncClient createClient(
+    @NonNull SpigetClientConfig clientConfig,
+    @NonNull HttpClient5Config httpConfig
+  ) {
+    PoolingAsyncClientConnectionManager connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+      .setMaxConnPerRoute(httpConfig.maxConnectionsPerRoute())
+      .setMaxConnTotal(httpConfig.maxConnectionsTotal())
+      .setDefaultConnectionConfig(ConnectionConfig.custom()
+        .setConnectTimeout(Timeout.ofMilliseconds(clientConfig.connectTimeout().toMillis()))
+        .build())
+      .setDefaultTlsConfig(TlsConfig.custom().setVersionPolicy(httpConfig.versionPolicy()).build())
+      .build();
+    return HttpAsyncClients.custom()
+      .setConnectionManager(connectionManager)
+      .setH2Config(H2Config.custom().setMaxConcurrentStreams(httpConfig.maxConcurrentStreams()).build())
+      .setDefaultRequestConfig(RequestConfig.custom()
+        .setRedirectsEnabled(true)
+        .setResponseTimeout(Timeout.ofMilliseconds(clientConfig.requestTimeout().toMillis()))
+        .build())
+      .evictExpiredConnections()
+      .evictIdleConnections(TimeValue.ofMilliseconds(httpConfig.idleEvictionTime().toMillis()))
+      .disableConnectionState()
+      .addExecInterceptorAfter(ExchangeEventHandler.PRECEDING_ELEMENT, ExchangeEventHandler.NAME, ExchangeEventHandler.INSTANCE)
+      .setUserAgent(clientConfig.userAgent())
+      .build();
+  }
+
+  // lets running exchanges finish, then closes the pooled connections and stops the io reactor threads
+  @Override
+  public void close() {
+    this.client.close(CloseMode.GRACEFUL);
+  }
+
+  @Override
+  protected @NonNull CompletableFuture<SpigetHttpResponse> doSendRequest(@NonNull SpigetHttpRequest request) {
+    AsyncRequestBuilder builder = AsyncRequestBuilder.create(request.method()).setUri(request.uri());
+
+    // parse the content type
+    String contentType = request.contentType();
+    ContentType ct = Objects.requireNonNull(ContentType.parse(contentType), "Invalid content type " + contentType);
+    builder.setHeader(HttpHeaders.CONTENT_TYPE, ct.toString());
+    request.headers().forEach(builder::setHeader);
+
+    // apply the body
+    if (request.body() != null) {
+      builder.setEntity(AsyncEntityProducers.create(request.body(), ct));
+    }
+
+    // bodies which are decoded are small, they are buffered to decode them without blocking a thread while reading
+    CompletableFuture<SpigetHttpResponse> future = new CompletableFuture<>();
+    StreamingResponseConsumer consumer = new StreamingResponseConsumer(future, request.responseType() != null);
+    HttpClientContext context = ExchangeEventHandler.context(request.eventListener());
+    Future<Void> exchange = this.client.execute(builder.build(), consumer, context, new FutureCallback<Void>() {
+      @Override
+      public void completed(Void result) {
+      }
+
+      @Override
+      public void failed(Exception exception) {
+        future.completeExceptionally(exception);
+      }
+
+      @Override
+      public void cancelled() {
+        future.cancel(false);
+      }
+    });
+    consumer.attachExchange(exchange);
+
+    // cancelling the future aborts the exchange
+    future.whenComplete((response, throwable) -> {
+      if (future.isCancelled()) {
+        exchange.cancel(true);
+      }
+    });
+    return future;
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.http.httpclient5;
+
+import java.time.Duration;
+import lombok.Data;
+import lombok.NonNull;
+import lombok.experimental.Accessors;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+
+@NonNull
+@Data(staticConstructor = "create")
+@Accessors(fluent = true, chain = true)
+public final class HttpClient5Config {
+
+  private int maxConnectionsPerRoute = 20;
+  private int maxConnectionsTotal = 100;
+  // pooled connections which were not used for this time are closed
+  private Duration idleEvictionTime = Duration.ofMinutes(1);
+
+  // only used by the async client, all requests to the api are multiplexed over one connection when using http/2
+  private HttpVersionPolicy versionPolicy = HttpVersionPolicy.NEGOTIATE;
+  private int maxConcurrentStreams = 100;
+}
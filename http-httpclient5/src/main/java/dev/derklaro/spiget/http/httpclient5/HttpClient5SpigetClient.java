@@ -26,77 +26,126 @@
 
 import dev.derklaro.spiget.SpigetClientConfig;
 import dev.derklaro.spiget.client.AbstractSpigetClient;
-import java.io.IOException;
-import java.io.InputStream;
+import dev.derklaro.spiget.http.ResponseBody;
+import dev.derklaro.spiget.http.SpigetHttpRequest;
+import dev.derklaro.spiget.http.SpigetHttpResponse;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionException;
 import lombok.NonNull;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
+import org.apache.hc.client5.http.config.ConnectionConfig;
 import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
-import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
 import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
 import org.apache.hc.core5.http.HttpHeaders;
-import org.apache.hc.core5.http.io.entity.StringEntity;
-import org.apache.hc.core5.http.message.BasicClassicHttpRequest;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
-import org.jetbrains.annotations.Nullable;
 
 public final class HttpClient5SpigetClient extends AbstractSpigetClient {
 
   private final CloseableHttpClient client;
 
   public HttpClient5SpigetClient(@NonNull SpigetClientConfig clientConfig) {
+    this(clientConfig, HttpClient5Config.create());
+  }
+
+  public HttpClient5SpigetClient(@NonNull SpigetClientConfig clientConfig, @NonNull HttpClient5Config httpConfig) {
     super(clientConfig);
-    this.client = createClient(clientConfig);
+    this.client = createClient(clientConfig, httpConfig);
   }
 
-  private static @NonNull CloseableHttpClient createClient(@NonNull SpigetClientConfig clientConfig) {
+  private static @NonNull CloseableHttpClient createClient(
+    @NonNull SpigetClientConfig clientConfig,
+    @NonNull HttpClient5Config httpConfig
+  ) {
     return HttpClients.custom()
+      .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+        .setMaxConnPerRoute(httpConfig.maxConnectionsPerRoute())
+        .setMaxConnTotal(httpConfig.maxConnectionsTotal())
+        .setDefaultConnectionConfig(ConnectionConfig.custom()
+          .setConnectTimeout(Timeout.ofMilliseconds(clientConfig.connectTimeout().toMillis()))
+          .build())
+        .build())
+      .evictExpiredConnections()
+      .evictIdleConnections(TimeValue.ofMilliseconds(httpConfig.idleEvictionTime().toMillis()))
       .setDefaultRequestConfig(RequestConfig.custom()
         .setRedirectsEnabled(true)
-        .setConnectTimeout(Timeout.ofMilliseconds(clientConfig.connectTimeout().toMillis()))
         .setResponseTimeout(Timeout.ofMilliseconds(clientConfig.requestTimeout().toMillis()))
         .build())
       .disableConnectionState()
+      // compressed responses are decompressed by the client using pooled inflaters
+      .disableContentCompression()
+      .addExecInterceptorAfter(ExchangeEventHandler.PRECEDING_ELEMENT, ExchangeEventHandler.NAME, ExchangeEventHandler.INSTANCE)
       .setUserAgent(clientConfig.userAgent())
       .build();
   }
 
   @Override
-  protected @NonNull CompletableFuture<InputStream> doSendRequest(
-    @Nullable String body,
-    @NonNull String uri,
-    @NonNull String contentType,
-    @NonNull String requestMethod
-  ) {
-    ClassicHttpRequest request = new BasicClassicHttpRequest(requestMethod, URI.create(uri));
+  protected @NonNull CompletableFuture<SpigetHttpResponse> doSendRequest(@NonNull SpigetHttpRequest request) {
+    HttpUriRequestBase httpRequest = new HttpUriRequestBase(request.method(), URI.create(request.uri()));
 
     // parse the content type
+    String contentType = request.contentType();
     ContentType ct = Objects.requireNonNull(ContentType.parse(contentType), "Invalid content type " + contentType);
-    request.setHeader(HttpHeaders.CONTENT_TYPE, ct);
+    httpRequest.setHeader(HttpHeaders.CONTENT_TYPE, ct);
+    request.headers().forEach(httpRequest::setHeader);
 
     // apply the body
-    if (body != null) {
-      request.setEntity(new StringEntity(body, ct));
+    if (request.body() != null) {
+      httpRequest.setEntity(new ByteArrayEntity(request.body(), ct));
     }
 
-    return CompletableFuture.supplyAsync(() -> {
+    CompletableFuture<SpigetHttpResponse> future = new CompletableFuture<>();
+    // cancelling the future aborts the request
+    future.whenComplete((response, throwable) -> {
+      if (future.isCancelled()) {
+        httpRequest.cancel();
+      }
+    });
+
+    CompletableFuture.runAsync(() -> {
       try {
-        CloseableHttpResponse response = this.client.execute(request);
-        // get the response content if the request was successful
-        if (response.getCode() >= 200 && response.getCode() < 300 && response.getEntity() != null) {
-          return response.getEntity().getContent();
+        CloseableHttpResponse response = this.client.execute(
+          httpRequest,
+          ExchangeEventHandler.context(request.eventListener()));
+        // collect the response headers
+        Map<String, List<String>> headers = new HashMap<>();
+        for (Header header : response.getHeaders()) {
+          headers.computeIfAbsent(header.getName(), name -> new ArrayList<>()).add(header.getValue());
+        }
+
+        // responses without a body (for example not modified) must be closed directly to release the connection
+        HttpEntity entity = response.getEntity();
+        if (entity == null) {
+          response.close();
+          future.complete(SpigetHttpResponse.of(response.getCode(), headers, null));
+          return;
         }
-        // illegal state
-        throw new IllegalStateException("Unexpected http response code: " + response.getCode());
-      } catch (IOException exception) {
-        // unchecked rethrow
-        throw new CompletionException(exception);
+
+        // release the connection if the request was cancelled in the meantime
+        SpigetHttpResponse spigetResponse = SpigetHttpResponse.ofBody(
+          response.getCode(),
+          headers,
+          ResponseBody.ofStream(entity.getContent(), entity.getContentLength()));
+        if (!future.complete(spigetResponse)) {
+          spigetResponse.close();
+        }
+      } catch (Throwable throwable) {
+        // runAsync swallows exceptions thrown by the task, the future would never complete otherwise
+        future.completeExceptionally(throwable);
       }
-    });
+    }, this.clientConfig.ioExecutor());
+    return future;
   }
 }
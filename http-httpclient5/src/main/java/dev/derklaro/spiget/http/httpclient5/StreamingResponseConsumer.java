@@ -0,0 +1,281 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.http.httpclient5;
+
+import dev.derklaro.spiget.http.ResponseBody;
+import dev.derklaro.spiget.http.SpigetHttpResponse;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.NonNull;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.jetbrains.annotations.Nullable;
+
+// buffered bodies complete the response future once they were fully received, streamed bodies complete it once the
+// headers arrived and hand out the received chunks to the reader. The exchange only completes once the body was fully
+// received, so it can be cancelled while the body is read
+final class StreamingResponseConsumer implements AsyncResponseConsumer<Void> {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final int MAX_DRAIN_LENGTH = 64 * 1024;
+  private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+  private final CompletableFuture<SpigetHttpResponse> responseFuture;
+  private final boolean bufferBody;
+
+  // only accessed by the io reactor
+  private int statusCode;
+  private Map<String, List<String>> headers;
+  private List<ByteBuffer> buffers;
+  private int discardedBytes;
+
+  // streamed bodies
+  private final BlockingQueue<ByteBuffer> received = new LinkedBlockingQueue<>();
+  private final AtomicInteger queuedBytes = new AtomicInteger();
+
+  private volatile boolean ended;
+  private volatile boolean discarding;
+  private volatile boolean aborted;
+  private volatile IOException failure;
+  private volatile CapacityChannel capacityChannel;
+  private volatile FutureCallback<Void> resultCallback;
+  private volatile Future<Void> exchange;
+
+  public StreamingResponseConsumer(@NonNull CompletableFuture<SpigetHttpResponse> responseFuture, boolean bufferBody) {
+    this.responseFuture = responseFuture;
+    this.bufferBody = bufferBody;
+  }
+
+  public void attachExchange(@NonNull Future<Void> exchange) {
+    this.exchange = exchange;
+    // the body might have been released before the exchange was attached
+    if (this.aborted) {
+      exchange.cancel(true);
+    }
+  }
+
+  @Override
+  public void consumeResponse(
+    @NonNull HttpResponse response,
+    @Nullable EntityDetails entityDetails,
+    @Nullable HttpContext context,
+    @NonNull FutureCallback<Void> resultCallback
+  ) {
+    // collect the response headers
+    Map<String, List<String>> headers = new HashMap<>();
+    for (Header header : response.getHeaders()) {
+      headers.computeIfAbsent(header.getName(), name -> new ArrayList<>()).add(header.getValue());
+    }
+
+    // responses without a body (for example not modified) are done directly
+    if (entityDetails == null) {
+      this.responseFuture.complete(SpigetHttpResponse.ofBody(response.getCode(), headers, ResponseBody.empty()));
+      resultCallback.completed(null);
+      return;
+    }
+
+    this.resultCallback = resultCallback;
+    if (this.bufferBody) {
+      this.statusCode = response.getCode();
+      this.headers = headers;
+      this.buffers = new ArrayList<>();
+      return;
+    }
+
+    // release the connection if the request was cancelled in the meantime
+    ChunkBody body = new ChunkBody(entityDetails.getContentLength());
+    if (!this.responseFuture.complete(SpigetHttpResponse.ofBody(response.getCode(), headers, body))) {
+      body.release();
+    }
+  }
+
+  @Override
+  public void informationResponse(@NonNull HttpResponse response, @Nullable HttpContext context) {
+  }
+
+  @Override
+  public void updateCapacity(@NonNull CapacityChannel capacityChannel) throws IOException {
+    this.capacityChannel = capacityChannel;
+    if (this.bufferBody || this.discarding) {
+      capacityChannel.update(Integer.MAX_VALUE);
+    } else {
+      // only buffer a bounded amount of data which was not read yet
+      int capacity = BUFFER_SIZE - this.queuedBytes.get();
+      if (capacity > 0) {
+        capacityChannel.update(capacity);
+      }
+    }
+  }
+
+  @Override
+  public void consume(@NonNull ByteBuffer src) {
+    int length = src.remaining();
+    if (this.discarding) {
+      // small remainders of released bodies are discarded to keep the connection
+      src.position(src.limit());
+      this.discardedBytes += length;
+      if (this.discardedBytes > MAX_DRAIN_LENGTH) {
+        this.abort();
+      }
+      return;
+    }
+
+    // the source buffer is reused by the io reactor
+    ByteBuffer chunk = ByteBuffer.allocate(length);
+    chunk.put(src).flip();
+    if (this.bufferBody) {
+      this.buffers.add(chunk);
+    } else {
+      this.queuedBytes.addAndGet(length);
+      this.received.offer(chunk);
+    }
+  }
+
+  @Override
+  public void streamEnd(@Nullable List<? extends Header> trailers) {
+    // the exchange completes after this call, returning the connection to the pool
+    this.ended = true;
+    if (this.bufferBody) {
+      this.responseFuture.complete(SpigetHttpResponse.ofBody(
+        this.statusCode,
+        this.headers,
+        ResponseBody.ofBuffers(this.buffers)));
+    } else {
+      this.received.offer(END);
+    }
+    this.resultCallback.completed(null);
+  }
+
+  @Override
+  public void failed(@NonNull Exception cause) {
+    // the reader gets the failure instead of a truncated body
+    this.failure = cause instanceof IOException ? (IOException) cause : new IOException(cause);
+    this.ended = true;
+    this.responseFuture.completeExceptionally(cause);
+    this.received.offer(END);
+  }
+
+  @Override
+  public void releaseResources() {
+    // the received chunks stay readable until the body gets released
+  }
+
+  private void abort() {
+    this.aborted = true;
+    Future<Void> exchange = this.exchange;
+    if (exchange != null) {
+      exchange.cancel(true);
+    }
+  }
+
+  private final class ChunkBody extends ResponseBody {
+
+    private boolean readerEnded;
+
+    public ChunkBody(long contentLength) {
+      super(contentLength);
+    }
+
+    @Override
+    public boolean buffered() {
+      return StreamingResponseConsumer.this.ended;
+    }
+
+    @Override
+    protected @Nullable ByteBuffer readChunk() throws IOException {
+      StreamingResponseConsumer consumer = StreamingResponseConsumer.this;
+      if (this.readerEnded) {
+        return null;
+      }
+
+      ByteBuffer chunk;
+      try {
+        chunk = consumer.received.take();
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException();
+      }
+
+      if (chunk == END) {
+        this.readerEnded = true;
+        IOException failure = consumer.failure;
+        if (failure != null) {
+          throw failure;
+        }
+        return null;
+      }
+
+      // the chunk was handed out, the io reactor may receive more data
+      consumer.queuedBytes.addAndGet(-chunk.remaining());
+      CapacityChannel capacityChannel = consumer.capacityChannel;
+      if (capacityChannel != null && !consumer.ended) {
+        capacityChannel.update(chunk.remaining());
+      }
+      return chunk;
+    }
+
+    @Override
+    protected void doRelease() {
+      StreamingResponseConsumer consumer = StreamingResponseConsumer.this;
+      consumer.received.clear();
+      if (consumer.ended) {
+        return;
+      }
+
+      // discard the rest of the body as it arrives instead of blocking the releasing thread, large remainders abort
+      // the exchange once they exceed the drain limit
+      long contentLength = this.contentLength();
+      if (contentLength > MAX_DRAIN_LENGTH) {
+        consumer.abort();
+        return;
+      }
+
+      consumer.discarding = true;
+      CapacityChannel capacityChannel = consumer.capacityChannel;
+      if (capacityChannel != null) {
+        try {
+          capacityChannel.update(Integer.MAX_VALUE);
+        } catch (IOException exception) {
+          consumer.abort();
+        }
+      }
+    }
+  }
+}
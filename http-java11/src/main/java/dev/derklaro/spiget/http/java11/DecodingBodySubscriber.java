@@ -0,0 +1,187 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.http.java11;
+
+import dev.derklaro.spiget.IncrementalJsonDecoder;
+import dev.derklaro.spiget.event.EventListener;
+import dev.derklaro.spiget.http.ContentInflater;
+import dev.derklaro.spiget.http.ResponseBody;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+// collects the received buffers without copying them and feeds them (decompressed if needed) to the decoder as they arrive
+final class DecodingBodySubscriber implements HttpResponse.BodySubscriber<DecodingBodySubscriber.Body> {
+
+  private final List<ByteBuffer> buffers = new ArrayList<>();
+  private final CompletableFuture<Body> result = new CompletableFuture<>();
+  private final EventListener listener;
+
+  private IncrementalJsonDecoder<?> decoder;
+  private ContentInflater inflater;
+  // the decode time is the sum of the time spent feeding and completing the decoder, not the time waiting for data
+  private boolean decodeStarted;
+  private long decodeNanos;
+
+  public DecodingBodySubscriber(
+    @Nullable IncrementalJsonDecoder<?> decoder,
+    @Nullable ContentInflater inflater,
+    @NonNull EventListener listener
+  ) {
+    this.decoder = decoder;
+    this.inflater = decoder == null ? null : inflater;
+    this.listener = listener;
+  }
+
+  @Override
+  public @NonNull CompletionStage<Body> getBody() {
+    return this.result;
+  }
+
+  @Override
+  public void onSubscribe(@NonNull Flow.Subscription subscription) {
+    subscription.request(Long.MAX_VALUE);
+  }
+
+  @Override
+  public void onNext(@NonNull List<ByteBuffer> items) {
+    this.buffers.addAll(items);
+    if (this.decoder != null) {
+      this.decodeStart();
+      long startNanos = System.nanoTime();
+      try {
+        for (ByteBuffer item : items) {
+          if (this.inflater == null) {
+            this.decoder.feed(item);
+          } else {
+            this.feedInflated(item);
+          }
+        }
+      } catch (IOException | RuntimeException exception) {
+        // decode the buffered body later on to report the failure to the caller
+        this.decoder = null;
+        this.releaseInflater();
+      } finally {
+        this.decodeNanos += System.nanoTime() - startNanos;
+      }
+    }
+  }
+
+  private void feedInflated(@NonNull ByteBuffer item) throws IOException {
+    // the compressed buffers are kept for the body, the inflated output is reused and must be copied for the decoder
+    this.inflater.input(item.duplicate());
+    ByteBuffer inflated;
+    while ((inflated = this.inflater.output()) != null) {
+      ByteBuffer copy = ByteBuffer.allocate(inflated.remaining());
+      copy.put(inflated).flip();
+      this.decoder.feed(copy);
+    }
+  }
+
+  private void releaseInflater() {
+    if (this.inflater != null) {
+      this.inflater.release();
+      this.inflater = null;
+    }
+  }
+
+  private void decodeStart() {
+    if (!this.decodeStarted) {
+      this.decodeStarted = true;
+      this.listener.decodeStart();
+    }
+  }
+
+  private void decodeEnd() {
+    if (this.decodeStarted) {
+      this.decodeStarted = false;
+      this.listener.decodeEnd();
+    }
+  }
+
+  @Override
+  public void onError(@NonNull Throwable throwable) {
+    this.releaseInflater();
+    this.decodeEnd();
+    this.result.completeExceptionally(throwable);
+  }
+
+  @Override
+  public void onComplete() {
+    Object decoded = null;
+    if (this.inflater != null && !this.inflater.finished()) {
+      // the compressed body was truncated
+      this.decoder = null;
+    }
+    this.releaseInflater();
+
+    if (this.decoder != null) {
+      // an empty body was never fed to the decoder
+      this.decodeStart();
+      long startNanos = System.nanoTime();
+      try {
+        decoded = this.decoder.complete();
+      } catch (RuntimeException ignored) {
+        // decoded again from the buffered body, reporting the failure to the caller
+      } finally {
+        this.decodeNanos += System.nanoTime() - startNanos;
+      }
+    }
+    this.decodeEnd();
+    this.result.complete(new Body(ResponseBody.ofBuffers(this.buffers), decoded, this.decodeNanos));
+  }
+
+  static final class Body {
+
+    private final ResponseBody content;
+    private final Object decoded;
+    private final long decodeNanos;
+
+    private Body(@NonNull ResponseBody content, @Nullable Object decoded, long decodeNanos) {
+      this.content = content;
+      this.decoded = decoded;
+      this.decodeNanos = decodeNanos;
+    }
+
+    public @NonNull ResponseBody content() {
+      return this.content;
+    }
+
+    public @Nullable Object decoded() {
+      return this.decoded;
+    }
+
+    public long decodeNanos() {
+      return this.decodeNanos;
+    }
+  }
+}
@@ -24,16 +24,24 @@
 
 package dev.derklaro.spiget.http.java11;
 
+import dev.derklaro.spiget.JsonMapper;
 import dev.derklaro.spiget.SpigetClientConfig;
 import dev.derklaro.spiget.client.AbstractSpigetClient;
-import java.io.InputStream;
+import dev.derklaro.spiget.event.EventListener;
+import dev.derklaro.spiget.http.ContentInflater;
+import dev.derklaro.spiget.http.HttpHeaderNames;
+import dev.derklaro.spiget.http.SpigetHttpRequest;
+import dev.derklaro.spiget.http.SpigetHttpResponse;
+import java.lang.reflect.Type;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
 import lombok.NonNull;
-import org.jetbrains.annotations.Nullable;
 
 public final class Java11SpigetClient extends AbstractSpigetClient {
 
@@ -49,34 +57,83 @@ public Java11SpigetClient(@NonNull SpigetClientConfig clientConfig) {
       .version(HttpClient.Version.HTTP_2)
       .connectTimeout(clientConfig.connectTimeout())
       .followRedirects(HttpClient.Redirect.NORMAL)
+      .executor(clientConfig.ioExecutor())
       .build();
   }
 
   @Override
-  protected @NonNull CompletableFuture<InputStream> doSendRequest(
-    @Nullable String body,
-    @NonNull String uri,
-    @NonNull String contentType,
-    @NonNull String requestMethod
+  protected @NonNull CompletableFuture<SpigetHttpResponse> doSendRequest(@NonNull SpigetHttpRequest request) {
+    HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(request.uri()))
+      .timeout(this.clientConfig.requestTimeout())
+      .header(HttpHeaderNames.CONTENT_TYPE, request.contentType())
+      .header(HttpHeaderNames.USER_AGENT, this.clientConfig.userAgent())
+      .method(
+        request.method(),
+        request.body() != null
+          ? HttpRequest.BodyPublishers.ofByteArray(request.body())
+          : HttpRequest.BodyPublishers.noBody());
+    request.headers().forEach(builder::header);
+
+    // bodies which are decoded are small, buffer them to decode them without blocking a thread while waiting for data
+    if (request.responseType() != null) {
+      return this.sendDecoding(builder.build(), request.responseType(), request.eventListener());
+    }
+
+    // the received buffers are handed to the caller as they arrive
+    CompletableFuture<HttpResponse<Flow.Publisher<List<ByteBuffer>>>> exchange = this.client.sendAsync(
+      builder.build(),
+      HttpResponse.BodyHandlers.ofPublisher());
+    CompletableFuture<SpigetHttpResponse> future = exchange.thenApply(response -> {
+      PublisherResponseBody body = new PublisherResponseBody(
+        response.headers().firstValueAsLong(HttpHeaderNames.CONTENT_LENGTH).orElse(-1));
+      response.body().subscribe(body);
+      return SpigetHttpResponse.ofBody(response.statusCode(), response.headers().map(), body);
+    });
+
+    // cancelling the future aborts the exchange and releases responses arriving afterwards
+    future.whenComplete((response, throwable) -> {
+      if (future.isCancelled()) {
+        exchange.cancel(true);
+        exchange.thenAccept(lateResponse -> {
+          PublisherResponseBody body = new PublisherResponseBody(-1);
+          body.release();
+          lateResponse.body().subscribe(body);
+        });
+      }
+    });
+    return future;
+  }
+
+  private @NonNull CompletableFuture<SpigetHttpResponse> sendDecoding(
+    @NonNull HttpRequest request,
+    @NonNull Type responseType,
+    @NonNull EventListener listener
   ) {
-    return this.client.sendAsync(
-      HttpRequest.newBuilder(URI.create(uri))
-        .timeout(this.clientConfig.requestTimeout())
-        .header("Content-Type", contentType)
-        .header("User-Agent", this.clientConfig.userAgent())
-        .method(
-          requestMethod,
-          body != null ? HttpRequest.BodyPublishers.ofString(body) : HttpRequest.BodyPublishers.noBody())
-        .build(),
-      HttpResponse.BodyHandlers.ofInputStream()
-    ).thenApply(response -> {
-      // validate that the request was successful
-      if (response.statusCode() >= 200 && response.statusCode() < 300) {
-        return response.body();
-      } else {
-        // illegal state
-        throw new IllegalStateException("Unexpected response code " + response.statusCode());
+    // only successful responses are decoded, the body of other responses is only used for error messages
+    JsonMapper jsonMapper = this.clientConfig.jsonMapper();
+    HttpResponse.BodyHandler<DecodingBodySubscriber.Body> bodyHandler = responseInfo -> new DecodingBodySubscriber(
+      responseInfo.statusCode() / 100 == 2 ? jsonMapper.incrementalDecoder(responseType) : null,
+      ContentInflater.forEncoding(responseInfo.headers().firstValue(HttpHeaderNames.CONTENT_ENCODING).orElse(null)),
+      listener);
+
+    CompletableFuture<HttpResponse<DecodingBodySubscriber.Body>> exchange = this.client.sendAsync(request, bodyHandler);
+    CompletableFuture<SpigetHttpResponse> future = exchange.thenApply(response -> {
+      DecodingBodySubscriber.Body body = response.body();
+      SpigetHttpResponse spigetResponse = SpigetHttpResponse.ofBody(
+        response.statusCode(),
+        response.headers().map(),
+        body.content());
+      return body.decoded() == null
+        ? spigetResponse
+        : spigetResponse.withDecodedBody(body.decoded(), body.decodeNanos());
+    });
+
+    // cancelling the future aborts the exchange
+    future.whenComplete((response, throwable) -> {
+      if (future.isCancelled()) {
+        exchange.cancel(true);
       }
     });
+    return future;
   }
 }
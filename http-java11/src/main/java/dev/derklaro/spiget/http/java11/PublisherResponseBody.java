@@ -0,0 +1,125 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.http.java11;
+
+import dev.derklaro.spiget.http.ResponseBody;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+// hands out the buffers received by the http client without copying them, the next buffers are requested once the
+// previous ones were handed out
+final class PublisherResponseBody extends ResponseBody implements Flow.Subscriber<List<ByteBuffer>> {
+
+  private static final List<ByteBuffer> END = Collections.emptyList();
+
+  private final BlockingQueue<List<ByteBuffer>> received = new LinkedBlockingQueue<>();
+
+  private Iterator<ByteBuffer> current = Collections.emptyIterator();
+  private boolean ended;
+
+  private volatile Throwable failure;
+  private volatile Flow.Subscription subscription;
+
+  public PublisherResponseBody(long contentLength) {
+    super(contentLength);
+  }
+
+  @Override
+  public void onSubscribe(@NonNull Flow.Subscription subscription) {
+    this.subscription = subscription;
+    if (this.released()) {
+      subscription.cancel();
+    } else {
+      subscription.request(1);
+    }
+  }
+
+  @Override
+  public void onNext(@NonNull List<ByteBuffer> items) {
+    this.received.offer(items);
+  }
+
+  @Override
+  public void onError(@NonNull Throwable throwable) {
+    this.failure = throwable;
+    this.received.offer(END);
+  }
+
+  @Override
+  public void onComplete() {
+    this.received.offer(END);
+  }
+
+  @Override
+  protected @Nullable ByteBuffer readChunk() throws IOException {
+    while (true) {
+      if (this.current.hasNext()) {
+        return this.current.next();
+      }
+      if (this.ended) {
+        return null;
+      }
+
+      List<ByteBuffer> items;
+      try {
+        items = this.received.take();
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException();
+      }
+
+      if (items == END) {
+        this.ended = true;
+        Throwable failure = this.failure;
+        if (failure != null) {
+          throw failure instanceof IOException ? (IOException) failure : new IOException(failure);
+        }
+        return null;
+      }
+
+      this.current = items.iterator();
+      this.subscription.request(1);
+    }
+  }
+
+  @Override
+  protected void doRelease() {
+    // the subscription is cancelled in onSubscribe if the body gets released before it was subscribed
+    Flow.Subscription subscription = this.subscription;
+    if (subscription != null && !this.ended) {
+      subscription.cancel();
+    }
+    this.received.clear();
+  }
+}
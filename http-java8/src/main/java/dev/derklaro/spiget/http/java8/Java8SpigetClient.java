@@ -26,16 +26,15 @@
 
 import dev.derklaro.spiget.SpigetClientConfig;
 import dev.derklaro.spiget.client.AbstractSpigetClient;
-import java.io.IOException;
+import dev.derklaro.spiget.http.HttpHeaderNames;
+import dev.derklaro.spiget.http.SpigetHttpRequest;
+import dev.derklaro.spiget.http.SpigetHttpResponse;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionException;
 import lombok.NonNull;
-import org.jetbrains.annotations.Nullable;
 
 public final class Java8SpigetClient extends AbstractSpigetClient {
 
@@ -44,15 +43,23 @@ public Java8SpigetClient(@NonNull SpigetClientConfig clientConfig) {
   }
 
   @Override
-  protected @NonNull CompletableFuture<InputStream> doSendRequest(
-    @Nullable String body,
-    @NonNull String uri,
-    @NonNull String contentType,
-    @NonNull String requestMethod
-  ) {
-    return CompletableFuture.supplyAsync(() -> {
+  protected @NonNull CompletableFuture<SpigetHttpResponse> doSendRequest(@NonNull SpigetHttpRequest request) {
+    CompletableFuture<SpigetHttpResponse> future = new CompletableFuture<>();
+    CompletableFuture.runAsync(() -> {
+      // the request was cancelled before it was sent
+      if (future.isDone()) {
+        return;
+      }
+
       try {
-        HttpURLConnection connection = (HttpURLConnection) new URL(uri).openConnection();
+        byte[] body = request.body();
+        HttpURLConnection connection = (HttpURLConnection) new URL(request.uri()).openConnection();
+        // cancelling the future aborts the request
+        future.whenComplete((response, throwable) -> {
+          if (future.isCancelled()) {
+            connection.disconnect();
+          }
+        });
         // boolean properties
         connection.setDoInput(true);
         connection.setUseCaches(false);
@@ -60,26 +67,37 @@ public Java8SpigetClient(@NonNull SpigetClientConfig clientConfig) {
         connection.setAllowUserInteraction(false);
         connection.setInstanceFollowRedirects(true);
         // request method
-        connection.setRequestMethod(requestMethod);
+        connection.setRequestMethod(request.method());
         // timeouts
         connection.setReadTimeout((int) this.clientConfig.requestTimeout().toMillis());
         connection.setConnectTimeout((int) this.clientConfig.connectTimeout().toMillis());
         // request properties
-        connection.setRequestProperty("Content-Type", contentType);
-        connection.setRequestProperty("User-Agent", this.clientConfig.userAgent());
+        connection.setRequestProperty(HttpHeaderNames.CONTENT_TYPE, request.contentType());
+        connection.setRequestProperty(HttpHeaderNames.USER_AGENT, this.clientConfig.userAgent());
+        request.headers().forEach(connection::setRequestProperty);
         // connect and send the body if present
         connection.connect();
+        request.eventListener().connectionAcquired();
         if (body != null) {
           try (OutputStream out = connection.getOutputStream()) {
-            out.write(body.getBytes(StandardCharsets.UTF_8));
+            out.write(body);
             out.flush();
           }
         }
-        // we can use the input stream here as we always require an "ok" response
-        return connection.getInputStream();
-      } catch (IOException exception) {
-        throw new CompletionException(exception);
+        request.eventListener().requestSent();
+        // the input stream is not available for error responses, use the error stream in that case
+        int statusCode = connection.getResponseCode();
+        InputStream responseBody = statusCode >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        SpigetHttpResponse response = SpigetHttpResponse.of(statusCode, connection.getHeaderFields(), responseBody);
+        // release the connection if the request was cancelled in the meantime
+        if (!future.complete(response)) {
+          response.close();
+        }
+      } catch (Throwable throwable) {
+        // runAsync swallows exceptions thrown by the task, the future would never complete otherwise
+        future.completeExceptionally(throwable);
       }
-    });
+    }, this.clientConfig.ioExecutor());
+    return future;
   }
 }
@@ -0,0 +1,246 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.http.nio;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLContext;
+import lombok.NonNull;
+
+// keep-alive connections per route, only accessed from the event loop
+final class ConnectionPool {
+
+  private final EventLoop eventLoop;
+  private final BufferPool bufferPool;
+  private final SSLContext sslContext;
+  private final Executor completionExecutor;
+
+  private final int maxConnectionsPerRoute;
+  private final long connectTimeoutNanos;
+  private final long requestTimeoutNanos;
+  private final long idleTimeoutNanos;
+
+  private final Map<Route, RoutePool> routes = new HashMap<>();
+  private boolean closed;
+
+  public ConnectionPool(
+    @NonNull EventLoop eventLoop,
+    @NonNull BufferPool bufferPool,
+    @NonNull SSLContext sslContext,
+    @NonNull Executor completionExecutor,
+    int maxConnectionsPerRoute,
+    long connectTimeoutNanos,
+    long requestTimeoutNanos,
+    long idleTimeoutNanos
+  ) {
+    this.eventLoop = eventLoop;
+    this.bufferPool = bufferPool;
+    this.sslContext = sslContext;
+    this.completionExecutor = completionExecutor;
+    this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+    this.connectTimeoutNanos = connectTimeoutNanos;
+    this.requestTimeoutNanos = requestTimeoutNanos;
+    this.idleTimeoutNanos = idleTimeoutNanos;
+
+    eventLoop.execute(this::scheduleEviction);
+  }
+
+  public @NonNull EventLoop eventLoop() {
+    return this.eventLoop;
+  }
+
+  public @NonNull BufferPool bufferPool() {
+    return this.bufferPool;
+  }
+
+  public @NonNull SSLContext sslContext() {
+    return this.sslContext;
+  }
+
+  public @NonNull Executor completionExecutor() {
+    return this.completionExecutor;
+  }
+
+  public long requestTimeoutNanos() {
+    return this.requestTimeoutNanos;
+  }
+
+  public void acquire(@NonNull Exchange exchange, boolean forceNewConnection) {
+    if (exchange.cancelled()) {
+      return;
+    }
+    if (this.closed) {
+      exchange.fail(new IOException("Client was closed"));
+      return;
+    }
+
+    // the request timeout includes the time waiting for a connection
+    exchange.startTimeout();
+
+    RoutePool routePool = this.routes.computeIfAbsent(exchange.route(), route -> new RoutePool());
+    if (!forceNewConnection) {
+      // prefer the most recently used connection, the server is less likely to have closed it
+      HttpConnection connection = routePool.idle.pollFirst();
+      if (connection != null) {
+        connection.assign(exchange);
+        return;
+      }
+    }
+
+    if (routePool.openConnections < this.maxConnectionsPerRoute) {
+      this.openConnection(routePool, exchange);
+    } else {
+      routePool.waiting.offer(exchange);
+    }
+  }
+
+  public void release(@NonNull HttpConnection connection, boolean reusable) {
+    if (!reusable) {
+      connection.close();
+      this.connectionClosed(connection);
+      return;
+    }
+
+    RoutePool routePool = this.routes.get(connection.route());
+    Exchange next = routePool.waiting.poll();
+    if (next != null) {
+      connection.assign(next);
+    } else {
+      routePool.idle.offerFirst(connection);
+    }
+  }
+
+  public void connectionClosed(@NonNull HttpConnection connection) {
+    RoutePool routePool = this.routes.get(connection.route());
+    routePool.idle.remove(connection);
+    routePool.connections.remove(connection);
+    routePool.openConnections--;
+    if (this.closed) {
+      return;
+    }
+
+    // the free slot can be used by a waiting request
+    Exchange next = routePool.waiting.poll();
+    if (next != null) {
+      this.openConnection(routePool, next);
+    }
+  }
+
+  public void removeWaiter(@NonNull Exchange exchange) {
+    RoutePool routePool = this.routes.get(exchange.route());
+    if (routePool != null) {
+      routePool.waiting.remove(exchange);
+    }
+  }
+
+  private void openConnection(@NonNull RoutePool routePool, @NonNull Exchange exchange) {
+    HttpConnection connection;
+    try {
+      connection = new HttpConnection(exchange.route(), this);
+    } catch (IOException exception) {
+      exchange.fail(exception);
+      return;
+    }
+
+    routePool.openConnections++;
+    routePool.connections.add(connection);
+    connection.assign(exchange);
+    connection.startConnectTimeout(this.connectTimeoutNanos);
+
+    // resolving the host name blocks, do it off the event loop
+    String host = exchange.route().host();
+    int port = exchange.route().port();
+    this.completionExecutor.execute(() -> {
+      InetSocketAddress address = new InetSocketAddress(host, port);
+      this.eventLoop.execute(() -> {
+        if (address.isUnresolved()) {
+          connection.fail(new IOException("Unable to resolve host " + host));
+        } else {
+          connection.connect(address);
+        }
+      });
+    });
+  }
+
+  // fails the waiting and running exchanges and closes all connections
+  public void close() {
+    this.closed = true;
+    IOException exception = new IOException("Client was closed");
+    for (RoutePool routePool : this.routes.values()) {
+      Exchange waiting;
+      while ((waiting = routePool.waiting.poll()) != null) {
+        waiting.fail(exception);
+      }
+
+      for (HttpConnection connection : new ArrayList<>(routePool.connections)) {
+        connection.fail(exception);
+      }
+    }
+  }
+
+  private void scheduleEviction() {
+    this.eventLoop.schedule(() -> {
+      this.evictIdleConnections();
+      this.scheduleEviction();
+    }, Math.max(TimeUnit.SECONDS.toNanos(1), this.idleTimeoutNanos / 2), TimeUnit.NANOSECONDS);
+  }
+
+  private void evictIdleConnections() {
+    long now = System.nanoTime();
+    for (RoutePool routePool : this.routes.values()) {
+      // the least recently used connections are at the end of the queue
+      Iterator<HttpConnection> connections = routePool.idle.descendingIterator();
+      while (connections.hasNext()) {
+        HttpConnection connection = connections.next();
+        if (now - connection.idleSinceNanos() < this.idleTimeoutNanos) {
+          break;
+        }
+
+        connections.remove();
+        connection.close();
+        routePool.connections.remove(connection);
+        routePool.openConnections--;
+      }
+    }
+  }
+
+  private static final class RoutePool {
+
+    private final Deque<HttpConnection> idle = new ArrayDeque<>();
+    private final Deque<Exchange> waiting = new ArrayDeque<>();
+    private final Set<HttpConnection> connections = new HashSet<>();
+    private int openConnections;
+  }
+}
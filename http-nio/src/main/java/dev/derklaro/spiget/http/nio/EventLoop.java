@@ -0,0 +1,213 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.http.nio;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.NonNull;
+
+// single threaded selector loop, all connection state is only accessed from the loop thread
+final class EventLoop implements Executor, Runnable {
+
+  private static final AtomicInteger LOOP_COUNTER = new AtomicInteger();
+
+  private final Selector selector;
+  private final Thread thread;
+
+  private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean wakeupPending = new AtomicBoolean();
+  private final PriorityQueue<Timer> timers = new PriorityQueue<>(Comparator.comparingLong(timer -> timer.deadline));
+
+  private volatile boolean running = true;
+  private volatile boolean terminated;
+
+  private EventLoop() {
+    try {
+      this.selector = Selector.open();
+    } catch (IOException exception) {
+      throw new UncheckedIOException("Unable to open selector", exception);
+    }
+
+    this.thread = new Thread(this, "spiget-nio-loop-" + LOOP_COUNTER.incrementAndGet());
+    this.thread.setDaemon(true);
+  }
+
+  public static @NonNull EventLoop start() {
+    EventLoop eventLoop = new EventLoop();
+    eventLoop.thread.start();
+    return eventLoop;
+  }
+
+  public boolean inEventLoop() {
+    return Thread.currentThread() == this.thread;
+  }
+
+  @Override
+  public void execute(@NonNull Runnable task) {
+    this.tasks.offer(task);
+    // the loop runs the queued tasks once more after it terminated, tasks offered afterwards are rejected
+    if (this.terminated && this.tasks.remove(task)) {
+      throw new RejectedExecutionException("Event loop was shut down");
+    }
+
+    // only wake up the selector once until the loop processed the tasks
+    if (!this.inEventLoop() && this.wakeupPending.compareAndSet(false, true)) {
+      this.selector.wakeup();
+    }
+  }
+
+  public @NonNull SelectionKey register(
+    @NonNull SelectableChannel channel,
+    int interestOps,
+    @NonNull IoHandler handler
+  ) throws ClosedChannelException {
+    return channel.register(this.selector, interestOps, handler);
+  }
+
+  // stops the loop after the tasks which are currently queued ran
+  public void shutdown() {
+    this.execute(() -> this.running = false);
+  }
+
+  public void awaitTermination() throws InterruptedException {
+    if (!this.inEventLoop()) {
+      this.thread.join();
+    }
+  }
+
+  // only callable from the event loop
+  public @NonNull Timer schedule(@NonNull Runnable task, long delay, @NonNull TimeUnit unit) {
+    Timer timer = new Timer(System.nanoTime() + unit.toNanos(delay), task);
+    this.timers.offer(timer);
+    return timer;
+  }
+
+  @Override
+  public void run() {
+    while (this.running) {
+      try {
+        if (this.tasks.isEmpty()) {
+          this.selector.select(this.selectTimeoutMillis());
+        } else {
+          this.selector.selectNow();
+        }
+        this.wakeupPending.set(false);
+
+        // handle the io events of the channels
+        Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          if (key.isValid()) {
+            ((IoHandler) key.attachment()).handleIo(key);
+          }
+        }
+
+        this.runTasks();
+        this.runTimers();
+      } catch (Throwable throwable) {
+        // handlers deal with their own failures, the loop must never die
+      }
+    }
+
+    this.terminated = true;
+    this.runTasks();
+    try {
+      this.selector.close();
+    } catch (IOException ignored) {
+    }
+  }
+
+  private long selectTimeoutMillis() {
+    Timer next = this.timers.peek();
+    if (next == null) {
+      return 0;
+    }
+
+    // a timeout of 0 means no timeout, wait at least one millisecond
+    long remainingNanos = next.deadline - System.nanoTime();
+    return Math.max(1, TimeUnit.NANOSECONDS.toMillis(remainingNanos));
+  }
+
+  private void runTasks() {
+    Runnable task;
+    while ((task = this.tasks.poll()) != null) {
+      try {
+        task.run();
+      } catch (Throwable ignored) {
+      }
+    }
+  }
+
+  private void runTimers() {
+    long now = System.nanoTime();
+    Timer timer;
+    while ((timer = this.timers.peek()) != null && timer.deadline <= now) {
+      this.timers.poll();
+      if (!timer.cancelled) {
+        try {
+          timer.task.run();
+        } catch (Throwable ignored) {
+        }
+      }
+    }
+  }
+
+  interface IoHandler {
+
+    void handleIo(@NonNull SelectionKey key);
+  }
+
+  static final class Timer {
+
+    private final long deadline;
+    private final Runnable task;
+    private boolean cancelled;
+
+    private Timer(long deadline, @NonNull Runnable task) {
+      this.deadline = deadline;
+      this.task = task;
+    }
+
+    // only callable from the event loop
+    public void cancel() {
+      this.cancelled = true;
+    }
+  }
+}
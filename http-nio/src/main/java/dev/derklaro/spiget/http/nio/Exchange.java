@@ -0,0 +1,263 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.http.nio;
+
+import dev.derklaro.spiget.event.EventListener;
+import dev.derklaro.spiget.http.ResponseBody;
+import dev.derklaro.spiget.http.SpigetHttpResponse;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.NonNull;
+
+// a single request response exchange, only accessed from the event loop
+final class Exchange implements ResponseParser.Handler {
+
+  // bodies which are closed before they were fully read are skipped up to this size to keep the connection alive
+  private static final int MAX_DISCARD_LENGTH = 64 * 1024;
+
+  private final Route route;
+  private final ConnectionPool pool;
+  private final ByteBuffer requestBytes;
+  private final boolean headRequest;
+  private final boolean idempotent;
+  private final EventListener eventListener;
+  private final CompletableFuture<SpigetHttpResponse> response = new CompletableFuture<>();
+
+  private HttpConnection connection;
+  private ResponseParser parser;
+  private PooledResponseBody body;
+  private EventLoop.Timer timeout;
+
+  private boolean retried;
+  private boolean cancelled;
+  private boolean timedOut;
+  private boolean headersReceived;
+  private boolean keepAlive;
+  private boolean discarding;
+  private long discardedBytes;
+
+  public Exchange(
+    @NonNull Route route,
+    @NonNull ConnectionPool pool,
+    @NonNull ByteBuffer requestBytes,
+    @NonNull String method,
+    @NonNull EventListener eventListener
+  ) {
+    this.route = route;
+    this.pool = pool;
+    this.requestBytes = requestBytes;
+    this.headRequest = method.equals("HEAD");
+    this.idempotent = method.equals("GET") || method.equals("HEAD");
+    this.eventListener = eventListener;
+
+    // cancelling the future aborts the exchange
+    this.response.whenComplete((response, throwable) -> {
+      if (this.response.isCancelled()) {
+        pool.eventLoop().execute(this::cancel);
+      }
+    });
+  }
+
+  public @NonNull Route route() {
+    return this.route;
+  }
+
+  public @NonNull CompletableFuture<SpigetHttpResponse> response() {
+    return this.response;
+  }
+
+  public @NonNull ResponseParser parser() {
+    return this.parser;
+  }
+
+  public boolean keepAlive() {
+    return this.keepAlive;
+  }
+
+  public boolean cancelled() {
+    return this.cancelled;
+  }
+
+  // a request which was sent over a stale keep-alive connection can be retried if it has no side effects
+  public boolean canRetry() {
+    return this.idempotent && !this.retried && !this.cancelled && !this.timedOut
+      && (this.parser == null || !this.parser.started());
+  }
+
+  public void markRetried() {
+    // the exchange is sent again over another connection
+    this.retried = true;
+    this.connection = null;
+    this.parser = null;
+  }
+
+  public void attach(@NonNull HttpConnection connection) {
+    this.connection = connection;
+  }
+
+  public void startTimeout() {
+    if (this.timeout == null) {
+      this.timeout = this.pool.eventLoop().schedule(this::timeOut, this.pool.requestTimeoutNanos(), TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private void timeOut() {
+    this.timedOut = true;
+    SocketTimeoutException exception = new SocketTimeoutException("Request timed out");
+    if (this.connection == null) {
+      // still waiting for a free connection
+      this.pool.removeWaiter(this);
+      this.fail(exception);
+    } else if (this.parser == null) {
+      // the connection is still connecting, it can be used by another request once connected
+      this.connection.cancel(this);
+      this.fail(exception);
+    } else {
+      this.connection.abort(this, exception);
+    }
+  }
+
+  public @NonNull ByteBuffer start(@NonNull HttpConnection connection) {
+    this.connection = connection;
+    this.parser = new ResponseParser(this, this.headRequest);
+    this.eventListener.connectionAcquired();
+    return this.requestBytes.duplicate();
+  }
+
+  public void requestSent() {
+    this.eventListener.requestSent();
+  }
+
+  @Override
+  public void onHeaders(int statusCode, @NonNull Map<String, List<String>> headers, long contentLength) {
+    this.timeout.cancel();
+    this.headersReceived = true;
+
+    if (contentLength != 0) {
+      EventLoop eventLoop = this.pool.eventLoop();
+      this.body = new PooledResponseBody(
+        contentLength,
+        this.pool.bufferPool(),
+        this.pool.requestTimeoutNanos(),
+        () -> eventLoop.execute(this::resumeReading),
+        () -> eventLoop.execute(this::discardRemaining));
+    }
+
+    // complete off the event loop, dependent stages must not block the loop
+    SpigetHttpResponse spigetResponse = SpigetHttpResponse.ofBody(
+      statusCode,
+      headers,
+      this.body == null ? ResponseBody.empty() : this.body);
+    this.pool.completionExecutor().execute(() -> {
+      if (!this.response.complete(spigetResponse) && this.body != null) {
+        this.body.close();
+      }
+    });
+  }
+
+  @Override
+  public void onBody(@NonNull ByteBuffer src, int length) {
+    if (this.discarding) {
+      src.position(src.position() + length);
+      this.discardedBytes += length;
+      if (this.discardedBytes > MAX_DISCARD_LENGTH) {
+        this.connection.abort(this, new IOException("Discarded response body exceeds " + MAX_DISCARD_LENGTH + " bytes"));
+      }
+      return;
+    }
+
+    // copy the body into pooled buffers which are handed to the reader
+    while (length > 0) {
+      ByteBuffer chunk = this.pool.bufferPool().acquire();
+      int chunkLength = Math.min(length, chunk.remaining());
+
+      ByteBuffer slice = src.duplicate();
+      slice.limit(slice.position() + chunkLength);
+      chunk.put(slice).flip();
+      src.position(src.position() + chunkLength);
+      length -= chunkLength;
+
+      if (!this.body.offer(chunk)) {
+        this.connection.pauseReading();
+      }
+    }
+  }
+
+  @Override
+  public void onComplete(boolean keepAlive) {
+    this.keepAlive = keepAlive;
+    this.timeout.cancel();
+    if (this.body != null) {
+      this.body.end();
+    }
+  }
+
+  public void fail(@NonNull IOException exception) {
+    if (this.timeout != null) {
+      this.timeout.cancel();
+    }
+
+    if (this.headersReceived) {
+      if (this.body != null) {
+        this.body.fail(exception);
+      }
+    } else {
+      this.pool.completionExecutor().execute(() -> this.response.completeExceptionally(exception));
+    }
+  }
+
+  private void cancel() {
+    this.cancelled = true;
+    if (this.connection == null) {
+      this.pool.removeWaiter(this);
+    } else {
+      this.connection.cancel(this);
+    }
+  }
+
+  private void resumeReading() {
+    if (this.connection != null && !this.parser.done()) {
+      this.connection.resumeReading();
+    }
+  }
+
+  private void discardRemaining() {
+    if (this.connection != null && !this.parser.done() && !this.discarding) {
+      this.discarding = true;
+      this.connection.resumeReading();
+      // do not wait forever for the rest of the body
+      HttpConnection connection = this.connection;
+      this.timeout = this.pool.eventLoop().schedule(
+        () -> connection.abort(this, new SocketTimeoutException("Timed out while discarding the response body")),
+        this.pool.requestTimeoutNanos(),
+        TimeUnit.NANOSECONDS);
+    }
+  }
+}
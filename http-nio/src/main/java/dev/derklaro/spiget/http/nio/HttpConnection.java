@@ -0,0 +1,552 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.http.nio;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+// a single http/1.1 connection, optionally tls encrypted, only accessed from the event loop
+final class HttpConnection implements EventLoop.IoHandler {
+
+  private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+
+  private final Route route;
+  private final ConnectionPool pool;
+  private final SocketChannel channel;
+
+  // encrypted data read from and written to the socket, only used for tls connections
+  private final SSLEngine sslEngine;
+  private final ByteBuffer netIn;
+  private final ByteBuffer netOut;
+  // plain data read from the socket (or decrypted by the ssl engine)
+  private final ByteBuffer appIn;
+
+  private SelectionKey key;
+  private State state = State.CONNECTING;
+  private EventLoop.Timer connectTimeout;
+
+  private Exchange exchange;
+  private ByteBuffer pendingWrite;
+  private boolean reused;
+  private boolean wantWrite;
+  private boolean readPaused;
+  private long idleSinceNanos;
+
+  public HttpConnection(@NonNull Route route, @NonNull ConnectionPool pool) throws IOException {
+    this.route = route;
+    this.pool = pool;
+
+    this.channel = SocketChannel.open();
+    this.channel.configureBlocking(false);
+    this.channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+    if (route.secure()) {
+      this.sslEngine = pool.sslContext().createSSLEngine(route.host(), route.port());
+      this.sslEngine.setUseClientMode(true);
+      // verify that the certificate matches the host name
+      SSLParameters parameters = this.sslEngine.getSSLParameters();
+      parameters.setEndpointIdentificationAlgorithm("HTTPS");
+      this.sslEngine.setSSLParameters(parameters);
+
+      this.netIn = ByteBuffer.allocateDirect(this.sslEngine.getSession().getPacketBufferSize());
+      this.netOut = ByteBuffer.allocateDirect(this.sslEngine.getSession().getPacketBufferSize());
+      this.appIn = ByteBuffer.allocateDirect(this.sslEngine.getSession().getApplicationBufferSize());
+    } else {
+      this.sslEngine = null;
+      this.netIn = null;
+      this.netOut = null;
+      this.appIn = ByteBuffer.allocateDirect(pool.bufferPool().bufferSize());
+    }
+  }
+
+  public @NonNull Route route() {
+    return this.route;
+  }
+
+  public long idleSinceNanos() {
+    return this.idleSinceNanos;
+  }
+
+  public void connect(@NonNull InetSocketAddress address) {
+    if (this.state != State.CONNECTING) {
+      return;
+    }
+
+    try {
+      this.key = this.pool.eventLoop().register(this.channel, 0, this);
+      if (this.channel.connect(address)) {
+        this.connected();
+      } else {
+        this.key.interestOps(SelectionKey.OP_CONNECT);
+      }
+    } catch (IOException exception) {
+      this.fail(exception);
+    }
+  }
+
+  public void startConnectTimeout(long timeoutNanos) {
+    this.connectTimeout = this.pool.eventLoop().schedule(() -> {
+      if (this.state == State.CONNECTING || this.state == State.HANDSHAKING) {
+        this.fail(new SocketTimeoutException("Connect timed out"));
+      }
+    }, timeoutNanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void assign(@Nullable Exchange exchange) {
+    this.exchange = exchange;
+    if (exchange != null) {
+      exchange.attach(this);
+      // idle connections can send the request directly, new connections once they are connected
+      if (this.state == State.IDLE) {
+        this.reused = true;
+        this.startExchange();
+      }
+    }
+  }
+
+  public void cancel(@NonNull Exchange exchange) {
+    if (this.exchange == exchange) {
+      if (this.state == State.CONNECTING || this.state == State.HANDSHAKING) {
+        // the connection can still be used by another request once connected
+        this.exchange = null;
+      } else {
+        this.abort(exchange, new IOException("Request cancelled"));
+      }
+    }
+  }
+
+  public void abort(@NonNull Exchange exchange, @NonNull IOException exception) {
+    if (this.exchange == exchange) {
+      this.fail(exception);
+    }
+  }
+
+  public void pauseReading() {
+    this.readPaused = true;
+    this.updateInterest();
+  }
+
+  public void resumeReading() {
+    if (this.readPaused && this.state != State.CLOSED) {
+      this.readPaused = false;
+      this.updateInterest();
+    }
+  }
+
+  @Override
+  public void handleIo(@NonNull SelectionKey key) {
+    try {
+      if (key.isConnectable() && this.channel.finishConnect()) {
+        this.connected();
+      }
+      if (this.state != State.CLOSED && key.isWritable()) {
+        this.onWritable();
+      }
+      if (this.state != State.CLOSED && key.isReadable()) {
+        this.onReadable();
+      }
+    } catch (IOException exception) {
+      this.fail(exception);
+    } catch (RuntimeException exception) {
+      // the ssl engine wraps some failures into runtime exceptions
+      this.fail(new IOException(exception));
+    }
+  }
+
+  private void connected() throws IOException {
+    if (this.sslEngine == null) {
+      this.ready();
+    } else {
+      this.state = State.HANDSHAKING;
+      this.updateInterest();
+      this.sslEngine.beginHandshake();
+      this.handshake();
+    }
+  }
+
+  private void ready() {
+    this.connectTimeout.cancel();
+    this.state = State.IDLE;
+    this.updateInterest();
+
+    if (this.exchange != null) {
+      this.startExchange();
+    } else {
+      // the request which caused the connection to be opened was cancelled in the meantime
+      this.idleSinceNanos = System.nanoTime();
+      this.pool.release(this, true);
+    }
+  }
+
+  private void startExchange() {
+    this.state = State.WRITING;
+    this.pendingWrite = this.exchange.start(this);
+    try {
+      this.flushRequest();
+    } catch (IOException exception) {
+      this.fail(exception);
+    }
+  }
+
+  private void flushRequest() throws IOException {
+    this.wantWrite = !this.writeOutbound();
+    if (!this.wantWrite) {
+      this.pendingWrite = null;
+      this.state = State.READING;
+      this.exchange.requestSent();
+    }
+    this.updateInterest();
+  }
+
+  private void onWritable() throws IOException {
+    if (this.state == State.HANDSHAKING) {
+      this.handshake();
+    } else if (this.state == State.WRITING) {
+      this.flushRequest();
+    } else {
+      // tls messages created while reading (for example key updates)
+      this.wantWrite = !this.flushNet();
+      this.updateInterest();
+    }
+  }
+
+  private void onReadable() throws IOException {
+    if (this.state == State.HANDSHAKING) {
+      this.handshake();
+      return;
+    }
+
+    while (this.state != State.CLOSED && !this.readPaused) {
+      int read = this.sslEngine == null ? this.channel.read(this.appIn) : this.channel.read(this.netIn);
+      if (read == -1) {
+        this.eof();
+        return;
+      }
+      if (read == 0) {
+        return;
+      }
+
+      if (this.sslEngine == null) {
+        this.processInbound();
+      } else if (!this.unwrapInbound()) {
+        // the server sent a close notify
+        this.eof();
+        return;
+      }
+    }
+  }
+
+  private void processInbound() throws IOException {
+    this.appIn.flip();
+    try {
+      if (this.state == State.IDLE || this.exchange == null) {
+        // the server closes idle connections by sending an error response (or garbage)
+        if (this.appIn.hasRemaining()) {
+          throw new ProtocolException("Unexpected data on idle connection");
+        }
+        return;
+      }
+
+      ResponseParser parser = this.exchange.parser();
+      parser.feed(this.appIn);
+      if (parser.done() && this.state != State.CLOSED) {
+        // pipelining is not used, data after the response means the connection is in an undefined state
+        boolean clean = !this.appIn.hasRemaining();
+        this.appIn.position(this.appIn.limit());
+        this.finishExchange(clean);
+      }
+    } finally {
+      this.appIn.compact();
+    }
+  }
+
+  private void finishExchange(boolean clean) {
+    Exchange finished = this.exchange;
+    this.exchange = null;
+
+    boolean reusable = clean && finished.keepAlive() && this.state == State.READING;
+    if (reusable) {
+      this.state = State.IDLE;
+      this.reused = false;
+      this.readPaused = false;
+      this.idleSinceNanos = System.nanoTime();
+      this.updateInterest();
+    }
+    this.pool.release(this, reusable);
+  }
+
+  private void eof() {
+    if (this.exchange != null && this.exchange.parser() != null) {
+      try {
+        // responses without a length end when the connection is closed
+        ResponseParser parser = this.exchange.parser();
+        parser.eof();
+        if (parser.done()) {
+          this.finishExchange(false);
+          return;
+        }
+      } catch (IOException exception) {
+        this.fail(exception);
+        return;
+      }
+    }
+    this.fail(new EOFException("Connection closed by the server"));
+  }
+
+  public void fail(@NonNull IOException exception) {
+    if (this.state == State.CLOSED) {
+      return;
+    }
+
+    this.close();
+    this.pool.connectionClosed(this);
+
+    Exchange failed = this.exchange;
+    this.exchange = null;
+    if (failed != null) {
+      // the server might have closed the keep-alive connection while the request was sent
+      if (this.reused && failed.canRetry()) {
+        failed.markRetried();
+        this.pool.acquire(failed, true);
+      } else {
+        failed.fail(exception);
+      }
+    }
+  }
+
+  public void close() {
+    if (this.state != State.CLOSED) {
+      this.state = State.CLOSED;
+      if (this.connectTimeout != null) {
+        this.connectTimeout.cancel();
+      }
+      if (this.key != null) {
+        this.key.cancel();
+      }
+
+      try {
+        this.channel.close();
+      } catch (IOException ignored) {
+      }
+    }
+  }
+
+  private void updateInterest() {
+    if (this.key == null || !this.key.isValid()) {
+      return;
+    }
+
+    int interestOps = 0;
+    if (!this.readPaused) {
+      interestOps |= SelectionKey.OP_READ;
+    }
+    if (this.wantWrite) {
+      interestOps |= SelectionKey.OP_WRITE;
+    }
+    this.key.interestOps(interestOps);
+  }
+
+  // returns true if all pending data was written
+  private boolean writeOutbound() throws IOException {
+    if (this.sslEngine == null) {
+      this.channel.write(this.pendingWrite);
+      return !this.pendingWrite.hasRemaining();
+    }
+
+    while (this.flushNet()) {
+      if (!this.pendingWrite.hasRemaining()) {
+        return true;
+      }
+
+      SSLEngineResult result = this.sslEngine.wrap(this.pendingWrite, this.netOut);
+      if (result.getStatus() == SSLEngineResult.Status.CLOSED) {
+        throw new SSLException("SSL engine closed while writing the request");
+      }
+      this.runDelegatedTasks();
+    }
+    return false;
+  }
+
+  private boolean flushNet() throws IOException {
+    this.netOut.flip();
+    try {
+      this.channel.write(this.netOut);
+      return !this.netOut.hasRemaining();
+    } finally {
+      this.netOut.compact();
+    }
+  }
+
+  private void handshake() throws IOException {
+    while (true) {
+      switch (this.sslEngine.getHandshakeStatus()) {
+        case NEED_TASK:
+          this.runDelegatedTasks();
+          break;
+        case NEED_WRAP:
+          if (!this.flushNet()) {
+            this.wantHandshakeWrite();
+            return;
+          }
+
+          SSLEngineResult result = this.sslEngine.wrap(EMPTY_BUFFER, this.netOut);
+          if (result.getStatus() == SSLEngineResult.Status.CLOSED) {
+            throw new SSLException("SSL engine closed during the handshake");
+          }
+          break;
+        case FINISHED:
+        case NOT_HANDSHAKING:
+          if (!this.flushNet()) {
+            this.wantHandshakeWrite();
+            return;
+          }
+
+          this.wantWrite = false;
+          this.ready();
+          return;
+        default:
+          // our messages must be sent before waiting for the response of the server
+          if (!this.flushNet()) {
+            this.wantHandshakeWrite();
+            return;
+          }
+          if (!this.unwrapHandshake()) {
+            this.wantWrite = false;
+            this.updateInterest();
+            return;
+          }
+          break;
+      }
+    }
+  }
+
+  private void wantHandshakeWrite() {
+    this.wantWrite = true;
+    this.updateInterest();
+  }
+
+  // returns false if more data from the server is required
+  private boolean unwrapHandshake() throws IOException {
+    this.netIn.flip();
+    SSLEngineResult result;
+    try {
+      result = this.sslEngine.unwrap(this.netIn, this.appIn);
+    } finally {
+      this.netIn.compact();
+    }
+
+    switch (result.getStatus()) {
+      case OK:
+        return true;
+      case BUFFER_UNDERFLOW:
+        int read = this.channel.read(this.netIn);
+        if (read == -1) {
+          throw new EOFException("Connection closed during the tls handshake");
+        }
+        return read > 0;
+      default:
+        throw new SSLException("Unexpected ssl engine status during the handshake: " + result.getStatus());
+    }
+  }
+
+  // returns false if the server closed the tls session
+  private boolean unwrapInbound() throws IOException {
+    this.netIn.flip();
+    try {
+      while (this.netIn.hasRemaining() && this.state != State.CLOSED) {
+        SSLEngineResult result = this.sslEngine.unwrap(this.netIn, this.appIn);
+        switch (result.getStatus()) {
+          case OK:
+            if (result.bytesProduced() > 0) {
+              this.processInbound();
+            }
+            this.handlePostHandshake(result);
+            if (result.bytesConsumed() == 0 && result.bytesProduced() == 0) {
+              return true;
+            }
+            break;
+          case BUFFER_OVERFLOW:
+            // hand the decrypted data to the parser to make room for the next record
+            this.processInbound();
+            break;
+          case BUFFER_UNDERFLOW:
+            return true;
+          default:
+            return false;
+        }
+      }
+      return true;
+    } finally {
+      this.netIn.compact();
+    }
+  }
+
+  private void handlePostHandshake(@NonNull SSLEngineResult result) throws IOException {
+    // tls 1.3 session tickets and key updates are handled without a full handshake
+    SSLEngineResult.HandshakeStatus status = result.getHandshakeStatus();
+    if (status == SSLEngineResult.HandshakeStatus.NEED_TASK) {
+      this.runDelegatedTasks();
+      status = this.sslEngine.getHandshakeStatus();
+    }
+
+    if (status == SSLEngineResult.HandshakeStatus.NEED_WRAP) {
+      this.sslEngine.wrap(EMPTY_BUFFER, this.netOut);
+      this.wantWrite = !this.flushNet();
+      this.updateInterest();
+    }
+  }
+
+  private void runDelegatedTasks() {
+    // delegated tasks are short cpu bound operations (for example certificate validation)
+    Runnable task;
+    while ((task = this.sslEngine.getDelegatedTask()) != null) {
+      task.run();
+    }
+  }
+
+  private enum State {
+
+    CONNECTING,
+    HANDSHAKING,
+    IDLE,
+    WRITING,
+    READING,
+    CLOSED
+  }
+}
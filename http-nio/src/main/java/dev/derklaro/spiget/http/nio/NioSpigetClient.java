@@ -0,0 +1,197 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.http.nio;
+
+import dev.derklaro.spiget.SpigetClientConfig;
+import dev.derklaro.spiget.client.AbstractSpigetClient;
+import dev.derklaro.spiget.http.HttpHeaderNames;
+import dev.derklaro.spiget.http.SpigetHttpRequest;
+import dev.derklaro.spiget.http.SpigetHttpResponse;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.net.ssl.SSLContext;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+public final class NioSpigetClient extends AbstractSpigetClient implements AutoCloseable {
+
+  private final AtomicBoolean closed = new AtomicBoolean();
+  private final int maxRedirects;
+  private final EventLoop eventLoop;
+  private final ConnectionPool connectionPool;
+
+  public NioSpigetClient(@NonNull SpigetClientConfig clientConfig) {
+    this(clientConfig, NioHttpConfig.create());
+  }
+
+  public NioSpigetClient(@NonNull SpigetClientConfig clientConfig, @NonNull NioHttpConfig httpConfig) {
+    super(clientConfig);
+    this.maxRedirects = httpConfig.maxRedirects();
+    this.eventLoop = EventLoop.start();
+    this.connectionPool = new ConnectionPool(
+      this.eventLoop,
+      new BufferPool(httpConfig.bufferSize(), httpConfig.maxPooledBuffers()),
+      resolveSslContext(httpConfig),
+      clientConfig.ioExecutor(),
+      httpConfig.maxConnectionsPerRoute(),
+      clientConfig.connectTimeout().toNanos(),
+      clientConfig.requestTimeout().toNanos(),
+      httpConfig.idleTimeout().toNanos());
+  }
+
+  private static @NonNull SSLContext resolveSslContext(@NonNull NioHttpConfig httpConfig) {
+    if (httpConfig.sslContext() != null) {
+      return httpConfig.sslContext();
+    }
+
+    try {
+      return SSLContext.getDefault();
+    } catch (NoSuchAlgorithmException exception) {
+      throw new IllegalStateException("No default ssl context available", exception);
+    }
+  }
+
+  private static boolean isRedirect(int statusCode) {
+    return statusCode == 301 || statusCode == 302 || statusCode == 303 || statusCode == 307 || statusCode == 308;
+  }
+
+  // fails the requests which are in flight, closes all connections and stops the event loop
+  @Override
+  public void close() throws InterruptedException {
+    if (this.closed.compareAndSet(false, true)) {
+      this.eventLoop.execute(this.connectionPool::close);
+      this.eventLoop.shutdown();
+    }
+    this.eventLoop.awaitTermination();
+  }
+
+  @Override
+  protected @NonNull CompletableFuture<SpigetHttpResponse> doSendRequest(@NonNull SpigetHttpRequest request) {
+    CompletableFuture<SpigetHttpResponse> future = new CompletableFuture<>();
+    if (this.closed.get()) {
+      future.completeExceptionally(new IllegalStateException("Client was closed"));
+      return future;
+    }
+
+    this.sendFollowingRedirects(request, URI.create(request.uri()), request.method(), request.body(), 0, future);
+    return future;
+  }
+
+  private void sendFollowingRedirects(
+    @NonNull SpigetHttpRequest request,
+    @NonNull URI uri,
+    @NonNull String method,
+    @Nullable byte[] body,
+    int redirects,
+    @NonNull CompletableFuture<SpigetHttpResponse> future
+  ) {
+    Exchange exchange;
+    try {
+      Route route = Route.of(uri);
+      exchange = new Exchange(route, this.connectionPool, this.encodeRequest(request, route, uri, method, body), method,
+        request.eventListener());
+    } catch (IllegalArgumentException exception) {
+      future.completeExceptionally(exception);
+      return;
+    }
+
+    // cancelling the future aborts the current exchange
+    CompletableFuture<SpigetHttpResponse> attempt = exchange.response();
+    future.whenComplete((response, throwable) -> {
+      if (future.isCancelled()) {
+        attempt.cancel(true);
+      }
+    });
+
+    attempt.whenComplete((response, throwable) -> {
+      if (throwable != null) {
+        future.completeExceptionally(throwable);
+        return;
+      }
+
+      String location = response.header(HttpHeaderNames.LOCATION);
+      if (isRedirect(response.statusCode()) && location != null && redirects < this.maxRedirects && !future.isDone()) {
+        // the body of the redirect is not needed, closing it does not block
+        response.close();
+        // see other (and for historical reasons moved and found) changes the method to get
+        int statusCode = response.statusCode();
+        boolean switchToGet = statusCode == 303 || (statusCode <= 302 && !method.equals("GET") && !method.equals("HEAD"));
+        this.sendFollowingRedirects(
+          request,
+          uri.resolve(location),
+          switchToGet ? "GET" : method,
+          switchToGet ? null : body,
+          redirects + 1,
+          future);
+      } else if (!future.complete(response)) {
+        response.close();
+      }
+    });
+    try {
+      this.eventLoop.execute(() -> this.connectionPool.acquire(exchange, false));
+    } catch (RejectedExecutionException exception) {
+      future.completeExceptionally(new IllegalStateException("Client was closed", exception));
+    }
+  }
+
+  private @NonNull ByteBuffer encodeRequest(
+    @NonNull SpigetHttpRequest request,
+    @NonNull Route route,
+    @NonNull URI uri,
+    @NonNull String method,
+    @Nullable byte[] body
+  ) {
+    String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+    if (uri.getRawQuery() != null) {
+      path += '?' + uri.getRawQuery();
+    }
+
+    StringBuilder head = new StringBuilder(256)
+      .append(method).append(' ').append(path).append(" HTTP/1.1\r\n")
+      .append("Host: ").append(route.hostHeader()).append("\r\n")
+      .append(HttpHeaderNames.USER_AGENT).append(": ").append(this.clientConfig.userAgent()).append("\r\n")
+      .append(HttpHeaderNames.CONTENT_TYPE).append(": ").append(request.contentType()).append("\r\n");
+    for (Map.Entry<String, String> header : request.headers().entrySet()) {
+      head.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+    }
+
+    byte[] bodyBytes = body == null ? new byte[0] : body;
+    if (body != null) {
+      head.append(HttpHeaderNames.CONTENT_LENGTH).append(": ").append(bodyBytes.length).append("\r\n");
+    }
+    head.append("\r\n");
+
+    byte[] headBytes = head.toString().getBytes(StandardCharsets.ISO_8859_1);
+    ByteBuffer buffer = ByteBuffer.allocate(headBytes.length + bodyBytes.length);
+    buffer.put(headBytes).put(bodyBytes).flip();
+    return buffer;
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.http.nio;
+
+import dev.derklaro.spiget.http.ResponseBody;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+// filled by the event loop, the pooled buffers are handed to the thread consuming the response without copying them
+final class PooledResponseBody extends ResponseBody {
+
+  // reading from the socket is paused while more than this amount of bytes is waiting to be consumed
+  static final int HIGH_WATERMARK = 256 * 1024;
+  private static final int LOW_WATERMARK = 64 * 1024;
+
+  private final BufferPool bufferPool;
+  private final long readTimeoutNanos;
+  private final Runnable resumeReading;
+  private final Runnable discardRemaining;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition readable = this.lock.newCondition();
+  private final Queue<ByteBuffer> chunks = new ArrayDeque<>();
+
+  // the chunk currently handed out to the consumer
+  private ByteBuffer current;
+  private int queuedBytes;
+  private boolean paused;
+  private boolean ended;
+  private boolean closed;
+  private IOException failure;
+
+  public PooledResponseBody(
+    long contentLength,
+    @NonNull BufferPool bufferPool,
+    long readTimeoutNanos,
+    @NonNull Runnable resumeReading,
+    @NonNull Runnable discardRemaining
+  ) {
+    super(contentLength);
+    this.bufferPool = bufferPool;
+    this.readTimeoutNanos = readTimeoutNanos;
+    this.resumeReading = resumeReading;
+    this.discardRemaining = discardRemaining;
+  }
+
+  // returns false if the event loop should stop reading until the consumer caught up
+  public boolean offer(@NonNull ByteBuffer chunk) {
+    this.lock.lock();
+    try {
+      if (this.closed) {
+        this.bufferPool.release(chunk);
+        return true;
+      }
+
+      this.chunks.offer(chunk);
+      this.queuedBytes += chunk.remaining();
+      this.readable.signalAll();
+
+      this.paused = this.queuedBytes > HIGH_WATERMARK;
+      return !this.paused;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  public void end() {
+    this.lock.lock();
+    try {
+      this.ended = true;
+      this.readable.signalAll();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  public void fail(@NonNull IOException exception) {
+    this.lock.lock();
+    try {
+      if (!this.ended) {
+        this.failure = exception;
+        this.readable.signalAll();
+      }
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  @Override
+  protected @Nullable ByteBuffer readChunk() throws IOException {
+    boolean resume = false;
+    this.lock.lock();
+    try {
+      // the previous chunk was fully consumed, give it back to the pool
+      if (this.current != null) {
+        this.bufferPool.release(this.current);
+        this.current = null;
+      }
+
+      ByteBuffer chunk = this.awaitChunk();
+      if (chunk == null) {
+        return null;
+      }
+
+      // handing out a chunk counts as consuming it
+      this.current = chunk;
+      this.queuedBytes -= chunk.remaining();
+      if (this.paused && this.queuedBytes < LOW_WATERMARK) {
+        this.paused = false;
+        resume = true;
+      }
+      return chunk;
+    } finally {
+      this.lock.unlock();
+      // called without holding the lock, the event loop might call into this body
+      if (resume) {
+        this.resumeReading.run();
+      }
+    }
+  }
+
+  private ByteBuffer awaitChunk() throws IOException {
+    long remainingNanos = this.readTimeoutNanos;
+    while (true) {
+      if (this.closed) {
+        throw new IOException("Response body was already released");
+      }
+
+      ByteBuffer chunk = this.chunks.poll();
+      if (chunk != null) {
+        return chunk;
+      }
+      if (this.failure != null) {
+        throw new IOException(this.failure.getMessage(), this.failure);
+      }
+      if (this.ended) {
+        return null;
+      }
+      if (remainingNanos <= 0) {
+        throw new SocketTimeoutException("Read timed out");
+      }
+
+      try {
+        remainingNanos = this.readable.awaitNanos(remainingNanos);
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException();
+      }
+    }
+  }
+
+  @Override
+  public int available() {
+    this.lock.lock();
+    try {
+      return super.available() + this.queuedBytes;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  @Override
+  protected void doRelease() {
+    boolean discard;
+    this.lock.lock();
+    try {
+      if (this.closed) {
+        return;
+      }
+
+      this.closed = true;
+      discard = !this.ended && this.failure == null;
+      // give the unread buffers back to the pool
+      if (this.current != null) {
+        this.bufferPool.release(this.current);
+        this.current = null;
+      }
+      ByteBuffer chunk;
+      while ((chunk = this.chunks.poll()) != null) {
+        this.bufferPool.release(chunk);
+      }
+      this.queuedBytes = 0;
+    } finally {
+      this.lock.unlock();
+    }
+
+    // the connection decides if the remaining body is small enough to be skipped to keep the connection alive
+    if (discard) {
+      this.discardRemaining.run();
+    }
+  }
+}
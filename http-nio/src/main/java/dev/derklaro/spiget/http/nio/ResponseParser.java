@@ -0,0 +1,293 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.http.nio;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.NonNull;
+
+// incremental http/1.1 response parser, bytes are fed as they arrive from the socket
+final class ResponseParser {
+
+  private static final int MAX_HEAD_SIZE = 64 * 1024;
+
+  private final Handler handler;
+  private final boolean headRequest;
+
+  private State state = State.STATUS_LINE;
+  private byte[] line = new byte[256];
+  private int lineLength;
+  private int headSize;
+  private boolean started;
+
+  private int statusCode;
+  private boolean keepAlive;
+  private Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+  private long remainingBodyBytes;
+
+  public ResponseParser(@NonNull Handler handler, boolean headRequest) {
+    this.handler = handler;
+    this.headRequest = headRequest;
+  }
+
+  // true if at least one byte of the response was received
+  public boolean started() {
+    return this.started;
+  }
+
+  public boolean done() {
+    return this.state == State.DONE;
+  }
+
+  // consumes the given bytes until the response is complete, remaining bytes are left in the buffer
+  public void feed(@NonNull ByteBuffer src) throws IOException {
+    this.started |= src.hasRemaining();
+    while (src.hasRemaining() && this.state != State.DONE) {
+      switch (this.state) {
+        case STATUS_LINE:
+          if (this.readLine(src)) {
+            this.parseStatusLine(this.takeLine());
+          }
+          break;
+        case HEADERS:
+          if (this.readLine(src)) {
+            String header = this.takeLine();
+            if (header.isEmpty()) {
+              this.headersComplete();
+            } else {
+              this.parseHeader(header);
+            }
+          }
+          break;
+        case BODY_FIXED:
+        case CHUNK_DATA:
+          int length = (int) Math.min(src.remaining(), this.remainingBodyBytes);
+          this.handler.onBody(src, length);
+          this.remainingBodyBytes -= length;
+          if (this.remainingBodyBytes == 0) {
+            if (this.state == State.BODY_FIXED) {
+              this.complete();
+            } else {
+              this.state = State.CHUNK_DATA_END;
+            }
+          }
+          break;
+        case CHUNK_DATA_END:
+          if (this.readLine(src)) {
+            if (!this.takeLine().isEmpty()) {
+              throw new ProtocolException("Missing line break after chunk data");
+            }
+            this.state = State.CHUNK_SIZE;
+          }
+          break;
+        case CHUNK_SIZE:
+          if (this.readLine(src)) {
+            this.parseChunkSize(this.takeLine());
+          }
+          break;
+        case TRAILERS:
+          // trailers are not exposed, the response is complete at the first empty line
+          if (this.readLine(src) && this.takeLine().isEmpty()) {
+            this.complete();
+          }
+          break;
+        case UNTIL_CLOSE:
+          this.handler.onBody(src, src.remaining());
+          break;
+        default:
+          throw new IllegalStateException("Unexpected parser state " + this.state);
+      }
+    }
+  }
+
+  public void eof() throws IOException {
+    if (this.state == State.UNTIL_CLOSE) {
+      // the end of the body is signalled by closing the connection
+      this.keepAlive = false;
+      this.complete();
+    } else if (this.state != State.DONE) {
+      throw new EOFException("Connection closed before the response was complete");
+    }
+  }
+
+  private boolean readLine(@NonNull ByteBuffer src) throws IOException {
+    while (src.hasRemaining()) {
+      byte current = src.get();
+      if (++this.headSize > MAX_HEAD_SIZE) {
+        throw new ProtocolException("Response head exceeds " + MAX_HEAD_SIZE + " bytes");
+      }
+
+      if (current == '\n') {
+        // strip the carriage return in front of the line feed
+        if (this.lineLength > 0 && this.line[this.lineLength - 1] == '\r') {
+          this.lineLength--;
+        }
+        return true;
+      }
+
+      if (this.lineLength == this.line.length) {
+        this.line = Arrays.copyOf(this.line, this.line.length * 2);
+      }
+      this.line[this.lineLength++] = current;
+    }
+    return false;
+  }
+
+  private @NonNull String takeLine() {
+    String line = new String(this.line, 0, this.lineLength, StandardCharsets.ISO_8859_1);
+    this.lineLength = 0;
+    // the size limit only applies to the head, chunk size lines are limited individually
+    if (this.state != State.STATUS_LINE && this.state != State.HEADERS) {
+      this.headSize = 0;
+    }
+    return line;
+  }
+
+  private void parseStatusLine(@NonNull String statusLine) throws IOException {
+    // HTTP/1.1 200 OK
+    String[] parts = statusLine.split(" ", 3);
+    if (parts.length < 2 || !parts[0].startsWith("HTTP/")) {
+      throw new ProtocolException("Invalid status line: " + statusLine);
+    }
+
+    try {
+      this.statusCode = Integer.parseInt(parts[1]);
+    } catch (NumberFormatException exception) {
+      throw new ProtocolException("Invalid status code in status line: " + statusLine);
+    }
+
+    this.keepAlive = !parts[0].equals("HTTP/1.0");
+    this.state = State.HEADERS;
+  }
+
+  private void parseHeader(@NonNull String header) throws IOException {
+    int separator = header.indexOf(':');
+    if (separator <= 0) {
+      throw new ProtocolException("Invalid header line: " + header);
+    }
+
+    String name = header.substring(0, separator).trim();
+    String value = header.substring(separator + 1).trim();
+    this.headers.computeIfAbsent(name, key -> new ArrayList<>(1)).add(value);
+  }
+
+  private void headersComplete() throws IOException {
+    // informational responses are followed by the actual response
+    if (this.statusCode >= 100 && this.statusCode < 200) {
+      this.headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+      this.state = State.STATUS_LINE;
+      return;
+    }
+
+    String connection = this.header("Connection");
+    if (connection != null) {
+      this.keepAlive = connection.equalsIgnoreCase("keep-alive")
+        || (this.keepAlive && !connection.equalsIgnoreCase("close"));
+    }
+
+    String transferEncoding = this.header("Transfer-Encoding");
+    String contentLength = this.header("Content-Length");
+    if (this.headRequest || this.statusCode == 204 || this.statusCode == 304) {
+      this.handler.onHeaders(this.statusCode, this.headers, 0);
+      this.complete();
+    } else if (transferEncoding != null && transferEncoding.toLowerCase().contains("chunked")) {
+      this.handler.onHeaders(this.statusCode, this.headers, -1);
+      this.state = State.CHUNK_SIZE;
+    } else if (contentLength != null) {
+      try {
+        this.remainingBodyBytes = Long.parseLong(contentLength);
+      } catch (NumberFormatException exception) {
+        throw new ProtocolException("Invalid content length: " + contentLength);
+      }
+
+      this.handler.onHeaders(this.statusCode, this.headers, this.remainingBodyBytes);
+      if (this.remainingBodyBytes > 0) {
+        this.state = State.BODY_FIXED;
+      } else {
+        this.complete();
+      }
+    } else {
+      // no framing information, the body ends when the server closes the connection
+      this.keepAlive = false;
+      this.handler.onHeaders(this.statusCode, this.headers, -1);
+      this.state = State.UNTIL_CLOSE;
+    }
+  }
+
+  private void parseChunkSize(@NonNull String line) throws IOException {
+    // chunk extensions are separated by a semicolon and ignored
+    int extensionStart = line.indexOf(';');
+    String size = (extensionStart == -1 ? line : line.substring(0, extensionStart)).trim();
+    try {
+      this.remainingBodyBytes = Long.parseLong(size, 16);
+    } catch (NumberFormatException exception) {
+      throw new ProtocolException("Invalid chunk size: " + line);
+    }
+
+    this.state = this.remainingBodyBytes == 0 ? State.TRAILERS : State.CHUNK_DATA;
+  }
+
+  private String header(@NonNull String name) {
+    List<String> values = this.headers.get(name);
+    return values == null ? null : String.join(",", values);
+  }
+
+  private void complete() {
+    this.state = State.DONE;
+    this.handler.onComplete(this.keepAlive);
+  }
+
+  private enum State {
+
+    STATUS_LINE,
+    HEADERS,
+    BODY_FIXED,
+    CHUNK_SIZE,
+    CHUNK_DATA,
+    CHUNK_DATA_END,
+    TRAILERS,
+    UNTIL_CLOSE,
+    DONE
+  }
+
+  interface Handler {
+
+    // the content length is 0 for responses without a body and -1 if it is unknown
+    void onHeaders(int statusCode, @NonNull Map<String, List<String>> headers, long contentLength);
+
+    // the handler must consume exactly the given amount of bytes from the buffer
+    void onBody(@NonNull ByteBuffer src, int length);
+
+    void onComplete(boolean keepAlive);
+  }
+}
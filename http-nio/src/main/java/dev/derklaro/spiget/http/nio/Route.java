@@ -0,0 +1,55 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.http.nio;
+
+import java.net.URI;
+import lombok.Data;
+import lombok.NonNull;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(fluent = true)
+final class Route {
+
+  private final boolean secure;
+  private final String host;
+  private final int port;
+
+  public static @NonNull Route of(@NonNull URI uri) {
+    String scheme = uri.getScheme();
+    if (uri.getHost() == null || !("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme))) {
+      throw new IllegalArgumentException("Unsupported uri " + uri);
+    }
+
+    boolean secure = "https".equalsIgnoreCase(scheme);
+    int port = uri.getPort() == -1 ? (secure ? 443 : 80) : uri.getPort();
+    return new Route(secure, uri.getHost(), port);
+  }
+
+  public @NonNull String hostHeader() {
+    // the port is omitted if it is the default port of the scheme
+    return this.port == (this.secure ? 443 : 80) ? this.host : this.host + ':' + this.port;
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.jfr;
+
+import dev.derklaro.spiget.event.EventListener;
+import dev.derklaro.spiget.http.SpigetHttpException;
+import dev.derklaro.spiget.metrics.SpigetMetrics;
+import java.util.concurrent.CompletionException;
+import lombok.NonNull;
+
+final class JfrEventListener extends EventListener {
+
+  private final SpigetRequestEvent event = new SpigetRequestEvent();
+
+  // the phases of one request happen one after another, hedged attempts only make the timings less precise
+  private volatile long queuedNanos;
+  private volatile long dispatchedNanos;
+  private volatile long decodeStartNanos;
+
+  JfrEventListener(@NonNull String requestType, @NonNull String endpoint) {
+    this.event.requestType = requestType;
+    this.event.endpoint = endpoint;
+    this.event.statusCode = SpigetMetrics.NO_STATUS;
+  }
+
+  @Override
+  public void callStart() {
+    this.event.begin();
+  }
+
+  @Override
+  public void uriBuilt(@NonNull String uri) {
+    this.event.uri = uri;
+  }
+
+  @Override
+  public void cacheHit(@NonNull String uri) {
+    this.event.cacheHit = true;
+  }
+
+  @Override
+  public void requestQueued() {
+    this.event.attempts++;
+    this.queuedNanos = System.nanoTime();
+  }
+
+  @Override
+  public void requestDispatched() {
+    this.dispatchedNanos = System.nanoTime();
+    this.event.queueDuration += this.dispatchedNanos - this.queuedNanos;
+  }
+
+  @Override
+  public void responseHeadersReceived(int statusCode) {
+    this.event.statusCode = statusCode;
+    this.event.networkDuration += System.nanoTime() - this.dispatchedNanos;
+  }
+
+  @Override
+  public void responseBodyEnd(long bytes) {
+    this.event.bytesReceived += bytes;
+  }
+
+  @Override
+  public void decodeStart() {
+    this.decodeStartNanos = System.nanoTime();
+  }
+
+  @Override
+  public void decodeEnd() {
+    this.event.decodeDuration += System.nanoTime() - this.decodeStartNanos;
+  }
+
+  @Override
+  public void callEnd() {
+    this.commit(null);
+  }
+
+  @Override
+  public void callFailed(@NonNull Throwable throwable) {
+    this.commit(throwable);
+  }
+
+  private void commit(Throwable throwable) {
+    this.event.end();
+    if (this.event.shouldCommit()) {
+      if (throwable != null) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+          ? throwable.getCause()
+          : throwable;
+        if (cause instanceof SpigetHttpException) {
+          this.event.statusCode = ((SpigetHttpException) cause).statusCode();
+        }
+        this.event.failure = cause.getClass().getName() + ": " + cause.getMessage();
+      }
+      this.event.commit();
+    }
+  }
+}
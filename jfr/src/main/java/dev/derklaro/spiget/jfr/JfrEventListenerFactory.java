@@ -0,0 +1,64 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.jfr;
+
+import dev.derklaro.spiget.Request;
+import dev.derklaro.spiget.annotation.RequestData;
+import dev.derklaro.spiget.event.EventListener;
+import jdk.jfr.EventType;
+import lombok.NonNull;
+
+public final class JfrEventListenerFactory implements EventListener.Factory {
+
+  private static final JfrEventListenerFactory INSTANCE = new JfrEventListenerFactory();
+  private static final EventType EVENT_TYPE = EventType.getEventType(SpigetRequestEvent.class);
+
+  // the endpoint template of a request class never changes
+  private static final ClassValue<String> ENDPOINTS = new ClassValue<>() {
+    @Override
+    protected String computeValue(@NonNull Class<?> type) {
+      RequestData requestData = type.getAnnotation(RequestData.class);
+      return requestData == null ? type.getName() : requestData.uri();
+    }
+  };
+
+  private JfrEventListenerFactory() {
+  }
+
+  public static @NonNull JfrEventListenerFactory instance() {
+    return INSTANCE;
+  }
+
+  @Override
+  public @NonNull EventListener create(@NonNull Request<?> request) {
+    // no need to track anything if no recording is interested in the event
+    if (!EVENT_TYPE.isEnabled()) {
+      return EventListener.NONE;
+    }
+
+    Class<?> requestType = request.getClass();
+    return new JfrEventListener(requestType.getSimpleName(), ENDPOINTS.get(requestType));
+  }
+}
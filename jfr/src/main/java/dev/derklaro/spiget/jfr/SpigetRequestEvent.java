@@ -0,0 +1,86 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name(SpigetRequestEvent.NAME)
+@Label("Spiget Request")
+@Category("Spiget")
+@Description("A request sent through the spiget client")
+@StackTrace(false)
+final class SpigetRequestEvent extends Event {
+
+  static final String NAME = "dev.derklaro.spiget.Request";
+
+  @Label("Request Type")
+  String requestType;
+
+  @Label("Endpoint")
+  @Description("The uri template of the endpoint")
+  String endpoint;
+
+  @Label("URI")
+  String uri;
+
+  @Label("Status Code")
+  @Description("The status code of the last response, -1 if no response was received")
+  int statusCode;
+
+  @Label("Bytes Received")
+  @DataAmount
+  long bytesReceived;
+
+  @Label("Queue Duration")
+  @Description("The time spent waiting for client-side limits")
+  @Timespan
+  long queueDuration;
+
+  @Label("Network Duration")
+  @Description("The time from passing the request to the transport until the response headers were received")
+  @Timespan
+  long networkDuration;
+
+  @Label("Decode Duration")
+  @Timespan
+  long decodeDuration;
+
+  @Label("Cache Hit")
+  boolean cacheHit;
+
+  @Label("Attempts")
+  @Description("The amount of attempts, including retries and hedged requests")
+  int attempts;
+
+  @Label("Failure")
+  String failure;
+}
@@ -0,0 +1,86 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.mapper.jackson;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import dev.derklaro.spiget.IncrementalJsonDecoder;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import lombok.NonNull;
+
+// tokenizes the chunks using the non-blocking parser as they arrive, data binding runs once the document is complete
+final class JacksonIncrementalDecoder<T> implements IncrementalJsonDecoder<T> {
+
+  private final ObjectMapper objectMapper;
+  private final JavaType type;
+
+  private final JsonParser parser;
+  private final ByteBufferFeeder feeder;
+  private final TokenBuffer tokens;
+
+  public JacksonIncrementalDecoder(@NonNull ObjectMapper objectMapper, @NonNull JavaType type) throws IOException {
+    this.objectMapper = objectMapper;
+    this.type = type;
+
+    this.parser = objectMapper.getFactory().createNonBlockingByteBufferParser();
+    this.feeder = (ByteBufferFeeder) this.parser.getNonBlockingInputFeeder();
+    this.tokens = new TokenBuffer(this.parser);
+  }
+
+  @Override
+  public void feed(@NonNull ByteBuffer chunk) {
+    try {
+      this.feeder.feedInput(chunk);
+      this.copyAvailableTokens();
+    } catch (IOException exception) {
+      throw new IllegalStateException("Cannot parse json chunk of type " + this.type, exception);
+    }
+  }
+
+  @Override
+  public @NonNull T complete() {
+    try {
+      this.feeder.endOfInput();
+      this.copyAvailableTokens();
+      return this.objectMapper.readValue(this.tokens.asParser(this.objectMapper), this.type);
+    } catch (IOException exception) {
+      throw new IllegalStateException(String.format(
+        "Cannot deserialize object of type %s from data stream:", this.type),
+        exception);
+    }
+  }
+
+  private void copyAvailableTokens() throws IOException {
+    JsonToken token;
+    while ((token = this.parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+      this.tokens.copyCurrentEvent(this.parser);
+    }
+  }
+}
@@ -32,6 +32,7 @@
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.derklaro.spiget.IncrementalJsonDecoder;
 import dev.derklaro.spiget.JsonMapper;
 import java.io.IOException;
 import java.io.InputStream;
@@ -79,4 +80,14 @@ private JacksonMapper() {
         exception);
     }
   }
+
+  @Override
+  public @NonNull <T> IncrementalJsonDecoder<T> incrementalDecoder(@NonNull Type type) {
+    try {
+      JavaType resolvedType = this.objectMapper.getTypeFactory().constructType(type);
+      return new JacksonIncrementalDecoder<>(this.objectMapper, resolvedType);
+    } catch (IOException exception) {
+      throw new IllegalStateException("Unable to create non-blocking json parser", exception);
+    }
+  }
 }
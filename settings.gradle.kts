@@ -26,4 +26,4 @@ enableFeaturePreview("STABLE_CONFIGURATION_CACHE")
 enableFeaturePreview("TYPESAFE_PROJECT_ACCESSORS")
 
 rootProject.name = "spiget-java-client"
-include("core", "http-java8", "http-java11", "http-httpclient5", "mapper-gson", "mapper-jackson", "tests")
+include("core", "http-java8", "http-java11", "http-httpclient5", "http-nio", "mapper-gson", "mapper-jackson", "jfr", "flow", "tests")
@@ -26,10 +26,14 @@ dependencies {
   "testImplementation"(projects.httpJava8)
   "testImplementation"(projects.httpJava11)
   "testImplementation"(projects.httpHttpclient5)
+  "testImplementation"(projects.httpNio)
 
   "testImplementation"(projects.mapperGson)
   "testImplementation"(projects.mapperJackson)
 
+  "testImplementation"(projects.jfr)
+  "testImplementation"(projects.flow)
+
   "testImplementation"(libs.gson)
   "testImplementation"(libs.httpClient5)
   "testImplementation"(libs.bundles.junit)
@@ -40,3 +44,8 @@ tasks.withType<JavaCompile> {
   sourceCompatibility = JavaVersion.VERSION_11.toString()
   targetCompatibility = JavaVersion.VERSION_11.toString()
 }
+
+tasks.withType<Test> {
+  // forward the benchmark switch, the benchmarks are skipped by default
+  System.getProperty("spiget.benchmark")?.let { systemProperty("spiget.benchmark", it) }
+}
@@ -0,0 +1,160 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.tests;
+
+import dev.derklaro.spiget.SpigetClientConfig;
+import dev.derklaro.spiget.mapper.gson.GsonMapper;
+import dev.derklaro.spiget.request.resource.ResourceDetails;
+import dev.derklaro.spiget.resilience.CircuitBreaker;
+import dev.derklaro.spiget.resilience.CircuitBreakerConfig;
+import dev.derklaro.spiget.resilience.CircuitOpenException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+final class CircuitBreakerTest {
+
+  private static final String RESOURCE = "{\"id\": 2, \"name\": \"test\"}";
+
+  private final AtomicLong nanoClock = new AtomicLong();
+
+  private CircuitBreakerConfig smallWindow() {
+    return CircuitBreakerConfig.create()
+      .nanoClock(this.nanoClock::get)
+      .slidingWindowSize(10)
+      .minimumCalls(4)
+      .halfOpenProbes(2)
+      .openDuration(Duration.ofMillis(50));
+  }
+
+  @Test
+  void testFailuresOpenTheCircuit() {
+    List<String> transitions = new CopyOnWriteArrayList<>();
+    var config = this.smallWindow().addListener((name, from, to) -> transitions.add(name + ": " + from + " -> " + to));
+    var client = new StubSpigetClient(SpigetClientConfig.create(GsonMapper.INSTANCE).circuitBreaker(config), RESOURCE);
+
+    client.statusCode(503);
+    for (var i = 0; i < 4; i++) {
+      Assertions.assertThrows(CompletionException.class, () -> ResourceDetails.create(client).resourceId(2).exec().join());
+    }
+
+    // the circuit is open, requests fail without reaching the server
+    var exception = Assertions.assertThrows(
+      CompletionException.class,
+      () -> ResourceDetails.create(client).resourceId(2).exec().join());
+    Assertions.assertInstanceOf(CircuitOpenException.class, exception.getCause());
+    Assertions.assertEquals(4, client.requestedUris().size());
+
+    // probes are sent once the open duration elapsed and close the circuit again
+    this.nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(50));
+    client.statusCode(200);
+    ResourceDetails.create(client).resourceId(2).exec().join();
+    ResourceDetails.create(client).resourceId(2).exec().join();
+    Assertions.assertEquals(6, client.requestedUris().size());
+    Assertions.assertEquals(
+      List.of("resources/{0}: CLOSED -> OPEN", "resources/{0}: OPEN -> HALF_OPEN", "resources/{0}: HALF_OPEN -> CLOSED"),
+      transitions);
+  }
+
+  @Test
+  void testFailedProbeOpensTheCircuitAgain() {
+    var breaker = CircuitBreaker.create("test", this.smallWindow());
+    for (var i = 0; i < 4; i++) {
+      Assertions.assertTrue(breaker.tryAcquire());
+      breaker.onResult(0, true);
+    }
+    Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    Assertions.assertFalse(breaker.tryAcquire());
+    this.nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(49));
+    Assertions.assertFalse(breaker.tryAcquire());
+
+    this.nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+    Assertions.assertTrue(breaker.tryAcquire());
+    Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+    Assertions.assertTrue(breaker.tryAcquire());
+    // all probes are in flight
+    Assertions.assertFalse(breaker.tryAcquire());
+
+    breaker.onResult(0, true);
+    Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+  }
+
+  @Test
+  void testIgnoredProbeFreesItsSlot() {
+    var breaker = CircuitBreaker.create("test", this.smallWindow());
+    for (var i = 0; i < 4; i++) {
+      Assertions.assertTrue(breaker.tryAcquire());
+      breaker.onResult(0, true);
+    }
+    Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+
+    // both probes are in flight, further calls are rejected
+    this.nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(50));
+    Assertions.assertTrue(breaker.tryAcquire());
+    Assertions.assertTrue(breaker.tryAcquire());
+    Assertions.assertFalse(breaker.tryAcquire());
+
+    // a cancelled probe lets another call probe the endpoint
+    breaker.onIgnored();
+    Assertions.assertTrue(breaker.tryAcquire());
+    Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+  }
+
+  @Test
+  void testSlowCallsOpenTheCircuit() {
+    var breaker = CircuitBreaker.create("test", this.smallWindow().slowCallDuration(Duration.ofMillis(10)).slowCallRateThreshold(0.5));
+    breaker.onResult(TimeUnit.MILLISECONDS.toNanos(1), false);
+    breaker.onResult(TimeUnit.MILLISECONDS.toNanos(1), false);
+    breaker.onResult(TimeUnit.MILLISECONDS.toNanos(50), false);
+    Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+
+    breaker.onResult(TimeUnit.MILLISECONDS.toNanos(50), false);
+    Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+  }
+
+  @Test
+  void testOldOutcomesLeaveTheWindow() {
+    var breaker = CircuitBreaker.create("test", this.smallWindow());
+    for (var i = 0; i < 4; i++) {
+      breaker.onResult(0, i % 2 == 0 && i < 2);
+    }
+    for (var i = 0; i < 20; i++) {
+      breaker.onResult(0, false);
+    }
+
+    // four failures within the last ten calls are below the threshold
+    for (var i = 0; i < 4; i++) {
+      breaker.onResult(0, true);
+    }
+    Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    breaker.onResult(0, true);
+    Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+  }
+}
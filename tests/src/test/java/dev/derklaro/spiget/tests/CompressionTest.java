@@ -0,0 +1,337 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.tests;
+
+import com.sun.net.httpserver.HttpServer;
+import dev.derklaro.spiget.IncrementalJsonDecoder;
+import dev.derklaro.spiget.JsonMapper;
+import dev.derklaro.spiget.SpigetClient;
+import dev.derklaro.spiget.SpigetClientConfig;
+import dev.derklaro.spiget.cache.InMemoryResponseCache;
+import dev.derklaro.spiget.event.EventListener;
+import dev.derklaro.spiget.http.ContentInflater;
+import dev.derklaro.spiget.http.SpigetNotFoundException;
+import dev.derklaro.spiget.http.httpclient5.HttpClient5AsyncSpigetClient;
+import dev.derklaro.spiget.http.httpclient5.HttpClient5SpigetClient;
+import dev.derklaro.spiget.http.java11.Java11SpigetClient;
+import dev.derklaro.spiget.http.java8.Java8SpigetClient;
+import dev.derklaro.spiget.http.nio.NioSpigetClient;
+import dev.derklaro.spiget.mapper.gson.GsonMapper;
+import dev.derklaro.spiget.mapper.jackson.JacksonMapper;
+import dev.derklaro.spiget.metrics.InMemorySpigetMetrics;
+import dev.derklaro.spiget.request.resource.ResourceDetails;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+final class CompressionTest {
+
+  // large enough to span multiple inflater buffers
+  private static final String NAME = "test".repeat(10_000);
+  private static final String RESOURCE = "{\"id\": 2, \"name\": \"" + NAME + "\"}";
+
+  private final Queue<String> acceptedEncodings = new ConcurrentLinkedQueue<>();
+  private HttpServer server;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    this.server.createContext("/", exchange -> {
+      String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+      this.acceptedEncodings.offer(String.valueOf(acceptEncoding));
+
+      // the requested resource id selects the encoding
+      String path = exchange.getRequestURI().getPath();
+      String encoding = path.substring(path.lastIndexOf('/') + 1);
+      int status = encoding.equals("404") ? 404 : 200;
+
+      // resource 3 can be revalidated
+      if (encoding.equals("3")) {
+        exchange.getResponseHeaders().add("ETag", "\"v1\"");
+        if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+          exchange.sendResponseHeaders(304, -1);
+          exchange.close();
+          return;
+        }
+      }
+      byte[] body = RESOURCE.getBytes(StandardCharsets.UTF_8);
+
+      if (acceptEncoding == null) {
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+          out.write(body);
+        }
+        return;
+      }
+
+      exchange.getResponseHeaders().add("Content-Encoding", encoding.equals("2") ? "deflate" : "gzip");
+      exchange.sendResponseHeaders(status, 0);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(encoding.equals("2") ? deflate(body, false) : gzip(body));
+      }
+    });
+    this.server.start();
+  }
+
+  @AfterEach
+  void stopServer() {
+    this.server.stop(0);
+  }
+
+  private static byte[] gzip(byte[] data) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(data);
+    }
+    return out.toByteArray();
+  }
+
+  private static byte[] deflate(byte[] data, boolean nowrap) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (DeflaterOutputStream deflate = new DeflaterOutputStream(out, new Deflater(Deflater.DEFAULT_COMPRESSION, nowrap))) {
+      deflate.write(data);
+    }
+    return out.toByteArray();
+  }
+
+  private static String inflate(ContentInflater inflater, byte[] data, int chunkSize) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (int i = 0; i < data.length; i += chunkSize) {
+      inflater.input(ByteBuffer.wrap(data, i, Math.min(chunkSize, data.length - i)));
+      ByteBuffer inflated;
+      while ((inflated = inflater.output()) != null) {
+        out.write(inflated.array(), inflated.position(), inflated.remaining());
+      }
+    }
+
+    Assertions.assertTrue(inflater.finished());
+    inflater.release();
+    return out.toString(StandardCharsets.UTF_8);
+  }
+
+  private SpigetClientConfig config() {
+    return SpigetClientConfig.create(GsonMapper.INSTANCE).baseUrl("http://127.0.0.1:" + this.server.getAddress().getPort() + "/");
+  }
+
+  @Test
+  void testGzipHeaderFieldsAreSkipped() throws IOException {
+    // header with extra field, file name, comment and header crc split into single bytes
+    byte[] compressed = deflate("hello world".getBytes(StandardCharsets.UTF_8), true);
+    ByteArrayOutputStream data = new ByteArrayOutputStream();
+    data.write(new byte[]{0x1F, (byte) 0x8B, 8, 2 | 4 | 8 | 16, 0, 0, 0, 0, 0, 0});
+    data.write(new byte[]{3, 0, 'a', 'b', 'c'});
+    data.write("name\0comment\0".getBytes(StandardCharsets.US_ASCII));
+    data.write(new byte[]{0, 0});
+    data.write(compressed);
+
+    var crc = new CRC32();
+    crc.update("hello world".getBytes(StandardCharsets.UTF_8));
+    ByteBuffer trailer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+    trailer.putInt((int) crc.getValue()).putInt(11);
+    data.write(trailer.array());
+
+    Assertions.assertEquals("hello world", inflate(ContentInflater.forEncoding("gzip"), data.toByteArray(), 1));
+  }
+
+  @Test
+  void testDeflateWithAndWithoutZlibHeader() throws IOException {
+    byte[] body = RESOURCE.getBytes(StandardCharsets.UTF_8);
+    Assertions.assertEquals(RESOURCE, inflate(ContentInflater.forEncoding("deflate"), deflate(body, false), 100));
+    Assertions.assertEquals(RESOURCE, inflate(ContentInflater.forEncoding("Deflate"), deflate(body, true), 100));
+    Assertions.assertNull(ContentInflater.forEncoding("br"));
+  }
+
+  @Test
+  void testCorruptTrailerIsRejected() throws IOException {
+    byte[] data = gzip("hello".getBytes(StandardCharsets.UTF_8));
+    data[data.length - 1]++;
+    Assertions.assertThrows(ZipException.class, () -> inflate(ContentInflater.forEncoding("gzip"), data, 4));
+  }
+
+  @Test
+  void testAllTransportsDecompress() {
+    List<Function<SpigetClientConfig, SpigetClient>> transports = List.of(
+      Java8SpigetClient::new,
+      Java11SpigetClient::new,
+      HttpClient5SpigetClient::new,
+      HttpClient5AsyncSpigetClient::new,
+      NioSpigetClient::new);
+
+    for (var transport : transports) {
+      SpigetClient client = transport.apply(this.config());
+      for (int resourceId : new int[]{1, 2}) {
+        var resource = ResourceDetails.create(client).resourceId(resourceId).exec().orTimeout(10, TimeUnit.SECONDS).join();
+        Assertions.assertEquals(NAME, resource.name(), client.getClass().getName());
+      }
+    }
+
+    Assertions.assertEquals(10, this.acceptedEncodings.size());
+    Assertions.assertTrue(this.acceptedEncodings.stream().allMatch(ContentInflater.ACCEPTED_ENCODINGS::equals));
+  }
+
+  @Test
+  void testIncrementalDecodingOfCompressedBody() {
+    var streamDecodes = new AtomicInteger();
+    var mapper = new JsonMapper() {
+      @Override
+      public <T> String encode(T data) {
+        return JacksonMapper.INSTANCE.encode(data);
+      }
+
+      @Override
+      public <T> T decode(InputStream stream, Type type) {
+        streamDecodes.incrementAndGet();
+        return JacksonMapper.INSTANCE.decode(stream, type);
+      }
+
+      @Override
+      public <T> IncrementalJsonDecoder<T> incrementalDecoder(Type type) {
+        return JacksonMapper.INSTANCE.incrementalDecoder(type);
+      }
+    };
+
+    // the body is decompressed and parsed while it is received
+    var client = new Java11SpigetClient(SpigetClientConfig.create(mapper).baseUrl(this.config().baseUrl()));
+    for (int resourceId : new int[]{1, 2}) {
+      var resource = ResourceDetails.create(client).resourceId(resourceId).exec().orTimeout(10, TimeUnit.SECONDS).join();
+      Assertions.assertEquals(NAME, resource.name());
+    }
+    Assertions.assertEquals(0, streamDecodes.get());
+  }
+
+  @Test
+  void testDecodedCompressedBodyIsCachedInflated() throws InterruptedException {
+    var cache = InMemoryResponseCache.create(100, 10 * 1024 * 1024);
+    // the jackson mapper decodes the body while it is received
+    var client = new Java11SpigetClient(SpigetClientConfig.create(JacksonMapper.INSTANCE)
+      .baseUrl(this.config().baseUrl())
+      .responseCache(cache)
+      .cacheTtls(Map.of(ResourceDetails.class, Duration.ofMillis(1))));
+
+    var resource = ResourceDetails.create(client).resourceId(3).exec().orTimeout(10, TimeUnit.SECONDS).join();
+    Assertions.assertEquals(NAME, resource.name());
+
+    var cached = cache.get(this.config().baseUrl() + "resources/3");
+    Assertions.assertNotNull(cached);
+    Assertions.assertEquals(RESOURCE, new String(cached.body(), StandardCharsets.UTF_8));
+
+    // the expired entry is revalidated and decoded from the stored body
+    Thread.sleep(10);
+    resource = ResourceDetails.create(client).resourceId(3).exec().orTimeout(10, TimeUnit.SECONDS).join();
+    Assertions.assertEquals(NAME, resource.name());
+    Assertions.assertEquals(RESOURCE, new String(cache.get(this.config().baseUrl() + "resources/3").body(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void testDecodedCompressedBodyIsNotInflatedAgain() throws IOException {
+    var receivedBytes = new ConcurrentLinkedQueue<Long>();
+    var client = new Java11SpigetClient(SpigetClientConfig.create(JacksonMapper.INSTANCE)
+      .baseUrl(this.config().baseUrl())
+      .eventListenerFactory(request -> new EventListener() {
+        @Override
+        public void responseBodyEnd(long bytes) {
+          receivedBytes.add(bytes);
+        }
+      }));
+
+    // the body was decoded while it was received, the compressed body is only released
+    var resource = ResourceDetails.create(client).resourceId(1).exec().orTimeout(10, TimeUnit.SECONDS).join();
+    Assertions.assertEquals(NAME, resource.name());
+    Assertions.assertEquals(List.of((long) gzip(RESOURCE.getBytes(StandardCharsets.UTF_8)).length), List.copyOf(receivedBytes));
+  }
+
+  @Test
+  void testTransportDecodingIsReported() {
+    var events = new ConcurrentLinkedQueue<String>();
+    var metrics = InMemorySpigetMetrics.create();
+    var client = new Java11SpigetClient(SpigetClientConfig.create(JacksonMapper.INSTANCE)
+      .baseUrl(this.config().baseUrl())
+      .metrics(metrics)
+      .eventListenerFactory(request -> new EventListener() {
+        @Override
+        public void responseBodyEnd(long bytes) {
+          events.add("responseBodyEnd");
+        }
+
+        @Override
+        public void decodeStart() {
+          events.add("decodeStart");
+        }
+
+        @Override
+        public void decodeEnd() {
+          events.add("decodeEnd");
+        }
+      }));
+
+    // the body is decoded while it is received, before the compressed body is released
+    var resource = ResourceDetails.create(client).resourceId(1).exec().orTimeout(10, TimeUnit.SECONDS).join();
+    Assertions.assertEquals(NAME, resource.name());
+    Assertions.assertEquals(List.of("decodeStart", "decodeEnd", "responseBodyEnd"), List.copyOf(events));
+    Assertions.assertEquals(1, metrics.snapshot().get(ResourceDetails.class).decodeTime().count());
+  }
+
+  @Test
+  void testCompressedErrorBody() {
+    var client = new Java8SpigetClient(this.config());
+    var exception = Assertions.assertThrows(
+      CompletionException.class,
+      () -> ResourceDetails.create(client).resourceId(404).exec().orTimeout(10, TimeUnit.SECONDS).join());
+    var notFound = Assertions.assertInstanceOf(SpigetNotFoundException.class, exception.getCause());
+    Assertions.assertTrue(notFound.bodyExcerpt().startsWith("{\"id\": 2"));
+  }
+
+  @Test
+  void testCompressionCanBeDisabled() {
+    var client = new Java11SpigetClient(this.config().compression(false));
+    var resource = ResourceDetails.create(client).resourceId(1).exec().orTimeout(10, TimeUnit.SECONDS).join();
+    Assertions.assertEquals(2, resource.id());
+    Assertions.assertEquals("null", this.acceptedEncodings.poll());
+  }
+}
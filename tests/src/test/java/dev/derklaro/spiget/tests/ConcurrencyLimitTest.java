@@ -0,0 +1,144 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.tests;
+
+import dev.derklaro.spiget.SpigetClientConfig;
+import dev.derklaro.spiget.mapper.gson.GsonMapper;
+import dev.derklaro.spiget.model.Resource;
+import dev.derklaro.spiget.request.resource.ResourceDetails;
+import dev.derklaro.spiget.resilience.AimdLimit;
+import dev.derklaro.spiget.resilience.ConcurrencyLimitConfig;
+import dev.derklaro.spiget.resilience.ConcurrencyLimitExceededException;
+import dev.derklaro.spiget.resilience.ConcurrencyLimiter;
+import dev.derklaro.spiget.resilience.VegasLimit;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+final class ConcurrencyLimitTest {
+
+  private static final String RESOURCE = "{\"id\": 2, \"name\": \"test\"}";
+
+  private static StubSpigetClient newClient(ConcurrencyLimitConfig config) {
+    return new StubSpigetClient(SpigetClientConfig.create(GsonMapper.INSTANCE).concurrencyLimit(config), RESOURCE);
+  }
+
+  @Test
+  void testRequestsBeyondTheLimitAreQueued() {
+    var client = newClient(ConcurrencyLimitConfig.create().algorithm(() -> AimdLimit.create(2, 1, 10, 0.5)));
+    client.holdResponses();
+
+    var futures = new ArrayList<CompletableFuture<Resource>>();
+    for (var i = 0; i < 5; i++) {
+      futures.add(ResourceDetails.create(client).resourceId(2).exec());
+    }
+
+    var limiter = client.concurrencyLimiters().get("resources/{0}");
+    Assertions.assertEquals(2, client.requestedUris().size());
+    Assertions.assertEquals(2, limiter.inFlight());
+    Assertions.assertEquals(3, limiter.queueDepth());
+
+    // completing the requests lets the queued requests through and raises the limit
+    client.releaseResponses();
+    futures.forEach(future -> Assertions.assertEquals("test", future.orTimeout(5, TimeUnit.SECONDS).join().name()));
+    Assertions.assertEquals(5, client.requestedUris().size());
+    Assertions.assertEquals(0, limiter.inFlight());
+    Assertions.assertEquals(0, limiter.queueDepth());
+    Assertions.assertTrue(limiter.limit() > 2);
+    Assertions.assertTrue(limiter.smoothedRttNanos() > 0);
+  }
+
+  @Test
+  void testServerErrorsShrinkTheLimit() {
+    var client = newClient(ConcurrencyLimitConfig.create().algorithm(() -> AimdLimit.create(8, 1, 10, 0.5)));
+    client.statusCode(503);
+
+    Assertions.assertThrows(CompletionException.class, () -> ResourceDetails.create(client).resourceId(2).exec().join());
+    Assertions.assertEquals(4, client.concurrencyLimiters().get("resources/{0}").limit());
+  }
+
+  @Test
+  void testFullQueueRejectsRequests() {
+    var limiter = ConcurrencyLimiter.create(
+      "test",
+      ConcurrencyLimitConfig.create().algorithm(() -> AimdLimit.create(1, 1, 1, 0.5)).maxQueueSize(1));
+
+    Assertions.assertTrue(limiter.acquire().isDone());
+    Assertions.assertFalse(limiter.acquire().isDone());
+
+    var rejected = limiter.acquire();
+    var exception = Assertions.assertThrows(CompletionException.class, rejected::join);
+    Assertions.assertInstanceOf(ConcurrencyLimitExceededException.class, exception.getCause());
+  }
+
+  @Test
+  void testCancelledWaiterLeavesTheQueue() {
+    var limiter = ConcurrencyLimiter.create(
+      "test",
+      ConcurrencyLimitConfig.create().algorithm(() -> AimdLimit.create(1, 1, 1, 0.5)).maxQueueSize(1));
+
+    Assertions.assertTrue(limiter.acquire().isDone());
+    limiter.acquire().cancel(false);
+    Assertions.assertEquals(0, limiter.queueDepth());
+
+    // the cancelled waiter does not use up the queue
+    var waiting = limiter.acquire();
+    Assertions.assertFalse(waiting.isDone());
+    Assertions.assertEquals(1, limiter.queueDepth());
+  }
+
+  @Test
+  void testCancelledWaiterDoesNotHoldASlot() {
+    var limiter = ConcurrencyLimiter.create("test", ConcurrencyLimitConfig.create().algorithm(() -> AimdLimit.create(1, 1, 1, 0.5)));
+
+    Assertions.assertTrue(limiter.acquire().isDone());
+    var cancelled = limiter.acquire();
+    var waiting = limiter.acquire();
+    cancelled.cancel(false);
+
+    limiter.releaseIgnored();
+    Assertions.assertTrue(waiting.isDone());
+    Assertions.assertEquals(1, limiter.inFlight());
+  }
+
+  @Test
+  void testVegasReactsToQueueing() {
+    var vegas = VegasLimit.create(20, 100);
+
+    // rtts close to the lowest seen rtt mean that there is no queueing
+    var limit = vegas.update(20, TimeUnit.MILLISECONDS.toNanos(10), 20, false);
+    Assertions.assertTrue(limit > 20);
+
+    // doubled rtts mean that half of the requests are queued
+    var decreased = vegas.update(limit, TimeUnit.MILLISECONDS.toNanos(20), limit, false);
+    Assertions.assertTrue(decreased < limit);
+
+    // a drop always decreases the limit
+    Assertions.assertTrue(vegas.update(decreased, TimeUnit.MILLISECONDS.toNanos(10), decreased, true) < decreased);
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.tests;
+
+import dev.derklaro.spiget.SpigetClientConfig;
+import dev.derklaro.spiget.cache.CachedResponse;
+import dev.derklaro.spiget.cache.DiskResponseCache;
+import dev.derklaro.spiget.cache.InMemoryResponseCache;
+import dev.derklaro.spiget.cache.TieredResponseCache;
+import dev.derklaro.spiget.mapper.gson.GsonMapper;
+import dev.derklaro.spiget.request.resource.ResourceDetails;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+final class DiskResponseCacheTest {
+
+  private static final String RESOURCE = "{\"id\": 2, \"name\": \"test\"}";
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void testEntriesSurviveRestart() {
+    var cache = DiskResponseCache.open(this.directory, 1024, 4);
+    cache.put("a", CachedResponse.withTtl("hello".getBytes(StandardCharsets.UTF_8), 60_000, "\"v1\"", null));
+    cache.put("b", CachedResponse.withTtl("world".getBytes(StandardCharsets.UTF_8), 60_000));
+    cache.invalidate("b");
+    cache.close();
+
+    var reopened = DiskResponseCache.open(this.directory, 1024, 4);
+    var entry = reopened.get("a");
+    Assertions.assertNotNull(entry);
+    Assertions.assertEquals("hello", new String(entry.body(), StandardCharsets.UTF_8));
+    Assertions.assertEquals("\"v1\"", entry.etag());
+    Assertions.assertNull(entry.lastModified());
+    Assertions.assertNull(reopened.get("b"));
+  }
+
+  @Test
+  void testLatestEntryWins() {
+    var cache = DiskResponseCache.open(this.directory, 1024, 4);
+    cache.put("a", CachedResponse.withTtl("first".getBytes(StandardCharsets.UTF_8), 60_000));
+    cache.put("a", CachedResponse.withTtl("second".getBytes(StandardCharsets.UTF_8), 60_000));
+    Assertions.assertEquals("second", new String(cache.get("a").body(), StandardCharsets.UTF_8));
+    cache.close();
+
+    var reopened = DiskResponseCache.open(this.directory, 1024, 4);
+    Assertions.assertEquals("second", new String(reopened.get("a").body(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void testExpiredEntriesAreNotServed() {
+    var cache = DiskResponseCache.open(this.directory, 1024, 4);
+    cache.put("a", CachedResponse.of(new byte[10], System.currentTimeMillis() - 1, null, null));
+
+    Assertions.assertNull(cache.get("a"));
+    Assertions.assertEquals(1, cache.stats().expirationCount());
+  }
+
+  @Test
+  void testOldestSegmentIsEvicted() {
+    var cache = DiskResponseCache.open(this.directory, 128, 2);
+    for (int i = 0; i < 10; i++) {
+      cache.put("key-" + i, CachedResponse.withTtl(new byte[50], 60_000));
+    }
+
+    // each segment holds one entry
+    Assertions.assertNull(cache.get("key-0"));
+    Assertions.assertNotNull(cache.get("key-9"));
+    Assertions.assertEquals(2, cache.stats().entryCount());
+    Assertions.assertEquals(8, cache.stats().evictionCount());
+  }
+
+  @Test
+  void testCorruptedRecordEndsLog() throws IOException {
+    var cache = DiskResponseCache.open(this.directory, 1024, 4);
+    cache.put("a", CachedResponse.withTtl("hello".getBytes(StandardCharsets.UTF_8), 60_000));
+    cache.put("b", CachedResponse.withTtl("world".getBytes(StandardCharsets.UTF_8), 60_000));
+    cache.close();
+
+    // the second record starts after the 28 byte header, key and body of the first one, its etag length is at offset 16
+    try (var segments = Files.list(this.directory); var channel = FileChannel.open(
+      segments.findFirst().orElseThrow(),
+      StandardOpenOption.WRITE)
+    ) {
+      channel.write(ByteBuffer.allocate(4).putInt(0, -5), 28 + 1 + 5 + 16);
+    }
+
+    var reopened = DiskResponseCache.open(this.directory, 1024, 4);
+    Assertions.assertEquals("hello", new String(reopened.get("a").body(), StandardCharsets.UTF_8));
+    Assertions.assertNull(reopened.get("b"));
+
+    // new records replace the corrupted tail
+    reopened.put("c", CachedResponse.withTtl("again".getBytes(StandardCharsets.UTF_8), 60_000));
+    reopened.close();
+    Assertions.assertEquals("again", new String(
+      DiskResponseCache.open(this.directory, 1024, 4).get("c").body(),
+      StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void testEvictedAndClosedSegmentsAreReleased() throws IOException {
+    var cache = DiskResponseCache.open(this.directory, 128, 2);
+    for (int i = 0; i < 10; i++) {
+      cache.put("key-" + i, CachedResponse.withTtl(new byte[50], 60_000));
+    }
+    try (var segments = Files.list(this.directory)) {
+      Assertions.assertEquals(2, segments.count());
+    }
+
+    // the segments are unmapped, reads and writes are ignored afterwards
+    cache.close();
+    Assertions.assertNull(cache.get("key-9"));
+    cache.put("key-10", CachedResponse.withTtl(new byte[50], 60_000));
+    Assertions.assertNull(cache.get("key-10"));
+  }
+
+  @Test
+  void testWarmRestartServesFromDisk() {
+    var disk = DiskResponseCache.open(this.directory, 4096, 4);
+    var config = SpigetClientConfig.create(GsonMapper.INSTANCE)
+      .responseCache(TieredResponseCache.of(InMemoryResponseCache.create(100, 4096), disk));
+    var client = new StubSpigetClient(config, RESOURCE);
+    ResourceDetails.create(client).resourceId(2).exec().join();
+    disk.close();
+
+    // simulate a restart with an empty memory cache
+    var restartedConfig = SpigetClientConfig.create(GsonMapper.INSTANCE).responseCache(TieredResponseCache.of(
+      InMemoryResponseCache.create(100, 4096),
+      DiskResponseCache.open(this.directory, 4096, 4)));
+    var restartedClient = new StubSpigetClient(restartedConfig, RESOURCE);
+    Assertions.assertEquals("test", ResourceDetails.create(restartedClient).resourceId(2).exec().join().name());
+    Assertions.assertTrue(restartedClient.requestedUris().isEmpty());
+  }
+}
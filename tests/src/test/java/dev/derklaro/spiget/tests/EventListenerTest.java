@@ -0,0 +1,156 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.tests;
+
+import dev.derklaro.spiget.SpigetClientConfig;
+import dev.derklaro.spiget.cache.InMemoryResponseCache;
+import dev.derklaro.spiget.event.EventListener;
+import dev.derklaro.spiget.mapper.gson.GsonMapper;
+import dev.derklaro.spiget.request.resource.ResourceDetails;
+import dev.derklaro.spiget.resilience.RetryPolicy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+final class EventListenerTest {
+
+  private static final String RESOURCE = "{\"id\": 2, \"name\": \"test\"}";
+
+  @Test
+  void testPhasesAreReportedInOrder() {
+    var listener = new RecordingListener();
+    var config = SpigetClientConfig.create(GsonMapper.INSTANCE).eventListenerFactory(request -> listener);
+    var client = new StubSpigetClient(config, RESOURCE);
+
+    ResourceDetails.create(client).resourceId(2).exec().join();
+    Assertions.assertEquals(
+      List.of(
+        "callStart",
+        "uriBuilt https://api.spiget.org/v2/resources/2",
+        "requestQueued",
+        "requestDispatched",
+        "responseHeadersReceived 200",
+        "responseBodyEnd " + RESOURCE.length(),
+        "decodeStart",
+        "decodeEnd",
+        "callEnd"),
+      listener.events);
+  }
+
+  @Test
+  void testCacheHitAndRetriesAreReported() {
+    var listener = new RecordingListener();
+    var config = SpigetClientConfig.create(GsonMapper.INSTANCE)
+      .eventListenerFactory(request -> listener)
+      .responseCache(InMemoryResponseCache.create(10, 1024))
+      .retryPolicy(RetryPolicy.create().initialBackoff(Duration.ofMillis(1)));
+    var client = new StubSpigetClient(config, RESOURCE);
+
+    client.queueStatusCodes(503);
+    ResourceDetails.create(client).resourceId(2).exec().join();
+    Assertions.assertEquals(2, listener.events.stream().filter("requestQueued"::equals).count());
+
+    listener.events.clear();
+    ResourceDetails.create(client).resourceId(2).exec().join();
+    Assertions.assertEquals(
+      List.of("callStart", "uriBuilt https://api.spiget.org/v2/resources/2", "cacheHit https://api.spiget.org/v2/resources/2",
+        "decodeStart", "decodeEnd", "callEnd"),
+      listener.events);
+  }
+
+  @Test
+  void testFailureIsReported() {
+    var listener = new RecordingListener();
+    var config = SpigetClientConfig.create(GsonMapper.INSTANCE).eventListenerFactory(request -> listener);
+    var client = new StubSpigetClient(config, RESOURCE);
+
+    client.statusCode(404);
+    Assertions.assertThrows(CompletionException.class, () -> ResourceDetails.create(client).resourceId(2).exec().join());
+    Assertions.assertEquals("callFailed", listener.events.get(listener.events.size() - 1));
+  }
+
+  private static final class RecordingListener extends EventListener {
+
+    private final List<String> events = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void callStart() {
+      this.events.add("callStart");
+    }
+
+    @Override
+    public void uriBuilt(String uri) {
+      this.events.add("uriBuilt " + uri);
+    }
+
+    @Override
+    public void cacheHit(String uri) {
+      this.events.add("cacheHit " + uri);
+    }
+
+    @Override
+    public void requestQueued() {
+      this.events.add("requestQueued");
+    }
+
+    @Override
+    public void requestDispatched() {
+      this.events.add("requestDispatched");
+    }
+
+    @Override
+    public void responseHeadersReceived(int statusCode) {
+      this.events.add("responseHeadersReceived " + statusCode);
+    }
+
+    @Override
+    public void responseBodyEnd(long bytes) {
+      this.events.add("responseBodyEnd " + bytes);
+    }
+
+    @Override
+    public void decodeStart() {
+      this.events.add("decodeStart");
+    }
+
+    @Override
+    public void decodeEnd() {
+      this.events.add("decodeEnd");
+    }
+
+    @Override
+    public void callEnd() {
+      this.events.add("callEnd");
+    }
+
+    @Override
+    public void callFailed(Throwable throwable) {
+      this.events.add("callFailed");
+    }
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.tests;
+
+import dev.derklaro.spiget.JsonMapper;
+import dev.derklaro.spiget.SpigetClientConfig;
+import dev.derklaro.spiget.client.SpigetExecutors;
+import dev.derklaro.spiget.mapper.gson.GsonMapper;
+import dev.derklaro.spiget.request.resource.ResourceDetails;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+final class ExecutorTest {
+
+  private static final String RESOURCE = "{\"id\": 2, \"name\": \"test\"}";
+
+  @Test
+  void testResponsesAreDecodedOnTheDecodeExecutor() {
+    var decodeExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "test-decode"));
+    try {
+      var executions = new AtomicInteger();
+      var decodeThread = new AtomicReference<String>();
+      var mapper = new JsonMapper() {
+        @Override
+        public <T> String encode(T data) {
+          return GsonMapper.INSTANCE.encode(data);
+        }
+
+        @Override
+        public <T> T decode(InputStream stream, Type type) {
+          decodeThread.set(Thread.currentThread().getName());
+          return GsonMapper.INSTANCE.decode(stream, type);
+        }
+      };
+      var ioExecutions = new AtomicInteger();
+      var config = SpigetClientConfig.create(mapper)
+        .ioExecutor(task -> {
+          ioExecutions.incrementAndGet();
+          SpigetExecutors.sharedIoExecutor().execute(task);
+        })
+        .decodeExecutor(task -> {
+          executions.incrementAndGet();
+          decodeExecutor.execute(task);
+        });
+      var client = new StubSpigetClient(config, RESOURCE);
+
+      Assertions.assertEquals("test", ResourceDetails.create(client).resourceId(2).exec().join().name());
+      Assertions.assertEquals("test-decode", decodeThread.get());
+      Assertions.assertEquals(1, executions.get());
+      // the body stream of the stub is read on the io executor before it is decoded
+      Assertions.assertEquals(1, ioExecutions.get());
+    } finally {
+      decodeExecutor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testDefaultExecutorsAreNotTheCommonPool() {
+    var config = SpigetClientConfig.create(GsonMapper.INSTANCE);
+    Assertions.assertSame(SpigetExecutors.sharedIoExecutor(), config.ioExecutor());
+    Assertions.assertSame(SpigetExecutors.sharedDecodeExecutor(), config.decodeExecutor());
+
+    var ioExecutor = (ThreadPoolExecutor) config.ioExecutor();
+    Assertions.assertEquals(SpigetExecutors.MAX_IO_THREADS, ioExecutor.getMaximumPoolSize());
+
+    var ioThread = CompletableFuture.supplyAsync(() -> Thread.currentThread(), config.ioExecutor()).join();
+    Assertions.assertTrue(ioThread.getName().startsWith("spiget-io-"));
+    Assertions.assertTrue(ioThread.isDaemon());
+
+    var decodeThread = CompletableFuture.supplyAsync(() -> Thread.currentThread(), config.decodeExecutor()).join();
+    Assertions.assertTrue(decodeThread.getName().startsWith("spiget-decode-"));
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.tests;
+
+import dev.derklaro.spiget.SpigetClientConfig;
+import dev.derklaro.spiget.mapper.gson.GsonMapper;
+import dev.derklaro.spiget.request.resource.LatestResourceVersion;
+import dev.derklaro.spiget.request.resource.ResourceDetails;
+import dev.derklaro.spiget.resilience.HedgingPolicy;
+import dev.derklaro.spiget.resilience.RetryBudget;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+final class HedgingTest {
+
+  private static final String RESOURCE = "{\"id\": 2, \"name\": \"test\"}";
+
+  private static StubSpigetClient newClient(HedgingPolicy hedgingPolicy) {
+    return new StubSpigetClient(SpigetClientConfig.create(GsonMapper.INSTANCE).hedgingPolicy(hedgingPolicy), RESOURCE);
+  }
+
+  @Test
+  void testStalledRequestIsHedged() {
+    var client = newClient(HedgingPolicy.create().delay(Duration.ofMillis(20)));
+    client.stallNextRequests(1);
+
+    Assertions.assertEquals("test", ResourceDetails.create(client).resourceId(2).exec().orTimeout(5, TimeUnit.SECONDS).join().name());
+    Assertions.assertEquals(2, client.requestedUris().size());
+
+    // the stalled request lost the race and was cancelled
+    Assertions.assertEquals(1, client.stalledResponses().size());
+    Assertions.assertTrue(client.stalledResponses().get(0).isCancelled());
+  }
+
+  @Test
+  void testFastRequestIsNotHedged() throws InterruptedException {
+    var client = newClient(HedgingPolicy.create().delay(Duration.ofMillis(20)));
+
+    ResourceDetails.create(client).resourceId(2).exec().join();
+    Thread.sleep(50);
+    Assertions.assertEquals(1, client.requestedUris().size());
+  }
+
+  @Test
+  void testOnlyConfiguredRequestsAreHedged() {
+    var client = newClient(HedgingPolicy.create().delay(Duration.ofMillis(20)).hedgedRequests(Set.of(LatestResourceVersion.class)));
+    client.stallNextRequests(1);
+
+    var future = ResourceDetails.create(client).resourceId(2).exec();
+    Assertions.assertThrows(Exception.class, () -> future.get(100, TimeUnit.MILLISECONDS));
+    Assertions.assertEquals(1, client.requestedUris().size());
+    future.cancel(true);
+  }
+
+  @Test
+  void testHedgeBudgetLimitsExtraRequests() {
+    var client = newClient(HedgingPolicy.create().delay(Duration.ZERO).hedgeBudget(RetryBudget.create(0.05, 1)));
+
+    // every request is slow enough to be hedged, but the budget only allows 1.5 hedges for ten requests
+    client.holdResponses();
+    for (var i = 0; i < 10; i++) {
+      ResourceDetails.create(client).resourceId(2).exec();
+    }
+    Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+      while (client.requestedUris().size() < 11) {
+        Thread.sleep(5);
+      }
+    });
+    client.releaseResponses();
+    Assertions.assertEquals(11, client.requestedUris().size());
+  }
+
+  @Test
+  void testDelayIsDerivedFromObservedLatency() throws InterruptedException {
+    var client = newClient(HedgingPolicy.create().delay(Duration.ofSeconds(30)).delayPercentile(0.9));
+    for (var i = 0; i < 16; i++) {
+      ResourceDetails.create(client).resourceId(2).exec().join();
+    }
+
+    // the observed latency is far below the configured delay of 30 seconds
+    client.stallNextRequests(1);
+    Assertions.assertEquals("test", ResourceDetails.create(client).resourceId(2).exec().orTimeout(5, TimeUnit.SECONDS).join().name());
+    Assertions.assertEquals(18, client.requestedUris().size());
+  }
+}
@@ -0,0 +1,214 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.tests;
+
+import com.sun.net.httpserver.HttpServer;
+import dev.derklaro.spiget.SpigetClientConfig;
+import dev.derklaro.spiget.event.EventListener;
+import dev.derklaro.spiget.http.httpclient5.HttpClient5AsyncSpigetClient;
+import dev.derklaro.spiget.http.httpclient5.HttpClient5Config;
+import dev.derklaro.spiget.http.httpclient5.HttpClient5SpigetClient;
+import dev.derklaro.spiget.mapper.gson.GsonMapper;
+import dev.derklaro.spiget.model.Resource;
+import dev.derklaro.spiget.request.resource.ResourceDetails;
+import dev.derklaro.spiget.request.resource.ResourceDownload;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+final class HttpClient5AsyncTest {
+
+  private static final byte[] RESOURCE = "{\"id\": 2, \"name\": \"test\"}".getBytes(StandardCharsets.UTF_8);
+
+  private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+  private HttpServer server;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    this.server.createContext("/", exchange -> {
+      this.clientPorts.add(exchange.getRemoteAddress().getPort());
+      if (exchange.getRequestURI().getPath().endsWith("/3/download")) {
+        // the connection breaks in the middle of the body
+        exchange.sendResponseHeaders(200, 1024 * 1024);
+        exchange.getResponseBody().write(new byte[8192]);
+        exchange.getResponseBody().flush();
+        exchange.close();
+        return;
+      } else if (exchange.getRequestURI().getPath().endsWith("/download")) {
+        // a body which is way larger than the client buffers
+        exchange.sendResponseHeaders(200, 0);
+        try (var body = exchange.getResponseBody()) {
+          var chunk = new byte[8192];
+          for (int i = 0; i < 1024; i++) {
+            body.write(chunk);
+          }
+        } catch (IOException ignored) {
+          // the client aborted the download
+        }
+      } else {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, RESOURCE.length);
+        exchange.getResponseBody().write(RESOURCE);
+      }
+      exchange.close();
+    });
+    this.server.setExecutor(Executors.newFixedThreadPool(8));
+    this.server.start();
+  }
+
+  @AfterEach
+  void stopServer() {
+    this.server.stop(0);
+  }
+
+  private HttpClient5AsyncSpigetClient createClient(int maxConnections) {
+    var config = SpigetClientConfig.create(GsonMapper.INSTANCE)
+      .baseUrl("http://127.0.0.1:" + this.server.getAddress().getPort() + "/");
+    return new HttpClient5AsyncSpigetClient(config, HttpClient5Config.create().maxConnectionsPerRoute(maxConnections));
+  }
+
+  @Test
+  void testConnectionsArePooled() {
+    var client = this.createClient(2);
+
+    var futures = new CompletableFuture<?>[50];
+    for (int i = 0; i < futures.length; i++) {
+      futures[i] = ResourceDetails.create(client).resourceId(i).exec();
+    }
+    CompletableFuture.allOf(futures).orTimeout(10, TimeUnit.SECONDS).join();
+
+    for (var future : futures) {
+      Assertions.assertEquals("test", ((Resource) future.join()).name());
+    }
+    Assertions.assertTrue(this.clientPorts.size() <= 2, "Opened " + this.clientPorts.size() + " connections");
+  }
+
+  @Test
+  void testDecodedBodyIsNotReadOnTheIoExecutor() {
+    var ioTasks = new AtomicInteger();
+    var config = SpigetClientConfig.create(GsonMapper.INSTANCE)
+      .baseUrl("http://127.0.0.1:" + this.server.getAddress().getPort() + "/")
+      .ioExecutor(task -> {
+        ioTasks.incrementAndGet();
+        task.run();
+      });
+    var client = new HttpClient5AsyncSpigetClient(config);
+
+    // the body is fully received before the response is handed out, reading it never blocks
+    Assertions.assertEquals("test", ResourceDetails.create(client).resourceId(2).exec().orTimeout(10, TimeUnit.SECONDS).join().name());
+    Assertions.assertEquals(0, ioTasks.get());
+    client.close();
+  }
+
+  @Test
+  void testExchangePhasesAreReported() {
+    var events = new CopyOnWriteArrayList<String>();
+    var config = SpigetClientConfig.create(GsonMapper.INSTANCE)
+      .baseUrl("http://127.0.0.1:" + this.server.getAddress().getPort() + "/")
+      .eventListenerFactory(request -> new EventListener() {
+        @Override
+        public void connectionAcquired() {
+          events.add("connectionAcquired");
+        }
+
+        @Override
+        public void requestSent() {
+          events.add("requestSent");
+        }
+
+        @Override
+        public void responseHeadersReceived(int statusCode) {
+          events.add("responseHeadersReceived " + statusCode);
+        }
+      });
+
+    var asyncClient = new HttpClient5AsyncSpigetClient(config);
+    for (var client : List.of(asyncClient, new HttpClient5SpigetClient(config))) {
+      events.clear();
+      Assertions.assertEquals("test", ResourceDetails.create(client).resourceId(2).exec().orTimeout(10, TimeUnit.SECONDS).join().name());
+      Assertions.assertEquals(List.of("connectionAcquired", "requestSent", "responseHeadersReceived 200"), events);
+    }
+    asyncClient.close();
+  }
+
+  @Test
+  void testClosedBodyReleasesConnection() throws IOException {
+    var client = this.createClient(1);
+
+    // only read a part of the body, the single pooled connection must be released on close
+    for (int i = 0; i < 3; i++) {
+      try (InputStream stream = ResourceDownload.create(client).resourceId(i).exec().orTimeout(10, TimeUnit.SECONDS).join()) {
+        Assertions.assertEquals(1024, stream.readNBytes(1024).length);
+      }
+    }
+
+    var resource = ResourceDetails.create(client).resourceId(2).exec().orTimeout(10, TimeUnit.SECONDS).join();
+    Assertions.assertEquals("test", resource.name());
+  }
+
+  @Test
+  void testFullyReadBodyReusesConnection() throws IOException {
+    var client = this.createClient(1);
+    for (int i = 0; i < 3; i++) {
+      try (InputStream stream = ResourceDownload.create(client).resourceId(i).exec().orTimeout(10, TimeUnit.SECONDS).join()) {
+        Assertions.assertEquals(8192 * 1024, stream.readAllBytes().length);
+      }
+    }
+    Assertions.assertEquals(1, this.clientPorts.size());
+  }
+
+  @Test
+  void testTruncatedBodyFailsTheRead() {
+    var client = this.createClient(1);
+    var stream = ResourceDownload.create(client).resourceId(3).exec().orTimeout(10, TimeUnit.SECONDS).join();
+    Assertions.assertThrows(IOException.class, stream::readAllBytes);
+  }
+
+  @Test
+  void testClosedClientRejectsRequests() {
+    var client = this.createClient(1);
+    Assertions.assertEquals("test", ResourceDetails.create(client).resourceId(2).exec().orTimeout(10, TimeUnit.SECONDS).join().name());
+
+    client.close();
+    Assertions.assertThrows(
+      CompletionException.class,
+      () -> ResourceDetails.create(client).resourceId(2).exec().orTimeout(10, TimeUnit.SECONDS).join());
+  }
+}
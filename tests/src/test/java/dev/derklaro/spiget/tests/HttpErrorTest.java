@@ -0,0 +1,107 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.tests;
+
+import dev.derklaro.spiget.SpigetClientConfig;
+import dev.derklaro.spiget.http.SpigetClientErrorException;
+import dev.derklaro.spiget.http.SpigetHttpException;
+import dev.derklaro.spiget.http.SpigetNotFoundException;
+import dev.derklaro.spiget.http.SpigetRateLimitedException;
+import dev.derklaro.spiget.http.SpigetServerErrorException;
+import dev.derklaro.spiget.http.java8.Java8SpigetClient;
+import dev.derklaro.spiget.mapper.gson.GsonMapper;
+import dev.derklaro.spiget.request.resource.ResourceDetails;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+final class HttpErrorTest {
+
+  private static SpigetHttpException requestAndCatch(StubSpigetClient client) {
+    var exception = Assertions.assertThrows(
+      CompletionException.class,
+      () -> ResourceDetails.create(client).resourceId(2).exec().join());
+    return Assertions.assertInstanceOf(SpigetHttpException.class, exception.getCause());
+  }
+
+  @Test
+  void testNotFound() {
+    var client = new StubSpigetClient("{\"error\": \"resource not found\"}");
+    client.statusCode(404);
+    client.responseHeader("X-Test", "abc");
+
+    var exception = Assertions.assertInstanceOf(SpigetNotFoundException.class, requestAndCatch(client));
+    Assertions.assertEquals(404, exception.statusCode());
+    Assertions.assertEquals("{\"error\": \"resource not found\"}", exception.bodyExcerpt());
+    Assertions.assertEquals("abc", exception.headers().get("x-test").get(0));
+    Assertions.assertTrue(exception.getMessage().contains("response code 404"));
+    Assertions.assertTrue(exception.getMessage().contains("resources/2"));
+  }
+
+  @Test
+  void testRateLimited() {
+    var client = new StubSpigetClient("slow down");
+    client.statusCode(429);
+    client.responseHeader("Retry-After", "30");
+
+    var exception = Assertions.assertInstanceOf(SpigetRateLimitedException.class, requestAndCatch(client));
+    Assertions.assertInstanceOf(SpigetClientErrorException.class, exception);
+    Assertions.assertEquals(Duration.ofSeconds(30), exception.retryAfter());
+  }
+
+  @Test
+  void testClientAndServerErrors() {
+    var client = new StubSpigetClient("error");
+    client.statusCode(400);
+    Assertions.assertEquals(SpigetClientErrorException.class, requestAndCatch(client).getClass());
+
+    client.statusCode(502);
+    Assertions.assertEquals(SpigetServerErrorException.class, requestAndCatch(client).getClass());
+
+    client.statusCode(302);
+    Assertions.assertEquals(SpigetHttpException.class, requestAndCatch(client).getClass());
+  }
+
+  @Test
+  void testBodyExcerptIsBounded() {
+    var client = new StubSpigetClient("x".repeat(100_000));
+    client.statusCode(500);
+
+    Assertions.assertEquals(1024, requestAndCatch(client).bodyExcerpt().length());
+  }
+
+  @Test
+  void testTransportRuntimeExceptionIsReported() {
+    // opening an ftp url does not return a http connection, the cast fails inside the io task
+    var config = SpigetClientConfig.create(GsonMapper.INSTANCE).baseUrl("ftp://127.0.0.1:1/");
+    var client = new Java8SpigetClient(config);
+    var exception = Assertions.assertThrows(
+      CompletionException.class,
+      () -> ResourceDetails.create(client).resourceId(2).exec().orTimeout(10, TimeUnit.SECONDS).join());
+    Assertions.assertInstanceOf(ClassCastException.class, exception.getCause());
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.tests;
+
+import com.sun.net.httpserver.HttpServer;
+import dev.derklaro.spiget.IncrementalJsonDecoder;
+import dev.derklaro.spiget.JsonMapper;
+import dev.derklaro.spiget.SpigetClientConfig;
+import dev.derklaro.spiget.http.SpigetNotFoundException;
+import dev.derklaro.spiget.http.java11.Java11SpigetClient;
+import dev.derklaro.spiget.mapper.gson.GsonMapper;
+import dev.derklaro.spiget.mapper.jackson.JacksonMapper;
+import dev.derklaro.spiget.model.Resource;
+import dev.derklaro.spiget.request.resource.ResourceDetails;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+final class IncrementalDecodingTest {
+
+  private static final String RESOURCE = "{\"id\": 2, \"name\": \"test\", \"testedVersions\": [\"1.8\", \"1.19\"],"
+    + " \"links\": {\"discussion\": \"https://example.com\"}, \"unknown\": {\"nested\": [1, 2.5, null, true]}}";
+
+  private HttpServer server;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    this.server.createContext("/", exchange -> {
+      var path = exchange.getRequestURI().getPath();
+      var status = path.endsWith("/404") ? 404 : 200;
+      var body = (path.endsWith("/1") ? "{\"id\": " : RESOURCE).getBytes(StandardCharsets.UTF_8);
+
+      // send the body in small chunks to feed the parser multiple times
+      exchange.sendResponseHeaders(status, 0);
+      try (var stream = exchange.getResponseBody()) {
+        for (int i = 0; i < body.length; i += 16) {
+          stream.write(body, i, Math.min(16, body.length - i));
+          stream.flush();
+        }
+      }
+    });
+    this.server.start();
+  }
+
+  @AfterEach
+  void stopServer() {
+    this.server.stop(0);
+  }
+
+  private Java11SpigetClient createClient(JsonMapper mapper) {
+    var config = SpigetClientConfig.create(mapper).baseUrl("http://127.0.0.1:" + this.server.getAddress().getPort() + "/");
+    return new Java11SpigetClient(config);
+  }
+
+  @Test
+  void testJacksonDecodesByteChunks() {
+    IncrementalJsonDecoder<Resource> decoder = JacksonMapper.INSTANCE.incrementalDecoder(Resource.class);
+    Assertions.assertNotNull(decoder);
+
+    // split the document at every byte, including inside of tokens
+    for (byte b : RESOURCE.getBytes(StandardCharsets.UTF_8)) {
+      decoder.feed(ByteBuffer.wrap(new byte[]{b}));
+    }
+
+    var resource = decoder.complete();
+    Assertions.assertEquals(2, resource.id());
+    Assertions.assertEquals("test", resource.name());
+    Assertions.assertTrue(resource.testedVersions().contains("1.19"));
+    Assertions.assertEquals("https://example.com", resource.links().get("discussion"));
+  }
+
+  @Test
+  void testResponseIsDecodedWhileReceived() {
+    var streamDecodes = new AtomicInteger();
+    var mapper = new JsonMapper() {
+      @Override
+      public <T> String encode(T data) {
+        return JacksonMapper.INSTANCE.encode(data);
+      }
+
+      @Override
+      public <T> T decode(InputStream stream, Type type) {
+        streamDecodes.incrementAndGet();
+        return JacksonMapper.INSTANCE.decode(stream, type);
+      }
+
+      @Override
+      public <T> IncrementalJsonDecoder<T> incrementalDecoder(Type type) {
+        return JacksonMapper.INSTANCE.incrementalDecoder(type);
+      }
+    };
+
+    var resource = ResourceDetails.create(this.createClient(mapper)).resourceId(2).exec().orTimeout(10, TimeUnit.SECONDS).join();
+    Assertions.assertEquals("test", resource.name());
+    Assertions.assertEquals(0, streamDecodes.get());
+  }
+
+  @Test
+  void testMapperWithoutIncrementalSupport() {
+    var client = this.createClient(GsonMapper.INSTANCE);
+    var resource = ResourceDetails.create(client).resourceId(2).exec().orTimeout(10, TimeUnit.SECONDS).join();
+    Assertions.assertEquals("test", resource.name());
+  }
+
+  @Test
+  void testErrorResponseIsNotDecoded() {
+    var client = this.createClient(JacksonMapper.INSTANCE);
+    var exception = Assertions.assertThrows(
+      CompletionException.class,
+      () -> ResourceDetails.create(client).resourceId(404).exec().orTimeout(10, TimeUnit.SECONDS).join());
+    var notFound = Assertions.assertInstanceOf(SpigetNotFoundException.class, exception.getCause());
+    Assertions.assertEquals(RESOURCE, notFound.bodyExcerpt());
+  }
+
+  @Test
+  void testMalformedResponseFails() {
+    var client = this.createClient(JacksonMapper.INSTANCE);
+    var exception = Assertions.assertThrows(
+      CompletionException.class,
+      () -> ResourceDetails.create(client).resourceId(1).exec().orTimeout(10, TimeUnit.SECONDS).join());
+    Assertions.assertInstanceOf(IllegalStateException.class, exception.getCause());
+  }
+}
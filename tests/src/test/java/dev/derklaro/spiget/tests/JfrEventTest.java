@@ -0,0 +1,92 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.tests;
+
+import dev.derklaro.spiget.SpigetClientConfig;
+import dev.derklaro.spiget.jfr.JfrEventListenerFactory;
+import dev.derklaro.spiget.mapper.gson.GsonMapper;
+import dev.derklaro.spiget.request.resource.ResourceDetails;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+final class JfrEventTest {
+
+  private static final String RESOURCE = "{\"id\": 2, \"name\": \"test\"}";
+  private static final String EVENT_NAME = "dev.derklaro.spiget.Request";
+
+  private static RecordedEvent findByUri(List<RecordedEvent> events, String uri) {
+    return events.stream().filter(event -> uri.equals(event.getString("uri"))).findFirst().orElseThrow();
+  }
+
+  @Test
+  void testEventsAreRecorded(@TempDir Path tempDir) throws IOException {
+    var config = SpigetClientConfig.create(GsonMapper.INSTANCE).eventListenerFactory(JfrEventListenerFactory.instance());
+    var client = new StubSpigetClient(config, RESOURCE);
+
+    // requests sent without a recording are not tracked
+    ResourceDetails.create(client).resourceId(1).exec().join();
+
+    var file = tempDir.resolve("spiget.jfr");
+    try (var recording = new Recording()) {
+      recording.enable(EVENT_NAME);
+      recording.start();
+
+      ResourceDetails.create(client).resourceId(2).exec().join();
+      client.statusCode(404);
+      Assertions.assertThrows(CompletionException.class, () -> ResourceDetails.create(client).resourceId(3).exec().join());
+
+      recording.stop();
+      recording.dump(file);
+    }
+
+    var events = RecordingFile.readAllEvents(file).stream()
+      .filter(event -> event.getEventType().getName().equals(EVENT_NAME))
+      .collect(Collectors.toList());
+    Assertions.assertEquals(2, events.size());
+
+    // the events are not necessarily ordered
+    RecordedEvent success = findByUri(events, "https://api.spiget.org/v2/resources/2");
+    Assertions.assertEquals("ResourceDetails", success.getString("requestType"));
+    Assertions.assertEquals("resources/{0}", success.getString("endpoint"));
+    Assertions.assertEquals(200, success.getInt("statusCode"));
+    Assertions.assertEquals(RESOURCE.length(), success.getLong("bytesReceived"));
+    Assertions.assertEquals(1, success.getInt("attempts"));
+    Assertions.assertFalse(success.getBoolean("cacheHit"));
+    Assertions.assertNull(success.getString("failure"));
+
+    RecordedEvent failure = findByUri(events, "https://api.spiget.org/v2/resources/3");
+    Assertions.assertEquals(404, failure.getInt("statusCode"));
+    Assertions.assertTrue(failure.getString("failure").contains("SpigetNotFoundException"));
+  }
+}
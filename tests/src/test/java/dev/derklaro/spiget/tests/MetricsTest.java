@@ -0,0 +1,105 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.tests;
+
+import dev.derklaro.spiget.SpigetClientConfig;
+import dev.derklaro.spiget.mapper.gson.GsonMapper;
+import dev.derklaro.spiget.metrics.InMemorySpigetMetrics;
+import dev.derklaro.spiget.metrics.LatencyHistogram;
+import dev.derklaro.spiget.request.resource.ResourceDetails;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+final class MetricsTest {
+
+  private static final String RESOURCE = "{\"id\": 2, \"name\": \"test\"}";
+
+  @Test
+  void testHistogramPercentiles() {
+    var histogram = new LatencyHistogram();
+    for (var i = 1; i <= 1000; i++) {
+      histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+    }
+
+    var snapshot = histogram.snapshot();
+    Assertions.assertEquals(1000, snapshot.count());
+    Assertions.assertEquals(TimeUnit.MICROSECONDS.toNanos(1000), snapshot.max());
+    Assertions.assertEquals(500_500, snapshot.mean(), 0.1);
+
+    // the recorded values are accurate to about 3%
+    Assertions.assertEquals(500_000, snapshot.percentile(0.5), 500_000 * 0.04);
+    Assertions.assertEquals(990_000, snapshot.percentile(0.99), 990_000 * 0.04);
+    Assertions.assertEquals(1_000_000, snapshot.percentile(1));
+  }
+
+  @Test
+  void testHistogramClampsValues() {
+    var histogram = new LatencyHistogram();
+    histogram.record(-5);
+    histogram.record(TimeUnit.HOURS.toNanos(1));
+
+    var snapshot = histogram.snapshot();
+    Assertions.assertEquals(2, snapshot.count());
+    Assertions.assertEquals(0, snapshot.percentile(0.5));
+  }
+
+  @Test
+  void testRequestsAreRecorded() {
+    var metrics = InMemorySpigetMetrics.create();
+    var client = new StubSpigetClient(SpigetClientConfig.create(GsonMapper.INSTANCE).metrics(metrics), RESOURCE);
+
+    ResourceDetails.create(client).resourceId(2).exec().join();
+    ResourceDetails.create(client).resourceId(2).exec().join();
+    client.statusCode(404);
+    Assertions.assertThrows(CompletionException.class, () -> ResourceDetails.create(client).resourceId(2).exec().join());
+    client.failNextRequests(1);
+    Assertions.assertThrows(CompletionException.class, () -> ResourceDetails.create(client).resourceId(2).exec().join());
+
+    var snapshot = metrics.snapshot().get(ResourceDetails.class);
+    Assertions.assertEquals(0, snapshot.inFlight());
+    Assertions.assertEquals(1, snapshot.failures());
+    Assertions.assertEquals(Map.of(200, 2L, 404, 1L), snapshot.statusCounts());
+    Assertions.assertEquals(4, snapshot.latency().count());
+    Assertions.assertEquals(2, snapshot.decodeTime().count());
+    Assertions.assertEquals(2L * RESOURCE.length(), snapshot.bytesReceived());
+  }
+
+  @Test
+  void testInFlightRequestsAreTracked() {
+    var metrics = InMemorySpigetMetrics.create();
+    var client = new StubSpigetClient(SpigetClientConfig.create(GsonMapper.INSTANCE).metrics(metrics), RESOURCE);
+
+    client.holdResponses();
+    var future = ResourceDetails.create(client).resourceId(2).exec();
+    Assertions.assertEquals(1, metrics.snapshot().get(ResourceDetails.class).inFlight());
+
+    client.releaseResponses();
+    future.join();
+    Assertions.assertEquals(0, metrics.snapshot().get(ResourceDetails.class).inFlight());
+  }
+}
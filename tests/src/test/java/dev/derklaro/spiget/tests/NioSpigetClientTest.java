@@ -0,0 +1,288 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.tests;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+import dev.derklaro.spiget.SpigetClientConfig;
+import dev.derklaro.spiget.http.nio.NioHttpConfig;
+import dev.derklaro.spiget.http.nio.NioSpigetClient;
+import dev.derklaro.spiget.mapper.gson.GsonMapper;
+import dev.derklaro.spiget.model.Resource;
+import dev.derklaro.spiget.request.resource.ResourceDetails;
+import dev.derklaro.spiget.request.resource.ResourceDownload;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLHandshakeException;
+import javax.net.ssl.TrustManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+final class NioSpigetClientTest {
+
+  private static final int DOWNLOAD_SIZE = 8 * 1024 * 1024;
+  private static final String RESOURCE = "{\"id\": %s, \"name\": \"test\"}";
+
+  private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+  private final CountDownLatch stalledResponses = new CountDownLatch(1);
+  private HttpsServer server;
+  private SSLContext sslContext;
+
+  private static SSLContext createSslContext() throws Exception {
+    var keyStore = KeyStore.getInstance("PKCS12");
+    try (var stream = NioSpigetClientTest.class.getClassLoader().getResourceAsStream("tls/localhost.p12")) {
+      keyStore.load(stream, "changeit".toCharArray());
+    }
+
+    // the self-signed certificate is used by the server and trusted by the client
+    var keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+    keyManagers.init(keyStore, "changeit".toCharArray());
+    var trustManagers = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+    trustManagers.init(keyStore);
+
+    var sslContext = SSLContext.getInstance("TLS");
+    sslContext.init(keyManagers.getKeyManagers(), trustManagers.getTrustManagers(), null);
+    return sslContext;
+  }
+
+  private static void respond(HttpExchange exchange, int status, byte[] body, boolean chunked) throws IOException {
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, chunked ? 0 : body.length);
+    try (var stream = exchange.getResponseBody()) {
+      stream.write(body);
+    }
+  }
+
+  @BeforeEach
+  void startServer() throws Exception {
+    this.sslContext = createSslContext();
+    this.server = HttpsServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    this.server.setHttpsConfigurator(new HttpsConfigurator(this.sslContext));
+    this.server.createContext("/v2/resources/", this::handle);
+    this.server.setExecutor(Executors.newFixedThreadPool(8));
+    this.server.start();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    this.clientPorts.add(exchange.getRemoteAddress().getPort());
+
+    var path = exchange.getRequestURI().getPath();
+    var id = path.substring(path.lastIndexOf('/') + 1);
+    if (path.endsWith("/download")) {
+      // much larger than the client buffers, the client must pause reading
+      exchange.sendResponseHeaders(200, 0);
+      try (var body = exchange.getResponseBody()) {
+        var chunk = new byte[8192];
+        for (int i = 0; i < DOWNLOAD_SIZE / chunk.length; i++) {
+          body.write(chunk);
+        }
+      } catch (IOException ignored) {
+        // the client aborted the download
+      }
+    } else if (id.equals("408")) {
+      try {
+        this.stalledResponses.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+      }
+      respond(exchange, 200, String.format(RESOURCE, id).getBytes(StandardCharsets.UTF_8), false);
+    } else if (id.equals("301")) {
+      exchange.getResponseHeaders().add("Location", "/v2/resources/2");
+      respond(exchange, 301, new byte[0], false);
+    } else {
+      respond(exchange, 200, String.format(RESOURCE, id).getBytes(StandardCharsets.UTF_8), id.equals("3"));
+    }
+  }
+
+  @AfterEach
+  void stopServer() {
+    this.stalledResponses.countDown();
+    this.server.stop(0);
+  }
+
+  private NioSpigetClient createClient(NioHttpConfig httpConfig) {
+    return this.createClient(httpConfig, Duration.ofSeconds(25));
+  }
+
+  private NioSpigetClient createClient(NioHttpConfig httpConfig, Duration requestTimeout) {
+    var config = SpigetClientConfig.create(GsonMapper.INSTANCE)
+      .baseUrl("https://localhost:" + this.server.getAddress().getPort() + "/v2/")
+      .requestTimeout(requestTimeout);
+    return new NioSpigetClient(config, httpConfig);
+  }
+
+  private NioSpigetClient createClient(int maxConnections) {
+    return this.createClient(NioHttpConfig.create().sslContext(this.sslContext).maxConnectionsPerRoute(maxConnections));
+  }
+
+  @Test
+  void testKeepAliveConnectionIsReused() {
+    var client = this.createClient(4);
+    for (int i = 0; i < 20; i++) {
+      var resource = ResourceDetails.create(client).resourceId(i).exec().orTimeout(10, TimeUnit.SECONDS).join();
+      Assertions.assertEquals(i, resource.id());
+    }
+    Assertions.assertEquals(1, this.clientPorts.size());
+  }
+
+  @Test
+  void testChunkedResponse() {
+    var client = this.createClient(4);
+    var resource = ResourceDetails.create(client).resourceId(3).exec().orTimeout(10, TimeUnit.SECONDS).join();
+    Assertions.assertEquals(3, resource.id());
+    Assertions.assertEquals("test", resource.name());
+  }
+
+  @Test
+  void testConcurrentRequestsAreLimitedPerRoute() {
+    var client = this.createClient(4);
+
+    var futures = new CompletableFuture<?>[50];
+    for (int i = 0; i < futures.length; i++) {
+      futures[i] = ResourceDetails.create(client).resourceId(i).exec();
+    }
+    CompletableFuture.allOf(futures).orTimeout(10, TimeUnit.SECONDS).join();
+
+    for (int i = 0; i < futures.length; i++) {
+      Assertions.assertEquals(i, ((Resource) futures[i].join()).id());
+    }
+    Assertions.assertTrue(this.clientPorts.size() <= 4, "Opened " + this.clientPorts.size() + " connections");
+  }
+
+  @Test
+  void testLargeBodyIsStreamed() throws IOException {
+    var client = this.createClient(1);
+    try (InputStream stream = ResourceDownload.create(client).resourceId(2).exec().orTimeout(10, TimeUnit.SECONDS).join()) {
+      Assertions.assertEquals(DOWNLOAD_SIZE, stream.readAllBytes().length);
+    }
+
+    // the connection was returned to the pool after the body was read
+    var resource = ResourceDetails.create(client).resourceId(2).exec().orTimeout(10, TimeUnit.SECONDS).join();
+    Assertions.assertEquals(2, resource.id());
+    Assertions.assertEquals(1, this.clientPorts.size());
+  }
+
+  @Test
+  void testClosedBodyReleasesConnection() throws IOException {
+    var client = this.createClient(1);
+    for (int i = 0; i < 3; i++) {
+      try (InputStream stream = ResourceDownload.create(client).resourceId(i).exec().orTimeout(10, TimeUnit.SECONDS).join()) {
+        Assertions.assertEquals(1024, stream.readNBytes(1024).length);
+      }
+    }
+
+    var resource = ResourceDetails.create(client).resourceId(2).exec().orTimeout(10, TimeUnit.SECONDS).join();
+    Assertions.assertEquals(2, resource.id());
+  }
+
+  @Test
+  void testRedirectIsFollowed() {
+    var client = this.createClient(4);
+    var resource = ResourceDetails.create(client).resourceId(301).exec().orTimeout(10, TimeUnit.SECONDS).join();
+    Assertions.assertEquals(2, resource.id());
+  }
+
+  @Test
+  void testPlainHttp() throws IOException {
+    var plainServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    plainServer.createContext("/v2/resources/", this::handle);
+    plainServer.start();
+    try {
+      var config = SpigetClientConfig.create(GsonMapper.INSTANCE)
+        .baseUrl("http://127.0.0.1:" + plainServer.getAddress().getPort() + "/v2/");
+      var client = new NioSpigetClient(config);
+
+      Assertions.assertEquals(2, ResourceDetails.create(client).resourceId(2).exec().orTimeout(10, TimeUnit.SECONDS).join().id());
+      Assertions.assertEquals(3, ResourceDetails.create(client).resourceId(3).exec().orTimeout(10, TimeUnit.SECONDS).join().id());
+      Assertions.assertEquals(1, this.clientPorts.size());
+    } finally {
+      plainServer.stop(0);
+    }
+  }
+
+  @Test
+  void testQueuedRequestTimesOut() throws Exception {
+    var httpConfig = NioHttpConfig.create().sslContext(this.sslContext).maxConnectionsPerRoute(1);
+    try (var client = this.createClient(httpConfig, Duration.ofMillis(500))) {
+      ResourceDetails.create(client).resourceId(408).exec();
+
+      // the only connection is busy, the request must not wait for it longer than the request timeout
+      var queued = ResourceDetails.create(client).resourceId(2).exec();
+      var exception = Assertions.assertThrows(CompletionException.class, () -> queued.orTimeout(5, TimeUnit.SECONDS).join());
+      Assertions.assertTrue(hasCause(exception, SocketTimeoutException.class), () -> "Unexpected failure " + exception);
+    }
+  }
+
+  @Test
+  void testCloseFailsPendingRequests() throws Exception {
+    var client = this.createClient(1);
+    Assertions.assertEquals(2, ResourceDetails.create(client).resourceId(2).exec().orTimeout(10, TimeUnit.SECONDS).join().id());
+
+    var stalled = ResourceDetails.create(client).resourceId(408).exec();
+    client.close();
+
+    var exception = Assertions.assertThrows(CompletionException.class, () -> stalled.orTimeout(5, TimeUnit.SECONDS).join());
+    Assertions.assertTrue(hasCause(exception, IOException.class), () -> "Unexpected failure " + exception);
+    Assertions.assertThrows(
+      CompletionException.class,
+      () -> ResourceDetails.create(client).resourceId(2).exec().orTimeout(5, TimeUnit.SECONDS).join());
+  }
+
+  @Test
+  void testUntrustedCertificateIsRejected() {
+    var client = this.createClient(NioHttpConfig.create());
+    var exception = Assertions.assertThrows(
+      CompletionException.class,
+      () -> ResourceDetails.create(client).resourceId(2).exec().orTimeout(10, TimeUnit.SECONDS).join());
+    Assertions.assertTrue(hasCause(exception, SSLHandshakeException.class), () -> "Unexpected failure " + exception);
+  }
+
+  private static boolean hasCause(Throwable throwable, Class<? extends Throwable> type) {
+    for (var cause = throwable; cause != null; cause = cause.getCause()) {
+      if (type.isInstance(cause)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,255 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.tests;
+
+import com.sun.net.httpserver.HttpServer;
+import dev.derklaro.spiget.SpigetClientConfig;
+import dev.derklaro.spiget.http.SpigetNotFoundException;
+import dev.derklaro.spiget.http.java11.Java11SpigetClient;
+import dev.derklaro.spiget.mapper.gson.GsonMapper;
+import dev.derklaro.spiget.model.Resource;
+import dev.derklaro.spiget.paging.CrawlConfig;
+import dev.derklaro.spiget.paging.Page;
+import dev.derklaro.spiget.paging.PageCrawler;
+import dev.derklaro.spiget.request.resource.ResourceList;
+import dev.derklaro.spiget.resilience.RetryPolicy;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+final class PageCrawlerTest {
+
+  private final List<Integer> requestedPages = new CopyOnWriteArrayList<>();
+  private final Map<Integer, AtomicInteger> failuresLeft = new ConcurrentHashMap<>();
+  private final AtomicInteger activeRequests = new AtomicInteger();
+  private final AtomicInteger maxActiveRequests = new AtomicInteger();
+
+  private volatile int totalItems = 1000;
+  private volatile boolean sendPageHeaders = true;
+  private volatile int failureStatus = 503;
+  private volatile int maxDelayMillis = 20;
+
+  private HttpServer server;
+  private ExecutorService serverExecutor;
+  private Java11SpigetClient client;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    this.serverExecutor = Executors.newCachedThreadPool();
+    this.server.setExecutor(this.serverExecutor);
+    this.server.createContext("/", exchange -> {
+      int active = this.activeRequests.incrementAndGet();
+      this.maxActiveRequests.accumulateAndGet(active, Math::max);
+      try {
+        Map<String, String> query = new HashMap<>();
+        for (String part : exchange.getRequestURI().getQuery().split("&")) {
+          String[] pair = part.split("=", 2);
+          query.put(pair[0], pair.length == 2 ? pair[1] : "");
+        }
+
+        int size = Integer.parseInt(query.get("size"));
+        int page = Integer.parseInt(query.get("page"));
+        this.requestedPages.add(page);
+
+        // pages are received in a random order
+        Thread.sleep(ThreadLocalRandom.current().nextInt(this.maxDelayMillis + 1));
+
+        AtomicInteger failures = this.failuresLeft.get(page);
+        int status = failures != null && failures.getAndDecrement() > 0 ? this.failureStatus : 200;
+
+        String body = IntStream.rangeClosed((page - 1) * size + 1, Math.min(page * size, this.totalItems))
+          .mapToObj(id -> "{\"id\": " + id + ", \"name\": \"resource " + id + "\"}")
+          .collect(Collectors.joining(",", "[", "]"));
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+
+        if (this.sendPageHeaders) {
+          exchange.getResponseHeaders().add("X-Page-Index", Integer.toString(page));
+          exchange.getResponseHeaders().add("X-Page-Size", Integer.toString(size));
+          exchange.getResponseHeaders().add("X-Page-Count", Integer.toString((this.totalItems + size - 1) / size));
+        }
+
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+          out.write(bytes);
+        }
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+      } finally {
+        this.activeRequests.decrementAndGet();
+      }
+    });
+    this.server.start();
+
+    SpigetClientConfig config = SpigetClientConfig.create(GsonMapper.INSTANCE)
+      .baseUrl("http://127.0.0.1:" + this.server.getAddress().getPort() + "/");
+    this.client = new Java11SpigetClient(config);
+  }
+
+  @AfterEach
+  void stopServer() {
+    this.server.stop(0);
+    this.serverExecutor.shutdownNow();
+  }
+
+  private static CrawlConfig config() {
+    return CrawlConfig.create()
+      .pageSize(10)
+      .retryPolicy(RetryPolicy.create().initialBackoff(Duration.ofMillis(1)).maxBackoff(Duration.ofMillis(5)));
+  }
+
+  private static List<Integer> ids(List<Page<Resource>> pages) {
+    return pages.stream()
+      .flatMap(page -> page.items().stream())
+      .map(Resource::id)
+      .collect(Collectors.toList());
+  }
+
+  private static List<Integer> sortedIds(List<Page<Resource>> pages) {
+    return ids(pages).stream().sorted().collect(Collectors.toList());
+  }
+
+  private static List<Integer> range(int from, int to) {
+    return IntStream.rangeClosed(from, to).boxed().collect(Collectors.toList());
+  }
+
+  @Test
+  void testCrawlRequestsAllPagesConcurrently() {
+    List<Page<Resource>> pages = new ArrayList<>();
+    PageCrawler.crawl(ResourceList.create(this.client), config().concurrency(8), pages::add)
+      .orTimeout(30, TimeUnit.SECONDS)
+      .join();
+
+    Assertions.assertEquals(range(1, 1000), sortedIds(pages));
+    // the page count is known from the first page, no page is requested twice or after the last page
+    Assertions.assertEquals(range(1, 100), new ArrayList<>(new TreeSet<>(this.requestedPages)));
+    Assertions.assertEquals(100, this.requestedPages.size());
+    Assertions.assertTrue(this.maxActiveRequests.get() > 1);
+    Assertions.assertTrue(this.maxActiveRequests.get() <= 8, "active: " + this.maxActiveRequests.get());
+  }
+
+  @Test
+  void testOrderedCrawlEmitsPagesInOrder() {
+    List<Page<Resource>> pages = new ArrayList<>();
+    PageCrawler.crawl(ResourceList.create(this.client).page(3), config().ordered(true), pages::add)
+      .orTimeout(30, TimeUnit.SECONDS)
+      .join();
+
+    Assertions.assertEquals(range(21, 1000), ids(pages));
+    Assertions.assertTrue(this.maxActiveRequests.get() > 1);
+  }
+
+  @Test
+  void testOrderedCrawlBoundsBufferedPages() {
+    this.maxDelayMillis = 50;
+    Set<Integer> emittedPages = ConcurrentHashMap.newKeySet();
+    List<Integer> heldPages = new CopyOnWriteArrayList<>();
+    CrawlConfig config = config().ordered(true).concurrency(8).maxBufferedPages(4);
+
+    PageCrawler.crawl(ResourceList.create(this.client), config, page -> {
+      // the pages which were requested but not passed to the sink yet, including this page
+      heldPages.add(this.requestedPages.size() - emittedPages.size());
+      emittedPages.add(page.pageIndex());
+    }).orTimeout(30, TimeUnit.SECONDS).join();
+
+    Assertions.assertEquals(100, emittedPages.size());
+    Assertions.assertTrue(heldPages.stream().allMatch(held -> held <= 5), heldPages.toString());
+  }
+
+  @Test
+  void testCrawlWithoutPaginationInfo() {
+    this.sendPageHeaders = false;
+    this.totalItems = 95;
+
+    List<Page<Resource>> pages = new ArrayList<>();
+    PageCrawler.crawl(ResourceList.create(this.client), config().ordered(true).concurrency(4), pages::add)
+      .orTimeout(30, TimeUnit.SECONDS)
+      .join();
+
+    Assertions.assertEquals(range(1, 95), ids(pages));
+    // pages after the last one might have been requested before the end was known
+    Assertions.assertTrue(this.requestedPages.size() <= 10 + 4, this.requestedPages.toString());
+  }
+
+  @Test
+  void testFailedPagesAreRetried() {
+    this.failuresLeft.put(1, new AtomicInteger(1));
+    this.failuresLeft.put(7, new AtomicInteger(2));
+
+    List<Page<Resource>> pages = new ArrayList<>();
+    PageCrawler.crawl(ResourceList.create(this.client), config().ordered(true), pages::add)
+      .orTimeout(30, TimeUnit.SECONDS)
+      .join();
+
+    Assertions.assertEquals(range(1, 1000), ids(pages));
+    Assertions.assertEquals(103, this.requestedPages.size());
+  }
+
+  @Test
+  void testCrawlFailsOnNonRetryablePage() {
+    this.failureStatus = 404;
+    this.failuresLeft.put(5, new AtomicInteger(1));
+
+    var exception = Assertions.assertThrows(
+      CompletionException.class,
+      () -> PageCrawler.crawl(ResourceList.create(this.client), config(), page -> {
+      }).orTimeout(30, TimeUnit.SECONDS).join());
+    Assertions.assertInstanceOf(SpigetNotFoundException.class, exception.getCause());
+    Assertions.assertEquals(1, this.requestedPages.stream().filter(page -> page == 5).count());
+  }
+
+  @Test
+  void testThrowingSinkStopsCrawl() {
+    var exception = Assertions.assertThrows(
+      CompletionException.class,
+      () -> PageCrawler.crawl(ResourceList.create(this.client), config().concurrency(2), page -> {
+        throw new IllegalStateException("sink failed");
+      }).orTimeout(30, TimeUnit.SECONDS).join());
+    Assertions.assertInstanceOf(IllegalStateException.class, exception.getCause());
+    Assertions.assertTrue(this.requestedPages.size() < 100);
+  }
+}
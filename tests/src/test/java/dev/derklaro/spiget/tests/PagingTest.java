@@ -0,0 +1,278 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.tests;
+
+import com.sun.net.httpserver.HttpServer;
+import dev.derklaro.spiget.SpigetClientConfig;
+import dev.derklaro.spiget.flow.PagePublisher;
+import dev.derklaro.spiget.http.SpigetServerErrorException;
+import dev.derklaro.spiget.http.java11.Java11SpigetClient;
+import dev.derklaro.spiget.mapper.gson.GsonMapper;
+import dev.derklaro.spiget.model.Resource;
+import dev.derklaro.spiget.paging.Page;
+import dev.derklaro.spiget.paging.PageIterator;
+import dev.derklaro.spiget.request.resource.ResourceList;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+final class PagingTest {
+
+  private final List<Integer> requestedPages = new CopyOnWriteArrayList<>();
+  private volatile int totalItems = 25;
+  private volatile int failingPage = -1;
+  private volatile boolean sendPageHeaders;
+
+  private HttpServer server;
+  private Java11SpigetClient client;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    this.server.createContext("/", exchange -> {
+      Map<String, String> query = new HashMap<>();
+      for (String part : exchange.getRequestURI().getQuery().split("&")) {
+        String[] pair = part.split("=", 2);
+        query.put(pair[0], pair.length == 2 ? pair[1] : "");
+      }
+
+      int size = Integer.parseInt(query.get("size"));
+      int page = Integer.parseInt(query.get("page"));
+      this.requestedPages.add(page);
+
+      // the ids of the items are counted from 1 over all pages
+      String body = IntStream.rangeClosed((page - 1) * size + 1, Math.min(page * size, this.totalItems))
+        .mapToObj(id -> "{\"id\": " + id + ", \"name\": \"resource " + id + "\"}")
+        .collect(Collectors.joining(",", "[", "]"));
+      byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+
+      if (this.sendPageHeaders) {
+        int pageCount = (this.totalItems + size - 1) / size;
+        exchange.getResponseHeaders().add("X-Page-Index", Integer.toString(page));
+        exchange.getResponseHeaders().add("X-Page-Size", Integer.toString(size));
+        exchange.getResponseHeaders().add("X-Page-Count", Integer.toString(pageCount));
+      }
+
+      exchange.sendResponseHeaders(page == this.failingPage ? 500 : 200, bytes.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(bytes);
+      }
+    });
+    this.server.start();
+
+    SpigetClientConfig config = SpigetClientConfig.create(GsonMapper.INSTANCE)
+      .baseUrl("http://127.0.0.1:" + this.server.getAddress().getPort() + "/");
+    this.client = new Java11SpigetClient(config);
+  }
+
+  @AfterEach
+  void stopServer() {
+    this.server.stop(0);
+  }
+
+  private static List<Integer> ids(int from, int to) {
+    return IntStream.rangeClosed(from, to).boxed().collect(Collectors.toList());
+  }
+
+  @Test
+  void testIterationStopsAtLastPage() {
+    List<Integer> ids = new ArrayList<>();
+    PageIterator.of(ResourceList.create(this.client).size(10))
+      .forEachRemaining(resource -> ids.add(resource.id()))
+      .orTimeout(10, TimeUnit.SECONDS)
+      .join();
+
+    Assertions.assertEquals(ids(1, 25), ids);
+    Assertions.assertEquals(List.of(1, 2, 3), this.requestedPages);
+  }
+
+  @Test
+  void testFullLastPageIsFollowedByEmptyPage() {
+    this.totalItems = 20;
+    PageIterator<Resource> iterator = PageIterator.of(ResourceList.create(this.client).size(10).page(2));
+
+    List<Integer> ids = new ArrayList<>();
+    Resource resource;
+    while ((resource = iterator.next().orTimeout(10, TimeUnit.SECONDS).join()) != null) {
+      ids.add(resource.id());
+    }
+
+    Assertions.assertEquals(ids(11, 20), ids);
+    Assertions.assertEquals(List.of(2, 3), this.requestedPages);
+    Assertions.assertNull(iterator.nextPage().join());
+  }
+
+  @Test
+  void testPageExposesPaginationHeaders() {
+    this.sendPageHeaders = true;
+    Page<Resource> page = ResourceList.create(this.client).size(10).page(2).execPage()
+      .orTimeout(10, TimeUnit.SECONDS)
+      .join();
+
+    Assertions.assertEquals(ids(11, 20), page.items().stream().map(Resource::id).collect(Collectors.toList()));
+    Assertions.assertEquals(2, page.pageIndex());
+    Assertions.assertEquals(10, page.pageSize());
+    Assertions.assertEquals(3, page.pageCount());
+    Assertions.assertTrue(page.hasNextPage());
+  }
+
+  @Test
+  void testPageWithoutPaginationHeaders() {
+    Page<Resource> page = ResourceList.create(this.client).size(10).page(3).execPage()
+      .orTimeout(10, TimeUnit.SECONDS)
+      .join();
+
+    Assertions.assertEquals(5, page.items().size());
+    Assertions.assertEquals(Page.UNKNOWN, page.pageCount());
+    Assertions.assertFalse(page.pageCountKnown());
+  }
+
+  @Test
+  void testPageCountAvoidsEmptyPageRequest() {
+    this.totalItems = 20;
+    this.sendPageHeaders = true;
+
+    List<Integer> ids = new ArrayList<>();
+    PageIterator.of(ResourceList.create(this.client).size(10))
+      .forEachRemaining(resource -> ids.add(resource.id()))
+      .orTimeout(10, TimeUnit.SECONDS)
+      .join();
+
+    Assertions.assertEquals(ids(1, 20), ids);
+    Assertions.assertEquals(List.of(1, 2), this.requestedPages);
+  }
+
+  @Test
+  void testNextPageIsPrefetched() {
+    PageIterator<Resource> iterator = PageIterator.of(ResourceList.create(this.client).size(10));
+    Assertions.assertEquals(10, iterator.nextPage().orTimeout(10, TimeUnit.SECONDS).join().size());
+
+    // the second page is requested while the first one is consumed
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (this.requestedPages.size() < 2 && System.nanoTime() < deadline) {
+      Thread.onSpinWait();
+    }
+    Assertions.assertEquals(List.of(1, 2), this.requestedPages);
+    iterator.close();
+  }
+
+  @Test
+  void testPublisherHonoursBackpressure() throws Exception {
+    this.totalItems = 100;
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    PagePublisher.of(ResourceList.create(this.client).size(5)).subscribe(subscriber);
+
+    subscriber.subscription.request(7);
+    subscriber.awaitItems(7);
+
+    // the second page is being emitted, at most the third page is prefetched
+    Thread.sleep(200);
+    Assertions.assertEquals(ids(1, 7), subscriber.ids());
+    Assertions.assertTrue(this.requestedPages.size() <= 3, this.requestedPages.toString());
+
+    subscriber.subscription.request(Long.MAX_VALUE);
+    subscriber.completion.get(10, TimeUnit.SECONDS);
+    Assertions.assertEquals(ids(1, 100), subscriber.ids());
+  }
+
+  @Test
+  void testPublisherReportsFailedPage() {
+    this.failingPage = 2;
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    PagePublisher.of(ResourceList.create(this.client).size(10)).subscribe(subscriber);
+    subscriber.subscription.request(Long.MAX_VALUE);
+
+    var exception = Assertions.assertThrows(
+      CompletionException.class,
+      () -> subscriber.completion.orTimeout(10, TimeUnit.SECONDS).join());
+    Assertions.assertInstanceOf(SpigetServerErrorException.class, exception.getCause());
+    Assertions.assertEquals(ids(1, 10), subscriber.ids());
+  }
+
+  @Test
+  void testPublisherRejectsInvalidDemand() {
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    PagePublisher.of(ResourceList.create(this.client)).subscribe(subscriber);
+    subscriber.subscription.request(0);
+
+    var exception = Assertions.assertThrows(CompletionException.class, () -> subscriber.completion.join());
+    Assertions.assertInstanceOf(IllegalArgumentException.class, exception.getCause());
+    Assertions.assertTrue(this.requestedPages.isEmpty());
+  }
+
+  private static final class RecordingSubscriber implements Flow.Subscriber<Resource> {
+
+    private final List<Resource> items = new CopyOnWriteArrayList<>();
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private Flow.Subscription subscription;
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(Resource item) {
+      this.items.add(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      this.completion.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      this.completion.complete(null);
+    }
+
+    public List<Integer> ids() {
+      return this.items.stream().map(Resource::id).collect(Collectors.toList());
+    }
+
+    public void awaitItems(int count) throws InterruptedException {
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (this.items.size() < count && System.nanoTime() < deadline) {
+        Thread.sleep(5);
+      }
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.tests;
+
+import dev.derklaro.spiget.SpigetClientConfig;
+import dev.derklaro.spiget.mapper.gson.GsonMapper;
+import dev.derklaro.spiget.request.resource.ResourceDetails;
+import dev.derklaro.spiget.resilience.RateLimiter;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+final class RateLimiterTest {
+
+  private static final String RESOURCE = "{\"id\": 2, \"name\": \"test\"}";
+
+  @Test
+  void testBurstIsGrantedImmediately() {
+    var scheduler = Executors.newSingleThreadScheduledExecutor();
+    try {
+      var limiter = RateLimiter.create(1, 3);
+      for (var i = 0; i < 3; i++) {
+        Assertions.assertTrue(limiter.acquire(scheduler).isDone());
+      }
+
+      // the burst is used up, the next permit is available in about a second
+      var next = limiter.acquire(scheduler);
+      Assertions.assertFalse(next.isDone());
+      Assertions.assertDoesNotThrow(() -> next.get(5, TimeUnit.SECONDS));
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+
+  @Test
+  void testQueuedRequestsAreReleasedInOrder() {
+    var config = SpigetClientConfig.create(GsonMapper.INSTANCE).rateLimiter(RateLimiter.create(50, 1));
+    var client = new StubSpigetClient(config, RESOURCE);
+
+    var started = System.nanoTime();
+    for (var i = 0; i < 10; i++) {
+      ResourceDetails.create(client).resourceId(2).exec().join();
+    }
+
+    // one permit is available immediately, the other nine take 20 milliseconds each
+    Assertions.assertEquals(10, client.requestedUris().size());
+    Assertions.assertTrue(System.nanoTime() - started >= TimeUnit.MILLISECONDS.toNanos(150));
+  }
+
+  @Test
+  void testThrottledResponseShrinksRate() {
+    var limiter = RateLimiter.create(100, 10, 100);
+    var config = SpigetClientConfig.create(GsonMapper.INSTANCE).rateLimiter(limiter);
+    var client = new StubSpigetClient(config, RESOURCE);
+
+    client.statusCode(429);
+    Assertions.assertThrows(CompletionException.class, () -> ResourceDetails.create(client).resourceId(2).exec().join());
+    Assertions.assertEquals(50, limiter.currentPermitsPerSecond(), 0.001);
+
+    client.statusCode(503);
+    Assertions.assertThrows(CompletionException.class, () -> ResourceDetails.create(client).resourceId(2).exec().join());
+    Assertions.assertEquals(25, limiter.currentPermitsPerSecond(), 0.001);
+
+    // successful responses slowly restore the rate
+    client.statusCode(200);
+    ResourceDetails.create(client).resourceId(2).exec().join();
+    Assertions.assertEquals(26, limiter.currentPermitsPerSecond(), 0.001);
+  }
+
+  @Test
+  void testThrottledResponsesOfOneWindowShrinkRateOnce() {
+    var limiter = RateLimiter.create(100, 10, 100);
+
+    // both requests were in flight when the server got overloaded
+    var sentNanos = System.nanoTime();
+    limiter.onResponse(429, null, sentNanos);
+    limiter.onResponse(429, null, sentNanos);
+    Assertions.assertEquals(50, limiter.currentPermitsPerSecond(), 0.001);
+
+    // a request sent after the decrease starts a new window
+    limiter.onResponse(429, null, System.nanoTime());
+    Assertions.assertEquals(25, limiter.currentPermitsPerSecond(), 0.001);
+  }
+
+  @Test
+  void testQueuedPermitRespectsLaterPause() {
+    var scheduler = Executors.newSingleThreadScheduledExecutor();
+    try {
+      var limiter = RateLimiter.create(10, 1);
+      Assertions.assertTrue(limiter.acquire(scheduler).isDone());
+
+      // the queued permit would be available after 100 milliseconds, but the server requests a longer pause
+      var started = System.nanoTime();
+      var next = limiter.acquire(scheduler);
+      limiter.onResponse(429, Duration.ofMillis(500), started);
+      Assertions.assertDoesNotThrow(() -> next.get(5, TimeUnit.SECONDS));
+      Assertions.assertTrue(System.nanoTime() - started >= TimeUnit.MILLISECONDS.toNanos(450));
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+
+  @Test
+  void testRetryAfterPausesRequests() {
+    var limiter = RateLimiter.create(100, 100);
+    var config = SpigetClientConfig.create(GsonMapper.INSTANCE).rateLimiter(limiter);
+    var client = new StubSpigetClient(config, RESOURCE);
+
+    client.statusCode(429);
+    client.responseHeader("Retry-After", "1");
+    Assertions.assertThrows(CompletionException.class, () -> ResourceDetails.create(client).resourceId(2).exec().join());
+
+    // the next request must wait for the pause requested by the server
+    client.statusCode(200);
+    var started = System.nanoTime();
+    var future = ResourceDetails.create(client).resourceId(2).exec();
+    Assertions.assertFalse(future.isDone());
+    Assertions.assertEquals("test", future.join().name());
+    Assertions.assertTrue(System.nanoTime() - started >= TimeUnit.MILLISECONDS.toNanos(900));
+  }
+}
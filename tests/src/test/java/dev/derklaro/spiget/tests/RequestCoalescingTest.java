@@ -0,0 +1,108 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.tests;
+
+import dev.derklaro.spiget.SpigetClientConfig;
+import dev.derklaro.spiget.mapper.gson.GsonMapper;
+import dev.derklaro.spiget.request.resource.ResourceDetails;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+final class RequestCoalescingTest {
+
+  private static final String RESOURCE = "{\"id\": 2, \"name\": \"test\"}";
+
+  @Test
+  void testConcurrentRequestsAreCoalesced() {
+    var client = new StubSpigetClient(SpigetClientConfig.create(GsonMapper.INSTANCE).coalesceRequests(true), RESOURCE);
+    client.holdResponses();
+
+    var first = ResourceDetails.create(client).resourceId(2).exec();
+    var second = ResourceDetails.create(client).resourceId(2).exec();
+    var other = ResourceDetails.create(client).resourceId(3).exec();
+    Assertions.assertEquals(2, client.requestedUris().size());
+
+    client.releaseResponses();
+    Assertions.assertEquals(2, first.join().id());
+    Assertions.assertEquals(2, second.join().id());
+    Assertions.assertEquals(2, other.join().id());
+
+    // the request is no longer in flight, a new one must be sent
+    ResourceDetails.create(client).resourceId(2).exec().join();
+    Assertions.assertEquals(3, client.requestedUris().size());
+  }
+
+  @Test
+  void testCancellationIsPerCaller() {
+    var client = new StubSpigetClient(SpigetClientConfig.create(GsonMapper.INSTANCE).coalesceRequests(true), RESOURCE);
+    client.holdResponses();
+
+    var first = ResourceDetails.create(client).resourceId(2).exec();
+    var second = ResourceDetails.create(client).resourceId(2).exec();
+    first.cancel(false);
+
+    client.releaseResponses();
+    Assertions.assertTrue(first.isCancelled());
+    Assertions.assertEquals(2, second.join().id());
+    Assertions.assertEquals(1, client.requestedUris().size());
+  }
+
+  @Test
+  void testLastCancelledCallerAbortsRequest() {
+    var client = new StubSpigetClient(SpigetClientConfig.create(GsonMapper.INSTANCE).coalesceRequests(true), RESOURCE);
+    client.stallNextRequests(1);
+
+    var first = ResourceDetails.create(client).resourceId(2).exec();
+    var second = ResourceDetails.create(client).resourceId(2).exec();
+    Assertions.assertEquals(1, client.stalledResponses().size());
+
+    first.cancel(false);
+    Assertions.assertFalse(client.stalledResponses().get(0).isCancelled());
+
+    // the transport request is cancelled once no caller is waiting for it
+    second.cancel(false);
+    Assertions.assertTrue(client.stalledResponses().get(0).isCancelled());
+  }
+
+  @Test
+  void testCancelledCallAbortsRequest() {
+    var client = new StubSpigetClient(RESOURCE);
+    client.stallNextRequests(1);
+
+    var call = ResourceDetails.create(client).resourceId(2).exec();
+    call.cancel(false);
+    Assertions.assertTrue(client.stalledResponses().get(0).isCancelled());
+  }
+
+  @Test
+  void testRequestsAreNotCoalescedByDefault() {
+    var client = new StubSpigetClient(RESOURCE);
+    client.holdResponses();
+
+    ResourceDetails.create(client).resourceId(2).exec();
+    ResourceDetails.create(client).resourceId(2).exec();
+    Assertions.assertEquals(2, client.requestedUris().size());
+  }
+}
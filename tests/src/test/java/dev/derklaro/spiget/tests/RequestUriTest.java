@@ -0,0 +1,128 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.tests;
+
+import dev.derklaro.spiget.Request;
+import dev.derklaro.spiget.SpigetClient;
+import dev.derklaro.spiget.annotation.ExcludeQuery;
+import dev.derklaro.spiget.annotation.RequestData;
+import dev.derklaro.spiget.annotation.SerializedName;
+import dev.derklaro.spiget.client.RequestDescriptor;
+import dev.derklaro.spiget.data.Sort;
+import dev.derklaro.spiget.model.Status;
+import dev.derklaro.spiget.model.Version;
+import dev.derklaro.spiget.request.author.AuthorList;
+import dev.derklaro.spiget.request.resource.ResourceSearch;
+import dev.derklaro.spiget.request.resource.ResourceVersion;
+import dev.derklaro.spiget.request.status.ApiStatus;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+final class RequestUriTest {
+
+  @Test
+  void testUriWithoutParameters() {
+    var client = new StubSpigetClient("{}");
+    ApiStatus.create(client).exec().join();
+
+    Assertions.assertEquals("https://api.spiget.org/v2/status", client.requestedUris().get(0));
+  }
+
+  @Test
+  void testUriWithPathParameters() {
+    var client = new StubSpigetClient("{}");
+    ResourceVersion.create(client).resourceId(19254).versionId(429596).exec().join();
+
+    Assertions.assertEquals("https://api.spiget.org/v2/resources/19254/versions/429596", client.requestedUris().get(0));
+  }
+
+  @Test
+  void testUriWithQueryParameters() {
+    var client = new StubSpigetClient("[]");
+    AuthorList.create(client).size(5).page(7).sort(Sort.of("name", Sort.Order.ASC)).fields(Set.of("name")).exec().join();
+
+    Assertions.assertEquals(
+      "https://api.spiget.org/v2/authors?size=5&page=7&sort=+name&fields=name",
+      client.requestedUris().get(0));
+  }
+
+  @Test
+  void testUriWithPathAndQueryParameters() {
+    var client = new StubSpigetClient("[]");
+    ResourceSearch.create(client).query("CloudNet").field("name").size(6).fields(Set.of()).exec().join();
+
+    Assertions.assertEquals(
+      "https://api.spiget.org/v2/search/resources/CloudNet?field=name&size=6&page=0",
+      client.requestedUris().get(0));
+  }
+
+  @Test
+  void testGeneratedDescriptorsArePresent() {
+    var descriptor = ServiceLoader.load(RequestDescriptor.class).stream()
+      .map(ServiceLoader.Provider::get)
+      .filter(provider -> provider.requestType() == ResourceVersion.class)
+      .findFirst()
+      .orElse(null);
+    Assertions.assertNotNull(descriptor);
+    Assertions.assertEquals(Version.class, descriptor.responseType());
+    Assertions.assertEquals("resources/{0}/versions/{1}", descriptor.uri());
+  }
+
+  @Test
+  void testUriOfRequestWithoutGeneratedDescriptor() {
+    var client = new StubSpigetClient("{}");
+    new CustomRequest(client, 12, List.of("a", "b"), "abc").exec().join();
+
+    Assertions.assertEquals("https://api.spiget.org/v2/custom/12?renamed=a,b&text=abc", client.requestedUris().get(0));
+  }
+
+  @RequestData(uri = "custom/{0}", method = "GET")
+  static final class CustomRequest implements Request<Status> {
+
+    private final transient SpigetClient client;
+
+    @ExcludeQuery
+    private final int id;
+    @SerializedName("renamed")
+    private final List<String> values;
+    private final String text;
+
+    CustomRequest(SpigetClient client, int id, List<String> values, String text) {
+      this.client = client;
+      this.id = id;
+      this.values = values;
+      this.text = text;
+    }
+
+    @Override
+    public CompletableFuture<Status> exec() {
+      return this.client.sendRequest(this, this.id);
+    }
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.tests;
+
+import dev.derklaro.spiget.SpigetClientConfig;
+import dev.derklaro.spiget.client.AbstractSpigetClient;
+import dev.derklaro.spiget.http.ResponseBody;
+import dev.derklaro.spiget.http.SpigetHttpResponse;
+import dev.derklaro.spiget.mapper.gson.GsonMapper;
+import dev.derklaro.spiget.request.resource.ResourceDetails;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+final class ResponseBodyTest {
+
+  private static ByteBuffer buffer(String content) {
+    return ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void testChunksAreHandedOutWithoutCopying() throws IOException {
+    ByteBuffer first = buffer("hello ");
+    ByteBuffer second = buffer("world");
+    ResponseBody body = ResponseBody.ofBuffers(List.of(first, second));
+    Assertions.assertEquals(11, body.contentLength());
+
+    // the same chunk is returned until all of its bytes were consumed
+    Assertions.assertSame(first, body.nextChunk());
+    first.position(3);
+    Assertions.assertSame(first, body.nextChunk());
+
+    // the stream continues where the chunk was left
+    byte[] rest = body.stream().readAllBytes();
+    Assertions.assertEquals("lo world", new String(rest, StandardCharsets.UTF_8));
+    Assertions.assertNull(body.nextChunk());
+  }
+
+  @Test
+  void testChannelReadsAcrossChunks() throws IOException {
+    ResponseBody body = ResponseBody.ofBuffers(List.of(buffer("abc"), buffer("defgh")));
+    ReadableByteChannel channel = body.channel();
+
+    ByteBuffer target = ByteBuffer.allocate(4);
+    Assertions.assertEquals(3, channel.read(target));
+    Assertions.assertEquals(1, channel.read(target));
+    target.flip();
+    Assertions.assertEquals("abcd", StandardCharsets.UTF_8.decode(target).toString());
+
+    target.clear();
+    Assertions.assertEquals(4, channel.read(target));
+    Assertions.assertEquals(-1, channel.read(target));
+
+    channel.close();
+    Assertions.assertFalse(channel.isOpen());
+    Assertions.assertThrows(ClosedChannelException.class, () -> channel.read(ByteBuffer.allocate(1)));
+  }
+
+  @Test
+  void testReleaseClosesTheStream() throws IOException {
+    AtomicReference<Boolean> closed = new AtomicReference<>(false);
+    InputStream stream = new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)) {
+      @Override
+      public void close() {
+        closed.set(true);
+      }
+    };
+
+    SpigetHttpResponse response = SpigetHttpResponse.of(200, Map.of("content-length", List.of("2")), stream);
+    Assertions.assertEquals(2, response.body().contentLength());
+
+    response.close();
+    Assertions.assertTrue(closed.get());
+    Assertions.assertThrows(IOException.class, () -> response.body().nextChunk());
+
+    // releasing the body twice has no effect
+    response.body().release();
+  }
+
+  @Test
+  void testLegacyTransportMethod() {
+    AtomicReference<String> requestedUri = new AtomicReference<>();
+    AbstractSpigetClient client = new AbstractSpigetClient(SpigetClientConfig.create(GsonMapper.INSTANCE)) {
+      @Override
+      @SuppressWarnings("deprecation")
+      protected CompletableFuture<InputStream> doSendRequest(
+        String body,
+        String uri,
+        String contentType,
+        String requestMethod
+      ) {
+        requestedUri.set(uri);
+        return CompletableFuture.completedFuture(
+          new ByteArrayInputStream("{\"id\": 2, \"name\": \"test\"}".getBytes(StandardCharsets.UTF_8)));
+      }
+    };
+
+    var resource = ResourceDetails.create(client).resourceId(2).exec().join();
+    Assertions.assertEquals("test", resource.name());
+    Assertions.assertTrue(requestedUri.get().endsWith("resources/2"));
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.tests;
+
+import dev.derklaro.spiget.SpigetClientConfig;
+import dev.derklaro.spiget.cache.CachedResponse;
+import dev.derklaro.spiget.cache.InMemoryResponseCache;
+import dev.derklaro.spiget.cache.TieredResponseCache;
+import dev.derklaro.spiget.mapper.gson.GsonMapper;
+import dev.derklaro.spiget.request.resource.ResourceDetails;
+import dev.derklaro.spiget.request.webhook.WebhookStatus;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+final class ResponseCacheTest {
+
+  private static final String RESOURCE = "{\"id\": 2, \"name\": \"test\"}";
+
+  @Test
+  void testCacheableResponseIsCached() {
+    var cache = InMemoryResponseCache.create(100, 1024 * 1024);
+    var client = new StubSpigetClient(SpigetClientConfig.create(GsonMapper.INSTANCE).responseCache(cache), RESOURCE);
+
+    Assertions.assertEquals("test", ResourceDetails.create(client).resourceId(2).exec().join().name());
+    Assertions.assertEquals("test", ResourceDetails.create(client).resourceId(2).exec().join().name());
+    Assertions.assertEquals(1, client.requestedUris().size());
+
+    var stats = cache.stats();
+    Assertions.assertEquals(1, stats.hitCount());
+    Assertions.assertEquals(1, stats.missCount());
+    Assertions.assertEquals(1, stats.entryCount());
+    Assertions.assertEquals(RESOURCE.length(), stats.weight());
+  }
+
+  @Test
+  void testUncacheableResponseIsNotCached() {
+    var cache = InMemoryResponseCache.create(100, 1024 * 1024);
+    var client = new StubSpigetClient(SpigetClientConfig.create(GsonMapper.INSTANCE).responseCache(cache), "{}");
+
+    WebhookStatus.create(client).hookId("abc").exec().join();
+    WebhookStatus.create(client).hookId("abc").exec().join();
+    Assertions.assertEquals(2, client.requestedUris().size());
+    Assertions.assertEquals(0, cache.stats().entryCount());
+  }
+
+  @Test
+  void testConfiguredTtlOverridesAnnotation() {
+    var cache = InMemoryResponseCache.create(100, 1024 * 1024);
+    var config = SpigetClientConfig.create(GsonMapper.INSTANCE)
+      .responseCache(cache)
+      .cacheTtls(Map.of(ResourceDetails.class, Duration.ZERO));
+    var client = new StubSpigetClient(config, RESOURCE);
+
+    ResourceDetails.create(client).resourceId(2).exec().join();
+    ResourceDetails.create(client).resourceId(2).exec().join();
+    Assertions.assertEquals(2, client.requestedUris().size());
+  }
+
+  @Test
+  void testLeastRecentlyUsedEntryIsEvicted() {
+    var cache = InMemoryResponseCache.create(2, 1024);
+    cache.put("a", CachedResponse.withTtl(new byte[10], 60_000));
+    cache.put("b", CachedResponse.withTtl(new byte[10], 60_000));
+    Assertions.assertNotNull(cache.get("a"));
+
+    cache.put("c", CachedResponse.withTtl(new byte[10], 60_000));
+    Assertions.assertNull(cache.get("b"));
+    Assertions.assertNotNull(cache.get("a"));
+    Assertions.assertNotNull(cache.get("c"));
+    Assertions.assertEquals(1, cache.stats().evictionCount());
+  }
+
+  @Test
+  void testEntriesAreEvictedByWeight() {
+    var cache = InMemoryResponseCache.create(10, 25);
+    cache.put("a", CachedResponse.withTtl(new byte[10], 60_000));
+    cache.put("b", CachedResponse.withTtl(new byte[10], 60_000));
+    cache.put("c", CachedResponse.withTtl(new byte[10], 60_000));
+
+    Assertions.assertNull(cache.get("a"));
+    Assertions.assertEquals(20, cache.stats().weight());
+  }
+
+  @Test
+  void testLargeEntryIsCached() {
+    // the weight is shared by all segments of the cache
+    var cache = InMemoryResponseCache.create(100, 1000);
+    cache.put("a", CachedResponse.withTtl(new byte[600], 60_000));
+    Assertions.assertNotNull(cache.get("a"));
+
+    cache.put("b", CachedResponse.withTtl(new byte[600], 60_000));
+    Assertions.assertNull(cache.get("a"));
+    Assertions.assertNotNull(cache.get("b"));
+    Assertions.assertEquals(600, cache.stats().weight());
+
+    // entries heavier than the whole cache are never stored
+    cache.put("c", CachedResponse.withTtl(new byte[1001], 60_000));
+    Assertions.assertNull(cache.get("c"));
+  }
+
+  @Test
+  void testExpiredFirstTierEntryFallsThrough() {
+    var first = InMemoryResponseCache.create(10, 1024);
+    var second = InMemoryResponseCache.create(10, 1024);
+    var cache = TieredResponseCache.of(first, second);
+    first.put("a", CachedResponse.of(new byte[1], System.currentTimeMillis() - 1, "\"v1\"", null));
+    second.put("a", CachedResponse.withTtl(new byte[2], 60_000, "\"v2\"", null));
+
+    // the fresh second tier response is served and promoted
+    Assertions.assertEquals("\"v2\"", cache.get("a").etag());
+    Assertions.assertEquals("\"v2\"", first.get("a").etag());
+
+    // an expired response is still returned for revalidation if no tier has a fresh one
+    first.put("b", CachedResponse.of(new byte[1], System.currentTimeMillis() - 1, "\"v1\"", null));
+    Assertions.assertEquals("\"v1\"", cache.get("b").etag());
+  }
+
+  @Test
+  void testExpiredEntryIsRemoved() {
+    var cache = InMemoryResponseCache.create(10, 1024);
+    cache.put("a", CachedResponse.of(new byte[10], System.currentTimeMillis() - 1, null, null));
+
+    Assertions.assertNull(cache.get("a"));
+    Assertions.assertEquals(1, cache.stats().expirationCount());
+    Assertions.assertEquals(0, cache.stats().entryCount());
+  }
+
+  @Test
+  void testExpiredResponseIsRevalidated() {
+    var cache = InMemoryResponseCache.create(100, 1024 * 1024);
+    var client = new StubSpigetClient(SpigetClientConfig.create(GsonMapper.INSTANCE).responseCache(cache), RESOURCE);
+    client.etag("\"v1\"");
+
+    // store an expired response with the same validator
+    var uri = "https://api.spiget.org/v2/resources/2";
+    var body = RESOURCE.getBytes(StandardCharsets.UTF_8);
+    cache.put(uri, CachedResponse.of(body, System.currentTimeMillis() - 1, "\"v1\"", null));
+
+    Assertions.assertEquals("test", ResourceDetails.create(client).resourceId(2).exec().join().name());
+    Assertions.assertEquals("\"v1\"", client.requests().get(0).headers().get("If-None-Match"));
+
+    // the revalidated response is fresh again
+    var revalidated = cache.get(uri);
+    Assertions.assertNotNull(revalidated);
+    Assertions.assertFalse(revalidated.expired(System.currentTimeMillis()));
+    Assertions.assertSame(body, revalidated.body());
+  }
+
+  @Test
+  void testChangedResponseReplacesStoredResponse() {
+    var cache = InMemoryResponseCache.create(100, 1024 * 1024);
+    var client = new StubSpigetClient(SpigetClientConfig.create(GsonMapper.INSTANCE).responseCache(cache), RESOURCE);
+    client.etag("\"v2\"");
+
+    var uri = "https://api.spiget.org/v2/resources/2";
+    cache.put(uri, CachedResponse.of("{}".getBytes(StandardCharsets.UTF_8), System.currentTimeMillis() - 1, "\"v1\"", null));
+
+    Assertions.assertEquals("test", ResourceDetails.create(client).resourceId(2).exec().join().name());
+    Assertions.assertEquals("\"v2\"", cache.get(uri).etag());
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.tests;
+
+import dev.derklaro.spiget.SpigetClientConfig;
+import dev.derklaro.spiget.mapper.gson.GsonMapper;
+import dev.derklaro.spiget.request.resource.ResourceDetails;
+import dev.derklaro.spiget.request.webhook.RegisterWebhook;
+import dev.derklaro.spiget.resilience.RetryBudget;
+import dev.derklaro.spiget.resilience.RetryPolicy;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+final class RetryPolicyTest {
+
+  private static final String RESOURCE = "{\"id\": 2, \"name\": \"test\"}";
+
+  private static StubSpigetClient newClient(RetryPolicy retryPolicy) {
+    return new StubSpigetClient(SpigetClientConfig.create(GsonMapper.INSTANCE).retryPolicy(retryPolicy), RESOURCE);
+  }
+
+  private static RetryPolicy fastRetries() {
+    return RetryPolicy.create().initialBackoff(Duration.ofMillis(1)).maxBackoff(Duration.ofMillis(5));
+  }
+
+  @Test
+  void testServerErrorsAreRetried() {
+    var client = newClient(fastRetries());
+    client.queueStatusCodes(503, 500);
+
+    Assertions.assertEquals("test", ResourceDetails.create(client).resourceId(2).exec().join().name());
+    Assertions.assertEquals(3, client.requestedUris().size());
+  }
+
+  @Test
+  void testConnectFailuresAreRetried() {
+    var client = newClient(fastRetries());
+    client.failNextRequests(2);
+
+    Assertions.assertEquals("test", ResourceDetails.create(client).resourceId(2).exec().join().name());
+    Assertions.assertEquals(3, client.requestedUris().size());
+  }
+
+  @Test
+  void testAttemptsAreLimited() {
+    var client = newClient(fastRetries().maxAttempts(2));
+    client.statusCode(502);
+
+    Assertions.assertThrows(CompletionException.class, () -> ResourceDetails.create(client).resourceId(2).exec().join());
+    Assertions.assertEquals(2, client.requestedUris().size());
+  }
+
+  @Test
+  void testClientErrorsAreNotRetried() {
+    var client = newClient(fastRetries());
+    client.statusCode(404);
+
+    Assertions.assertThrows(CompletionException.class, () -> ResourceDetails.create(client).resourceId(2).exec().join());
+    Assertions.assertEquals(1, client.requestedUris().size());
+  }
+
+  @Test
+  void testRegisterWebhookIsNeverRetried() {
+    var client = newClient(fastRetries().retryableMethods(Set.of("GET", "POST")));
+    client.statusCode(503);
+
+    Assertions.assertThrows(
+      CompletionException.class,
+      () -> RegisterWebhook.create(client).url("https://example.com").events(Set.of("resource-update")).exec().join());
+    Assertions.assertEquals(1, client.requestedUris().size());
+  }
+
+  @Test
+  void testRetryBudgetPreventsRetryStorms() {
+    var client = newClient(fastRetries().maxAttempts(10).retryBudget(RetryBudget.create(0.1, 2)));
+    client.statusCode(503);
+
+    // the first request uses up the reserve, the following requests earn only 0.1 retries each
+    Assertions.assertThrows(CompletionException.class, () -> ResourceDetails.create(client).resourceId(2).exec().join());
+    Assertions.assertEquals(3, client.requestedUris().size());
+    for (var i = 0; i < 5; i++) {
+      Assertions.assertThrows(CompletionException.class, () -> ResourceDetails.create(client).resourceId(2).exec().join());
+    }
+    Assertions.assertEquals(8, client.requestedUris().size());
+  }
+
+  @Test
+  void testBackoffIsBoundedAndRespectsRetryAfter() {
+    var policy = RetryPolicy.create().initialBackoff(Duration.ofMillis(100)).maxBackoff(Duration.ofSeconds(1));
+    for (var attempt = 1; attempt < 100; attempt++) {
+      var backoff = policy.backoff(attempt, null);
+      Assertions.assertFalse(backoff.isNegative());
+      Assertions.assertTrue(backoff.compareTo(Duration.ofSeconds(1)) <= 0);
+    }
+    Assertions.assertTrue(policy.backoff(1, null).compareTo(Duration.ofMillis(100)) <= 0);
+    Assertions.assertEquals(Duration.ofSeconds(1), policy.backoff(1, Duration.ofSeconds(1)));
+    Assertions.assertTrue(policy.retryableAfter(Duration.ofSeconds(1)));
+    Assertions.assertFalse(policy.retryableAfter(Duration.ofSeconds(5)));
+  }
+
+  @Test
+  void testLongRetryAfterIsNotRetried() {
+    var client = newClient(fastRetries());
+    client.statusCode(429);
+    client.responseHeader("Retry-After", "3600");
+
+    // the server asks to wait an hour, the rate limit is reported to the caller instead
+    Assertions.assertThrows(CompletionException.class, () -> ResourceDetails.create(client).resourceId(2).exec().join());
+    Assertions.assertEquals(1, client.requestedUris().size());
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.tests;
+
+import dev.derklaro.spiget.SpigetClientConfig;
+import dev.derklaro.spiget.client.AbstractSpigetClient;
+import dev.derklaro.spiget.http.SpigetHttpRequest;
+import dev.derklaro.spiget.http.SpigetHttpResponse;
+import dev.derklaro.spiget.mapper.gson.GsonMapper;
+import java.io.ByteArrayInputStream;
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class StubSpigetClient extends AbstractSpigetClient {
+
+  private final String responseBody;
+  private final List<SpigetHttpRequest> requests = new CopyOnWriteArrayList<>();
+  private final List<String> requestedUris = new CopyOnWriteArrayList<>();
+  private final List<Runnable> heldResponses = new CopyOnWriteArrayList<>();
+  private final Map<String, List<String>> responseHeaders = new ConcurrentHashMap<>();
+  private final Queue<Integer> queuedStatusCodes = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger failingRequests = new AtomicInteger();
+  private final AtomicInteger stallingRequests = new AtomicInteger();
+  private final List<CompletableFuture<SpigetHttpResponse>> stalledResponses = new CopyOnWriteArrayList<>();
+
+  private volatile String etag;
+  private volatile int statusCode = 200;
+  private volatile boolean holdResponses;
+
+  StubSpigetClient(String responseBody) {
+    this(SpigetClientConfig.create(GsonMapper.INSTANCE), responseBody);
+  }
+
+  StubSpigetClient(SpigetClientConfig clientConfig, String responseBody) {
+    super(clientConfig);
+    this.responseBody = responseBody;
+  }
+
+  public List<SpigetHttpRequest> requests() {
+    return this.requests;
+  }
+
+  public List<String> requestedUris() {
+    return this.requestedUris;
+  }
+
+  public void etag(String etag) {
+    this.etag = etag;
+  }
+
+  public void statusCode(int statusCode) {
+    this.statusCode = statusCode;
+  }
+
+  public void queueStatusCodes(Integer... statusCodes) {
+    this.queuedStatusCodes.addAll(List.of(statusCodes));
+  }
+
+  public void failNextRequests(int count) {
+    this.failingRequests.set(count);
+  }
+
+  public void stallNextRequests(int count) {
+    this.stallingRequests.set(count);
+  }
+
+  public List<CompletableFuture<SpigetHttpResponse>> stalledResponses() {
+    return this.stalledResponses;
+  }
+
+  public void responseHeader(String name, String value) {
+    this.responseHeaders.put(name, List.of(value));
+  }
+
+  public void holdResponses() {
+    this.holdResponses = true;
+  }
+
+  public void releaseResponses() {
+    this.holdResponses = false;
+    this.heldResponses.forEach(Runnable::run);
+    this.heldResponses.clear();
+  }
+
+  @Override
+  protected CompletableFuture<SpigetHttpResponse> doSendRequest(SpigetHttpRequest request) {
+    this.requests.add(request);
+    this.requestedUris.add(request.uri());
+
+    var response = new CompletableFuture<SpigetHttpResponse>();
+    if (this.failingRequests.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+      response.completeExceptionally(new ConnectException("Connection refused"));
+    } else if (this.stallingRequests.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+      // never completed unless cancelled
+      this.stalledResponses.add(response);
+    } else if (this.holdResponses) {
+      this.heldResponses.add(() -> response.complete(this.newResponse(request)));
+    } else {
+      response.complete(this.newResponse(request));
+    }
+    return response;
+  }
+
+  private SpigetHttpResponse newResponse(SpigetHttpRequest request) {
+    var etag = this.etag;
+    var queuedStatusCode = this.queuedStatusCodes.poll();
+    var statusCode = queuedStatusCode == null ? this.statusCode : queuedStatusCode;
+    var headers = new HashMap<>(this.responseHeaders);
+    if (etag == null) {
+      return SpigetHttpResponse.of(statusCode, headers, this.newResponseStream());
+    }
+
+    // emulate a server supporting conditional requests
+    headers.put("ETag", List.of(etag));
+    if (etag.equals(request.headers().get("If-None-Match"))) {
+      return SpigetHttpResponse.of(304, headers, null);
+    }
+    return SpigetHttpResponse.of(statusCode, headers, this.newResponseStream());
+  }
+
+  private ByteArrayInputStream newResponseStream() {
+    return new ByteArrayInputStream(this.responseBody.getBytes(StandardCharsets.UTF_8));
+  }
+}
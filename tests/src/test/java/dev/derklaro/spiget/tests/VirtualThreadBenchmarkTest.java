@@ -0,0 +1,116 @@
+/*
+ * This file is part of spiget-java-client, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package dev.derklaro.spiget.tests;
+
+import com.sun.net.httpserver.HttpServer;
+import dev.derklaro.spiget.SpigetClientConfig;
+import dev.derklaro.spiget.client.SpigetExecutors;
+import dev.derklaro.spiget.http.java8.Java8SpigetClient;
+import dev.derklaro.spiget.mapper.gson.GsonMapper;
+import dev.derklaro.spiget.model.Resource;
+import dev.derklaro.spiget.request.resource.ResourceDetails;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+// run with -Dspiget.benchmark=true, compares the blocking transport on platform and virtual threads
+@EnabledIfSystemProperty(named = "spiget.benchmark", matches = "true")
+final class VirtualThreadBenchmarkTest {
+
+  private static final int[] CONCURRENCY_LEVELS = {1_000, 5_000, 10_000};
+  private static final byte[] RESOURCE = "{\"id\": 2, \"name\": \"test\"}".getBytes(StandardCharsets.UTF_8);
+
+  private static HttpServer server;
+  private static ScheduledExecutorService responder;
+
+  @BeforeAll
+  static void startServer() throws Exception {
+    // simulates an upstream latency of 20ms without blocking a server thread for each request
+    responder = Executors.newScheduledThreadPool(4);
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 16_384);
+    server.createContext("/", exchange -> responder.schedule(() -> {
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, RESOURCE.length);
+      exchange.getResponseBody().write(RESOURCE);
+      exchange.close();
+      return null;
+    }, 20, TimeUnit.MILLISECONDS));
+    server.setExecutor(Executors.newFixedThreadPool(4));
+    server.start();
+  }
+
+  @AfterAll
+  static void stopServer() {
+    server.stop(0);
+    responder.shutdownNow();
+  }
+
+  @Test
+  void benchmarkPlatformThreads() {
+    for (int concurrency : CONCURRENCY_LEVELS) {
+      this.runBenchmark("platform", SpigetExecutors.sharedIoExecutor(), concurrency);
+    }
+  }
+
+  @Test
+  void benchmarkVirtualThreads() {
+    Assumptions.assumeTrue(SpigetExecutors.virtualThreadsSupported(), "virtual threads are not supported");
+    for (int concurrency : CONCURRENCY_LEVELS) {
+      this.runBenchmark("virtual", SpigetExecutors.sharedVirtualThreadIoExecutor(), concurrency);
+    }
+  }
+
+  private void runBenchmark(String mode, ExecutorService ioExecutor, int concurrency) {
+    var config = SpigetClientConfig.create(GsonMapper.INSTANCE)
+      .baseUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/")
+      .ioExecutor(ioExecutor);
+    var client = new Java8SpigetClient(config);
+
+    var startNanos = System.nanoTime();
+    var futures = new CompletableFuture<?>[concurrency];
+    for (int i = 0; i < concurrency; i++) {
+      futures[i] = ResourceDetails.create(client).resourceId(i).exec();
+    }
+    CompletableFuture.allOf(futures).join();
+
+    var elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    System.out.printf(
+      "%s threads, %d concurrent requests: %d ms, %.1f req/s, %d live threads%n",
+      mode, concurrency, elapsedMillis, concurrency * 1000D / Math.max(1, elapsedMillis), Thread.activeCount());
+    for (var future : futures) {
+      Assertions.assertEquals("test", ((Resource) future.join()).name());
+    }
+  }
+}